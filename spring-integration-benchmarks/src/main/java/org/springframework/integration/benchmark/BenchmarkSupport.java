@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.config.EnableIntegration;
+
+/**
+ * Utilities shared by the benchmarks: a minimal integration application context
+ * and bean initialization for the components under test.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public final class BenchmarkSupport {
+
+	private BenchmarkSupport() {
+		super();
+	}
+
+	/**
+	 * Create and refresh an application context with the integration infrastructure
+	 * (task scheduler, message builder factory, datatype converter etc.) registered.
+	 * @return the context.
+	 */
+	public static AnnotationConfigApplicationContext createContext() {
+		return new AnnotationConfigApplicationContext(BenchmarkConfiguration.class);
+	}
+
+	/**
+	 * Initialize the bean as if it was declared in the context; the bean factory is
+	 * injected and {@code afterPropertiesSet()} is invoked.
+	 * @param context the context.
+	 * @param bean the bean.
+	 * @param name the bean name.
+	 * @param <T> the bean type.
+	 * @return the initialized bean.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T initialize(AnnotationConfigApplicationContext context, T bean, String name) {
+		return (T) context.getAutowireCapableBeanFactory().initializeBean(bean, name);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class BenchmarkConfiguration {
+
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.channel.AbstractMessageChannel;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.FixedSubscriberChannel;
+import org.springframework.integration.channel.PriorityChannel;
+import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Measures {@code MessageChannel.send()} for each of the channel implementations,
+ * optionally with an interceptor, full statistics, message history or datatype
+ * conversion enabled.
+ * <p>
+ * Pollable channels are drained in the same operation so the queue size stays constant;
+ * the {@link FixedSubscriberChannel} does not support any of the optional features and
+ * only provides the baseline figure.
+ * <p>
+ * To see what a channel hop allocates beyond the message, run with the GC profiler and
+ * compare {@code gc.alloc.rate.norm} (bytes per operation) between features, for
+ * example {@code interceptor} and {@code history} against {@code none}:
+ * <pre class="code">
+ * ./gradlew :spring-integration-benchmarks:jmh \
+ *     -PjmhArgs='ChannelSendBenchmark -p channelType=direct -p feature=none,interceptor,history -prof gc'
+ * </pre>
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelSendBenchmark {
+
+	@Param({ "direct", "executor", "queue", "priority", "ringBuffer", "publishSubscribe", "fixedSubscriber" })
+	public String channelType;
+
+	@Param({ "none", "interceptor", "metrics", "history", "datatype" })
+	public String feature;
+
+	private final MessageHandler handler = new MessageHandler() {
+
+		@Override
+		public void handleMessage(Message<?> message) throws MessagingException {
+		}
+
+	};
+
+	private AnnotationConfigApplicationContext context;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private MessageChannel channel;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		this.channel = BenchmarkSupport.initialize(this.context, createChannel(), "benchmarkChannel");
+		if (this.channel instanceof SubscribableChannel && !(this.channel instanceof FixedSubscriberChannel)) {
+			((SubscribableChannel) this.channel).subscribe(this.handler);
+		}
+		Object payload = "datatype".equals(this.feature) ? (Object) 42 : "foo";
+		this.message = MessageBuilder.withPayload(payload)
+				.setHeader("foo", "bar")
+				.build();
+	}
+
+	private MessageChannel createChannel() {
+		AbstractMessageChannel channel;
+		switch (this.channelType) {
+			case "direct":
+				channel = new DirectChannel();
+				break;
+			case "executor":
+				this.executor = new ThreadPoolTaskExecutor();
+				this.executor.setCorePoolSize(4);
+				this.executor.setQueueCapacity(1000);
+				this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+				this.executor.initialize();
+				channel = new ExecutorChannel(this.executor);
+				break;
+			case "queue":
+				channel = new QueueChannel();
+				break;
+			case "priority":
+				channel = new PriorityChannel();
+				break;
+			case "ringBuffer":
+				channel = new RingBufferChannel(1024);
+				break;
+			case "publishSubscribe":
+				channel = new PublishSubscribeChannel();
+				break;
+			case "fixedSubscriber":
+				return new FixedSubscriberChannel(this.handler);
+			default:
+				throw new IllegalArgumentException("Unknown channel type: " + this.channelType);
+		}
+		switch (this.feature) {
+			case "interceptor":
+				channel.addInterceptor(new ChannelInterceptorAdapter() { });
+				break;
+			case "metrics":
+				channel.setCountsEnabled(true);
+				channel.setStatsEnabled(true);
+				break;
+			case "history":
+				channel.setShouldTrack(true);
+				break;
+			case "datatype":
+				channel.setDatatypes(String.class);
+				break;
+			default:
+		}
+		return channel;
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+		this.context.close();
+	}
+
+	@Benchmark
+	public Object send() {
+		boolean sent = this.channel.send(this.message);
+		if (this.channel instanceof PollableChannel) {
+			return ((PollableChannel) this.channel).receive(0);
+		}
+		return sent;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.channel.AbstractSubscribableChannel;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.gateway.GatewayProxyFactoryBean;
+import org.springframework.integration.gateway.RequestReplyExchanger;
+import org.springframework.integration.handler.BridgeHandler;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Measures a request/reply round trip through a {@link RequestReplyExchanger} gateway
+ * proxy; the request channel is either a {@link DirectChannel} (reply on the caller's
+ * thread) or an {@link ExecutorChannel} (reply handed back across threads).
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayBenchmark {
+
+	@Param({ "direct", "executor" })
+	public String requestChannelType;
+
+	private AnnotationConfigApplicationContext context;
+
+	private ThreadPoolTaskExecutor executor;
+
+	private GatewayProxyFactoryBean gatewayProxyFactoryBean;
+
+	private RequestReplyExchanger gateway;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() throws Exception {
+		this.context = BenchmarkSupport.createContext();
+		AbstractSubscribableChannel requestChannel;
+		if ("executor".equals(this.requestChannelType)) {
+			this.executor = new ThreadPoolTaskExecutor();
+			this.executor.setCorePoolSize(4);
+			this.executor.initialize();
+			requestChannel = new ExecutorChannel(this.executor);
+		}
+		else {
+			requestChannel = new DirectChannel();
+		}
+		requestChannel = BenchmarkSupport.initialize(this.context, requestChannel, "requestChannel");
+		requestChannel.subscribe(BenchmarkSupport.initialize(this.context, new BridgeHandler(), "bridge"));
+		GatewayProxyFactoryBean gatewayProxyFactoryBean = new GatewayProxyFactoryBean(RequestReplyExchanger.class);
+		gatewayProxyFactoryBean.setDefaultRequestChannel(requestChannel);
+		this.gatewayProxyFactoryBean =
+				BenchmarkSupport.initialize(this.context, gatewayProxyFactoryBean, "benchmarkGateway");
+		this.gatewayProxyFactoryBean.start();
+		this.gateway = (RequestReplyExchanger) this.gatewayProxyFactoryBean.getObject();
+		this.message = MessageBuilder.withPayload("foo").build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.gatewayProxyFactoryBean.stop();
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+		this.context.close();
+	}
+
+	@Benchmark
+	public Message<?> exchange() {
+		return this.gateway.exchange(this.message);
+	}
+
+}
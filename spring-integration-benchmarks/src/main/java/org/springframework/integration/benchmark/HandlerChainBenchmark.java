@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.MessageHandlerChain;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.transformer.MessageTransformingHandler;
+import org.springframework.integration.transformer.Transformer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * Measures a {@link MessageHandlerChain} of header-enriching transformers; each
+ * handler builds a new message, as a typical transformer does.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerChainBenchmark {
+
+	@Param({ "1", "5", "10" })
+	public int handlers;
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageHandlerChain chain;
+
+	private QueueChannel output;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		List<MessageHandler> chainHandlers = new ArrayList<>();
+		for (int i = 0; i < this.handlers; i++) {
+			final String header = "header" + i;
+			chainHandlers.add(new MessageTransformingHandler(new Transformer() {
+
+				@Override
+				public Message<?> transform(Message<?> message) {
+					return MessageBuilder.fromMessage(message)
+							.setHeader(header, "value")
+							.build();
+				}
+
+			}));
+		}
+		MessageHandlerChain chain = new MessageHandlerChain();
+		chain.setHandlers(chainHandlers);
+		this.output = new QueueChannel();
+		chain.setOutputChannel(this.output);
+		this.chain = BenchmarkSupport.initialize(this.context, chain, "benchmarkChain");
+		this.message = MessageBuilder.withPayload("foo").build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public Message<?> handle() {
+		this.chain.handleMessage(this.message);
+		return this.output.receive(0);
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.DefaultMessageBuilderFactory;
+import org.springframework.integration.support.MessageBuilderFactory;
+import org.springframework.integration.support.SharedHeadersMessageBuilderFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Measures a chain of 10 transformers, each setting one header, with the default and
+ * the shared headers {@link MessageBuilderFactory}; run with {@code -prof gc} to
+ * compare the allocation per chain.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderChainBenchmark {
+
+	private static final int TRANSFORMERS = 10;
+
+	@Param({ "default", "shared" })
+	public String factory;
+
+	@Param({ "5", "20" })
+	public int headers;
+
+	private MessageBuilderFactory messageBuilderFactory;
+
+	private Message<?> message;
+
+	private String[] headerNames;
+
+	@Setup
+	public void setup() {
+		this.messageBuilderFactory = "shared".equals(this.factory)
+				? new SharedHeadersMessageBuilderFactory()
+				: new DefaultMessageBuilderFactory();
+		Map<String, Object> headers = new HashMap<>();
+		for (int i = 0; i < this.headers; i++) {
+			headers.put("header" + i, i);
+		}
+		this.message = new GenericMessage<>("foo", headers);
+		this.headerNames = new String[TRANSFORMERS];
+		for (int i = 0; i < TRANSFORMERS; i++) {
+			this.headerNames[i] = "step" + i;
+		}
+	}
+
+	@Benchmark
+	public Message<?> chain() {
+		Message<?> message = this.message;
+		for (String headerName : this.headerNames) {
+			message = this.messageBuilderFactory.fromMessage(message)
+					.setHeader(headerName, "value")
+					.build();
+		}
+		return message;
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.support.IdGenerators;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Measures {@link MessageBuilder#build()} from 32 threads with the default message id
+ * generation strategy of the {@link MessageHeaders}, {@code UUID.randomUUID()} and the
+ * {@link IdGenerators.TimeOrderedIdGenerator}.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class IdGeneratorBenchmark {
+
+	@Param({ "default", "jdk", "timeOrdered" })
+	public String generator;
+
+	private Field idGeneratorField;
+
+	@Setup
+	public void setup() {
+		IdGenerator idGenerator = null;
+		if ("jdk".equals(this.generator)) {
+			idGenerator = new JdkIdGenerator();
+		}
+		else if ("timeOrdered".equals(this.generator)) {
+			idGenerator = new IdGenerators.TimeOrderedIdGenerator();
+		}
+		this.idGeneratorField = ReflectionUtils.findField(MessageHeaders.class, "idGenerator");
+		ReflectionUtils.makeAccessible(this.idGeneratorField);
+		ReflectionUtils.setField(this.idGeneratorField, null, idGenerator);
+	}
+
+	@TearDown
+	public void tearDown() {
+		ReflectionUtils.setField(this.idGeneratorField, null, null);
+	}
+
+	@Benchmark
+	public Message<?> build() {
+		return MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+	}
+
+}
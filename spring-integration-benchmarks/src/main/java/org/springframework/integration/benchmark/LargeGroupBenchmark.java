@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.aggregator.AbstractCorrelatingMessageHandler;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.aggregator.ResequencingMessageGroupProcessor;
+import org.springframework.integration.aggregator.ResequencingMessageHandler;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures the correlation of a single group of {@code parts} messages: an aggregator
+ * receiving the parts in order, or a resequencer releasing partial sequences and
+ * receiving them in reverse order, so that nothing is released before the last message.
+ * Each message is checked for a duplicate sequence number and against the release
+ * strategy, which must not scan the group.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LargeGroupBenchmark {
+
+	private static final String GROUP_ID = "largeGroup";
+
+	@Param({ "10000", "100000" })
+	public int parts;
+
+	@Param({ "aggregator", "resequencer" })
+	public String handlerType;
+
+	private AnnotationConfigApplicationContext context;
+
+	private SimpleMessageStore messageStore;
+
+	private AbstractCorrelatingMessageHandler handler;
+
+	private QueueChannel output;
+
+	private List<Message<?>> messages;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		this.output = new QueueChannel();
+		this.messageStore = new SimpleMessageStore();
+		boolean resequencer = "resequencer".equals(this.handlerType);
+		AbstractCorrelatingMessageHandler handler;
+		if (resequencer) {
+			handler = new ResequencingMessageHandler(new ResequencingMessageGroupProcessor(), this.messageStore);
+			handler.setReleasePartialSequences(true);
+		}
+		else {
+			handler = new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor(), this.messageStore);
+			handler.setExpireGroupsUponCompletion(true);
+		}
+		handler.setOutputChannel(this.output);
+		this.handler = BenchmarkSupport.initialize(this.context, handler, "benchmarkHandler");
+		this.messages = new ArrayList<>(this.parts);
+		for (int i = 1; i <= this.parts; i++) {
+			int sequenceNumber = resequencer ? this.parts - i + 1 : i;
+			this.messages.add(MessageBuilder.withPayload(sequenceNumber)
+					.setCorrelationId(GROUP_ID)
+					.setSequenceNumber(sequenceNumber)
+					.setSequenceSize(this.parts)
+					.build());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public int correlate() {
+		for (Message<?> message : this.messages) {
+			this.handler.handleMessage(message);
+		}
+		this.messageStore.removeMessageGroup(GROUP_ID);
+		return this.output.clear().size();
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.integration.handler.MethodInvokingMessageProcessor;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
+
+/**
+ * Compares the ways a POJO service method is invoked for a message: the SpEL expression
+ * generated by the {@code MessagingMethodInvokerHelper} ({@code spel}), the same kind of
+ * expression compiled to bytecode by the SpEL compiler ({@code compiledSpel}) and the
+ * helper's default direct method handle invoker ({@code direct}).
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvocationBenchmark {
+
+	@Param({ "spel", "compiledSpel", "direct" })
+	public String invoker;
+
+	private AnnotationConfigApplicationContext context;
+
+	private MethodInvokingMessageProcessor<String> processor;
+
+	private Expression compiledExpression;
+
+	private StandardEvaluationContext evaluationContext;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		Service service = new Service();
+		if ("compiledSpel".equals(this.invoker)) {
+			SpelExpressionParser parser = new SpelExpressionParser(
+					new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+			this.compiledExpression = parser.parseExpression("#target.handle(payload, headers['foo'])");
+			this.evaluationContext = new StandardEvaluationContext();
+			this.evaluationContext.setVariable("target", service);
+		}
+		else {
+			MethodInvokingMessageProcessor<String> processor = new MethodInvokingMessageProcessor<>(service, "handle");
+			processor.setUseSpelInvoker("spel".equals(this.invoker));
+			this.processor = BenchmarkSupport.initialize(this.context, processor, "benchmarkProcessor");
+		}
+		this.message = MessageBuilder.withPayload("foo")
+				.setHeader("foo", "bar")
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public String invoke() {
+		if (this.processor != null) {
+			return this.processor.processMessage(this.message);
+		}
+		return this.compiledExpression.getValue(this.evaluationContext, this.message, String.class);
+	}
+
+	public static class Service {
+
+		public String handle(String payload, @Header("foo") String foo) {
+			return foo;
+		}
+
+	}
+
+}
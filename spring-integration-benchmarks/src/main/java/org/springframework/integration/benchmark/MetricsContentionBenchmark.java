@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.management.AggregatingMessageChannelMetrics;
+import org.springframework.integration.support.management.ConcurrentMessageChannelMetrics;
+import org.springframework.integration.support.management.DefaultMessageChannelMetrics;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Measures 16 threads sending to the same {@link DirectChannel} with statistics off,
+ * or with full statistics maintained by the default, aggregating or concurrent metrics.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class MetricsContentionBenchmark {
+
+	@Param({ "off", "default", "aggregating", "concurrent" })
+	public String metrics;
+
+	private AnnotationConfigApplicationContext context;
+
+	private DirectChannel channel;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		DirectChannel channel = new DirectChannel();
+		switch (this.metrics) {
+			case "default":
+				channel.configureMetrics(new DefaultMessageChannelMetrics("benchmarkChannel"));
+				break;
+			case "aggregating":
+				channel.configureMetrics(new AggregatingMessageChannelMetrics("benchmarkChannel", 1000));
+				break;
+			case "concurrent":
+				channel.configureMetrics(new ConcurrentMessageChannelMetrics("benchmarkChannel"));
+				break;
+			default:
+		}
+		if (!"off".equals(this.metrics)) {
+			channel.setCountsEnabled(true);
+			channel.setStatsEnabled(true);
+		}
+		this.channel = BenchmarkSupport.initialize(this.context, channel, "benchmarkChannel");
+		this.channel.subscribe(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+			}
+
+		});
+		this.message = MessageBuilder.withPayload("foo").build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public boolean send() {
+		return this.channel.send(this.message);
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.splitter.DefaultMessageSplitter;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Measures a split of a collection payload into {@code parts} messages followed by
+ * their re-aggregation (default correlation and sequence size release) on the
+ * caller's thread.
+ *
+ * @author agent
+ * @since 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitterAggregatorBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int parts;
+
+	private AnnotationConfigApplicationContext context;
+
+	private DefaultMessageSplitter splitter;
+
+	private QueueChannel output;
+
+	private Message<?> message;
+
+	@Setup
+	public void setup() {
+		this.context = BenchmarkSupport.createContext();
+		this.output = new QueueChannel();
+		AggregatingMessageHandler aggregator =
+				new AggregatingMessageHandler(new DefaultAggregatingMessageGroupProcessor());
+		aggregator.setOutputChannel(this.output);
+		aggregator.setExpireGroupsUponCompletion(true);
+		aggregator = BenchmarkSupport.initialize(this.context, aggregator, "benchmarkAggregator");
+		DirectChannel splitChannel = BenchmarkSupport.initialize(this.context, new DirectChannel(), "splitChannel");
+		splitChannel.subscribe(aggregator);
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setOutputChannel(splitChannel);
+		this.splitter = BenchmarkSupport.initialize(this.context, splitter, "benchmarkSplitter");
+		List<Integer> payload = new ArrayList<>(this.parts);
+		for (int i = 0; i < this.parts; i++) {
+			payload.add(i);
+		}
+		this.message = MessageBuilder.withPayload(payload).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public Message<?> splitAndAggregate() {
+		this.splitter.handleMessage(this.message);
+		return this.output.receive(0);
+	}
+
+}
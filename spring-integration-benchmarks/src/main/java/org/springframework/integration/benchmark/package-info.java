@@ -0,0 +1,7 @@
+/**
+ * JMH benchmarks for the Spring Integration core hot paths.
+ * <p>
+ * Run with {@code ./gradlew :spring-integration-benchmarks:jmh -PjmhArgs="ChannelSend -prof gc"};
+ * any standard JMH command line option can be passed through {@code jmhArgs}.
+ */
+package org.springframework.integration.benchmark;
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SequenceNumberIndex;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Base class for {@link MessageGroupProcessor}s that fold the messages of a group into
+ * an accumulator as they arrive, instead of aggregating the complete group on release.
+ * <p>
+ * When used with an {@link AggregatingMessageHandler}, the group in the
+ * {@link org.springframework.integration.store.MessageGroupStore} holds a single
+ * accumulator message (see {@link #accumulate(Collection, Message)}) in place of the
+ * individual messages, so the memory and store footprint of a group does not grow with
+ * the number of messages; the accumulator must therefore be serializable when a
+ * persistent store is used. The {@link ReleaseStrategy} sees a group whose size is the
+ * number of accumulated messages, but whose messages are not available individually.
+ * The sequence numbers of the folded messages are kept in the
+ * {@link #ACCUMULATED_SEQUENCE_NUMBERS} header of the accumulator, so that a
+ * sequence-aware handler still rejects duplicates.
+ * <p>
+ * The output message carries the headers of the first message of the group that are not
+ * contradicted by later messages.
+ * <p>
+ * When used with any other handler, the complete group is folded on release.
+ *
+ * @param <A> the accumulator type.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public abstract class AbstractAccumulatingMessageGroupProcessor<A> extends AbstractAggregatingMessageGroupProcessor {
+
+	/**
+	 * The header carrying the number of messages folded into an accumulator message;
+	 * it is removed from the output message.
+	 */
+	public static final String ACCUMULATED_COUNT = "aggregator_accumulatedCount";
+
+	/**
+	 * The header carrying the {@link SequenceNumberIndex} of the messages folded into an
+	 * accumulator message, if any of them has a sequence number; it is removed from the
+	 * output message.
+	 */
+	public static final String ACCUMULATED_SEQUENCE_NUMBERS = "aggregator_accumulatedSequenceNumbers";
+
+	/**
+	 * Create the initial accumulator for a group.
+	 * @param message the first message to be folded into the accumulator.
+	 * @return the accumulator.
+	 */
+	public abstract A initialState(Message<?> message);
+
+	/**
+	 * Fold a message into the accumulator.
+	 * @param accumulator the accumulator.
+	 * @param message the message.
+	 * @return the new accumulator, which may be the same (mutated) instance.
+	 */
+	public abstract A fold(A accumulator, Message<?> message);
+
+	/**
+	 * Combine two accumulators of the same group; used when the group also contains
+	 * messages that were stored without being folded.
+	 * @param accumulator1 the first accumulator.
+	 * @param accumulator2 the second accumulator.
+	 * @return the combined accumulator.
+	 */
+	public abstract A combine(A accumulator1, A accumulator2);
+
+	/**
+	 * Produce the result of the group from the accumulator.
+	 * @param accumulator the accumulator.
+	 * @return the payload, a {@link Message} or a message builder.
+	 */
+	public abstract Object finish(A accumulator);
+
+	/**
+	 * Fold the messages of a group and a newly arrived message into a single accumulator
+	 * message which can replace the group's messages in the store.
+	 * @param messages the messages of the group; accumulator messages and/or messages
+	 * that have not been folded yet.
+	 * @param message the new message, or null.
+	 * @return the accumulator message, or null if there is nothing to accumulate.
+	 */
+	public Message<A> accumulate(Collection<Message<?>> messages, Message<?> message) {
+		Message<?> accumulatorMessage = null;
+		for (Message<?> candidate : messages) {
+			if (isAccumulator(candidate)
+					&& (accumulatorMessage == null || getCount(candidate) > getCount(accumulatorMessage))) {
+				// older accumulators are superseded, not combined
+				accumulatorMessage = candidate;
+			}
+		}
+		A state = null;
+		int count = 0;
+		Map<String, Object> headers = null;
+		SequenceNumberIndex sequenceNumbers = copySequenceNumbers(accumulatorMessage);
+		if (accumulatorMessage != null) {
+			state = getAccumulator(accumulatorMessage);
+			count = getCount(accumulatorMessage);
+			headers = new HashMap<String, Object>(accumulatorMessage.getHeaders());
+		}
+		A unfolded = null;
+		for (Message<?> candidate : messages) {
+			if (!isAccumulator(candidate)) {
+				unfolded = fold(unfolded == null ? initialState(candidate) : unfolded, candidate);
+				headers = mergeHeaders(headers, candidate);
+				sequenceNumbers.add(candidate);
+				count++;
+			}
+		}
+		if (unfolded != null) {
+			state = state == null ? unfolded : combine(state, unfolded);
+		}
+		if (message != null) {
+			state = fold(state == null ? initialState(message) : state, message);
+			headers = mergeHeaders(headers, message);
+			sequenceNumbers.add(message);
+			count++;
+		}
+		if (headers == null) {
+			return null;
+		}
+		headers.remove(MessageHeaders.ID);
+		headers.remove(MessageHeaders.TIMESTAMP);
+		headers.remove(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER);
+		headers.remove(ACCUMULATED_SEQUENCE_NUMBERS);
+		if (sequenceNumbers.size() > 0) {
+			headers.put(ACCUMULATED_SEQUENCE_NUMBERS, sequenceNumbers);
+		}
+		return getMessageBuilderFactory().withPayload(state)
+				.copyHeaders(headers)
+				.setHeader(ACCUMULATED_COUNT, count)
+				.build();
+	}
+
+	@Override
+	protected Map<String, Object> aggregateHeaders(MessageGroup group) {
+		Message<A> accumulatorMessage = accumulate(group);
+		Map<String, Object> headers = new HashMap<String, Object>(accumulatorMessage.getHeaders());
+		headers.remove(MessageHeaders.ID);
+		headers.remove(MessageHeaders.TIMESTAMP);
+		headers.remove(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE);
+		headers.remove(ACCUMULATED_COUNT);
+		headers.remove(ACCUMULATED_SEQUENCE_NUMBERS);
+		return headers;
+	}
+
+	@Override
+	protected Object aggregatePayloads(MessageGroup group, Map<String, Object> defaultHeaders) {
+		return finish(accumulate(group).getPayload());
+	}
+
+	private Message<A> accumulate(MessageGroup group) {
+		Message<A> accumulatorMessage = accumulate(group.getMessages(), null);
+		Assert.state(accumulatorMessage != null, "No messages to accumulate in group: " + group.getGroupId());
+		return accumulatorMessage;
+	}
+
+	private static Map<String, Object> mergeHeaders(Map<String, Object> headers, Message<?> message) {
+		if (headers == null) {
+			return new HashMap<String, Object>(message.getHeaders());
+		}
+		MessageHeaders messageHeaders = message.getHeaders();
+		Iterator<Entry<String, Object>> iterator = headers.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<String, Object> entry = iterator.next();
+			String key = entry.getKey();
+			if (MessageHeaders.ID.equals(key) || MessageHeaders.TIMESTAMP.equals(key)
+					|| ACCUMULATED_COUNT.equals(key) || ACCUMULATED_SEQUENCE_NUMBERS.equals(key)) {
+				continue;
+			}
+			Object value = messageHeaders.get(key);
+			if (value != null && !ObjectUtils.nullSafeEquals(value, entry.getValue())) {
+				iterator.remove();
+			}
+		}
+		return headers;
+	}
+
+	@SuppressWarnings("unchecked")
+	private A getAccumulator(Message<?> accumulatorMessage) {
+		return (A) accumulatorMessage.getPayload();
+	}
+
+	/**
+	 * Return the number of messages represented by the given messages of a group; an
+	 * accumulator message counts for the messages folded into it.
+	 * @param messages the messages.
+	 * @return the number of messages.
+	 */
+	static int accumulatedCount(Collection<Message<?>> messages) {
+		int accumulated = 0;
+		int unfolded = 0;
+		for (Message<?> message : messages) {
+			if (isAccumulator(message)) {
+				accumulated = Math.max(accumulated, getCount(message));
+			}
+			else {
+				unfolded++;
+			}
+		}
+		return accumulated + unfolded;
+	}
+
+	/**
+	 * Return the index of the sequence numbers of the messages represented by the given
+	 * messages of a group; an accumulator message contributes the sequence numbers of
+	 * the messages folded into it.
+	 * @param messages the messages.
+	 * @return the index.
+	 */
+	static SequenceNumberIndex accumulatedSequenceNumbers(Collection<Message<?>> messages) {
+		Message<?> accumulatorMessage = null;
+		for (Message<?> message : messages) {
+			if (isAccumulator(message)
+					&& (accumulatorMessage == null || getCount(message) > getCount(accumulatorMessage))) {
+				accumulatorMessage = message;
+			}
+		}
+		SequenceNumberIndex sequenceNumbers = copySequenceNumbers(accumulatorMessage);
+		for (Message<?> message : messages) {
+			if (!isAccumulator(message)) {
+				sequenceNumbers.add(message);
+			}
+		}
+		return sequenceNumbers;
+	}
+
+	private static SequenceNumberIndex copySequenceNumbers(Message<?> accumulatorMessage) {
+		Object sequenceNumbers = accumulatorMessage != null
+				? accumulatorMessage.getHeaders().get(ACCUMULATED_SEQUENCE_NUMBERS)
+				: null;
+		return sequenceNumbers instanceof SequenceNumberIndex
+				? ((SequenceNumberIndex) sequenceNumbers).copy()
+				: new SequenceNumberIndex();
+	}
+
+	private static boolean isAccumulator(Message<?> message) {
+		return message.getHeaders().get(ACCUMULATED_COUNT) instanceof Integer;
+	}
+
+	private static int getCount(Message<?> message) {
+		return message.getHeaders().get(ACCUMULATED_COUNT, Integer.class);
+	}
+
+}
@@ -20,10 +20,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.locks.Lock;
 
@@ -92,7 +92,8 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 
 	private final Comparator<Message<?>> sequenceNumberComparator = new SequenceNumberComparator();
 
-	private final Map<UUID, ScheduledFuture<?>> expireGroupScheduledFutures = new HashMap<UUID, ScheduledFuture<?>>();
+	private final Map<UUID, ScheduledFuture<?>> expireGroupScheduledFutures =
+			new ConcurrentHashMap<UUID, ScheduledFuture<?>>();
 
 	private final MessageGroupProcessor outputProcessor;
 
@@ -401,12 +402,12 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 							+ correlationKey + "].");
 				}
 			}
-			MessageGroup messageGroup = this.messageStore.getMessageGroup(correlationKey);
-			if (this.sequenceAware) {
-				messageGroup = new SequenceAwareMessageGroup(messageGroup);
-			}
+			MessageGroup messageGroup = getGroupForRelease(this.messageStore.getMessageGroup(correlationKey));
+			boolean canAdd = this.sequenceAware
+					? SequenceAwareMessageGroup.canAdd(messageGroup, message)
+					: messageGroup.canAdd(message);
 
-			if (!messageGroup.isComplete() && messageGroup.canAdd(message)) {
+			if (!messageGroup.isComplete() && canAdd) {
 				if (logger.isTraceEnabled()) {
 					logger.trace("Adding message to group [ " + messageGroup + "]");
 				}
@@ -544,6 +545,7 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 				if (!group.isComplete()) {
 					groupNow = this.messageStore.getMessageGroup(correlationKey);
 				}
+				groupNow = getGroupForRelease(groupNow);
 				long lastModifiedNow = groupNow.getLastModified();
 				int groupSize = groupNow.size();
 				if ((!groupNow.isComplete() || groupSize == 0)
@@ -621,6 +623,18 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		return this.messageStore.addMessageToGroup(correlationKey, message);
 	}
 
+	/**
+	 * Return the group presented to the release strategy, the output processor and the
+	 * duplicate check for a group read from the store; the group itself by default. The
+	 * group returned by {@link #store(Object, Message)} is used as is.
+	 * @param group the stored group.
+	 * @return the group to consider for release.
+	 * @since 5.0
+	 */
+	protected MessageGroup getGroupForRelease(MessageGroup group) {
+		return group;
+	}
+
 	protected void expireGroup(Object correlationKey, MessageGroup group) {
 		if (logger.isInfoEnabled()) {
 			logger.info("Expiring MessageGroup with correlationKey[" + correlationKey + "]");
@@ -703,29 +717,31 @@ public abstract class AbstractCorrelatingMessageHandler extends AbstractMessageP
 		 */
 		@Override
 		public boolean canAdd(Message<?> message) {
-			if (this.size() == 0) {
+			return canAdd(this, message);
+		}
+
+		/**
+		 * Apply the {@link #canAdd(Message)} rules to any group, without copying it; the
+		 * duplicate check uses {@link MessageGroup#containsSequenceNumber(int)}.
+		 * @param group the group.
+		 * @param message the message.
+		 * @return true if the message can be added.
+		 * @since 5.0
+		 */
+		public static boolean canAdd(MessageGroup group, Message<?> message) {
+			if (group.size() == 0) {
 				return true;
 			}
 			IntegrationMessageHeaderAccessor messageHeaderAccessor = new IntegrationMessageHeaderAccessor(message);
 			Integer messageSequenceNumber = messageHeaderAccessor.getSequenceNumber();
 			if (messageSequenceNumber != null && messageSequenceNumber > 0) {
 				Integer messageSequenceSize = messageHeaderAccessor.getSequenceSize();
-				return messageSequenceSize.equals(this.getSequenceSize())
-						&& !this.containsSequenceNumber(this.getMessages(), messageSequenceNumber);
+				return messageSequenceSize.equals(group.getSequenceSize())
+						&& !group.containsSequenceNumber(messageSequenceNumber);
 			}
 			return true;
 		}
 
-		private boolean containsSequenceNumber(Collection<Message<?>> messages, Integer messageSequenceNumber) {
-			for (Message<?> member : messages) {
-				Integer memberSequenceNumber = new IntegrationMessageHeaderAccessor(member).getSequenceNumber();
-				if (messageSequenceNumber.equals(memberSequenceNumber)) {
-					return true;
-				}
-			}
-			return false;
-		}
-
 	}
 
 	private class ForceReleaseMessageGroupProcessor implements MessageGroupProcessor {
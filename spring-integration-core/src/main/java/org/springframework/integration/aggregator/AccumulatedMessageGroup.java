@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import java.util.Collection;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SequenceNumberIndex;
+import org.springframework.messaging.Message;
+
+/**
+ * A view of a stored {@link MessageGroup} holding accumulator messages, whose
+ * {@link #size()} is the number of messages folded into the group and whose
+ * {@link #getSequenceNumberIndex() sequence number index} holds their sequence numbers.
+ *
+ * @author agent
+ * @since 5.0
+ * @see AbstractAccumulatingMessageGroupProcessor
+ */
+class AccumulatedMessageGroup implements MessageGroup {
+
+	private final MessageGroup group;
+
+	private final Collection<Message<?>> messages;
+
+	private final int size;
+
+	AccumulatedMessageGroup(MessageGroup group, Collection<Message<?>> messages) {
+		this.group = group;
+		this.messages = messages;
+		this.size = AbstractAccumulatingMessageGroupProcessor.accumulatedCount(messages);
+	}
+
+	@Override
+	public boolean canAdd(Message<?> message) {
+		return this.group.canAdd(message);
+	}
+
+	@Override
+	public void add(Message<?> messageToAdd) {
+		throw new UnsupportedOperationException("accumulated groups are read-only");
+	}
+
+	@Override
+	public boolean remove(Message<?> messageToRemove) {
+		throw new UnsupportedOperationException("accumulated groups are read-only");
+	}
+
+	@Override
+	public Collection<Message<?>> getMessages() {
+		return this.messages;
+	}
+
+	@Override
+	public Object getGroupId() {
+		return this.group.getGroupId();
+	}
+
+	@Override
+	public int getLastReleasedMessageSequenceNumber() {
+		return this.group.getLastReleasedMessageSequenceNumber();
+	}
+
+	@Override
+	public void setLastReleasedMessageSequenceNumber(int sequenceNumber) {
+		this.group.setLastReleasedMessageSequenceNumber(sequenceNumber);
+	}
+
+	@Override
+	public boolean isComplete() {
+		return this.group.isComplete();
+	}
+
+	@Override
+	public void complete() {
+		this.group.complete();
+	}
+
+	@Override
+	public int getSequenceSize() {
+		Message<?> one = getOne();
+		if (one == null) {
+			return 0;
+		}
+		Integer sequenceSize = one.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE, Integer.class);
+		return sequenceSize != null ? sequenceSize : 0;
+	}
+
+	@Override
+	public SequenceNumberIndex getSequenceNumberIndex() {
+		return AbstractAccumulatingMessageGroupProcessor.accumulatedSequenceNumbers(this.messages);
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public Message<?> getOne() {
+		return this.messages.isEmpty() ? null : this.messages.iterator().next();
+	}
+
+	@Override
+	public long getTimestamp() {
+		return this.group.getTimestamp();
+	}
+
+	@Override
+	public long getLastModified() {
+		return this.group.getLastModified();
+	}
+
+	@Override
+	public void setLastModified(long lastModified) {
+		this.group.setLastModified(lastModified);
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("accumulated groups are read-only");
+	}
+
+	@Override
+	public String toString() {
+		return "AccumulatedMessageGroup{groupId=" + getGroupId() + ", size=" + this.size + "}";
+	}
+
+}
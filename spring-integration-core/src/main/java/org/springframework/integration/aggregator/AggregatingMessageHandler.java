@@ -16,7 +16,9 @@
 
 package org.springframework.integration.aggregator;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
@@ -27,6 +29,10 @@ import org.springframework.messaging.Message;
  * Aggregator specific implementation of {@link AbstractCorrelatingMessageHandler}.
  * Will remove {@link MessageGroup}s in the {@linkplain #afterRelease}
  * only if 'expireGroupsUponCompletion' flag is set to 'true'.
+ * <p>
+ * With an {@link AbstractAccumulatingMessageGroupProcessor}, each message is folded into
+ * the group's accumulator message when it arrives, and only the accumulator is kept in
+ * the store.
  *
  * @author Oleg Zhurakousky
  * @author Artem Bilan
@@ -35,19 +41,24 @@ import org.springframework.messaging.Message;
  */
 public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler {
 
+	private final AbstractAccumulatingMessageGroupProcessor<?> accumulatingProcessor;
+
 	private volatile boolean expireGroupsUponCompletion = false;
 
 	public AggregatingMessageHandler(MessageGroupProcessor processor, MessageGroupStore store,
 			CorrelationStrategy correlationStrategy, ReleaseStrategy releaseStrategy) {
 		super(processor, store, correlationStrategy, releaseStrategy);
+		this.accumulatingProcessor = accumulatingProcessor(processor);
 	}
 
 	public AggregatingMessageHandler(MessageGroupProcessor processor, MessageGroupStore store) {
 		super(processor, store);
+		this.accumulatingProcessor = accumulatingProcessor(processor);
 	}
 
 	public AggregatingMessageHandler(MessageGroupProcessor processor) {
 		super(processor);
+		this.accumulatingProcessor = accumulatingProcessor(processor);
 	}
 
 	/**
@@ -61,6 +72,33 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		this.expireGroupsUponCompletion = expireGroupsUponCompletion;
 	}
 
+	@Override
+	protected MessageGroup store(Object correlationKey, Message<?> message) {
+		if (this.accumulatingProcessor == null) {
+			return super.store(correlationKey, message);
+		}
+		MessageGroupStore messageStore = getMessageStore();
+		Collection<Message<?>> stored = new ArrayList<Message<?>>(messageStore.getMessagesForGroup(correlationKey));
+		Message<?> accumulatorMessage = this.accumulatingProcessor.accumulate(stored, message);
+		/*
+		 * Add the new accumulator before removing the old one; if the removal fails,
+		 * the accumulator with the higher count supersedes the stale one.
+		 */
+		MessageGroup group = messageStore.addMessageToGroup(correlationKey, accumulatorMessage);
+		if (!stored.isEmpty()) {
+			messageStore.removeMessagesFromGroup(correlationKey, stored);
+		}
+		return new AccumulatedMessageGroup(group, Collections.<Message<?>>singletonList(accumulatorMessage));
+	}
+
+	@Override
+	protected MessageGroup getGroupForRelease(MessageGroup group) {
+		if (this.accumulatingProcessor == null) {
+			return group;
+		}
+		return new AccumulatedMessageGroup(group, group.getMessages());
+	}
+
 	@Override
 	protected void afterRelease(MessageGroup messageGroup, Collection<Message<?>> completedMessages) {
 		Object groupId = messageGroup.getGroupId();
@@ -80,4 +118,10 @@ public class AggregatingMessageHandler extends AbstractCorrelatingMessageHandler
 		}
 	}
 
+	private static AbstractAccumulatingMessageGroupProcessor<?> accumulatingProcessor(MessageGroupProcessor processor) {
+		return processor instanceof AbstractAccumulatingMessageGroupProcessor
+				? (AbstractAccumulatingMessageGroupProcessor<?>) processor
+				: null;
+	}
+
 }
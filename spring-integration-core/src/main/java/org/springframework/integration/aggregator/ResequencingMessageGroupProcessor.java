@@ -25,9 +25,12 @@ import java.util.List;
 import org.springframework.messaging.Message;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SequenceNumberIndex;
 
 /**
  * This class implements all the strategy interfaces needed for a default resequencer.
+ * The released partial sequence is located with the group's {@link SequenceNumberIndex}, so
+ * only the released messages are sorted.
  *
  * @author Iwein Fuld
  * @author Dave Syer
@@ -42,6 +45,10 @@ public class ResequencingMessageGroupProcessor implements MessageGroupProcessor
 		Collection<Message<?>> messages = group.getMessages();
 
 		if (messages.size() > 0) {
+			SequenceNumberIndex sequenceNumbers = group.getSequenceNumberIndex();
+			if (sequenceNumbers.size() == messages.size()) {
+				return consecutiveSequence(messages, sequenceNumbers);
+			}
 			List<Message<?>> sorted = new ArrayList<Message<?>>(messages);
 			Collections.sort(sorted, this.comparator);
 			ArrayList<Message<?>> partialSequence = new ArrayList<Message<?>>();
@@ -62,6 +69,25 @@ public class ResequencingMessageGroupProcessor implements MessageGroupProcessor
 		return null;
 	}
 
+	/*
+	 * All the messages have a sequence number: select the run starting with the lowest
+	 * one, sorting only the released messages.
+	 */
+	private List<Message<?>> consecutiveSequence(Collection<Message<?>> messages,
+			SequenceNumberIndex sequenceNumbers) {
+		int first = sequenceNumbers.getFirst();
+		int last = sequenceNumbers.getLastConsecutive(first);
+		List<Message<?>> partialSequence = new ArrayList<Message<?>>(Math.min(messages.size(), last - first + 1));
+		for (Message<?> message : messages) {
+			int sequenceNumber = message.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, Integer.class);
+			if (sequenceNumber >= first && sequenceNumber <= last) {
+				partialSequence.add(message);
+			}
+		}
+		Collections.sort(partialSequence, this.comparator);
+		return partialSequence;
+	}
+
 	private Integer extractSequenceNumber(Message<?> message) {
 		return new IntegrationMessageHeaderAccessor(message).getSequenceNumber();
 	}
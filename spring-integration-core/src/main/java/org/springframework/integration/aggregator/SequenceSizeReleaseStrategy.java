@@ -25,11 +25,13 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.store.MessageGroup;
+import org.springframework.integration.store.SequenceNumberIndex;
 import org.springframework.messaging.Message;
 
 /**
  * An implementation of {@link ReleaseStrategy} that simply compares the current size of the message list to the
- * expected 'sequenceSize'.
+ * expected 'sequenceSize'. When partial sequences are released, the next sequence number is taken from the
+ * group's {@link SequenceNumberIndex}.
  *
  * @author Mark Fisher
  * @author Marius Bogoevici
@@ -75,10 +77,17 @@ public class SequenceSizeReleaseStrategy implements ReleaseStrategy {
 			if (logger.isTraceEnabled()) {
 				logger.trace("Considering partial release of group [" + messageGroup + "]");
 			}
-			Collection<Message<?>> messages = messageGroup.getMessages();
-			Message<?> minMessage = Collections.min(messages, this.comparator);
-
-			int nextSequenceNumber = new IntegrationMessageHeaderAccessor(minMessage).getSequenceNumber();
+			int nextSequenceNumber;
+			SequenceNumberIndex sequenceNumbers = messageGroup.getSequenceNumberIndex();
+			if (sequenceNumbers.size() == size) {
+				nextSequenceNumber = sequenceNumbers.getFirst();
+			}
+			else {
+				// some messages have no (positive) sequence number
+				Collection<Message<?>> messages = messageGroup.getMessages();
+				Message<?> minMessage = Collections.min(messages, this.comparator);
+				nextSequenceNumber = new IntegrationMessageHeaderAccessor(minMessage).getSequenceNumber();
+			}
 			int lastReleasedMessageSequence = messageGroup.getLastReleasedMessageSequenceNumber();
 
 			if (nextSequenceNumber - lastReleasedMessageSequence == 1) {
@@ -122,6 +122,19 @@ public abstract class AbstractExecutorChannel extends AbstractSubscribableChanne
 		return this.executorInterceptorsSize > 0;
 	}
 
+	/**
+	 * Decorate a task that dispatches a message to the subscribers: apply the
+	 * {@link ExecutorChannelInterceptor}s, if any, and acknowledge
+	 * {@link InFlightMessages} when the message has been handled.
+	 * @param task the task.
+	 * @return the decorated task.
+	 * @since 5.0
+	 */
+	protected Runnable decorateMessageHandlingTask(MessageHandlingRunnable task) {
+		Runnable runnable = this.executorInterceptorsSize > 0 ? new MessageHandlingTask(task) : task;
+		return InFlightMessages.whenConsumed(task.getMessage(), runnable);
+	}
+
 	protected class MessageHandlingTask implements Runnable {
 
 		private final MessageHandlingRunnable delegate;
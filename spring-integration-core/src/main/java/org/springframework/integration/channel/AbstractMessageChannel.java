@@ -16,7 +16,7 @@
 
 package org.springframework.integration.channel;
 
-import java.util.ArrayDeque;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
@@ -37,6 +37,7 @@ import org.springframework.integration.support.management.DefaultMessageChannelM
 import org.springframework.integration.support.management.IntegrationManagedResource;
 import org.springframework.integration.support.management.MessageChannelMetrics;
 import org.springframework.integration.support.management.MetricsContext;
+import org.springframework.integration.support.management.Percentiles;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.messaging.Message;
@@ -45,7 +46,9 @@ import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -323,6 +326,16 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		return this.channelMetrics.getErrorRate();
 	}
 
+	@Override
+	public Percentiles getSendDurationPercentiles() {
+		return this.channelMetrics.getSendDurationPercentiles();
+	}
+
+	@Override
+	public Percentiles getSendDurationIntervalPercentiles() {
+		return this.channelMetrics.getSendDurationIntervalPercentiles();
+	}
+
 	@Override
 	protected void onInit() throws Exception {
 		super.onInit();
@@ -395,10 +408,10 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 		}
 
-		Deque<ChannelInterceptor> interceptorStack = null;
+		// non-null once every preSend() has completed; afterSendCompletion() unwinds it by index
+		ChannelInterceptorList.Snapshot interceptorSnapshot = null;
 		boolean sent = false;
 		boolean metricsProcessed = false;
-		MetricsContext metrics = null;
 		boolean countsEnabled = this.countsEnabled;
 		ChannelInterceptorList interceptors = this.interceptors;
 		AbstractMessageChannelMetrics channelMetrics = this.channelMetrics;
@@ -411,36 +424,45 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 				logger.debug("preSend on channel '" + this + "', message: " + message);
 			}
 			if (interceptors.getSize() > 0) {
-				interceptorStack = new ArrayDeque<ChannelInterceptor>();
-				message = interceptors.preSend(message, this, interceptorStack);
+				ChannelInterceptorList.Snapshot snapshot = interceptors.getSnapshot();
+				message = interceptors.preSend(message, this, snapshot);
 				if (message == null) {
 					return false;
 				}
+				interceptorSnapshot = snapshot;
 			}
 			if (countsEnabled) {
-				metrics = channelMetrics.beforeSend();
+				MetricsContext metrics = channelMetrics.beforeSend();
+				try {
+					sent = this.doSend(message, timeout);
+				}
+				finally {
+					// exactly once for each beforeSend(), whatever is thrown
+					metricsProcessed = true;
+					channelMetrics.afterSend(metrics, sent);
+				}
 			}
-			sent = this.doSend(message, timeout);
-			if (countsEnabled) {
-				channelMetrics.afterSend(metrics, sent);
-				metricsProcessed = true;
+			else {
+				sent = this.doSend(message, timeout);
 			}
 
 			if (debugEnabled) {
 				logger.debug("postSend (sent=" + sent + ") on channel '" + this + "', message: " + message);
 			}
-			if (interceptorStack != null) {
-				interceptors.postSend(message, this, sent);
-				interceptors.afterSendCompletion(message, this, sent, null, interceptorStack);
+			if (interceptorSnapshot != null) {
+				interceptors.postSend(message, this, sent, interceptorSnapshot);
+				interceptors.afterSendCompletion(message, this, sent, null, interceptorSnapshot,
+						interceptorSnapshot.size());
 			}
 			return sent;
 		}
 		catch (Exception e) {
 			if (countsEnabled && !metricsProcessed) {
-				channelMetrics.afterSend(metrics, false);
+				channelMetrics.afterSend(null, false);
 			}
-			if (interceptorStack != null) {
-				interceptors.afterSendCompletion(message, this, sent, e, interceptorStack);
+			if (interceptorSnapshot != null) {
+				interceptors.afterSendCompletion(message, this, sent, e, interceptorSnapshot,
+						interceptorSnapshot.size());
 			}
 			if (e instanceof MessagingException) {
 				throw (MessagingException) e;
@@ -505,6 +527,8 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 		private volatile int size;
 
+		private volatile Snapshot snapshot = new Snapshot(new ChannelInterceptor[0]);
+
 		public ChannelInterceptorList(Log logger) {
 			this.logger = logger;
 		}
@@ -513,7 +537,9 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			synchronized (this.interceptors) {
 				this.interceptors.clear();
 				this.size = interceptors.size();
-				return this.interceptors.addAll(interceptors);
+				boolean result = this.interceptors.addAll(interceptors);
+				refreshSnapshot();
+				return result;
 			}
 		}
 
@@ -521,14 +547,182 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			return this.size;
 		}
 
+		/**
+		 * Return an immutable snapshot of the interceptors, for the index-based
+		 * invocation methods.
+		 * @return the snapshot.
+		 * @since 5.0
+		 */
+		public Snapshot getSnapshot() {
+			return this.snapshot;
+		}
+
 		public boolean add(ChannelInterceptor interceptor) {
 			this.size++;
-			return this.interceptors.add(interceptor);
+			boolean result = this.interceptors.add(interceptor);
+			refreshSnapshot();
+			return result;
 		}
 
 		public void add(int index, ChannelInterceptor interceptor) {
 			this.size++;
 			this.interceptors.add(index, interceptor);
+			refreshSnapshot();
+		}
+
+		private void refreshSnapshot() {
+			synchronized (this.interceptors) {
+				this.snapshot = new Snapshot(this.interceptors.toArray(new ChannelInterceptor[0]));
+			}
+		}
+
+		/**
+		 * Invoke {@code preSend()} on each interceptor of the snapshot, in order. If an
+		 * interceptor returns null or throws an exception, {@code afterSendCompletion()} is
+		 * invoked (in reverse order) on the interceptors that had already completed.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @return the message to send, or null if an interceptor precluded the send.
+		 * @since 5.0
+		 */
+		public Message<?> preSend(Message<?> message, MessageChannel channel, Snapshot snapshot) {
+			Message<?> original = message;
+			ChannelInterceptor[] interceptors = snapshot.interceptors;
+			for (int i = 0; i < interceptors.length; i++) {
+				ChannelInterceptor interceptor = interceptors[i];
+				try {
+					message = interceptor.preSend(message, channel);
+				}
+				catch (RuntimeException e) {
+					afterSendCompletion(original, channel, false, e, snapshot, i);
+					throw e;
+				}
+				if (message == null) {
+					if (this.logger.isDebugEnabled()) {
+						this.logger.debug(interceptor.getClass().getSimpleName()
+								+ " returned null from preSend, i.e. precluding the send.");
+					}
+					afterSendCompletion(null, channel, false, null, snapshot, i);
+					return null;
+				}
+			}
+			return message;
+		}
+
+		/**
+		 * Invoke {@code postSend()} on each interceptor of the snapshot.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param sent whether the message was sent.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @since 5.0
+		 */
+		public void postSend(Message<?> message, MessageChannel channel, boolean sent, Snapshot snapshot) {
+			for (ChannelInterceptor interceptor : snapshot.interceptors) {
+				interceptor.postSend(message, channel, sent);
+			}
+		}
+
+		/**
+		 * Invoke {@code afterSendCompletion()}, in reverse order, on the first
+		 * {@code count} interceptors of the snapshot; a no-op if none of them
+		 * implements it.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param sent whether the message was sent.
+		 * @param ex the exception, if any.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @param count the number of interceptors whose {@code preSend()} completed.
+		 * @since 5.0
+		 */
+		public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex,
+				Snapshot snapshot, int count) {
+			if (!snapshot.afterSendCompletion) {
+				return;
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				ChannelInterceptor interceptor = snapshot.interceptors[i];
+				try {
+					interceptor.afterSendCompletion(message, channel, sent, ex);
+				}
+				catch (Exception ex2) {
+					this.logger.error("Exception from afterSendCompletion in " + interceptor, ex2);
+				}
+			}
+		}
+
+		/**
+		 * Invoke {@code preReceive()} on each interceptor of the snapshot, in order. If an
+		 * interceptor returns false or throws an exception, {@code afterReceiveCompletion()}
+		 * is invoked (in reverse order) on the interceptors that had already completed.
+		 * @param channel the channel.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @return false if an interceptor precluded the receive.
+		 * @since 5.0
+		 */
+		public boolean preReceive(MessageChannel channel, Snapshot snapshot) {
+			ChannelInterceptor[] interceptors = snapshot.interceptors;
+			for (int i = 0; i < interceptors.length; i++) {
+				boolean proceed;
+				try {
+					proceed = interceptors[i].preReceive(channel);
+				}
+				catch (RuntimeException e) {
+					afterReceiveCompletion(null, channel, e, snapshot, i);
+					throw e;
+				}
+				if (!proceed) {
+					afterReceiveCompletion(null, channel, null, snapshot, i);
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Invoke {@code postReceive()} on each interceptor of the snapshot.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @return the message, or null if an interceptor returned null.
+		 * @since 5.0
+		 */
+		public Message<?> postReceive(Message<?> message, MessageChannel channel, Snapshot snapshot) {
+			for (ChannelInterceptor interceptor : snapshot.interceptors) {
+				message = interceptor.postReceive(message, channel);
+				if (message == null) {
+					return null;
+				}
+			}
+			return message;
+		}
+
+		/**
+		 * Invoke {@code afterReceiveCompletion()}, in reverse order, on the first
+		 * {@code count} interceptors of the snapshot; a no-op if none of them
+		 * implements it.
+		 * @param message the message.
+		 * @param channel the channel.
+		 * @param ex the exception, if any.
+		 * @param snapshot the snapshot from {@link #getSnapshot()}.
+		 * @param count the number of interceptors whose {@code preReceive()} completed.
+		 * @since 5.0
+		 */
+		public void afterReceiveCompletion(Message<?> message, MessageChannel channel, Exception ex,
+				Snapshot snapshot, int count) {
+			if (!snapshot.afterReceiveCompletion) {
+				return;
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				ChannelInterceptor interceptor = snapshot.interceptors[i];
+				try {
+					interceptor.afterReceiveCompletion(message, channel, ex);
+				}
+				catch (Exception ex2) {
+					this.logger.error("Exception from afterReceiveCompletion in " + interceptor, ex2);
+				}
+			}
 		}
 
 		public Message<?> preSend(Message<?> message, MessageChannel channel,
@@ -616,6 +810,7 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		public boolean remove(ChannelInterceptor interceptor) {
 			if (this.interceptors.remove(interceptor)) {
 				this.size--;
+				refreshSnapshot();
 				return true;
 			}
 			else {
@@ -627,10 +822,52 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 			ChannelInterceptor removed = this.interceptors.remove(index);
 			if (removed != null) {
 				this.size--;
+				refreshSnapshot();
 			}
 			return removed;
 		}
 
+		/**
+		 * An immutable snapshot of the interceptors, also recording whether any of them
+		 * implements the completion callbacks, so that the common cases can skip the
+		 * unwinding altogether.
+		 * @since 5.0
+		 */
+		public static final class Snapshot {
+
+			private final ChannelInterceptor[] interceptors;
+
+			private final boolean afterSendCompletion;
+
+			private final boolean afterReceiveCompletion;
+
+			Snapshot(ChannelInterceptor[] interceptors) {
+				this.interceptors = interceptors;
+				boolean afterSend = false;
+				boolean afterReceive = false;
+				for (ChannelInterceptor interceptor : interceptors) {
+					afterSend |= implementsCallback(interceptor, "afterSendCompletion",
+							Message.class, MessageChannel.class, boolean.class, Exception.class);
+					afterReceive |= implementsCallback(interceptor, "afterReceiveCompletion",
+							Message.class, MessageChannel.class, Exception.class);
+				}
+				this.afterSendCompletion = afterSend;
+				this.afterReceiveCompletion = afterReceive;
+			}
+
+			public int size() {
+				return this.interceptors.length;
+			}
+
+			private static boolean implementsCallback(ChannelInterceptor interceptor, String name,
+					Class<?>... parameterTypes) {
+				Method method = ReflectionUtils.findMethod(interceptor.getClass(), name, parameterTypes);
+				return method == null || !(ChannelInterceptorAdapter.class.equals(method.getDeclaringClass())
+						|| ChannelInterceptor.class.equals(method.getDeclaringClass()));
+			}
+
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,6 @@
 
 package org.springframework.integration.channel;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.List;
 
 import org.springframework.integration.support.management.PollableChannelManagement;
@@ -25,7 +23,6 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.ExecutorChannelInterceptor;
-import org.springframework.util.CollectionUtils;
 
 /**
  * Base class for all pollable channels.
@@ -88,7 +85,8 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 	@Override
 	public final Message<?> receive(long timeout) {
 		ChannelInterceptorList interceptorList = getInterceptors();
-		Deque<ChannelInterceptor> interceptorStack = null;
+		// non-null once every preReceive() has completed; afterReceiveCompletion() unwinds it by index
+		ChannelInterceptorList.Snapshot interceptorSnapshot = null;
 		boolean counted = false;
 		boolean countsEnabled = isCountsEnabled();
 		try {
@@ -96,13 +94,15 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 				logger.trace("preReceive on channel '" + this + "'");
 			}
 			if (interceptorList.getSize() > 0) {
-				interceptorStack = new ArrayDeque<ChannelInterceptor>();
-
-				if (!interceptorList.preReceive(this, interceptorStack)) {
+				ChannelInterceptorList.Snapshot snapshot = interceptorList.getSnapshot();
+				if (!interceptorList.preReceive(this, snapshot)) {
 					return null;
 				}
+				interceptorSnapshot = snapshot;
 			}
 			Message<?> message = this.doReceive(timeout);
+			// the message has left the channel, even if an interceptor drops it or fails
+			InFlightMessages.consumed(message);
 			if (countsEnabled) {
 				getMetrics().afterReceive();
 				counted = true;
@@ -113,9 +113,10 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 			else if (logger.isTraceEnabled()) {
 				logger.trace("postReceive on channel '" + this + "', message is null");
 			}
-			if (!CollectionUtils.isEmpty(interceptorStack)) {
-				message = interceptorList.postReceive(message, this);
-				interceptorList.afterReceiveCompletion(message, this, null, interceptorStack);
+			if (interceptorSnapshot != null) {
+				message = interceptorList.postReceive(message, this, interceptorSnapshot);
+				interceptorList.afterReceiveCompletion(message, this, null, interceptorSnapshot,
+						interceptorSnapshot.size());
 			}
 			return message;
 		}
@@ -123,8 +124,9 @@ public abstract class AbstractPollableChannel extends AbstractMessageChannel
 			if (countsEnabled && !counted) {
 				getMetrics().afterError();
 			}
-			if (!CollectionUtils.isEmpty(interceptorStack)) {
-				interceptorList.afterReceiveCompletion(null, this, e, interceptorStack);
+			if (interceptorSnapshot != null) {
+				interceptorList.afterReceiveCompletion(null, this, e, interceptorSnapshot,
+						interceptorSnapshot.size());
 			}
 			throw e;
 		}
@@ -124,12 +124,7 @@ public class ExecutorChannel extends AbstractExecutorChannel {
 
 			@Override
 			public Runnable decorate(MessageHandlingRunnable task) {
-				if (ExecutorChannel.this.executorInterceptorsSize > 0) {
-					return new MessageHandlingTask(task);
-				}
-				else {
-					return task;
-				}
+				return decorateMessageHandlingTask(task);
 			}
 
 		});
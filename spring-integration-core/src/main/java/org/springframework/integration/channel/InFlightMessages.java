@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * Tracks messages that a producer has sent to an asynchronous channel and that have not
+ * yet been consumed, so that the producer can limit the number it has in flight.
+ * <p>
+ * Each producer {@link #create() creates} its own instance, {@link #register(Semaphore)
+ * registers} a permit it has acquired and sends the message with the returned token in
+ * the {@link #IN_FLIGHT_TOKEN} header. The permit is released when a message with that
+ * token has been received from an {@link AbstractPollableChannel} (including batch
+ * receives, {@code clear()} and {@code purge()} on a {@link QueueChannel}) or handled by
+ * a subscriber of an {@link AbstractExecutorChannel}. The channels themselves are not
+ * modified, and the token is carried by the headers, so it survives the message being
+ * rebuilt by an interceptor or stored by a persistent message store.
+ * <p>
+ * The producer must {@link #close()} the instance when it stops; any registrations are
+ * then discarded and tokens still in flight are ignored by the channels.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public final class InFlightMessages {
+
+	/**
+	 * The header carrying the in-flight token.
+	 */
+	public static final String IN_FLIGHT_TOKEN = "channel_inFlightToken";
+
+	private static final Map<Long, InFlightMessages> TRACKERS = new ConcurrentHashMap<>();
+
+	private final Map<UUID, Semaphore> permits = new ConcurrentHashMap<>();
+
+	private final AtomicLong tokenSequence = new AtomicLong();
+
+	private final long id;
+
+	private volatile boolean closed;
+
+	private InFlightMessages(long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Create a tracker for a producer.
+	 * @return the tracker.
+	 */
+	public static InFlightMessages create() {
+		while (true) {
+			long id = ThreadLocalRandom.current().nextLong();
+			InFlightMessages tracker = new InFlightMessages(id);
+			if (TRACKERS.putIfAbsent(id, tracker) == null) {
+				return tracker;
+			}
+		}
+	}
+
+	/**
+	 * Register a permit that is released when the message carrying the returned token
+	 * has been consumed.
+	 * @param permit the semaphore to release.
+	 * @return the token to send in the {@link #IN_FLIGHT_TOKEN} header.
+	 */
+	public UUID register(Semaphore permit) {
+		Assert.state(!this.closed, "This tracker has been closed");
+		UUID token = new UUID(this.id, this.tokenSequence.incrementAndGet());
+		this.permits.put(token, permit);
+		return token;
+	}
+
+	/**
+	 * Release the permit registered with the token, if it has not already been released.
+	 * @param token the token.
+	 * @return true if the permit was released.
+	 */
+	public boolean release(UUID token) {
+		Semaphore permit = this.permits.remove(token);
+		if (permit != null) {
+			permit.release();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Discard the registrations of all messages still in flight for a permit, without
+	 * releasing it; used when the producer has given up waiting for them.
+	 * @param permit the semaphore.
+	 */
+	public void unregisterAll(Semaphore permit) {
+		this.permits.values().removeIf(p -> p == permit);
+	}
+
+	/**
+	 * @return the number of messages still in flight.
+	 */
+	public int getInFlightCount() {
+		return this.permits.size();
+	}
+
+	/**
+	 * @return true if the tracker has been closed.
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * Stop tracking: tokens still in flight are ignored from now on, and their permits are
+	 * released so that a producer waiting for one wakes up; it should then check
+	 * {@link #isClosed()}.
+	 */
+	public void close() {
+		this.closed = true;
+		TRACKERS.remove(this.id, this);
+		Iterator<Semaphore> iterator = this.permits.values().iterator();
+		while (iterator.hasNext()) {
+			Semaphore permit = iterator.next();
+			iterator.remove();
+			permit.release();
+		}
+	}
+
+	/**
+	 * Wrap the task that handles the message so that the permit for the message, if it
+	 * carries a registered token, is released when the task has run.
+	 * @param message the message.
+	 * @param task the task.
+	 * @return the task, or a wrapper.
+	 */
+	static Runnable whenConsumed(Message<?> message, final Runnable task) {
+		final UUID token = tokenOf(message);
+		if (token == null) {
+			return task;
+		}
+		return () -> {
+			try {
+				task.run();
+			}
+			finally {
+				releaseToken(token);
+			}
+		};
+	}
+
+	/**
+	 * Release the permit for the message, if it carries a registered token.
+	 * @param message the consumed message.
+	 */
+	static void consumed(Message<?> message) {
+		UUID token = tokenOf(message);
+		if (token != null) {
+			releaseToken(token);
+		}
+	}
+
+	/**
+	 * Release the permits for the messages, if they carry registered tokens.
+	 * @param messages the consumed messages.
+	 */
+	static void consumed(Collection<Message<?>> messages) {
+		if (!TRACKERS.isEmpty()) {
+			for (Message<?> message : messages) {
+				consumed(message);
+			}
+		}
+	}
+
+	private static UUID tokenOf(Message<?> message) {
+		if (message == null || TRACKERS.isEmpty()) {
+			return null;
+		}
+		Object token = message.getHeaders().get(IN_FLIGHT_TOKEN);
+		return token instanceof UUID ? (UUID) token : null;
+	}
+
+	private static void releaseToken(UUID token) {
+		InFlightMessages tracker = TRACKERS.get(token.getMostSignificantBits());
+		if (tracker != null) {
+			tracker.release(token);
+		}
+	}
+
+}
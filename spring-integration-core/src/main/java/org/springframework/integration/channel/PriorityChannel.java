@@ -17,6 +17,7 @@
 package org.springframework.integration.channel;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -108,6 +109,19 @@ public class PriorityChannel extends QueueChannel {
 		return message;
 	}
 
+	@Override
+	protected int drainQueue(List<Message<?>> messages, int maxMessages) {
+		int start = messages.size();
+		int count = super.drainQueue(messages, maxMessages);
+		for (int i = start; i < messages.size(); i++) {
+			messages.set(i, ((MessageWrapper) messages.get(i)).getRootMessage());
+		}
+		if (count > 0) {
+			this.upperBound.release(count);
+		}
+		return count;
+	}
+
 	private static final class SequenceFallbackComparator implements Comparator<Message<?>> {
 
 		private final Comparator<Message<?>> targetComparator;
@@ -45,6 +45,10 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 
 	private volatile int minSubscribers;
 
+	private volatile boolean waitForCompletion;
+
+	private volatile long completionTimeout = BroadcastingDispatcher.DEFAULT_COMPLETION_TIMEOUT;
+
 	/**
 	 * Create a PublishSubscribeChannel that will use an {@link Executor}
 	 * to invoke the handlers. If this is null, each invocation will occur in
@@ -128,6 +132,40 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 		getDispatcher().setMinSubscribers(minSubscribers);
 	}
 
+	/**
+	 * Specify whether {@link #send(org.springframework.messaging.Message)} should wait
+	 * until all subscribers invoked by the {@link Executor} have handled the message,
+	 * so that subscribers run in parallel while the sender still observes their
+	 * completion and failures. Failures (unless 'ignoreFailures' is true) are thrown
+	 * to the sender in an
+	 * {@link org.springframework.integration.dispatcher.AggregateMessageDeliveryException},
+	 * and the {@link ErrorHandler} is not invoked for them. Has no effect without an
+	 * Executor. A message sent to this channel by a subscriber running on the Executor
+	 * is handled on the subscriber's thread rather than waited for; the wait is also
+	 * bounded by the 'completionTimeout', since subscribers that send to other channels
+	 * using the same bounded Executor can still exhaust it. Default: false.
+	 * @param waitForCompletion true to wait for the subscribers.
+	 * @since 5.0
+	 * @see #setCompletionTimeout(long)
+	 */
+	public void setWaitForCompletion(boolean waitForCompletion) {
+		this.waitForCompletion = waitForCompletion;
+		getDispatcher().setWaitForCompletion(waitForCompletion);
+	}
+
+	/**
+	 * Specify the maximum time in milliseconds that
+	 * {@link #send(org.springframework.messaging.Message)} waits for the subscribers
+	 * when 'waitForCompletion' is true; a negative value means wait indefinitely.
+	 * Default: {@link BroadcastingDispatcher#DEFAULT_COMPLETION_TIMEOUT} (30 seconds).
+	 * @param completionTimeout the timeout in milliseconds.
+	 * @since 5.0
+	 */
+	public void setCompletionTimeout(long completionTimeout) {
+		this.completionTimeout = completionTimeout;
+		getDispatcher().setCompletionTimeout(completionTimeout);
+	}
+
 	/**
 	 * Callback method for initialization.
 	 * @throws Exception the exception.
@@ -150,6 +188,8 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 			getDispatcher().setIgnoreFailures(this.ignoreFailures);
 			getDispatcher().setApplySequence(this.applySequence);
 			getDispatcher().setMinSubscribers(this.minSubscribers);
+			getDispatcher().setWaitForCompletion(this.waitForCompletion);
+			getDispatcher().setCompletionTimeout(this.completionTimeout);
 		}
 		if (this.maxSubscribers == null) {
 			Integer maxSubscribers =
@@ -162,12 +202,7 @@ public class PublishSubscribeChannel extends AbstractExecutorChannel {
 
 			@Override
 			public Runnable decorate(MessageHandlingRunnable task) {
-				if (PublishSubscribeChannel.this.executorInterceptorsSize > 0) {
-					return new MessageHandlingTask(task);
-				}
-				else {
-					return task;
-				}
+				return decorateMessageHandlingTask(task);
 			}
 
 		});
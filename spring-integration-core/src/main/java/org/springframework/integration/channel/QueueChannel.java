@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -145,6 +145,85 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>When the channel has interceptors, each message is received individually so
+	 * that the interceptors see every message; otherwise the messages following the first
+	 * are transferred with a single {@link BlockingQueue#drainTo(java.util.Collection, int)}.
+	 */
+	@Override
+	public List<Message<?>> receiveBatch(int maxMessages, long timeout) {
+		Assert.isTrue(maxMessages > 0, "'maxMessages' must be a positive integer");
+		if (getInterceptors().getSize() > 0) {
+			return QueueChannelOperations.super.receiveBatch(maxMessages, timeout);
+		}
+		boolean countsEnabled = isCountsEnabled();
+		try {
+			List<Message<?>> messages = doReceiveBatch(maxMessages, timeout);
+			InFlightMessages.consumed(messages);
+			if (countsEnabled) {
+				// an empty batch counts as one (unsuccessful) receive, as with receive()
+				for (int i = Math.max(messages.size(), 1); i > 0; i--) {
+					getMetrics().afterReceive();
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("receiveBatch on channel '" + this + "', received " + messages.size() + " message(s)");
+			}
+			return messages;
+		}
+		catch (RuntimeException e) {
+			if (countsEnabled) {
+				getMetrics().afterError();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Receive the first message using {@link #doReceive(long)}, then drain up to
+	 * {@code maxMessages - 1} more with {@link #drainQueue(List, int)}.
+	 *
+	 * @param maxMessages The maximum number of messages.
+	 * @param timeout The timeout for the first message.
+	 * @return The messages.
+	 * @since 5.0
+	 */
+	protected List<Message<?>> doReceiveBatch(int maxMessages, long timeout) {
+		Message<?> message = doReceive(timeout);
+		if (message == null) {
+			return new ArrayList<Message<?>>(0);
+		}
+		List<Message<?>> messages = new ArrayList<Message<?>>(Math.min(maxMessages, 64));
+		messages.add(message);
+		if (maxMessages > 1) {
+			drainQueue(messages, maxMessages - 1);
+		}
+		return messages;
+	}
+
+	/**
+	 * Move up to {@code maxMessages} immediately available messages from the
+	 * underlying queue to the list, without waiting.
+	 *
+	 * @param messages The list to add to.
+	 * @param maxMessages The maximum number of messages to move.
+	 * @return The number of messages moved.
+	 * @since 5.0
+	 */
+	protected int drainQueue(List<Message<?>> messages, int maxMessages) {
+		if (this.queue instanceof BlockingQueue) {
+			return ((BlockingQueue<Message<?>>) this.queue).drainTo(messages, maxMessages);
+		}
+		int count = 0;
+		Message<?> message;
+		while (count < maxMessages && (message = this.queue.poll()) != null) {
+			messages.add(message);
+			count++;
+		}
+		return count;
+	}
+
 	@Override
 	public List<Message<?>> clear() {
 		List<Message<?>> clearedMessages = new ArrayList<Message<?>>();
@@ -157,6 +236,7 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 				clearedMessages.add(message);
 			}
 		}
+		InFlightMessages.consumed(clearedMessages);
 		return clearedMessages;
 	}
 
@@ -173,6 +253,7 @@ public class QueueChannel extends AbstractPollableChannel implements QueueChanne
 				purgedMessages.add(message);
 			}
 		}
+		InFlightMessages.consumed(purgedMessages);
 		return purgedMessages;
 	}
 
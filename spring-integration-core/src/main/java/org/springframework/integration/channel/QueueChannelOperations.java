@@ -16,10 +16,13 @@
 
 package org.springframework.integration.channel;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.integration.core.MessageSelector;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.util.Assert;
 
 /**
  * Operations available on a channel that has queuing semantics.
@@ -55,4 +58,33 @@ public interface QueueChannelOperations {
 	 */
 	int getRemainingCapacity();
 
+	/**
+	 * Receive up to {@code maxMessages} {@link Message Messages} in one operation.
+	 * Waits up to the timeout for the first message (indefinitely if negative) and then
+	 * drains whatever else is immediately available, without waiting again.
+	 *
+	 * <p>The default implementation, for channels that are {@link PollableChannel}s,
+	 * receives the messages one at a time; implementations can transfer them in bulk.
+	 *
+	 * @param maxMessages The maximum number of messages to return; must be positive.
+	 * @param timeout The timeout in milliseconds for the first message.
+	 * @return The messages in queue order; empty if none arrived within the timeout.
+	 * @since 5.0
+	 */
+	default List<Message<?>> receiveBatch(int maxMessages, long timeout) {
+		Assert.isTrue(maxMessages > 0, "'maxMessages' must be a positive integer");
+		Assert.state(this instanceof PollableChannel, "receiveBatch() requires a PollableChannel");
+		PollableChannel channel = (PollableChannel) this;
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		Message<?> message = channel.receive(timeout);
+		while (message != null) {
+			messages.add(message);
+			if (messages.size() == maxMessages) {
+				break;
+			}
+			message = channel.receive(0);
+		}
+		return messages;
+	}
+
 }
@@ -16,9 +16,16 @@
 
 package org.springframework.integration.channel;
 
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.reactivestreams.Processor;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -26,17 +33,45 @@ import org.springframework.util.Assert;
 
 import reactor.core.publisher.BlockingSink;
 import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
 
 /**
+ * A {@link MessageChannel} that is also a Reactive Streams {@link Publisher}.
+ * <p>
+ * The demand of the subscribers is tracked and exposed via {@link #getDemand()}, so
+ * producers can emit no more messages than the downstream can handle; publishers
+ * subscribed with {@link #subscribeTo(Publisher)} are requested exactly that demand.
+ * Messages sent beyond the demand of a subscriber are handled according to the
+ * {@link OverflowStrategy}.
+ *
  * @author Artem Bilan
  * @since 5.0
  */
 public class ReactiveChannel implements MessageChannel, Publisher<Message<?>> {
 
+	/**
+	 * The default {@link #setBufferSize(int) buffer size}.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 256;
+
+	private static final Log logger = LogFactory.getLog(ReactiveChannel.class);
+
 	private final Processor<Message<?>, Message<?>> processor;
 
 	private final BlockingSink<Message<?>> sink;
 
+	private final Set<DemandTracker> subscribers = new CopyOnWriteArraySet<>();
+
+	private final Set<UpstreamSubscriber> upstreams = new CopyOnWriteArraySet<>();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private volatile OverflowStrategy overflowStrategy = OverflowStrategy.BUFFER;
+
+	private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	private volatile int prefetch;
+
 	public ReactiveChannel() {
 		this(DirectProcessor.create());
 	}
@@ -47,6 +82,72 @@ public class ReactiveChannel implements MessageChannel, Publisher<Message<?>> {
 		this.sink = BlockingSink.create(this.processor);
 	}
 
+	/**
+	 * Set the strategy for messages sent when a subscriber has no outstanding demand;
+	 * applies to subscribers subscribed afterwards. Default {@link OverflowStrategy#BUFFER}.
+	 * @param overflowStrategy the overflow strategy.
+	 */
+	public void setOverflowStrategy(OverflowStrategy overflowStrategy) {
+		Assert.notNull(overflowStrategy, "'overflowStrategy' must not be null");
+		this.overflowStrategy = overflowStrategy;
+	}
+
+	/**
+	 * Set the maximum number of messages buffered for each subscriber by the
+	 * {@link OverflowStrategy#BUFFER} strategy; when the buffer is full, an error is
+	 * signalled to the subscriber. Applies to subscribers subscribed afterwards.
+	 * Default {@value #DEFAULT_BUFFER_SIZE}.
+	 * @param bufferSize the buffer size.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be positive");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Set the number of messages requested in advance on behalf of each subscriber,
+	 * replenished as the subscriber consumes them, regardless of the amount the subscriber
+	 * itself requests (such as the unbounded demand of a {@code Consumer}). Applies to
+	 * subscribers subscribed afterwards. Default 0 (the subscriber's own demand is used).
+	 * @param prefetch the prefetch.
+	 */
+	public void setPrefetch(int prefetch) {
+		Assert.isTrue(prefetch >= 0, "'prefetch' must not be negative");
+		this.prefetch = prefetch;
+	}
+
+	/**
+	 * Return the number of messages the subscribers are ready to receive; this is the
+	 * lowest outstanding demand of all the subscribers, since each message is delivered
+	 * to all of them, and {@link Long#MAX_VALUE} for unbounded demand.
+	 * @return the demand; 0 if there are no subscribers.
+	 */
+	public long getDemand() {
+		long demand = Long.MAX_VALUE;
+		boolean subscribed = false;
+		for (DemandTracker subscriber : this.subscribers) {
+			demand = Math.min(demand, subscriber.demand.get());
+			subscribed = true;
+		}
+		return subscribed ? demand : 0;
+	}
+
+	/**
+	 * Return true if the subscribers are ready to receive at least one message.
+	 * @return true if there is outstanding demand.
+	 */
+	public boolean hasDemand() {
+		return getDemand() > 0;
+	}
+
+	/**
+	 * Return the number of messages dropped by the {@link OverflowStrategy#DROP} strategy.
+	 * @return the count.
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
 	@Override
 	public boolean send(Message<?> message) {
 		return send(message, -1);
@@ -59,7 +160,217 @@ public class ReactiveChannel implements MessageChannel, Publisher<Message<?>> {
 
 	@Override
 	public void subscribe(Subscriber<? super Message<?>> subscriber) {
-		this.processor.subscribe(subscriber);
+		Flux<Message<?>> overflow = applyOverflowStrategy(Flux.from(this.processor));
+		Flux<Message<?>> tracked = Flux.from(s -> overflow.subscribe(new DemandTracker(s)));
+		int prefetch = this.prefetch;
+		if (prefetch > 0) {
+			tracked = tracked.limitRate(prefetch);
+		}
+		tracked.subscribe(subscriber);
+	}
+
+	/**
+	 * Subscribe to the provided {@link Publisher} and send its messages to this channel,
+	 * requesting no more messages than the {@link #getDemand() demand} of the subscribers.
+	 * @param publisher the publisher.
+	 */
+	public void subscribeTo(Publisher<Message<?>> publisher) {
+		Assert.notNull(publisher, "'publisher' must not be null");
+		publisher.subscribe(new UpstreamSubscriber());
+	}
+
+	private Flux<Message<?>> applyOverflowStrategy(Flux<Message<?>> flux) {
+		switch (this.overflowStrategy) {
+			case DROP:
+				return flux.onBackpressureDrop(message -> {
+					this.droppedCount.incrementAndGet();
+					if (logger.isDebugEnabled()) {
+						logger.debug("No demand, dropped: " + message);
+					}
+				});
+			case LATEST:
+				return flux.onBackpressureLatest();
+			case ERROR:
+				return flux.onBackpressureError();
+			default:
+				return flux.onBackpressureBuffer(this.bufferSize);
+		}
+	}
+
+	private void requestUpstream() {
+		if (!this.upstreams.isEmpty()) {
+			long demand = getDemand();
+			for (UpstreamSubscriber upstream : this.upstreams) {
+				upstream.replenish(demand);
+			}
+		}
+	}
+
+	private static long addCap(AtomicLong value, long n) {
+		while (true) {
+			long current = value.get();
+			if (current == Long.MAX_VALUE) {
+				return current;
+			}
+			long updated = current + n;
+			if (updated < 0) {
+				updated = Long.MAX_VALUE;
+			}
+			if (value.compareAndSet(current, updated)) {
+				return updated;
+			}
+		}
+	}
+
+	private static void decrement(AtomicLong value) {
+		while (true) {
+			long current = value.get();
+			if (current == Long.MAX_VALUE || current == 0) {
+				return;
+			}
+			if (value.compareAndSet(current, current - 1)) {
+				return;
+			}
+		}
+	}
+
+
+	/**
+	 * The strategy for messages sent to the channel when a subscriber has no outstanding
+	 * demand.
+	 */
+	public enum OverflowStrategy {
+
+		/**
+		 * Buffer the messages until the subscriber requests them, up to the
+		 * {@link ReactiveChannel#setBufferSize(int) buffer size}; then signal an error to
+		 * the subscriber.
+		 */
+		BUFFER,
+
+		/**
+		 * Drop the messages.
+		 */
+		DROP,
+
+		/**
+		 * Keep only the latest message.
+		 */
+		LATEST,
+
+		/**
+		 * Signal an error to the subscriber.
+		 */
+		ERROR
+
+	}
+
+
+	/**
+	 * Records the outstanding demand of a subscriber.
+	 */
+	private final class DemandTracker implements Subscriber<Message<?>>, Subscription {
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final Subscriber<? super Message<?>> actual;
+
+		private volatile Subscription subscription;
+
+		DemandTracker(Subscriber<? super Message<?>> actual) {
+			this.actual = actual;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			ReactiveChannel.this.subscribers.add(this);
+			this.actual.onSubscribe(this);
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			decrement(this.demand);
+			this.actual.onNext(message);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			ReactiveChannel.this.subscribers.remove(this);
+			this.actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			ReactiveChannel.this.subscribers.remove(this);
+			this.actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			addCap(this.demand, n);
+			this.subscription.request(n);
+			requestUpstream();
+		}
+
+		@Override
+		public void cancel() {
+			ReactiveChannel.this.subscribers.remove(this);
+			this.subscription.cancel();
+		}
+
+	}
+
+
+	/**
+	 * Sends the messages of a publisher to the channel, requesting the subscribers'
+	 * demand.
+	 */
+	private final class UpstreamSubscriber implements Subscriber<Message<?>> {
+
+		private final AtomicLong requested = new AtomicLong();
+
+		private volatile Subscription subscription;
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			ReactiveChannel.this.upstreams.add(this);
+			replenish(getDemand());
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			decrement(this.requested);
+			if (!send(message) && logger.isDebugEnabled()) {
+				logger.debug("Failed to send: " + message);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			ReactiveChannel.this.upstreams.remove(this);
+			logger.error("Publisher subscribed to the channel failed", t);
+		}
+
+		@Override
+		public void onComplete() {
+			ReactiveChannel.this.upstreams.remove(this);
+		}
+
+		/**
+		 * Request the part of the demand that is not already requested.
+		 */
+		synchronized void replenish(long demand) {
+			long requested = this.requested.get();
+			if (requested == Long.MAX_VALUE || demand <= requested) {
+				return;
+			}
+			long n = demand == Long.MAX_VALUE ? Long.MAX_VALUE : demand - requested;
+			addCap(this.requested, n);
+			this.subscription.request(n);
+		}
+
 	}
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.integration.core.MessageSelector;
+import org.springframework.integration.util.RingBufferQueue;
+import org.springframework.integration.util.RingBufferQueue.ProducerType;
+import org.springframework.integration.util.RingBufferQueue.WaitStrategy;
+import org.springframework.messaging.Message;
+
+/**
+ * A {@link QueueChannel} backed by a bounded, pre-allocated {@link RingBufferQueue}
+ * instead of a {@link java.util.concurrent.LinkedBlockingQueue}: sending and receiving
+ * neither allocate queue nodes nor take locks, which gives much lower hand-off latency
+ * between producer threads and polling consumers.
+ * <p>The capacity is rounded up to the next power of two (and at least 2). Use
+ * {@link ProducerType#SINGLE} only if exactly one thread sends to the channel.
+ *
+ * @author agent
+ * @since 5.0
+ * @see RingBufferQueue
+ */
+public class RingBufferChannel extends QueueChannel {
+
+	private final RingBufferQueue<Message<?>> ringBuffer;
+
+	/**
+	 * Create a multi-producer channel with the {@link WaitStrategy#BLOCKING} strategy.
+	 * @param capacity the capacity (rounded up to a power of two, at least 2).
+	 */
+	public RingBufferChannel(int capacity) {
+		this(capacity, ProducerType.MULTI, WaitStrategy.BLOCKING);
+	}
+
+	/**
+	 * Create a channel.
+	 * @param capacity the capacity (rounded up to a power of two, at least 2).
+	 * @param producerType whether one or many threads send to this channel.
+	 * @param waitStrategy how senders and receivers wait when the channel is full or empty.
+	 */
+	public RingBufferChannel(int capacity, ProducerType producerType, WaitStrategy waitStrategy) {
+		this(new RingBufferQueue<Message<?>>(capacity, producerType, waitStrategy));
+	}
+
+	private RingBufferChannel(RingBufferQueue<Message<?>> ringBuffer) {
+		super(ringBuffer);
+		this.ringBuffer = ringBuffer;
+	}
+
+	public int getCapacity() {
+		return this.ringBuffer.getCapacity();
+	}
+
+	public ProducerType getProducerType() {
+		return this.ringBuffer.getProducerType();
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return this.ringBuffer.getWaitStrategy();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The ring buffer can only be consumed from its head, so the messages are
+	 * drained and those accepted by the selector are sent back; they are then queued
+	 * behind any messages sent concurrently. Because that makes the purging thread a
+	 * producer, purging with a selector is not supported for {@link ProducerType#SINGLE}.
+	 */
+	@Override
+	public List<Message<?>> purge(MessageSelector selector) {
+		if (selector == null) {
+			return clear();
+		}
+		if (getProducerType() == ProducerType.SINGLE) {
+			throw new UnsupportedOperationException("A single-producer RingBufferChannel cannot be purged "
+					+ "with a selector; use clear() instead");
+		}
+		List<Message<?>> purgedMessages = new ArrayList<Message<?>>();
+		for (Message<?> message : clear()) {
+			if (!selector.accept(message)) {
+				purgedMessages.add(message);
+			}
+			else if (!this.ringBuffer.offer(message)) {
+				logger.error("Channel '" + this + "' is full; could not requeue message " + message);
+			}
+		}
+		return purgedMessages;
+	}
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.context.IntegrationObjectSupport;
+import org.springframework.integration.support.channel.HeaderChannelRegistry;
+import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.IntegrationManagement;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link HeaderChannelRegistry} for a large number of in-flight channel mappings.
+ * Unlike the {@link DefaultHeaderChannelRegistry}, the mappings are also indexed in
+ * buckets by expiry time, so that the reaper, which runs once per bucket interval
+ * (1 second by default), only visits the mappings that have expired instead of
+ * scanning the whole registry. Channel names are short: a random registry prefix and
+ * a counter, both in base 36.
+ * <p>
+ * Mappings are expired between the time to live and the time to live plus one bucket
+ * interval after their registration. Registration, resolution and expiry counts are
+ * available when counts are enabled (the default).
+ *
+ * @author agent
+ * @since 5.0
+ */
+@ManagedResource
+@IntegrationManagedResource
+public class TimeBucketedHeaderChannelRegistry extends IntegrationObjectSupport
+		implements HeaderChannelRegistry, IntegrationManagement, Lifecycle, Runnable {
+
+	private static final long DEFAULT_TIME_TO_LIVE = 60000;
+
+	private static final long DEFAULT_BUCKET_INTERVAL = 1000;
+
+	private final Map<String, Registration> channels = new ConcurrentHashMap<String, Registration>();
+
+	private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+
+	private final AtomicLong id = new AtomicLong();
+
+	private final String prefix = Long.toString(UUID.randomUUID().getMostSignificantBits() >>> 1, 36) + ".";
+
+	private final LongAdder registrations = new LongAdder();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder expirations = new LongAdder();
+
+	private volatile long timeToLive;
+
+	private volatile long bucketInterval = DEFAULT_BUCKET_INTERVAL;
+
+	private volatile long lastReapedBucket = Long.MIN_VALUE;
+
+	private volatile boolean removeOnGet;
+
+	private volatile boolean countsEnabled = true;
+
+	private volatile boolean loggingEnabled = true;
+
+	private volatile ScheduledFuture<?> reaperScheduledFuture;
+
+	private volatile boolean running;
+
+	private volatile boolean explicitlyStopped;
+
+	/**
+	 * Construct a registry with the default time to live (60 seconds).
+	 */
+	public TimeBucketedHeaderChannelRegistry() {
+		this(DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Construct a registry with the provided default time to live.
+	 * @param timeToLive the time to live in milliseconds.
+	 */
+	public TimeBucketedHeaderChannelRegistry(long timeToLive) {
+		setTimeToLive(timeToLive);
+	}
+
+	/**
+	 * Set the default time to live of the mappings.
+	 * @param timeToLive the time to live in milliseconds.
+	 */
+	public final void setTimeToLive(long timeToLive) {
+		Assert.isTrue(timeToLive > 0, "'timeToLive' must be > 0");
+		this.timeToLive = timeToLive;
+	}
+
+	public final long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	/**
+	 * Set the width of the expiry buckets, which is also the interval at which the
+	 * reaper runs; it cannot be changed once started.
+	 * @param bucketInterval the interval in milliseconds.
+	 */
+	public void setBucketInterval(long bucketInterval) {
+		Assert.isTrue(bucketInterval > 0, "'bucketInterval' must be > 0");
+		Assert.state(!this.running && this.channels.isEmpty(), "The bucket interval cannot be changed once started");
+		this.bucketInterval = bucketInterval;
+	}
+
+	/**
+	 * Set to true to immediately remove the channel mapping when
+	 * {@link #channelNameToChannel(String)} is invoked; the mapping is also removed
+	 * from its expiry bucket, so the channel is not retained until the mapping expires.
+	 * @param removeOnGet true to remove immediately, default false.
+	 */
+	public void setRemoveOnGet(boolean removeOnGet) {
+		this.removeOnGet = removeOnGet;
+	}
+
+	@Override
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		super.setTaskScheduler(taskScheduler);
+	}
+
+	@Override
+	public void setLoggingEnabled(boolean loggingEnabled) {
+		this.loggingEnabled = loggingEnabled;
+	}
+
+	@Override
+	public boolean isLoggingEnabled() {
+		return this.loggingEnabled;
+	}
+
+	@Override
+	public void setCountsEnabled(boolean countsEnabled) {
+		this.countsEnabled = countsEnabled;
+	}
+
+	@Override
+	public boolean isCountsEnabled() {
+		return this.countsEnabled;
+	}
+
+	@Override
+	public void reset() {
+		this.registrations.reset();
+		this.hits.reset();
+		this.misses.reset();
+		this.expirations.reset();
+	}
+
+	@Override
+	public final int size() {
+		return this.channels.size();
+	}
+
+	@ManagedAttribute(description = "The number of channels registered")
+	public long getRegistrationCount() {
+		return this.registrations.sum();
+	}
+
+	@ManagedAttribute(description = "The number of names resolved to a channel")
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	@ManagedAttribute(description = "The number of names not resolved, typically because they expired")
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	@ManagedAttribute(description = "The number of mappings removed by the reaper")
+	public long getExpiredCount() {
+		return this.expirations.sum();
+	}
+
+	@Override
+	public String getComponentType() {
+		return "header-channel-registry";
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		Assert.notNull(getTaskScheduler(), "a task scheduler is required");
+	}
+
+	@Override
+	public synchronized void start() {
+		if (!this.running) {
+			Assert.notNull(getTaskScheduler(), "a task scheduler is required");
+			this.reaperScheduledFuture = getTaskScheduler().scheduleWithFixedDelay(this, this.bucketInterval);
+			this.running = true;
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		this.running = false;
+		if (this.reaperScheduledFuture != null) {
+			this.reaperScheduledFuture.cancel(true);
+			this.reaperScheduledFuture = null;
+		}
+		this.explicitlyStopped = true;
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public Object channelToChannelName(Object channel) {
+		return channelToChannelName(channel, this.timeToLive);
+	}
+
+	@Override
+	public Object channelToChannelName(Object channel, long timeToLive) {
+		if (!this.running && !this.explicitlyStopped && getTaskScheduler() != null) {
+			start();
+		}
+		if (channel instanceof MessageChannel) {
+			String name = this.prefix + Long.toString(this.id.incrementAndGet(), 36);
+			Registration registration = new Registration(name, (MessageChannel) channel,
+					System.currentTimeMillis() + timeToLive);
+			this.channels.put(name, registration);
+			addToBucket(registration);
+			if (this.countsEnabled) {
+				this.registrations.increment();
+			}
+			if (this.loggingEnabled && logger.isDebugEnabled()) {
+				logger.debug("Registered " + channel + " as " + name);
+			}
+			return name;
+		}
+		else {
+			return channel;
+		}
+	}
+
+	@Override
+	public MessageChannel channelNameToChannel(String name) {
+		if (name != null) {
+			Registration registration = this.removeOnGet ? this.channels.remove(name) : this.channels.get(name);
+			if (this.countsEnabled) {
+				(registration != null ? this.hits : this.misses).increment();
+			}
+			if (registration != null) {
+				if (this.removeOnGet) {
+					Bucket bucket = registration.bucket;
+					if (bucket != null) {
+						bucket.registrations.remove(registration);
+					}
+				}
+				if (this.loggingEnabled && logger.isDebugEnabled()) {
+					logger.debug("Retrieved " + registration.channel + " with " + name);
+				}
+				return registration.channel;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Run the reaper immediately.
+	 */
+	@Override
+	public void runReaper() {
+		run();
+	}
+
+	/**
+	 * Remove the mappings of all the buckets whose interval has fully elapsed.
+	 */
+	@Override
+	public synchronized void run() {
+		long now = System.currentTimeMillis();
+		long current = now / this.bucketInterval;
+		int expired = 0;
+		Map.Entry<Long, Bucket> entry;
+		while ((entry = this.buckets.firstEntry()) != null && entry.getKey() < current) {
+			Bucket bucket = entry.getValue();
+			this.lastReapedBucket = entry.getKey();
+			bucket.closed = true;
+			this.buckets.remove(entry.getKey(), bucket);
+			for (Registration registration : bucket.registrations) {
+				if (this.channels.remove(registration.name, registration)) {
+					expired++;
+					if (this.loggingEnabled && logger.isDebugEnabled()) {
+						logger.debug("Expiring " + registration.name + " (" + registration.channel + ")");
+					}
+				}
+			}
+		}
+		if (this.countsEnabled) {
+			this.expirations.add(expired);
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Reaper completed; expired " + expired + ", channels size=" + this.channels.size());
+		}
+	}
+
+	private void addToBucket(Registration registration) {
+		while (true) {
+			long index = Math.max(registration.expireAt / this.bucketInterval, this.lastReapedBucket + 1);
+			Bucket bucket = this.buckets.computeIfAbsent(index, key -> new Bucket());
+			bucket.registrations.add(registration);
+			registration.bucket = bucket;
+			if (!bucket.closed) {
+				return;
+			}
+			// the reaper closed the bucket concurrently and may have missed the registration
+			bucket.registrations.remove(registration);
+		}
+	}
+
+
+	private static final class Registration {
+
+		private final String name;
+
+		private final MessageChannel channel;
+
+		private final long expireAt;
+
+		private volatile Bucket bucket;
+
+		Registration(String name, MessageChannel channel, long expireAt) {
+			this.name = name;
+			this.channel = channel;
+			this.expireAt = expireAt;
+		}
+
+	}
+
+	private static final class Bucket {
+
+		private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+
+		private volatile boolean closed;
+
+	}
+
+}
@@ -37,12 +37,14 @@ import org.springframework.integration.channel.PublishSubscribeChannel;
 import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.handler.LoggingHandler;
+import org.springframework.integration.util.LightweightTaskExecutor;
+import org.springframework.integration.util.LightweightThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
- * A {@link BeanFactoryPostProcessor} implementation that provides default beans for the error handling and task
- * scheduling if those beans have not already been explicitly defined within the registry. It also registers a single
- * null channel with the bean name "nullChannel".
+ * A {@link BeanFactoryPostProcessor} implementation that provides default beans for the error handling, task
+ * scheduling and task execution if those beans have not already been explicitly defined within the registry.
+ * It also registers a single null channel with the bean name "nullChannel".
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -67,6 +69,9 @@ class DefaultConfiguringBeanFactoryPostProcessor implements BeanFactoryPostProce
 			if (!beanFactory.containsBean(IntegrationContextUtils.TASK_SCHEDULER_BEAN_NAME)) {
 				this.registerTaskScheduler(registry);
 			}
+			if (!beanFactory.containsBean(IntegrationContextUtils.TASK_EXECUTOR_BEAN_NAME)) {
+				this.registerTaskExecutor(registry);
+			}
 			this.registerIdGeneratorConfigurer(registry);
 		}
 		else if (this.logger.isWarnEnabled()) {
@@ -160,7 +165,11 @@ class DefaultConfiguringBeanFactoryPostProcessor implements BeanFactoryPostProce
 		}
 		BeanDefinition scheduler = BeanDefinitionBuilder.genericBeanDefinition(ThreadPoolTaskScheduler.class)
 				.addPropertyValue("poolSize", IntegrationProperties.getExpressionFor(IntegrationProperties.TASK_SCHEDULER_POOL_SIZE))
-				.addPropertyValue("threadNamePrefix", "task-scheduler-")
+				.addPropertyValue("threadFactory", BeanDefinitionBuilder.genericBeanDefinition(LightweightThreadFactory.class)
+						.addConstructorArgValue("task-scheduler-")
+						.addConstructorArgValue(
+								IntegrationProperties.getExpressionFor(IntegrationProperties.TASK_EXECUTOR_LIGHTWEIGHT))
+						.getBeanDefinition())
 				.addPropertyValue("rejectedExecutionHandler", new CallerRunsPolicy())
 				.addPropertyValue("errorHandler", new RootBeanDefinition(MessagePublishingErrorHandler.class))
 				.getBeanDefinition();
@@ -168,4 +177,19 @@ class DefaultConfiguringBeanFactoryPostProcessor implements BeanFactoryPostProce
 		registry.registerBeanDefinition(IntegrationContextUtils.TASK_SCHEDULER_BEAN_NAME, scheduler);
 	}
 
+	/**
+	 * Register a lazy-init {@link LightweightTaskExecutor} in the given BeanDefinitionRegistry.
+	 */
+	private void registerTaskExecutor(BeanDefinitionRegistry registry) {
+		BeanDefinition executor = BeanDefinitionBuilder.genericBeanDefinition(LightweightTaskExecutor.class)
+				.addConstructorArgValue("integration-")
+				.addConstructorArgValue(IntegrationProperties.getExpressionFor(IntegrationProperties.TASK_EXECUTOR_LIGHTWEIGHT))
+				.addConstructorArgValue(IntegrationProperties.getExpressionFor(IntegrationProperties.TASK_EXECUTOR_POOL_SIZE))
+				.setLazyInit(true)
+				.getBeanDefinition();
+		executor.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+
+		registry.registerBeanDefinition(IntegrationContextUtils.TASK_EXECUTOR_BEAN_NAME, executor);
+	}
+
 }
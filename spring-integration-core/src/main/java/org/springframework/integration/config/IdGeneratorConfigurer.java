@@ -30,9 +30,14 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ApplicationContextEvent;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
+import org.springframework.integration.support.IdGenerators;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.IdGenerator;
+import org.springframework.util.JdkIdGenerator;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * @author Oleg Zhurakousky
@@ -57,6 +62,12 @@ public final class IdGeneratorConfigurer implements ApplicationListener<Applicat
 					IdGeneratorConfigurer.generatorContextId.add(context.getId());
 				}
 			}
+			else {
+				IdGenerator idGenerator = this.configuredIdGenerator(context);
+				if (idGenerator != null && this.setIdGenerator(idGenerator)) {
+					IdGeneratorConfigurer.generatorContextId.add(context.getId());
+				}
+			}
 		}
 		else if (event instanceof ContextClosedEvent) {
 			if (IdGeneratorConfigurer.generatorContextId.contains(context.getId())) {
@@ -74,6 +85,50 @@ public final class IdGeneratorConfigurer implements ApplicationListener<Applicat
 			if (this.logger.isDebugEnabled()) {
 				this.logger.debug("using custom MessageHeaders.IdGenerator [" + idGeneratorBean.getClass() + "]");
 			}
+			return setIdGenerator(idGeneratorBean);
+		}
+		catch (NoSuchBeanDefinitionException e) {
+			// No custom IdGenerator. We will use the default.
+			int idBeans = context.getBeansOfType(IdGenerator.class).size();
+			if (idBeans > 1 && this.logger.isWarnEnabled()) {
+				this.logger.warn("Found too many 'IdGenerator' beans (" + idBeans + ") " +
+						"Will use the existing UUID strategy.");
+			}
+			else if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Unable to locate MessageHeaders.IdGenerator. Will use the existing UUID strategy.");
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Return the {@link IdGenerator} selected with the
+	 * {@link IntegrationProperties#MESSAGE_ID_GENERATOR} property, if any.
+	 */
+	private IdGenerator configuredIdGenerator(ApplicationContext context) {
+		String idGenerator = IntegrationContextUtils.getIntegrationProperties(context)
+				.getProperty(IntegrationProperties.MESSAGE_ID_GENERATOR);
+		if (!StringUtils.hasText(idGenerator)) {
+			return null;
+		}
+		idGenerator = idGenerator.trim();
+		if ("timeOrdered".equals(idGenerator)) {
+			return new IdGenerators.TimeOrderedIdGenerator();
+		}
+		else if ("jdk".equals(idGenerator)) {
+			return new JdkIdGenerator();
+		}
+		else if ("simpleIncrementing".equals(idGenerator)) {
+			return new IdGenerators.SimpleIncrementingIdGenerator();
+		}
+		else {
+			throw new BeanDefinitionStoreException("Unknown '" + IntegrationProperties.MESSAGE_ID_GENERATOR
+					+ "' [" + idGenerator + "]; expected 'timeOrdered', 'jdk' or 'simpleIncrementing'");
+		}
+	}
+
+	private boolean setIdGenerator(IdGenerator idGeneratorBean) {
+		try {
 			Field idGeneratorField = ReflectionUtils.findField(MessageHeaders.class, "idGenerator");
 			ReflectionUtils.makeAccessible(idGeneratorField);
 			IdGenerator currentIdGenerator = (IdGenerator) ReflectionUtils.getField(idGeneratorField, null);
@@ -102,18 +157,6 @@ public final class IdGeneratorConfigurer implements ApplicationListener<Applicat
 			ReflectionUtils.setField(idGeneratorField, null, idGeneratorBean);
 			IdGeneratorConfigurer.theIdGenerator = idGeneratorBean;
 		}
-		catch (NoSuchBeanDefinitionException e) {
-			// No custom IdGenerator. We will use the default.
-			int idBeans = context.getBeansOfType(IdGenerator.class).size();
-			if (idBeans > 1 && this.logger.isWarnEnabled()) {
-				this.logger.warn("Found too many 'IdGenerator' beans (" + idBeans + ") " +
-						"Will use the existing UUID strategy.");
-			}
-			else if (this.logger.isDebugEnabled()) {
-				this.logger.debug("Unable to locate MessageHeaders.IdGenerator. Will use the existing UUID strategy.");
-			}
-			return false;
-		}
 		catch (IllegalStateException e) {
 			// thrown from ReflectionUtils
 			if (this.logger.isWarnEnabled()) {
@@ -45,6 +45,8 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 
 	private volatile String delimiters;
 
+	private volatile Integer windowSize;
+
 
 	public void setSendTimeout(Long sendTimeout) {
 		this.sendTimeout = sendTimeout;
@@ -66,6 +68,10 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 		this.delimiters = delimiters;
 	}
 
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
 	@Override
 	protected MessageHandler createMethodInvokingHandler(Object targetObject, String targetMethodName) {
 		Assert.notNull(targetObject, "targetObject must not be null");
@@ -110,7 +116,7 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 	@Override
 	protected boolean canBeUsedDirect(AbstractMessageProducingHandler handler) {
 		return handler instanceof AbstractMessageSplitter
-				|| (this.applySequence == null && this.delimiters == null);
+				|| (this.applySequence == null && this.delimiters == null && this.windowSize == null);
 	}
 
 	@Override
@@ -132,6 +138,8 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
 			Assert.isNull(this.delimiters, "Cannot set delimiters if the referenced bean is not an "
 					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
+			Assert.isNull(this.windowSize, "Cannot set windowSize if the referenced bean is "
+					+ "an AbstractReplyProducingMessageHandler, but not an AbstractMessageSplitter");
 		}
 		else {
 			AbstractMessageSplitter splitter = (AbstractMessageSplitter) handler;
@@ -143,6 +151,9 @@ public class SplitterFactoryBean extends AbstractStandardMessageHandlerFactoryBe
 			if (this.applySequence != null) {
 				splitter.setApplySequence(this.applySequence);
 			}
+			if (this.windowSize != null) {
+				splitter.setWindowSize(this.windowSize);
+			}
 		}
 	}
 
@@ -20,6 +20,7 @@ import org.w3c.dom.Element;
 
 import org.springframework.beans.factory.config.TypedStringValue;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.beans.factory.xml.ParserContext;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.ExecutorChannel;
@@ -27,6 +28,9 @@ import org.springframework.integration.channel.FixedSubscriberChannel;
 import org.springframework.integration.channel.PriorityChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.channel.RendezvousChannel;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.dispatcher.LeastInFlightLoadBalancingStrategy;
+import org.springframework.integration.dispatcher.PowerOfTwoChoicesLoadBalancingStrategy;
 import org.springframework.integration.store.MessageGroupQueue;
 import org.springframework.util.StringUtils;
 import org.springframework.util.xml.DomUtils;
@@ -101,6 +105,12 @@ public class PointToPointChannelParser extends AbstractChannelParser {
 		else if ((queueElement = DomUtils.getChildElementByTagName(element, "rendezvous-queue")) != null) {
 			builder = BeanDefinitionBuilder.genericBeanDefinition(RendezvousChannel.class);
 		}
+		else if ((queueElement = DomUtils.getChildElementByTagName(element, "ring-buffer-queue")) != null) {
+			builder = BeanDefinitionBuilder.genericBeanDefinition(RingBufferChannel.class);
+			parseQueueCapacity(builder, queueElement);
+			builder.addConstructorArgValue(enumValue(queueElement, "producer-type", "multi"));
+			builder.addConstructorArgValue(enumValue(queueElement, "wait-strategy", "blocking"));
+		}
 
 		Element dispatcherElement = DomUtils.getChildElementByTagName(element, "dispatcher");
 
@@ -157,6 +167,12 @@ public class PointToPointChannelParser extends AbstractChannelParser {
 				if ("none".equals(loadBalancer)) {
 					builder.addConstructorArgValue(null);
 				}
+				else if ("least-in-flight".equals(loadBalancer)) {
+					builder.addConstructorArgValue(new RootBeanDefinition(LeastInFlightLoadBalancingStrategy.class));
+				}
+				else if ("power-of-two-choices".equals(loadBalancer)) {
+					builder.addConstructorArgValue(new RootBeanDefinition(PowerOfTwoChoicesLoadBalancingStrategy.class));
+				}
 			}
 
 			IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, dispatcherElement, "failover");
@@ -174,6 +190,15 @@ public class PointToPointChannelParser extends AbstractChannelParser {
 		return false;
 	}
 
+	private String enumValue(Element queueElement, String attribute, String defaultValue) {
+		String value = queueElement.getAttribute(attribute);
+		if (!StringUtils.hasText(value)) {
+			value = defaultValue;
+		}
+		// placeholders are resolved later, so they must resolve to the enum constant name
+		return value.contains("${") ? value : value.trim().toUpperCase().replace('-', '_');
+	}
+
 	private boolean parseQueueRef(BeanDefinitionBuilder builder, Element queueElement) {
 		String queueRef = queueElement.getAttribute("ref");
 		if (StringUtils.hasText(queueRef)) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -45,6 +45,8 @@ public class PublishSubscribeChannelParser extends AbstractChannelParser {
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "apply-sequence");
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "max-subscribers");
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "min-subscribers");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "wait-for-completion");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "completion-timeout");
 		return builder;
 	}
 
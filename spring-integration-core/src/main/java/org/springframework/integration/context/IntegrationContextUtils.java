@@ -19,9 +19,11 @@ package org.springframework.integration.context;
 import java.util.Properties;
 
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.config.IntegrationConfigUtils;
 import org.springframework.integration.metadata.MetadataStore;
+import org.springframework.integration.util.LightweightTaskExecutor;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.util.Assert;
@@ -38,6 +40,8 @@ public abstract class IntegrationContextUtils {
 
 	public static final String TASK_SCHEDULER_BEAN_NAME = "taskScheduler";
 
+	public static final String TASK_EXECUTOR_BEAN_NAME = "integrationTaskExecutor";
+
 	public static final String ERROR_CHANNEL_BEAN_NAME = "errorChannel";
 
 	public static final String NULL_CHANNEL_BEAN_NAME = "nullChannel";
@@ -116,6 +120,43 @@ public abstract class IntegrationContextUtils {
 		return taskScheduler;
 	}
 
+	/**
+	 * @param beanFactory BeanFactory for lookup, must not be null.
+	 * @return The {@link AsyncTaskExecutor} bean whose name is "integrationTaskExecutor" if
+	 * available and the {@link IntegrationProperties#TASK_EXECUTOR_LIGHTWEIGHT} property is
+	 * {@code true}; {@code null} otherwise.
+	 * @since 5.0
+	 */
+	public static AsyncTaskExecutor getLightweightTaskExecutor(BeanFactory beanFactory) {
+		if (Boolean.parseBoolean(getIntegrationProperties(beanFactory)
+				.getProperty(IntegrationProperties.TASK_EXECUTOR_LIGHTWEIGHT))) {
+			return getBeanOfType(beanFactory, TASK_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+		}
+		else {
+			return null;
+		}
+	}
+
+	/**
+	 * Return the lightweight task executor, as {@link #getLightweightTaskExecutor(BeanFactory)},
+	 * only if it is a {@link LightweightTaskExecutor} whose tasks run on virtual threads;
+	 * for components that would otherwise dedicate a platform thread to each long-lived
+	 * (e.g. blocking read) task, and which keep their own executor when it returns null.
+	 * @param beanFactory BeanFactory for lookup, must not be null.
+	 * @return the executor or {@code null}.
+	 * @since 5.0
+	 */
+	public static AsyncTaskExecutor getVirtualThreadTaskExecutor(BeanFactory beanFactory) {
+		AsyncTaskExecutor lightweightTaskExecutor = getLightweightTaskExecutor(beanFactory);
+		if (lightweightTaskExecutor instanceof LightweightTaskExecutor
+				&& ((LightweightTaskExecutor) lightweightTaskExecutor).isVirtual()) {
+			return lightweightTaskExecutor;
+		}
+		else {
+			return null;
+		}
+	}
+
 	/**
 	 * @param beanFactory BeanFactory for lookup, must not be null.
 	 * @return the instance of {@link StandardEvaluationContext} bean whose name is "integrationEvaluationContext" .
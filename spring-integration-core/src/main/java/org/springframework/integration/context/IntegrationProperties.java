@@ -71,6 +71,35 @@ public final class IntegrationProperties {
 	 */
 	public static final String READ_ONLY_HEADERS = INTEGRATION_PROPERTIES_PREFIX + "readOnly.headers";
 
+	/**
+	 * Specifies the {@link org.springframework.util.IdGenerator} for message ids when no
+	 * {@code IdGenerator} bean is declared: {@code timeOrdered}
+	 * ({@link org.springframework.integration.support.IdGenerators.TimeOrderedIdGenerator}),
+	 * {@code jdk} ({@link org.springframework.util.JdkIdGenerator}) or
+	 * {@code simpleIncrementing}
+	 * ({@link org.springframework.integration.support.IdGenerators.SimpleIncrementingIdGenerator});
+	 * empty for the default strategy of the {@link org.springframework.messaging.MessageHeaders}.
+	 * @since 5.0
+	 */
+	public static final String MESSAGE_ID_GENERATOR = INTEGRATION_PROPERTIES_PREFIX + "messageIdGenerator";
+
+	/**
+	 * Specifies whether the threads of the {@code taskScheduler} and {@code integrationTaskExecutor}
+	 * beans initialized by the Integration infrastructure are virtual threads (when the runtime
+	 * offers them) and whether components that block on I/O use the {@code integrationTaskExecutor}
+	 * by default.
+	 * @since 5.0
+	 * @see org.springframework.integration.util.LightweightTaskExecutor
+	 */
+	public static final String TASK_EXECUTOR_LIGHTWEIGHT = INTEGRATION_PROPERTIES_PREFIX + "taskExecutor.lightweight";
+
+	/**
+	 * Specifies the maximum number of platform threads of the {@code integrationTaskExecutor} bean
+	 * initialized by the Integration infrastructure, when virtual threads are not used.
+	 * @since 5.0
+	 */
+	public static final String TASK_EXECUTOR_POOL_SIZE = INTEGRATION_PROPERTIES_PREFIX + "taskExecutor.poolSize";
+
 
 	private static Properties defaults;
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Base class for {@link LoadBalancingStrategy} implementations that take the current
+ * load of the handlers into account. The {@link UnicastingDispatcher} reports each
+ * handler invocation via {@link #beforeHandle(MessageHandler)} and
+ * {@link #afterHandle(MessageHandler, long, boolean)}, from which the number of in-flight
+ * messages and an exponentially weighted moving average (EWMA) of the handling
+ * duration are maintained for each handler.
+ * <p>
+ * A failure is not recorded with its own duration, since a handler that fails fast
+ * would otherwise look like the fastest one and attract the traffic; it is recorded
+ * as twice the highest average duration of the other handlers (or its own duration,
+ * if longer), so the handler is deferred until its successes bring the average down.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public abstract class AbstractLoadAwareLoadBalancingStrategy implements LoadBalancingStrategy {
+
+	private static final int FAILURE_PENALTY = 2;
+
+	private final Map<MessageHandler, HandlerLoad> loads = new ConcurrentHashMap<>();
+
+	private volatile double smoothingFactor = 0.2;
+
+	/**
+	 * Set the weight of the latest duration in the moving average of the handling
+	 * durations; higher values adapt faster to a change of latency. Default 0.2.
+	 * @param smoothingFactor the factor, greater than 0 and at most 1.
+	 */
+	public void setSmoothingFactor(double smoothingFactor) {
+		Assert.isTrue(smoothingFactor > 0 && smoothingFactor <= 1, "'smoothingFactor' must be in (0, 1]");
+		this.smoothingFactor = smoothingFactor;
+	}
+
+	@Override
+	public final Iterator<MessageHandler> getHandlerIterator(Message<?> message, Collection<MessageHandler> handlers) {
+		int size = handlers.size();
+		if (size < 2) {
+			return handlers.iterator();
+		}
+		if (this.loads.size() > size) {
+			this.loads.keySet().retainAll(handlers);
+		}
+		MessageHandler[] handlerArray = handlers.toArray(new MessageHandler[size]);
+		HandlerLoad[] handlerLoads = new HandlerLoad[handlerArray.length];
+		for (int i = 0; i < handlerArray.length; i++) {
+			handlerLoads[i] = load(handlerArray[i]);
+		}
+		return Arrays.asList(order(handlerArray, handlerLoads)).iterator();
+	}
+
+	/**
+	 * Order the handlers, the first being the one to try first.
+	 * @param handlers the handlers, at least two; the array may be reordered in place.
+	 * @param loads the load of each handler, at the same index.
+	 * @return the ordered handlers.
+	 */
+	protected abstract MessageHandler[] order(MessageHandler[] handlers, HandlerLoad[] loads);
+
+	/**
+	 * Invoked by the dispatcher before the handler handles a message.
+	 * @param handler the handler.
+	 * @return the start time to pass to {@link #afterHandle(MessageHandler, long, boolean)}.
+	 */
+	public long beforeHandle(MessageHandler handler) {
+		load(handler).inFlight.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Invoked by the dispatcher after the handler has handled a message, successfully
+	 * or not.
+	 * @param handler the handler.
+	 * @param start the time returned by {@link #beforeHandle(MessageHandler)}.
+	 * @param success false if the handler threw an exception.
+	 */
+	public void afterHandle(MessageHandler handler, long start, boolean success) {
+		HandlerLoad load = this.loads.get(handler);
+		if (load != null) { // null if unsubscribed meanwhile
+			load.inFlight.decrementAndGet();
+			long duration = System.nanoTime() - start;
+			if (!success) {
+				duration = Math.max(duration, slowestAverageDuration(load)) * FAILURE_PENALTY;
+			}
+			load.record(duration, this.smoothingFactor);
+		}
+	}
+
+	/**
+	 * @param handler the handler.
+	 * @return the number of messages the handler is currently handling.
+	 */
+	public int getInFlight(MessageHandler handler) {
+		HandlerLoad load = this.loads.get(handler);
+		return load == null ? 0 : load.getInFlight();
+	}
+
+	/**
+	 * @param handler the handler.
+	 * @return the moving average of the handling duration in nanoseconds; 0 if the handler
+	 * has not handled any message yet.
+	 */
+	public long getAverageDuration(MessageHandler handler) {
+		HandlerLoad load = this.loads.get(handler);
+		return load == null ? 0 : load.getAverageDuration();
+	}
+
+	private long slowestAverageDuration(HandlerLoad excluded) {
+		long slowest = 0;
+		for (HandlerLoad load : this.loads.values()) {
+			if (load != excluded) {
+				slowest = Math.max(slowest, load.getAverageDuration());
+			}
+		}
+		return slowest;
+	}
+
+	private HandlerLoad load(MessageHandler handler) {
+		HandlerLoad load = this.loads.get(handler);
+		if (load == null) {
+			load = this.loads.computeIfAbsent(handler, h -> new HandlerLoad());
+		}
+		return load;
+	}
+
+
+	/**
+	 * The load of a handler.
+	 */
+	protected static final class HandlerLoad {
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicLong averageDuration = new AtomicLong();
+
+		/**
+		 * @return the number of messages the handler is currently handling.
+		 */
+		public int getInFlight() {
+			return this.inFlight.get();
+		}
+
+		/**
+		 * @return the moving average of the handling duration in nanoseconds; 0 if the
+		 * handler has not handled any message yet.
+		 */
+		public long getAverageDuration() {
+			return this.averageDuration.get();
+		}
+
+		void record(long duration, double smoothingFactor) {
+			long sample = Math.max(duration, 1);
+			while (true) {
+				long current = this.averageDuration.get();
+				long updated = current == 0 ? sample : current + (long) ((sample - current) * smoothingFactor);
+				if (this.averageDuration.compareAndSet(current, Math.max(updated, 1))) {
+					return;
+				}
+			}
+		}
+
+	}
+
+}
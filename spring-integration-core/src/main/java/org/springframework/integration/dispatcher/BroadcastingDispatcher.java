@@ -16,9 +16,14 @@
 
 package org.springframework.integration.dispatcher;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
@@ -29,6 +34,7 @@ import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.MessageDecorator;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.MessageHandlingRunnable;
@@ -43,6 +49,12 @@ import org.springframework.util.Assert;
  * If the 'ignoreFailures' flag is set to <code>true</code> on the other hand, it will make a best effort to send the
  * message to each of its handlers. In other words, when 'ignoreFailures' is <code>true</code>, if it fails to send to
  * any one handler, it will simply log a warn-level message but continue to send the Message to any other handlers.
+ * <p>
+ * If the 'waitForCompletion' flag is set to <code>true</code> and an Executor is provided, the handlers are invoked in
+ * parallel and {@link #dispatch(Message)} returns only when all of them have completed (or the 'completionTimeout' has
+ * elapsed); their failures are then thrown to the sender in an {@link AggregateMessageDeliveryException}. A message
+ * dispatched by a handler that is itself running on such a task is handled on the handler's thread instead, since
+ * waiting for other tasks of a bounded Executor from one of its own threads could deadlock.
  *
  * @author Mark Fisher
  * @author Iwein Fuld
@@ -52,6 +64,13 @@ import org.springframework.util.Assert;
  */
 public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFactoryAware {
 
+	/**
+	 * The default time in milliseconds to wait for the handlers when 'waitForCompletion' is true.
+	 */
+	public static final long DEFAULT_COMPLETION_TIMEOUT = 30000;
+
+	private static final ThreadLocal<Boolean> inCompletionTask = new ThreadLocal<Boolean>();
+
 	private final boolean requireSubscribers;
 
 	private volatile boolean ignoreFailures;
@@ -62,6 +81,10 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 
 	private volatile int minSubscribers;
 
+	private volatile boolean waitForCompletion;
+
+	private volatile long completionTimeout = DEFAULT_COMPLETION_TIMEOUT;
+
 	private volatile MessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
 
 	private volatile boolean messageBuilderFactorySet;
@@ -131,6 +154,31 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		this.minSubscribers = minSubscribers;
 	}
 
+	/**
+	 * Specify whether {@link #dispatch(Message)} should wait until all handlers invoked by the Executor have
+	 * completed. Failures of the handlers (unless 'ignoreFailures' is <code>true</code>) are then thrown to the sender
+	 * in an {@link AggregateMessageDeliveryException}, rather than being left to the Executor. Has no effect when no
+	 * Executor is provided, since the handlers are then invoked sequentially on the sender's thread. Default:
+	 * <code>false</code>.
+	 * @param waitForCompletion true to wait for the handlers to complete.
+	 * @since 5.0
+	 * @see #setCompletionTimeout(long)
+	 */
+	public void setWaitForCompletion(boolean waitForCompletion) {
+		this.waitForCompletion = waitForCompletion;
+	}
+
+	/**
+	 * Specify the maximum time in milliseconds to wait for the handlers when 'waitForCompletion' is
+	 * <code>true</code>; a {@link MessageDeliveryException} is thrown if it elapses. A negative value
+	 * means wait indefinitely. Default: {@link #DEFAULT_COMPLETION_TIMEOUT}.
+	 * @param completionTimeout the timeout in milliseconds.
+	 * @since 5.0
+	 */
+	public void setCompletionTimeout(long completionTimeout) {
+		this.completionTimeout = completionTimeout;
+	}
+
 	public void setMessageHandlingTaskDecorator(MessageHandlingTaskDecorator messageHandlingTaskDecorator) {
 		Assert.notNull(messageHandlingTaskDecorator, "'messageHandlingTaskDecorator' must not be null.");
 		this.messageHandlingTaskDecorator = messageHandlingTaskDecorator;
@@ -159,6 +207,18 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		if (this.requireSubscribers && handlers.size() == 0) {
 			throw new MessageDispatchingException(message, "Dispatcher has no subscribers");
 		}
+		Executor executor = this.executor;
+		Completion completion = null;
+		if (executor != null && this.waitForCompletion) {
+			if (inCompletionTask.get() != null) {
+				// a handler is sending on an Executor thread - waiting for other tasks could exhaust the Executor
+				executor = null;
+			}
+			else {
+				handlers = new ArrayList<MessageHandler>(handlers);
+				completion = new Completion(message, handlers.size());
+			}
+		}
 		int sequenceSize = handlers.size();
 		Message<?> messageToSend = message;
 		UUID sequenceId = null;
@@ -176,9 +236,12 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 				}
 			}
 
-			if (this.executor != null) {
+			if (executor != null) {
 				Runnable task = createMessageHandlingTask(handler, messageToSend);
-				this.executor.execute(task);
+				if (completion != null) {
+					task = completion.track(task, messageToSend);
+				}
+				executor.execute(task);
 				dispatched++;
 			}
 			else {
@@ -187,6 +250,9 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 				}
 			}
 		}
+		if (completion != null) {
+			completion.await(this.completionTimeout);
+		}
 		if (dispatched == 0 && this.minSubscribers == 0 && logger.isDebugEnabled()) {
 			if (sequenceSize > 0) {
 				logger.debug("No subscribers received message, default behavior is ignore");
@@ -250,4 +316,70 @@ public class BroadcastingDispatcher extends AbstractDispatcher implements BeanFa
 		}
 	}
 
+	/**
+	 * Tracks the completion of the handlers invoked by the Executor for a single dispatch.
+	 */
+	private static final class Completion {
+
+		private final Message<?> message;
+
+		private final CountDownLatch latch;
+
+		private final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+
+		Completion(Message<?> message, int handlerCount) {
+			this.message = message;
+			this.latch = new CountDownLatch(handlerCount);
+		}
+
+		Runnable track(final Runnable task, final Message<?> messageToSend) {
+			return new Runnable() {
+
+				@Override
+				public void run() {
+					Boolean outer = inCompletionTask.get();
+					inCompletionTask.set(Boolean.TRUE);
+					try {
+						task.run();
+					}
+					catch (Exception e) {
+						Completion.this.failures.add(e);
+					}
+					catch (Error e) {
+						Completion.this.failures.add(new MessagingException(messageToSend, "Failed to handle Message", e));
+						throw e;
+					}
+					finally {
+						if (outer == null) {
+							inCompletionTask.remove();
+						}
+						Completion.this.latch.countDown();
+					}
+				}
+
+			};
+		}
+
+		void await(long timeout) {
+			try {
+				if (timeout < 0) {
+					this.latch.await();
+				}
+				else if (!this.latch.await(timeout, TimeUnit.MILLISECONDS)) {
+					throw new MessageDeliveryException(this.message, "Timed out after " + timeout
+							+ "ms waiting for " + this.latch.getCount() + " subscriber(s) to handle the Message");
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MessageDeliveryException(this.message, "Interrupted while waiting for subscribers", e);
+			}
+			if (!this.failures.isEmpty()) {
+				throw new AggregateMessageDeliveryException(this.message,
+						this.failures.size() + " subscriber(s) failed to handle the Message", this.failures);
+			}
+		}
+
+	}
+
 }
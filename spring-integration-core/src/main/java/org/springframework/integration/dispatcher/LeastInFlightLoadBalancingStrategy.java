@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * A load-aware {@link LoadBalancingStrategy} that tries the handler with the fewest
+ * in-flight messages first, so a slow handler (such as a remote gateway) is bypassed
+ * while it is busy instead of accumulating messages. The other handlers follow in
+ * increasing order of in-flight messages. The handlers sharing the fewest in-flight
+ * messages are rotated as with the {@link RoundRobinLoadBalancingStrategy}.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class LeastInFlightLoadBalancingStrategy extends AbstractLoadAwareLoadBalancingStrategy {
+
+	private final AtomicInteger rotation = new AtomicInteger();
+
+	@Override
+	protected MessageHandler[] order(MessageHandler[] handlers, HandlerLoad[] loads) {
+		int size = handlers.length;
+		MessageHandler[] ordered = new MessageHandler[size];
+		int[] inFlight = new int[size];
+		// stable insertion sort on a snapshot of the in-flight counts
+		for (int i = 0; i < size; i++) {
+			int count = loads[i].getInFlight();
+			int j = i;
+			while (j > 0 && inFlight[j - 1] > count) {
+				ordered[j] = ordered[j - 1];
+				inFlight[j] = inFlight[j - 1];
+				j--;
+			}
+			ordered[j] = handlers[i];
+			inFlight[j] = count;
+		}
+		int ties = 1;
+		while (ties < size && inFlight[ties] == inFlight[0]) {
+			ties++;
+		}
+		if (ties > 1) {
+			rotate(ordered, ties, (this.rotation.getAndIncrement() & Integer.MAX_VALUE) % ties);
+		}
+		return ordered;
+	}
+
+	private static void rotate(MessageHandler[] handlers, int length, int distance) {
+		if (distance > 0) {
+			MessageHandler[] head = new MessageHandler[distance];
+			System.arraycopy(handlers, 0, head, 0, distance);
+			System.arraycopy(handlers, distance, handlers, 0, length - distance);
+			System.arraycopy(head, 0, handlers, length - distance, distance);
+		}
+	}
+
+}
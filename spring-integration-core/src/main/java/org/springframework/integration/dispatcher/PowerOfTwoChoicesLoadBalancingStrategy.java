@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * A load-aware {@link LoadBalancingStrategy} that samples two handlers at random and
+ * tries the less loaded one first ("power of two choices"); the load of a handler is its
+ * number of in-flight messages plus one, multiplied by the moving average of its handling
+ * duration. An idle handler that has not handled any message yet is preferred, so that its
+ * duration gets measured. The other handler of the sample follows, then the remaining
+ * handlers in their subscription order.
+ * <p>
+ * Compared to the {@link LeastInFlightLoadBalancingStrategy}, the cost of the selection
+ * doesn't depend on the number of handlers and the load is spread more evenly when
+ * many senders see the same least loaded handler.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class PowerOfTwoChoicesLoadBalancingStrategy extends AbstractLoadAwareLoadBalancingStrategy {
+
+	@Override
+	protected MessageHandler[] order(MessageHandler[] handlers, HandlerLoad[] loads) {
+		int size = handlers.length;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int first = random.nextInt(size);
+		int second = random.nextInt(size - 1);
+		if (second >= first) {
+			second++;
+		}
+		if (cost(loads[second]) < cost(loads[first])) {
+			int swap = first;
+			first = second;
+			second = swap;
+		}
+		MessageHandler[] ordered = new MessageHandler[size];
+		ordered[0] = handlers[first];
+		ordered[1] = handlers[second];
+		int next = 2;
+		for (int i = 0; i < size; i++) {
+			if (i != first && i != second) {
+				ordered[next++] = handlers[i];
+			}
+		}
+		return ordered;
+	}
+
+	private static double cost(HandlerLoad load) {
+		int inFlight = load.getInFlight();
+		long averageDuration = load.getAverageDuration();
+		if (averageDuration == 0) {
+			// not measured yet: probe it unless it is already busy with its first messages
+			return inFlight == 0 ? 0 : Double.MAX_VALUE;
+		}
+		return (inFlight + 1) * (double) averageDuration;
+	}
+
+}
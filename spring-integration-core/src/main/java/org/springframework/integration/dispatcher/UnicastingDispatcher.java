@@ -41,7 +41,8 @@ import org.springframework.util.Assert;
  * {@link AggregateMessageDeliveryException}.
  * <p>
  * A load-balancing strategy may be provided to this class to control the order in
- * which the handlers will be tried.
+ * which the handlers will be tried. An {@link AbstractLoadAwareLoadBalancingStrategy}
+ * is notified of each handler invocation, to track the load of the handlers.
  *
  * @author Iwein Fuld
  * @author Mark Fisher
@@ -149,13 +150,19 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 			return true;
 		}
 		boolean success = false;
-		Iterator<MessageHandler> handlerIterator = this.getHandlerIterator(message);
+		LoadBalancingStrategy loadBalancingStrategy = this.loadBalancingStrategy;
+		AbstractLoadAwareLoadBalancingStrategy loadAwareStrategy =
+				loadBalancingStrategy instanceof AbstractLoadAwareLoadBalancingStrategy
+						? (AbstractLoadAwareLoadBalancingStrategy) loadBalancingStrategy
+						: null;
+		Iterator<MessageHandler> handlerIterator = this.getHandlerIterator(loadBalancingStrategy, message);
 		if (!handlerIterator.hasNext()) {
 			throw new MessageDispatchingException(message, "Dispatcher has no subscribers");
 		}
 		List<RuntimeException> exceptions = new ArrayList<RuntimeException>();
 		while (!success && handlerIterator.hasNext()) {
 			MessageHandler handler = handlerIterator.next();
+			long start = loadAwareStrategy != null ? loadAwareStrategy.beforeHandle(handler) : 0;
 			try {
 				handler.handleMessage(message);
 				success = true; // we have a winner.
@@ -165,6 +172,11 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 				exceptions.add(runtimeException);
 				this.handleExceptions(exceptions, message, !handlerIterator.hasNext());
 			}
+			finally {
+				if (loadAwareStrategy != null) {
+					loadAwareStrategy.afterHandle(handler, start, success);
+				}
+			}
 		}
 		return success;
 	}
@@ -174,9 +186,11 @@ public class UnicastingDispatcher extends AbstractDispatcher {
 	 * Delegates to a {@link LoadBalancingStrategy} if available. Otherwise,
 	 * it simply returns the Iterator for the existing handler List.
 	 */
-	private Iterator<MessageHandler> getHandlerIterator(Message<?> message) {
-		if (this.loadBalancingStrategy != null) {
-			return this.loadBalancingStrategy.getHandlerIterator(message, this.getHandlers());
+	private Iterator<MessageHandler> getHandlerIterator(LoadBalancingStrategy loadBalancingStrategy,
+			Message<?> message) {
+
+		if (loadBalancingStrategy != null) {
+			return loadBalancingStrategy.getHandlerIterator(message, this.getHandlers());
 		}
 		return this.getHandlers().iterator();
 	}
@@ -16,7 +16,11 @@
 
 package org.springframework.integration.endpoint;
 
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+
 import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.integration.channel.ReactiveChannel;
 import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.history.MessageHistory;
@@ -28,6 +32,8 @@ import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import reactor.core.publisher.Flux;
+
 /**
  * A support class for producer endpoints that provides a setter for the
  * output channel and a convenience method for sending Messages.
@@ -51,6 +57,8 @@ public abstract class MessageProducerSupport extends AbstractEndpoint implements
 
 	private volatile boolean shouldTrack = false;
 
+	private volatile Subscription publisherSubscription;
+
 	protected MessageProducerSupport() {
 		this.setPhase(Integer.MAX_VALUE / 2);
 	}
@@ -153,11 +161,57 @@ public abstract class MessageProducerSupport extends AbstractEndpoint implements
 	}
 
 	/**
-	 * Takes no action by default. Subclasses may override this if they
-	 * need lifecycle-managed behavior.
+	 * Cancels the subscription made by {@link #subscribeToPublisher(Publisher)}, if any;
+	 * takes no other action. Subclasses may override this if they need lifecycle-managed
+	 * behavior; if they subscribe to a publisher, they must call {@code super.doStop()}.
 	 */
 	@Override
 	protected void doStop() {
+		Subscription subscription = this.publisherSubscription;
+		if (subscription != null) {
+			this.publisherSubscription = null;
+			subscription.cancel();
+		}
+	}
+
+	/**
+	 * Subscribe to the provided {@link Publisher} and send its messages to the output
+	 * channel. When the output channel is a {@link ReactiveChannel}, the publisher is
+	 * only requested the demand of the channel's subscribers, so the messages are produced
+	 * at the rate the downstream flow can handle; otherwise each message is sent as it is
+	 * emitted. The subscription is cancelled when this producer is stopped; a message
+	 * already emitted by the publisher at that time is still sent, and completes the
+	 * stream. An error signalled by the publisher is sent to the error channel (or
+	 * logged, if there is none).
+	 * @param publisher the publisher.
+	 * @since 5.0
+	 */
+	protected void subscribeToPublisher(Publisher<Message<?>> publisher) {
+		Assert.notNull(publisher, "'publisher' must not be null");
+		Flux<Message<?>> messages = Flux.from(publisher)
+				.doOnSubscribe(subscription -> this.publisherSubscription = subscription)
+				.takeUntil(message -> !isRunning());
+		MessageChannel outputChannel = getOutputChannel();
+		if (outputChannel instanceof ReactiveChannel) {
+			((ReactiveChannel) outputChannel).subscribeTo(messages
+					.map(message -> this.shouldTrack
+							? MessageHistory.write(message, this, getMessageBuilderFactory())
+							: message)
+					.doOnError(this::publisherFailed));
+		}
+		else {
+			messages.subscribe(this::sendMessage, this::publisherFailed);
+		}
+	}
+
+	private void publisherFailed(Throwable t) {
+		MessageChannel errorChannel = getErrorChannel();
+		if (errorChannel != null) {
+			this.messagingTemplate.send(errorChannel, new ErrorMessage(t));
+		}
+		else {
+			logger.error("The publisher subscribed to by '" + this + "' failed", t);
+		}
 	}
 
 	protected void sendMessage(Message<?> message) {
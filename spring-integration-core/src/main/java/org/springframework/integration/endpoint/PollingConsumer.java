@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.springframework.context.Lifecycle;
 import org.springframework.integration.channel.ExecutorChannelInterceptorAware;
+import org.springframework.integration.channel.QueueChannelOperations;
 import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.router.MessageRouter;
 import org.springframework.integration.transaction.IntegrationResourceHolder;
@@ -34,6 +35,7 @@ import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
@@ -56,6 +58,10 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 
 	private volatile long receiveTimeout = 1000;
 
+	private volatile int batchSize = 1;
+
+	private volatile boolean batchAsList;
+
 	public PollingConsumer(PollableChannel inputChannel, MessageHandler handler) {
 		Assert.notNull(inputChannel, "inputChannel must not be null");
 		Assert.notNull(handler, "handler must not be null");
@@ -74,6 +80,37 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 		this.receiveTimeout = receiveTimeout;
 	}
 
+	/**
+	 * Set the maximum number of messages to drain from the input channel per poll.
+	 * When greater than 1 (and the channel implements {@link QueueChannelOperations}),
+	 * the messages are received with {@link QueueChannelOperations#receiveBatch(int, long)}
+	 * and handled within a single poll - one transaction and one advice chain invocation
+	 * for the whole batch. The receive timeout applies to the first message only.
+	 * Note that {@code maxMessagesPerPoll} then limits the number of batches per poll.
+	 * Default 1 (no batching).
+	 * @param batchSize the batch size.
+	 * @since 5.0
+	 * @see #setBatchAsList(boolean)
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be a positive integer");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * When batching, set to true to deliver each batch to the handler as a single
+	 * message with a {@code List<Message<?>>} payload, for handlers that can process a
+	 * batch at once. By default, the messages of a batch are delivered individually;
+	 * if one fails, the remaining messages are still delivered and the first failure is
+	 * then rethrown (so a transactional poller rolls back the whole batch).
+	 * @param batchAsList true to deliver the batch as a list.
+	 * @since 5.0
+	 * @see #setBatchSize(int)
+	 */
+	public void setBatchAsList(boolean batchAsList) {
+		this.batchAsList = batchAsList;
+	}
+
 	@Override
 	public MessageChannel getInputChannel() {
 		return this.inputChannel;
@@ -115,6 +152,41 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 
 	@Override
 	protected void handleMessage(Message<?> message) {
+		if (message instanceof MessageBatch) {
+			List<Message<?>> messages = ((MessageBatch) message).getPayload();
+			if (this.batchAsList) {
+				doHandleMessage(new GenericMessage<List<Message<?>>>(messages));
+			}
+			else {
+				handleIndividually(messages);
+			}
+		}
+		else {
+			doHandleMessage(message);
+		}
+	}
+
+	private void handleIndividually(List<Message<?>> messages) {
+		RuntimeException failure = null;
+		for (Message<?> message : messages) {
+			try {
+				doHandleMessage(message);
+			}
+			catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				}
+				else {
+					logger.error("Failed to handle batched message; only the first failure is propagated", e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void doHandleMessage(Message<?> message) {
 		Message<?> theMessage = message;
 		Deque<ExecutorChannelInterceptor> interceptorStack = null;
 		try {
@@ -188,6 +260,11 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 
 	@Override
 	protected Message<?> receiveMessage() {
+		if (this.batchSize > 1 && this.inputChannel instanceof QueueChannelOperations) {
+			List<Message<?>> messages = ((QueueChannelOperations) this.inputChannel)
+					.receiveBatch(this.batchSize, this.receiveTimeout);
+			return messages.isEmpty() ? null : new MessageBatch(messages);
+		}
 		return (this.receiveTimeout >= 0)
 				? this.inputChannel.receive(this.receiveTimeout)
 				: this.inputChannel.receive();
@@ -203,4 +280,18 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 		return IntegrationResourceHolder.INPUT_CHANNEL;
 	}
 
+	/**
+	 * Carries a batch from {@link #receiveMessage()} to {@link #handleMessage(Message)};
+	 * it is also the message bound to the transaction synchronization resource holder.
+	 */
+	private static final class MessageBatch extends GenericMessage<List<Message<?>>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private MessageBatch(List<Message<?>> messages) {
+			super(messages);
+		}
+
+	}
+
 }
@@ -26,6 +26,7 @@ import org.springframework.aop.support.AopUtils;
 import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
 import org.springframework.context.Lifecycle;
 import org.springframework.integration.aop.AbstractMessageSourceAdvice;
+import org.springframework.integration.channel.ReactiveChannel;
 import org.springframework.integration.context.ExpressionCapable;
 import org.springframework.integration.core.MessageSource;
 import org.springframework.integration.core.MessagingTemplate;
@@ -41,6 +42,9 @@ import org.springframework.util.Assert;
 /**
  * A Channel Adapter implementation for connecting a
  * {@link MessageSource} to a {@link MessageChannel}.
+ * <p>
+ * When the output channel is a {@link ReactiveChannel}, the source is only polled
+ * while the channel's subscribers have outstanding demand.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -206,6 +210,13 @@ public class SourcePollingChannelAdapter extends AbstractPollingEndpoint
 
 	@Override
 	protected Message<?> receiveMessage() {
+		MessageChannel outputChannel = getOutputChannel();
+		if (outputChannel instanceof ReactiveChannel && !((ReactiveChannel) outputChannel).hasDemand()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("No demand on the output channel, skipping the poll");
+			}
+			return null;
+		}
 		return this.source.receive();
 	}
 
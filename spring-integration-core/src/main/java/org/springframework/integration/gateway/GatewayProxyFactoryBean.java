@@ -47,6 +47,7 @@ import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.integration.annotation.Gateway;
 import org.springframework.integration.annotation.GatewayHeader;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
 import org.springframework.integration.support.management.TrackableComponent;
@@ -115,6 +116,8 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 
 	private volatile AsyncTaskExecutor asyncExecutor = new SimpleAsyncTaskExecutor();
 
+	private volatile boolean asyncExecutorExplicitlySet;
+
 	private volatile Class<?> asyncSubmitType;
 
 	private volatile Class<?> asyncSubmitListenableType;
@@ -255,9 +258,12 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 	 * {@link java.util.concurrent.Future} or {@link org.springframework.util.concurrent.ListenableFuture}.
 	 * Set it to null to disable the async processing, and any
 	 * {@link java.util.concurrent.Future} return types must be returned by the downstream flow.
+	 * Default a {@link SimpleAsyncTaskExecutor}, or the {@code integrationTaskExecutor} bean
+	 * when the {@code spring.integration.taskExecutor.lightweight} property is {@code true}.
 	 * @param executor The executor.
 	 */
 	public void setAsyncExecutor(Executor executor) {
+		this.asyncExecutorExplicitlySet = true;
 		if (executor == null && logger.isInfoEnabled()) {
 			logger.info("A null executor disables the async gateway; " +
 					"methods returning Future<?> will run on the calling thread");
@@ -317,6 +323,12 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 			if (this.channelResolver == null && beanFactory != null) {
 				this.channelResolver = new BeanFactoryChannelResolver(beanFactory);
 			}
+			if (!this.asyncExecutorExplicitlySet && beanFactory != null) {
+				AsyncTaskExecutor lightweightTaskExecutor = IntegrationContextUtils.getLightweightTaskExecutor(beanFactory);
+				if (lightweightTaskExecutor != null) {
+					this.asyncExecutor = lightweightTaskExecutor;
+				}
+			}
 			Class<?> proxyInterface = this.determineServiceInterface();
 			Method[] methods = ReflectionUtils.getAllDeclaredMethods(proxyInterface);
 			for (Method method : methods) {
@@ -29,6 +29,7 @@ import org.springframework.integration.support.management.DefaultMessageHandlerM
 import org.springframework.integration.support.management.IntegrationManagedResource;
 import org.springframework.integration.support.management.MessageHandlerMetrics;
 import org.springframework.integration.support.management.MetricsContext;
+import org.springframework.integration.support.management.Percentiles;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.messaging.Message;
@@ -120,7 +121,7 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 		if (this.loggingEnabled && this.logger.isDebugEnabled()) {
 			this.logger.debug(this + " received message: " + message);
 		}
-		MetricsContext start = null;
+		boolean metricsProcessed = false;
 		boolean countsEnabled = this.countsEnabled;
 		AbstractMessageHandlerMetrics handlerMetrics = this.handlerMetrics;
 		try {
@@ -128,16 +129,25 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 				message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 			}
 			if (countsEnabled) {
-				start = handlerMetrics.beforeHandle();
+				MetricsContext start = handlerMetrics.beforeHandle();
+				boolean success = false;
+				try {
+					this.handleMessageInternal(message);
+					success = true;
+				}
+				finally {
+					// exactly once for each beforeHandle(), whatever is thrown
+					metricsProcessed = true;
+					handlerMetrics.afterHandle(start, success);
+				}
 			}
-			this.handleMessageInternal(message);
-			if (countsEnabled) {
-				handlerMetrics.afterHandle(start, true);
+			else {
+				this.handleMessageInternal(message);
 			}
 		}
 		catch (Exception e) {
-			if (countsEnabled) {
-				handlerMetrics.afterHandle(start, false);
+			if (countsEnabled && !metricsProcessed) {
+				handlerMetrics.afterHandle(null, false);
 			}
 			if (e instanceof MessagingException) {
 				throw (MessagingException) e;
@@ -233,6 +243,16 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport im
 		return this.handlerMetrics.getDuration();
 	}
 
+	@Override
+	public Percentiles getDurationPercentiles() {
+		return this.handlerMetrics.getDurationPercentiles();
+	}
+
+	@Override
+	public Percentiles getDurationIntervalPercentiles() {
+		return this.handlerMetrics.getDurationIntervalPercentiles();
+	}
+
 	@Override
 	public void setStatsEnabled(boolean statsEnabled) {
 		if (statsEnabled) {
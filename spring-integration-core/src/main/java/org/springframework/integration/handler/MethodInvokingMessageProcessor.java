@@ -60,6 +60,17 @@ public class MethodInvokingMessageProcessor<T> extends AbstractMessageProcessor<
 		this.delegate = new MessagingMethodInvokerHelper<T>(targetObject, annotationType, false);
 	}
 
+	/**
+	 * Set to true to always invoke the target method through its SpEL expression
+	 * rather than through the direct invoker.
+	 * @param useSpelInvoker true to use the SpEL invoker.
+	 * @since 5.0
+	 * @see MessagingMethodInvokerHelper#setUseSpelInvoker(boolean)
+	 */
+	public void setUseSpelInvoker(boolean useSpelInvoker) {
+		this.delegate.setUseSpelInvoker(useSpelInvoker);
+	}
+
 	@Override
 	public void setConversionService(ConversionService conversionService) {
 		super.setConversionService(conversionService);
@@ -17,13 +17,21 @@
 package org.springframework.integration.history;
 
 import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.RandomAccess;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -81,10 +89,9 @@ public final class MessageHistory implements List<Properties>, Serializable {
 		Properties metadata = extractMetadata(component);
 		if (!metadata.isEmpty()) {
 			MessageHistory previousHistory = message.getHeaders().get(HEADER_NAME, MessageHistory.class);
-			List<Properties> components = (previousHistory != null) ?
-					new ArrayList<Properties>(previousHistory) : new ArrayList<Properties>();
-			components.add(metadata);
-			MessageHistory history = new MessageHistory(components);
+			MessageHistory history = new MessageHistory(previousHistory != null
+					? AppendOnlyList.append(previousHistory.components, metadata)
+					: AppendOnlyList.append(Collections.<Properties>emptyList(), metadata));
 
 			if (message instanceof MutableMessage) {
 				message.getHeaders().put(HEADER_NAME, history);
@@ -102,6 +109,12 @@ public final class MessageHistory implements List<Properties>, Serializable {
 				message = new AdviceMessage<T>(message.getPayload(), headerAccessor.toMessageHeaders(),
 						((AdviceMessage<?>) message).getInputMessage());
 			}
+			else if (message.getClass() == GenericMessage.class
+					&& messageBuilderFactory instanceof DefaultMessageBuilderFactory) {
+				// what the builder would produce, but copying the headers only once
+				message = new GenericMessage<T>(message.getPayload(),
+						new HistoryHeaderView(message.getHeaders(), history));
+			}
 			else {
 				if (!(message instanceof GenericMessage) &&
 						(messageBuilderFactory instanceof DefaultMessageBuilderFactory ||
@@ -278,6 +291,151 @@ public final class MessageHistory implements List<Properties>, Serializable {
 	}
 
 
+	/**
+	 * The history entries; appending to the most recent history of a flow adds to the
+	 * shared storage in place instead of copying all the previous entries. Only when
+	 * a history is appended to more than once (e.g. after a publish-subscribe channel)
+	 * are the entries copied. Serialized as a plain {@link ArrayList}.
+	 */
+	private static final class AppendOnlyList extends AbstractList<Properties> implements RandomAccess, Serializable {
+
+		private final Storage storage;
+
+		private final int size;
+
+		private AppendOnlyList(Storage storage, int size) {
+			this.storage = storage;
+			this.size = size;
+		}
+
+		static List<Properties> append(List<Properties> components, Properties entry) {
+			if (components instanceof AppendOnlyList) {
+				AppendOnlyList list = (AppendOnlyList) components;
+				Storage storage = list.storage;
+				synchronized (storage) {
+					if (storage.count == list.size) {
+						storage.add(entry);
+						return new AppendOnlyList(storage, list.size + 1);
+					}
+				}
+			}
+			Storage storage = new Storage(components.toArray(new Properties[Math.max(components.size() * 2, 4)]),
+					components.size());
+			storage.add(entry);
+			return new AppendOnlyList(storage, components.size() + 1);
+		}
+
+		@Override
+		public Properties get(int index) {
+			if (index < 0 || index >= this.size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+			}
+			return this.storage.entries[index];
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		private Object writeReplace() {
+			return new ArrayList<Properties>(this);
+		}
+
+	}
+
+	/**
+	 * Storage shared by the {@link AppendOnlyList}s of one flow; entries below
+	 * {@link #count} are never modified.
+	 */
+	private static final class Storage {
+
+		private volatile Properties[] entries;
+
+		private int count; // guarded by this
+
+		Storage(Properties[] entries, int count) {
+			this.entries = entries;
+			this.count = count;
+		}
+
+		void add(Properties entry) {
+			Properties[] entries = this.entries;
+			if (this.count == entries.length) {
+				entries = Arrays.copyOf(entries, entries.length * 2);
+				entries[this.count++] = entry;
+				this.entries = entries;
+			}
+			else {
+				entries[this.count++] = entry;
+			}
+		}
+
+	}
+
+	/**
+	 * Read-only view of message headers with the history header replaced (or added),
+	 * so that building the new {@link org.springframework.messaging.MessageHeaders}
+	 * copies the headers only once.
+	 */
+	private static final class HistoryHeaderView extends AbstractMap<String, Object> {
+
+		private final Map<String, Object> headers;
+
+		private final MessageHistory history;
+
+		HistoryHeaderView(Map<String, Object> headers, MessageHistory history) {
+			this.headers = headers;
+			this.history = history;
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					final Iterator<Map.Entry<String, Object>> iterator =
+							HistoryHeaderView.this.headers.entrySet().iterator();
+					return new Iterator<Map.Entry<String, Object>>() {
+
+						private boolean historyReturned;
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext() || !this.historyReturned;
+						}
+
+						@Override
+						public Map.Entry<String, Object> next() {
+							if (iterator.hasNext()) {
+								Map.Entry<String, Object> entry = iterator.next();
+								if (!HEADER_NAME.equals(entry.getKey())) {
+									return entry;
+								}
+							}
+							if (this.historyReturned) {
+								throw new NoSuchElementException();
+							}
+							this.historyReturned = true;
+							return new AbstractMap.SimpleImmutableEntry<String, Object>(HEADER_NAME,
+									HistoryHeaderView.this.history);
+						}
+
+					};
+				}
+
+				@Override
+				public int size() {
+					Map<String, Object> headers = HistoryHeaderView.this.headers;
+					return headers.containsKey(HEADER_NAME) ? headers.size() : headers.size() + 1;
+				}
+
+			};
+		}
+
+	}
+
 	/**
 	 * Inner class for each Entry in the history.
 	 */
@@ -0,0 +1,589 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link TaskScheduler} based on a hashed timing wheel, for scheduling a very large
+ * number of one-off tasks - such as aggregator group timeouts or delayed messages -
+ * that are frequently cancelled. Scheduling and cancelling are O(1) and lock-free;
+ * a single thread advances the wheel once per tick and hands the expired tasks to the
+ * task executor. Tasks are run no earlier than requested and up to one tick late.
+ * <p>
+ * By default the expired tasks are run by a pool of {@link #setPoolSize(int) one}
+ * daemon thread, as with the {@code ThreadPoolTaskScheduler}, so that a long-running
+ * task doesn't stop the wheel; a {@link #setTaskExecutor(Executor) task executor} can
+ * be provided instead. Only an executor that runs the tasks on the calling thread (such
+ * as {@code Runnable::run}) runs them on the wheel thread, delaying the following ticks;
+ * it is only suitable for tasks that just hand off their work. A running task is never
+ * interrupted on the wheel thread by {@code cancel(true)}.
+ * As with the {@code ThreadPoolTaskScheduler}, exceptions thrown by one-off tasks are
+ * logged by default, and those thrown by repeating tasks stop the repetition.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class TimingWheelTaskScheduler implements TaskScheduler, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(TimingWheelTaskScheduler.class);
+
+	private static final int STATE_INIT = 0;
+
+	private static final int STATE_STARTED = 1;
+
+	private static final int STATE_SHUTDOWN = 2;
+
+	private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+	private final Queue<WheelTask> pending = new ConcurrentLinkedQueue<WheelTask>();
+
+	private final Queue<WheelTask> cancelled = new ConcurrentLinkedQueue<WheelTask>();
+
+	private final long startTime = System.nanoTime();
+
+	private final long tickNanos;
+
+	private final Bucket[] wheel;
+
+	private final int mask;
+
+	private volatile Executor taskExecutor;
+
+	private volatile int poolSize = 1;
+
+	private volatile ExecutorService defaultExecutor;
+
+	private volatile ErrorHandler errorHandler;
+
+	private volatile ThreadFactory threadFactory = defaultThreadFactory();
+
+	private volatile Thread worker;
+
+	private long tick; // wheel thread only
+
+	/**
+	 * Create a scheduler with a 10 millisecond tick and 512 buckets.
+	 */
+	public TimingWheelTaskScheduler() {
+		this(10, TimeUnit.MILLISECONDS, 512);
+	}
+
+	/**
+	 * Create a scheduler with the given tick and number of buckets; tasks due more than
+	 * {@code tickDuration * ticksPerWheel} in the future make several rounds of the wheel.
+	 * @param tickDuration the tick duration.
+	 * @param unit the unit of the tick duration.
+	 * @param ticksPerWheel the number of buckets, rounded up to a power of two.
+	 */
+	public TimingWheelTaskScheduler(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be greater than 0");
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30,
+				"'ticksPerWheel' must be between 1 and 2^30");
+		this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+		int buckets = Integer.highestOneBit(ticksPerWheel);
+		if (buckets < ticksPerWheel) {
+			buckets <<= 1;
+		}
+		this.wheel = new Bucket[buckets];
+		for (int i = 0; i < buckets; i++) {
+			this.wheel[i] = new Bucket();
+		}
+		this.mask = buckets - 1;
+	}
+
+	/**
+	 * Set the executor to run the expired tasks, instead of the default pool; an
+	 * executor that runs them on the calling thread runs them on the wheel thread.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "'taskExecutor' must not be null");
+		Assert.state(this.state.get() == STATE_INIT, "The task executor cannot be changed once started");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the number of threads of the default pool that runs the expired tasks when no
+	 * {@link #setTaskExecutor(Executor) task executor} is provided. Default 1.
+	 * @param poolSize the pool size.
+	 */
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be greater than 0");
+		Assert.state(this.state.get() == STATE_INIT, "The pool size cannot be changed once started");
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Set a custom {@link ErrorHandler} for the exceptions thrown by the tasks; by default
+	 * they are logged and, for repeating tasks, stop the repetition.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Set the factory for the wheel thread; by default a daemon thread named
+	 * {@code timing-wheel-1}.
+	 * @param threadFactory the thread factory.
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		Assert.notNull(threadFactory, "'threadFactory' must not be null");
+		Assert.state(this.state.get() == STATE_INIT, "The thread factory cannot be changed once started");
+		this.threadFactory = threadFactory;
+	}
+
+	/**
+	 * @return the number of tasks that are scheduled and not yet expired or cancelled.
+	 */
+	public int getScheduledTaskCount() {
+		int count = this.pending.size();
+		for (Bucket bucket : this.wheel) {
+			count += bucket.size;
+		}
+		return count;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		Assert.notNull(trigger, "'trigger' must not be null");
+		SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+		Date next = trigger.nextExecutionTime(triggerContext);
+		WheelTask wheelTask = new WheelTask(errorHandling(task, true), 0, trigger, triggerContext);
+		if (next == null) {
+			wheelTask.complete();
+			return wheelTask;
+		}
+		return add(wheelTask, delayFrom(next));
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		return add(new WheelTask(errorHandling(task, false), 0, null, null), delayFrom(startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		Assert.isTrue(period > 0, "'period' must be greater than 0");
+		return add(new WheelTask(errorHandling(task, true), TimeUnit.MILLISECONDS.toNanos(period), null, null),
+				delayFrom(startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		Assert.isTrue(period > 0, "'period' must be greater than 0");
+		return add(new WheelTask(errorHandling(task, true), TimeUnit.MILLISECONDS.toNanos(period), null, null), 0);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be greater than 0");
+		return add(new WheelTask(errorHandling(task, true), -TimeUnit.MILLISECONDS.toNanos(delay), null, null),
+				delayFrom(startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be greater than 0");
+		return add(new WheelTask(errorHandling(task, true), -TimeUnit.MILLISECONDS.toNanos(delay), null, null), 0);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.state.getAndSet(STATE_SHUTDOWN) == STATE_STARTED) {
+			Thread worker = this.worker;
+			worker.interrupt();
+			if (worker != Thread.currentThread()) {
+				try {
+					worker.join(TimeUnit.NANOSECONDS.toMillis(this.tickNanos) * 10 + 1000);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		List<WheelTask> unprocessed = new ArrayList<WheelTask>(this.pending);
+		this.pending.clear();
+		for (Bucket bucket : this.wheel) {
+			bucket.drainTo(unprocessed);
+		}
+		ExecutorService defaultExecutor = this.defaultExecutor;
+		if (defaultExecutor != null) {
+			for (Runnable task : defaultExecutor.shutdownNow()) {
+				if (task instanceof WheelTask) {
+					unprocessed.add((WheelTask) task);
+				}
+			}
+		}
+		for (WheelTask task : unprocessed) {
+			task.cancel(false);
+		}
+		this.cancelled.clear();
+	}
+
+	private static ThreadFactory defaultThreadFactory() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("timing-wheel-");
+		threadFactory.setDaemon(true);
+		return threadFactory;
+	}
+
+	private ExecutorService createDefaultExecutor() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("timing-wheel-task-");
+		threadFactory.setDaemon(true);
+		return Executors.newFixedThreadPool(this.poolSize, threadFactory);
+	}
+
+	private Runnable errorHandling(Runnable task, boolean repeating) {
+		Assert.notNull(task, "'task' must not be null");
+		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, repeating);
+	}
+
+	private static long delayFrom(Date startTime) {
+		Assert.notNull(startTime, "'startTime' must not be null");
+		return TimeUnit.MILLISECONDS.toNanos(startTime.getTime() - System.currentTimeMillis());
+	}
+
+	private WheelTask add(WheelTask task, long delayNanos) {
+		start();
+		task.deadline = System.nanoTime() - this.startTime + Math.max(delayNanos, 0);
+		this.pending.add(task);
+		return task;
+	}
+
+	private void start() {
+		int state = this.state.get();
+		if (state == STATE_STARTED) {
+			return;
+		}
+		if (state == STATE_INIT && this.state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+			if (this.taskExecutor == null) {
+				this.defaultExecutor = createDefaultExecutor();
+				this.taskExecutor = this.defaultExecutor;
+			}
+			this.worker = this.threadFactory.newThread(this::runWheel);
+			this.worker.start();
+			return;
+		}
+		if (this.state.get() == STATE_SHUTDOWN) {
+			throw new TaskRejectedException(this + " has been destroyed");
+		}
+	}
+
+	private void runWheel() {
+		this.tick = (System.nanoTime() - this.startTime) / this.tickNanos;
+		while (this.state.get() == STATE_STARTED) {
+			long deadline = waitForNextTick();
+			if (deadline < 0) {
+				break;
+			}
+			try {
+				removeCancelled();
+				transferPending();
+				this.wheel[(int) (this.tick & this.mask)].expire(deadline);
+			}
+			catch (RuntimeException e) {
+				logger.error("Unexpected exception in the timing wheel", e);
+			}
+			this.tick++;
+		}
+	}
+
+	private long waitForNextTick() {
+		long deadline = this.tickNanos * (this.tick + 1);
+		while (true) {
+			long now = System.nanoTime() - this.startTime;
+			long sleepMillis = (deadline - now + 999999) / 1000000;
+			if (sleepMillis <= 0) {
+				return now;
+			}
+			try {
+				Thread.sleep(sleepMillis);
+			}
+			catch (InterruptedException e) {
+				if (this.state.get() == STATE_SHUTDOWN) {
+					return -1;
+				}
+			}
+		}
+	}
+
+	private void removeCancelled() {
+		WheelTask task;
+		while ((task = this.cancelled.poll()) != null) {
+			if (task.bucket != null) {
+				task.bucket.remove(task);
+			}
+		}
+	}
+
+	private void transferPending() {
+		for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+			WheelTask task = this.pending.poll();
+			if (task == null) {
+				break;
+			}
+			if (task.isCancelled()) {
+				continue;
+			}
+			long ticks = task.deadline / this.tickNanos;
+			task.remainingRounds = (ticks - this.tick) / this.wheel.length;
+			this.wheel[(int) (Math.max(ticks, this.tick) & this.mask)].add(task);
+		}
+	}
+
+	private void execute(WheelTask task) {
+		try {
+			this.taskExecutor.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			logger.error("The task executor rejected " + task, e);
+			task.cancel(false);
+		}
+	}
+
+
+	/**
+	 * A doubly linked list of tasks; only modified by the wheel thread.
+	 */
+	private final class Bucket {
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		private volatile int size;
+
+		void add(WheelTask task) {
+			task.bucket = this;
+			if (this.head == null) {
+				this.head = task;
+				this.tail = task;
+			}
+			else {
+				this.tail.next = task;
+				task.prev = this.tail;
+				this.tail = task;
+			}
+			this.size++;
+		}
+
+		void remove(WheelTask task) {
+			WheelTask next = task.next;
+			if (task.prev != null) {
+				task.prev.next = next;
+			}
+			if (task.next != null) {
+				task.next.prev = task.prev;
+			}
+			if (task == this.head) {
+				this.head = next;
+			}
+			if (task == this.tail) {
+				this.tail = task.prev;
+			}
+			task.prev = null;
+			task.next = null;
+			task.bucket = null;
+			this.size--;
+		}
+
+		void expire(long deadline) {
+			WheelTask task = this.head;
+			while (task != null) {
+				WheelTask next = task.next;
+				if (task.isCancelled()) {
+					remove(task);
+				}
+				else if (task.remainingRounds <= 0) {
+					remove(task);
+					if (task.deadline <= deadline) {
+						execute(task);
+					}
+					else {
+						// not possible unless the tick overtook the deadline computation; retry next tick
+						TimingWheelTaskScheduler.this.pending.add(task);
+					}
+				}
+				else {
+					task.remainingRounds--;
+				}
+				task = next;
+			}
+		}
+
+		void drainTo(List<WheelTask> tasks) {
+			WheelTask task = this.head;
+			while (task != null) {
+				tasks.add(task);
+				task = task.next;
+			}
+			this.head = null;
+			this.tail = null;
+			this.size = 0;
+		}
+
+	}
+
+	/**
+	 * A scheduled task; {@code period} is positive for fixed rate tasks and negative for
+	 * fixed delay tasks.
+	 */
+	private final class WheelTask extends FutureTask<Object> implements ScheduledFuture<Object> {
+
+		private final long period;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext;
+
+		private volatile long deadline;
+
+		private volatile Thread runner;
+
+		// the following are only accessed by the wheel thread
+
+		private long remainingRounds;
+
+		private Bucket bucket;
+
+		private WheelTask next;
+
+		private WheelTask prev;
+
+		WheelTask(Runnable task, long period, Trigger trigger, SimpleTriggerContext triggerContext) {
+			super(task, null);
+			this.period = period;
+			this.trigger = trigger;
+			this.triggerContext = triggerContext;
+		}
+
+		@Override
+		public void run() {
+			Thread thread = Thread.currentThread();
+			this.runner = thread;
+			try {
+				doRun();
+			}
+			finally {
+				this.runner = null;
+				if (thread == TimingWheelTaskScheduler.this.worker
+						&& TimingWheelTaskScheduler.this.state.get() == STATE_STARTED) {
+					// clear an interrupt that raced with the runner check in cancel()
+					Thread.interrupted();
+				}
+			}
+		}
+
+		private void doRun() {
+			if (this.period == 0 && this.trigger == null) {
+				super.run();
+			}
+			else if (this.trigger != null) {
+				Date scheduled = new Date(System.currentTimeMillis() + getDelay(TimeUnit.MILLISECONDS));
+				Date started = new Date();
+				if (runAndReset()) {
+					this.triggerContext.update(scheduled, started, new Date());
+					Date next = this.trigger.nextExecutionTime(this.triggerContext);
+					if (next == null) {
+						set(null);
+					}
+					else {
+						reschedule(System.nanoTime() - TimingWheelTaskScheduler.this.startTime + delayFrom(next));
+					}
+				}
+			}
+			else if (runAndReset()) {
+				reschedule(this.period > 0
+						? this.deadline + this.period
+						: System.nanoTime() - TimingWheelTaskScheduler.this.startTime - this.period);
+			}
+		}
+
+		void complete() {
+			set(null);
+		}
+
+		private void reschedule(long deadline) {
+			this.deadline = deadline;
+			if (TimingWheelTaskScheduler.this.state.get() == STATE_STARTED) {
+				TimingWheelTaskScheduler.this.pending.add(this);
+			}
+			else {
+				cancel(false);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// never interrupt the wheel thread, when the executor runs the task on it
+			boolean interrupt = mayInterruptIfRunning
+					&& this.runner != TimingWheelTaskScheduler.this.worker;
+			boolean cancelled = super.cancel(interrupt);
+			if (cancelled) {
+				TimingWheelTaskScheduler.this.cancelled.add(this);
+			}
+			return cancelled;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.deadline - (System.nanoTime() - TimingWheelTaskScheduler.this.startTime),
+					TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			if (other == this) {
+				return 0;
+			}
+			long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,8 +34,7 @@ import org.springframework.util.Assert;
  * @author Artem Bilan
  * @since 2.0
  */
-abstract class AbstractMessageProcessingSplitter extends AbstractMessageSplitter
-		implements Lifecycle {
+abstract class AbstractMessageProcessingSplitter extends AbstractMessageSplitter {
 
 	private final MessageProcessor<Collection<?>> messageProcessor;
 
@@ -63,6 +62,7 @@ abstract class AbstractMessageProcessingSplitter extends AbstractMessageSplitter
 
 	@Override
 	public void start() {
+		super.start();
 		if (this.messageProcessor instanceof Lifecycle) {
 			((Lifecycle) this.messageProcessor).start();
 		}
@@ -70,6 +70,7 @@ abstract class AbstractMessageProcessingSplitter extends AbstractMessageSplitter
 
 	@Override
 	public void stop() {
+		super.stop();
 		if (this.messageProcessor instanceof Lifecycle) {
 			((Lifecycle) this.messageProcessor).stop();
 		}
@@ -77,7 +78,8 @@ abstract class AbstractMessageProcessingSplitter extends AbstractMessageSplitter
 
 	@Override
 	public boolean isRunning() {
-		return !(this.messageProcessor instanceof Lifecycle) || ((Lifecycle) this.messageProcessor).isRunning();
+		return super.isRunning()
+				&& (!(this.messageProcessor instanceof Lifecycle) || ((Lifecycle) this.messageProcessor).isRunning());
 	}
 
 }
@@ -22,24 +22,55 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+import org.reactivestreams.Publisher;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.channel.AbstractPollableChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.InFlightMessages;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.integration.util.FunctionIterator;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandlingException;
+import org.springframework.util.Assert;
+
+import reactor.core.publisher.Flux;
 
 /**
  * Base class for Message-splitting handlers.
+ * <p>
+ * Results of type {@link Stream} and {@link Publisher} are split lazily, as items become
+ * available. With a {@link #setWindowSize(int) windowSize}, no more than that number of
+ * parts are in flight on an asynchronous output channel at any time.
  *
  * @author Mark Fisher
  * @author Dave Syer
  * @author Artem Bilan
  */
-public abstract class AbstractMessageSplitter extends AbstractReplyProducingMessageHandler {
+public abstract class AbstractMessageSplitter extends AbstractReplyProducingMessageHandler
+		implements Lifecycle {
+
+	private static final int DEFAULT_PUBLISHER_PREFETCH = 256;
 
 	private boolean applySequence = true;
 
+	private int windowSize;
+
+	private final Object inFlightMonitor = new Object();
+
+	private volatile InFlightMessages inFlightMessages;
+
+	private volatile boolean running = true;
+
 	/**
 	 * Set the applySequence flag to the specified value. Defaults to true.
 	 * @param applySequence true to apply sequence information.
@@ -48,6 +79,28 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 		this.applySequence = applySequence;
 	}
 
+	/**
+	 * Set the maximum number of parts of a split that may be in flight on the output
+	 * channel. Once reached, the splitter stops pulling items from the split result until
+	 * a part is acknowledged, which happens when an {@link ExecutorChannel}'s subscriber
+	 * has handled it or when it has been received from a pollable channel; other output
+	 * channels are synchronous, so no more than one part is in flight anyway. This is
+	 * also the number of items requested in advance from a {@link Publisher} result.
+	 * The splitter waits for a part to be acknowledged for up to the
+	 * {@link #setSendTimeout(long) send timeout} (indefinitely if it is negative, the
+	 * default) and then fails with a {@link MessageDeliveryException}. Parts are tracked
+	 * by a token in the {@link InFlightMessages#IN_FLIGHT_TOKEN} header; the tracking is
+	 * discarded when the splitter is {@link #stop() stopped}, which also fails any split
+	 * that is waiting for a part to be acknowledged.
+	 * Default 0 (unbounded).
+	 * @param windowSize the window size.
+	 * @since 5.0
+	 */
+	public void setWindowSize(int windowSize) {
+		Assert.isTrue(windowSize >= 0, "'windowSize' must not be negative");
+		this.windowSize = windowSize;
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	protected final Object handleRequestMessage(Message<?> message) {
@@ -59,6 +112,7 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 
 		Iterator<Object> iterator;
 		final int sequenceSize;
+		AutoCloseable closeable = null;
 		if (result instanceof Collection) {
 			Collection<Object> items = (Collection<Object>) result;
 			sequenceSize = items.size();
@@ -77,12 +131,27 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 			sequenceSize = 0;
 			iterator = (Iterator<Object>) result;
 		}
+		else if (result instanceof Stream<?>) {
+			Stream<Object> stream = (Stream<Object>) result;
+			sequenceSize = 0;
+			iterator = stream.iterator();
+			closeable = stream;
+		}
+		else if (result instanceof Publisher<?>) {
+			int prefetch = this.windowSize > 0 ? this.windowSize : DEFAULT_PUBLISHER_PREFETCH;
+			// closing the stream cancels the subscription
+			Stream<Object> stream = Flux.from((Publisher<Object>) result).toStream(prefetch);
+			sequenceSize = 0;
+			iterator = stream.iterator();
+			closeable = stream;
+		}
 		else {
 			sequenceSize = 1;
 			iterator = Collections.singleton(result).iterator();
 		}
 
 		if (!iterator.hasNext()) {
+			close(closeable);
 			return null;
 		}
 
@@ -95,7 +164,7 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 		final Object correlationId = message.getHeaders().getId();
 		final AtomicInteger sequenceNumber = new AtomicInteger(1);
 
-		return new FunctionIterator<Object, AbstractIntegrationMessageBuilder<?>>(iterator,
+		return new FunctionIterator<Object, AbstractIntegrationMessageBuilder<?>>(closeable, iterator,
 				object ->
 						createBuilder(object, headers, correlationId, sequenceNumber.getAndIncrement(), sequenceSize));
 	}
@@ -147,9 +216,112 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 	@Override
 	protected void produceOutput(Object result, Message<?> requestMessage) {
 		Iterator<?> iterator = (Iterator<?>) result;
-		while (iterator.hasNext()) {
-			super.produceOutput(iterator.next(), requestMessage);
+		try {
+			if (this.windowSize > 0 && isWindowChannel(getOutputChannel())) {
+				produceWindowedOutput(iterator, requestMessage);
+			}
+			else {
+				while (iterator.hasNext()) {
+					super.produceOutput(iterator.next(), requestMessage);
+				}
+			}
+		}
+		finally {
+			if (iterator instanceof AutoCloseable) {
+				close((AutoCloseable) iterator);
+			}
+		}
+	}
+
+	private void produceWindowedOutput(Iterator<?> iterator, Message<?> requestMessage) {
+		InFlightMessages tracker = obtainInFlightMessages();
+		Semaphore window = new Semaphore(this.windowSize);
+		long timeout = this.messagingTemplate.getSendTimeout();
+		try {
+			while (true) {
+				acquire(window, timeout, requestMessage);
+				if (tracker.isClosed()) {
+					throw new MessageDeliveryException(requestMessage,
+							"The splitter was stopped while waiting for in-flight parts");
+				}
+				if (!iterator.hasNext()) {
+					break;
+				}
+				AbstractIntegrationMessageBuilder<?> builder = (AbstractIntegrationMessageBuilder<?>) iterator.next();
+				UUID token = tracker.register(window);
+				Message<?> part = builder.setHeader(InFlightMessages.IN_FLIGHT_TOKEN, token).build();
+				boolean sent = false;
+				try {
+					super.produceOutput(part, requestMessage);
+					sent = true;
+				}
+				finally {
+					if (!sent) {
+						tracker.release(token);
+					}
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			// parts still in flight will not be waited for
+			tracker.unregisterAll(window);
+			throw e;
+		}
+	}
+
+	private InFlightMessages obtainInFlightMessages() {
+		InFlightMessages tracker = this.inFlightMessages;
+		if (tracker == null) {
+			synchronized (this.inFlightMonitor) {
+				tracker = this.inFlightMessages;
+				if (tracker == null) {
+					tracker = InFlightMessages.create();
+					this.inFlightMessages = tracker;
+				}
+			}
+		}
+		return tracker;
+	}
+
+	private void acquire(Semaphore window, long timeout, Message<?> requestMessage) {
+		boolean acquired;
+		try {
+			if (timeout < 0) {
+				window.acquire();
+				acquired = true;
+			}
+			else {
+				acquired = window.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessageHandlingException(requestMessage, "Interrupted while waiting for in-flight parts", e);
+		}
+		if (!acquired) {
+			throw new MessageDeliveryException(requestMessage,
+					"Timed out after " + timeout + "ms waiting for in-flight parts to be consumed");
+		}
+	}
+
+	/**
+	 * Return true if the consumption of parts sent to the channel is tracked by
+	 * {@link InFlightMessages}.
+	 */
+	private boolean isWindowChannel(MessageChannel outputChannel) {
+		return outputChannel instanceof ExecutorChannel || outputChannel instanceof AbstractPollableChannel;
+	}
 
+	private void close(AutoCloseable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			}
+			catch (Exception e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Failed to close the split result", e);
+				}
+			}
 		}
 	}
 
@@ -158,6 +330,31 @@ public abstract class AbstractMessageSplitter extends AbstractReplyProducingMess
 		return "splitter";
 	}
 
+	@Override
+	public void start() {
+		this.running = true;
+	}
+
+	/**
+	 * Discard the tracking of parts in flight; splits waiting for a part to be
+	 * acknowledged fail.
+	 */
+	@Override
+	public void stop() {
+		this.running = false;
+		synchronized (this.inFlightMonitor) {
+			if (this.inFlightMessages != null) {
+				this.inFlightMessages.close();
+				this.inFlightMessages = null;
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
 	/**
 	 * Subclasses must override this method to split the received Message. The return value may be a Collection or
 	 * Array. The individual elements may be Messages, but it is not necessary. If the elements are not Messages, each
@@ -101,6 +101,9 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 					.create(this, groupId, metadata.getTimestamp(), metadata.isComplete());
 			messageGroup.setLastModified(metadata.getLastModified());
 			messageGroup.setLastReleasedMessageSequenceNumber(metadata.getLastReleasedMessageSequenceNumber());
+			if (messageGroup instanceof PersistentMessageGroup) {
+				((PersistentMessageGroup) messageGroup).setSequenceNumberIndex(metadata.getSequenceNumberIndex());
+			}
 			return messageGroup;
 		}
 		else {
@@ -135,7 +138,7 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 			Message<?> enrichedMessage = enrichMessage(message);
 			addMessage(enrichedMessage);
 			if (metadata != null) {
-				metadata.add(enrichedMessage.getHeaders().getId());
+				metadata.add(enrichedMessage);
 			}
 			else {
 				group.add(enrichedMessage);
@@ -166,9 +169,8 @@ public abstract class AbstractKeyValueMessageStore extends AbstractMessageGroupS
 			Assert.isInstanceOf(MessageGroupMetadata.class, mgm);
 			MessageGroupMetadata messageGroupMetadata = (MessageGroupMetadata) mgm;
 			for (Message<?> messageToRemove : messages) {
-				UUID messageId = messageToRemove.getHeaders().getId();
-				messageGroupMetadata.remove(messageId);
-				doRemove(MESSAGE_KEY_PREFIX + messageId);
+				messageGroupMetadata.remove(messageToRemove);
+				doRemove(MESSAGE_KEY_PREFIX + messageToRemove.getHeaders().getId());
 			}
 			messageGroupMetadata.setLastModified(System.currentTimeMillis());
 			doStore(MESSAGE_GROUP_KEY_PREFIX + groupId, messageGroupMetadata);
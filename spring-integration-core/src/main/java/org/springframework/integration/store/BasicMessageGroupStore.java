@@ -16,6 +16,9 @@
 
 package org.springframework.integration.store;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.messaging.Message;
 
@@ -64,6 +67,30 @@ public interface BasicMessageGroupStore {
 	 */
 	Message<?> pollMessageFromGroup(Object groupId);
 
+	/**
+	 * Poll up to {@code maxMessages} from this {@link MessageGroup} (in FIFO style
+	 * if supported by the implementation) while also removing the polled messages.
+	 * The default implementation calls {@link #pollMessageFromGroup(Object)} until
+	 * the group is exhausted; implementations backed by a remote store should
+	 * override it to claim a batch of messages in as few round trips as possible.
+	 *
+	 * @param groupId The group identifier.
+	 * @param maxMessages The maximum number of messages to poll.
+	 * @return The polled messages; empty if none.
+	 * @since 5.0
+	 */
+	default List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		while (messages.size() < maxMessages) {
+			Message<?> message = pollMessageFromGroup(groupId);
+			if (message == null) {
+				break;
+			}
+			messages.add(message);
+		}
+		return messages;
+	}
+
 	/**
 	 * Remove the message group with this id.
 	 *
@@ -0,0 +1,699 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * In-memory {@link MessageGroupStore} for a large number of small, highly contended
+ * groups. Unlike the {@link SimpleMessageStore}, no locks are used: each group is an
+ * immutable snapshot which is replaced by compare-and-set on every modification, so
+ * the {@link MessageGroup}s returned by the store are read-only, consistent views that
+ * never need to be copied. Each snapshot also tracks the sequence numbers of its
+ * messages so that {@link ConcurrentMessageGroup#containsSequenceNumber(int)} and
+ * {@link #messageGroupSize(Object)} are constant time.
+ * <p>
+ * The snapshots of a group share an append-only array of messages, each snapshot being
+ * a range of it, so adding messages to a group and polling its first message do not
+ * copy the group; other removals do. Duplicates are detected by message id, using an
+ * index of the ids for groups of more than a few messages. The sequence number index
+ * is still copied (it is a bit set) when messages with sequence numbers are added.
+ * The group capacity, if any, is enforced without blocking. The
+ * {@link MessageGroupFactory} is not used by this store.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentMessageGroupStore extends AbstractMessageGroupStore implements ChannelMessageStore {
+
+	private final ConcurrentMap<Object, GroupReference> groups = new ConcurrentHashMap<Object, GroupReference>();
+
+	private final LongAdder messageCount = new LongAdder();
+
+	private final int groupCapacity;
+
+	/**
+	 * Create a store with unlimited group capacity.
+	 */
+	public ConcurrentMessageGroupStore() {
+		this(0);
+	}
+
+	/**
+	 * Create a store limiting the number of messages in each group; attempting to exceed
+	 * the capacity results in a {@link MessagingException}.
+	 * @param groupCapacity the capacity of each group; unlimited if less than 1.
+	 */
+	public ConcurrentMessageGroupStore(int groupCapacity) {
+		super(false);
+		this.groupCapacity = groupCapacity;
+	}
+
+	@Override
+	public void setLazyLoadMessageGroups(boolean lazyLoadMessageGroups) {
+		throw new UnsupportedOperationException("The lazy-load isn't supported for in-memory '"
+				+ getClass().getSimpleName() + "'");
+	}
+
+	@Override
+	public ConcurrentMessageGroup getMessageGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		GroupReference reference = this.groups.get(groupId);
+		ConcurrentMessageGroup group = reference != null ? reference.group : null;
+		if (group == null || group == ConcurrentMessageGroup.REMOVED) {
+			return new ConcurrentMessageGroup(groupId, System.currentTimeMillis());
+		}
+		return group;
+	}
+
+	@Override
+	public MessageGroup addMessageToGroup(Object groupId, Message<?> message) {
+		return add(groupId, message);
+	}
+
+	@Override
+	public void addMessagesToGroup(Object groupId, Message<?>... messages) {
+		add(groupId, messages);
+	}
+
+	private ConcurrentMessageGroup add(final Object groupId, final Message<?>... messages) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		Assert.notNull(messages, "'messages' must not be null");
+		final long now = System.currentTimeMillis();
+		return update(groupId, true, group -> {
+			ConcurrentMessageGroup updated = group.with(messages, now);
+			if (this.groupCapacity > 0 && updated.size > this.groupCapacity) {
+				throw new MessagingException(getClass().getSimpleName() + " was out of capacity ("
+						+ this.groupCapacity + ") for group '" + groupId
+						+ "', try constructing it with a larger capacity.");
+			}
+			return updated;
+		});
+	}
+
+	@Override
+	public void removeMessagesFromGroup(Object groupId, final Collection<Message<?>> messages) {
+		final long now = System.currentTimeMillis();
+		ConcurrentMessageGroup group = update(groupId, false, current -> current.without(messages, now));
+		Assert.notNull(group, "MessageGroup for groupId '" + groupId + "' " +
+				"can not be located while attempting to remove Message(s) from the MessageGroup");
+	}
+
+	@Override
+	public Message<?> pollMessageFromGroup(Object groupId) {
+		final long now = System.currentTimeMillis();
+		final Message<?>[] polled = new Message<?>[1];
+		update(groupId, false, current -> {
+			if (current.size == 0) {
+				polled[0] = null;
+				return current;
+			}
+			polled[0] = current.getOne();
+			return current.without(Collections.<Message<?>>singletonList(polled[0]), now);
+		});
+		return polled[0];
+	}
+
+	@Override
+	public void removeMessageGroup(Object groupId) {
+		Assert.notNull(groupId, "'groupId' must not be null");
+		GroupReference reference = this.groups.get(groupId);
+		if (reference != null) {
+			ConcurrentMessageGroup group;
+			do {
+				group = reference.group;
+			}
+			while (group != ConcurrentMessageGroup.REMOVED
+					&& !reference.compareAndSet(group, ConcurrentMessageGroup.REMOVED));
+			if (group != ConcurrentMessageGroup.REMOVED) {
+				this.messageCount.add(-group.size);
+			}
+			this.groups.remove(groupId, reference);
+		}
+	}
+
+	/**
+	 * Remove all messages from the group, retaining its metadata.
+	 * @param groupId the group id.
+	 */
+	public void clearMessageGroup(Object groupId) {
+		final long now = System.currentTimeMillis();
+		ConcurrentMessageGroup group = update(groupId, false, current -> current.cleared(now));
+		Assert.notNull(group, "MessageGroup for groupId '" + groupId + "' " +
+				"can not be located while attempting to clear the MessageGroup");
+	}
+
+	@Override
+	public void setLastReleasedSequenceNumberForGroup(Object groupId, final int sequenceNumber) {
+		final long now = System.currentTimeMillis();
+		ConcurrentMessageGroup group = update(groupId, false,
+				current -> current.withLastReleasedSequenceNumber(sequenceNumber, now));
+		Assert.notNull(group, "MessageGroup for groupId '" + groupId + "' " +
+				"can not be located while attempting to set 'lastReleasedSequenceNumber'");
+	}
+
+	@Override
+	public void completeGroup(Object groupId) {
+		final long now = System.currentTimeMillis();
+		ConcurrentMessageGroup group = update(groupId, false, current -> current.completed(now));
+		Assert.notNull(group, "MessageGroup for groupId '" + groupId + "' " +
+				"can not be located while attempting to complete the MessageGroup");
+	}
+
+	@Override
+	public int messageGroupSize(Object groupId) {
+		return getMessageGroup(groupId).size;
+	}
+
+	@Override
+	public MessageGroupMetadata getGroupMetadata(Object groupId) {
+		return new MessageGroupMetadata(getMessageGroup(groupId));
+	}
+
+	@Override
+	public Message<?> getOneMessageFromGroup(Object groupId) {
+		return getMessageGroup(groupId).getOne();
+	}
+
+	@Override
+	public Collection<Message<?>> getMessagesForGroup(Object groupId) {
+		return getMessageGroup(groupId).getMessages();
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageCountForAllMessageGroups() {
+		return this.messageCount.intValue();
+	}
+
+	@Override
+	@ManagedAttribute
+	public int getMessageGroupCount() {
+		return this.groups.size();
+	}
+
+	@Override
+	public Iterator<MessageGroup> iterator() {
+		final Iterator<GroupReference> references = this.groups.values().iterator();
+		return new Iterator<MessageGroup>() {
+
+			private MessageGroup next;
+
+			@Override
+			public boolean hasNext() {
+				while (this.next == null && references.hasNext()) {
+					ConcurrentMessageGroup group = references.next().group;
+					if (group != ConcurrentMessageGroup.REMOVED) {
+						this.next = group;
+					}
+				}
+				return this.next != null;
+			}
+
+			@Override
+			public MessageGroup next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				MessageGroup group = this.next;
+				this.next = null;
+				return group;
+			}
+
+		};
+	}
+
+	/**
+	 * Apply the function to the current snapshot of the group until the result is
+	 * installed by compare-and-set; the function may be invoked several times so it
+	 * must not have side effects other than on its own result. If the function throws
+	 * an exception and the group was created for this update, it is removed again.
+	 * @param groupId the group id.
+	 * @param create true to create the group if it doesn't exist.
+	 * @param function the function.
+	 * @return the new snapshot, or null if the group doesn't exist and create is false.
+	 */
+	private ConcurrentMessageGroup update(Object groupId, boolean create,
+			UnaryOperator<ConcurrentMessageGroup> function) {
+		while (true) {
+			GroupReference reference = create
+					? this.groups.computeIfAbsent(groupId, GroupReference::new)
+					: this.groups.get(groupId);
+			if (reference == null) {
+				return null;
+			}
+			ConcurrentMessageGroup current = reference.group;
+			if (current == ConcurrentMessageGroup.REMOVED) {
+				// lost a race with removeMessageGroup(); retry with a new group
+				this.groups.remove(groupId, reference);
+				continue;
+			}
+			ConcurrentMessageGroup updated;
+			try {
+				updated = function.apply(current);
+			}
+			catch (RuntimeException e) {
+				// don't leave behind an empty group that was only created for this update
+				if (create && current.isNew() && reference.compareAndSet(current, ConcurrentMessageGroup.REMOVED)) {
+					this.groups.remove(groupId, reference);
+				}
+				throw e;
+			}
+			if (updated == current) {
+				return current;
+			}
+			if (reference.compareAndSet(current, updated)) {
+				if (updated.size != current.size) {
+					this.messageCount.add(updated.size - current.size);
+				}
+				return updated;
+			}
+		}
+	}
+
+
+	/**
+	 * The mutable reference to the current snapshot of a group.
+	 */
+	private static final class GroupReference {
+
+		private static final AtomicReferenceFieldUpdater<GroupReference, ConcurrentMessageGroup> UPDATER =
+				AtomicReferenceFieldUpdater.newUpdater(GroupReference.class, ConcurrentMessageGroup.class, "group");
+
+		private volatile ConcurrentMessageGroup group;
+
+		GroupReference(Object groupId) {
+			this.group = new ConcurrentMessageGroup(groupId, System.currentTimeMillis());
+		}
+
+		boolean compareAndSet(ConcurrentMessageGroup expect, ConcurrentMessageGroup update) {
+			return UPDATER.compareAndSet(this, expect, update);
+		}
+
+	}
+
+	/**
+	 * An immutable snapshot of a group in a {@link ConcurrentMessageGroupStore}; the
+	 * mutating {@link MessageGroup} methods throw {@link UnsupportedOperationException},
+	 * use the store's methods instead.
+	 */
+	public static final class ConcurrentMessageGroup implements MessageGroup {
+
+		/**
+		 * Shared by the empty snapshots; indexes are copied before they are modified.
+		 */
+		private static final SequenceNumberIndex NO_SEQUENCE_NUMBERS = new SequenceNumberIndex();
+
+		private static final ConcurrentMessageGroup REMOVED = new ConcurrentMessageGroup(new Object(), 0);
+
+		private final Object groupId;
+
+		/**
+		 * The messages of this snapshot are {@code log.slots[start, start + size)}.
+		 */
+		private final MessageLog log;
+
+		private final int start;
+
+		private final int size;
+
+		/**
+		 * Never modified once the snapshot is created.
+		 */
+		private final SequenceNumberIndex sequenceNumbers;
+
+		private final long timestamp;
+
+		private final long lastModified;
+
+		private final int lastReleasedMessageSequence;
+
+		private final boolean complete;
+
+		ConcurrentMessageGroup(Object groupId, long timestamp) {
+			this(groupId, MessageLog.EMPTY, 0, 0, NO_SEQUENCE_NUMBERS, timestamp, 0, 0, false);
+		}
+
+		private ConcurrentMessageGroup(Object groupId, MessageLog log, int start, int size,
+				SequenceNumberIndex sequenceNumbers, long timestamp, long lastModified,
+				int lastReleasedMessageSequence, boolean complete) {
+			this.groupId = groupId;
+			this.log = log;
+			this.start = start;
+			this.size = size;
+			this.sequenceNumbers = sequenceNumbers;
+			this.timestamp = timestamp;
+			this.lastModified = lastModified;
+			this.lastReleasedMessageSequence = lastReleasedMessageSequence;
+			this.complete = complete;
+		}
+
+		/**
+		 * Return true if this is the initial snapshot of a group, which has never been
+		 * modified.
+		 */
+		boolean isNew() {
+			return this.size == 0 && this.lastModified == 0;
+		}
+
+		ConcurrentMessageGroup with(Message<?>[] toAdd, long now) {
+			int end = this.start + this.size;
+			List<Message<?>> accepted = new ArrayList<Message<?>>(toAdd.length);
+			Set<Object> acceptedKeys = toAdd.length > 1 ? new HashSet<Object>() : null;
+			SequenceNumberIndex sequenceNumbers = this.sequenceNumbers;
+			boolean copied = false;
+			for (Message<?> message : toAdd) {
+				if (message == null || this.log.indexOf(message, this.start, end) >= 0
+						|| (acceptedKeys != null && !acceptedKeys.add(MessageLog.key(message)))) {
+					continue;
+				}
+				accepted.add(message);
+				int sequenceNumber = SequenceNumberIndex.sequenceNumber(message);
+				if (sequenceNumber > 0) {
+					if (!copied) {
+						sequenceNumbers = sequenceNumbers.copy();
+						copied = true;
+					}
+					sequenceNumbers.add(sequenceNumber);
+				}
+			}
+			MessageLog log = this.log;
+			int start = this.start;
+			if (!accepted.isEmpty() && !log.tryAppend(end, accepted)) {
+				log = MessageLog.copyOf(log, start, end, null, accepted);
+				start = 0;
+			}
+			return new ConcurrentMessageGroup(this.groupId, log, start, this.size + accepted.size(), sequenceNumbers,
+					this.timestamp, now, this.lastReleasedMessageSequence, this.complete);
+		}
+
+		ConcurrentMessageGroup without(Collection<Message<?>> toRemove, long now) {
+			int end = this.start + this.size;
+			BitSet removed = new BitSet();
+			SequenceNumberIndex sequenceNumbers = this.sequenceNumbers;
+			boolean copied = false;
+			int count = 0;
+			for (Message<?> message : toRemove) {
+				int slot = message != null ? this.log.indexOf(message, this.start, end) : -1;
+				if (slot >= 0 && !removed.get(slot - this.start)) {
+					removed.set(slot - this.start);
+					count++;
+					int sequenceNumber = SequenceNumberIndex.sequenceNumber(this.log.slots[slot]);
+					if (sequenceNumber > 0) {
+						if (!copied) {
+							sequenceNumbers = sequenceNumbers.copy();
+							copied = true;
+						}
+						sequenceNumbers.remove(sequenceNumber);
+					}
+				}
+			}
+			if (count == 0) {
+				return this;
+			}
+			if (removed.nextClearBit(0) >= count) {
+				// the first messages, as when polling; the array is shared
+				return new ConcurrentMessageGroup(this.groupId, this.log, this.start + count, this.size - count,
+						sequenceNumbers, this.timestamp, now, this.lastReleasedMessageSequence, this.complete);
+			}
+			MessageLog log = MessageLog.copyOf(this.log, this.start, end, removed, Collections.<Message<?>>emptyList());
+			return new ConcurrentMessageGroup(this.groupId, log, 0, this.size - count, sequenceNumbers,
+					this.timestamp, now, this.lastReleasedMessageSequence, this.complete);
+		}
+
+		ConcurrentMessageGroup cleared(long now) {
+			return new ConcurrentMessageGroup(this.groupId, MessageLog.EMPTY, 0, 0, NO_SEQUENCE_NUMBERS,
+					this.timestamp, now, this.lastReleasedMessageSequence, this.complete);
+		}
+
+		ConcurrentMessageGroup completed(long now) {
+			return new ConcurrentMessageGroup(this.groupId, this.log, this.start, this.size, this.sequenceNumbers,
+					this.timestamp, now, this.lastReleasedMessageSequence, true);
+		}
+
+		ConcurrentMessageGroup withLastReleasedSequenceNumber(int sequenceNumber, long now) {
+			return new ConcurrentMessageGroup(this.groupId, this.log, this.start, this.size, this.sequenceNumbers,
+					this.timestamp, now, sequenceNumber, this.complete);
+		}
+
+		/**
+		 * Return true if the group contains a message with this
+		 * {@link IntegrationMessageHeaderAccessor#SEQUENCE_NUMBER sequence number}.
+		 * @param sequenceNumber the sequence number.
+		 * @return true if present.
+		 */
+		@Override
+		public boolean containsSequenceNumber(int sequenceNumber) {
+			return this.sequenceNumbers.contains(sequenceNumber);
+		}
+
+		/**
+		 * Return the index maintained by this snapshot; it is not modified when the
+		 * group changes, the new snapshot has its own index.
+		 * @return the index.
+		 */
+		@Override
+		public SequenceNumberIndex getSequenceNumberIndex() {
+			return this.sequenceNumbers;
+		}
+
+		@Override
+		public boolean canAdd(Message<?> message) {
+			return true;
+		}
+
+		@Override
+		public void add(Message<?> messageToAdd) {
+			throw readOnly();
+		}
+
+		@Override
+		public boolean remove(Message<?> messageToRemove) {
+			throw readOnly();
+		}
+
+		@Override
+		public Collection<Message<?>> getMessages() {
+			return Collections.unmodifiableList(Arrays.asList(this.log.slots).subList(this.start, this.start + this.size));
+		}
+
+		@Override
+		public Object getGroupId() {
+			return this.groupId;
+		}
+
+		@Override
+		public int getLastReleasedMessageSequenceNumber() {
+			return this.lastReleasedMessageSequence;
+		}
+
+		@Override
+		public void setLastReleasedMessageSequenceNumber(int sequenceNumber) {
+			throw readOnly();
+		}
+
+		@Override
+		public boolean isComplete() {
+			return this.complete;
+		}
+
+		@Override
+		public void complete() {
+			throw readOnly();
+		}
+
+		@Override
+		public int getSequenceSize() {
+			if (this.size == 0) {
+				return 0;
+			}
+			return new IntegrationMessageHeaderAccessor(getOne()).getSequenceSize();
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+
+		@Override
+		public Message<?> getOne() {
+			return this.size > 0 ? this.log.slots[this.start] : null;
+		}
+
+		@Override
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		@Override
+		public long getLastModified() {
+			return this.lastModified;
+		}
+
+		@Override
+		public void setLastModified(long lastModified) {
+			throw readOnly();
+		}
+
+		@Override
+		public void clear() {
+			throw readOnly();
+		}
+
+		@Override
+		public String toString() {
+			return "ConcurrentMessageGroup{" +
+					"groupId=" + this.groupId +
+					", messages=" + getMessages() +
+					", timestamp=" + this.timestamp +
+					", lastModified=" + this.lastModified +
+					'}';
+		}
+
+		private UnsupportedOperationException readOnly() {
+			return new UnsupportedOperationException("The groups of a ConcurrentMessageGroupStore are read-only; "
+					+ "use the store to modify group '" + this.groupId + "'");
+		}
+
+	}
+
+
+	/**
+	 * The messages of one or more snapshots of a group: an array that is only appended
+	 * to, so that each snapshot is a range of it. The snapshot at the end of the claimed
+	 * range may append to it in place; any other snapshot copies its range to a new
+	 * log. Slots claimed by an update that then loses the race to install its snapshot
+	 * are never used, so the log is copied on the next addition.
+	 */
+	private static final class MessageLog {
+
+		/**
+		 * Logs with more slots than this index the message ids.
+		 */
+		private static final int INDEX_THRESHOLD = 16;
+
+		private static final int MIN_CAPACITY = 8;
+
+		static final MessageLog EMPTY = new MessageLog(0);
+
+		final Message<?>[] slots;
+
+		final AtomicInteger claimed = new AtomicInteger();
+
+		/**
+		 * Message id (or message, if it has no id) to the last slot it was appended to.
+		 */
+		private final Map<Object, Integer> index;
+
+		private MessageLog(int capacity) {
+			this.slots = new Message<?>[capacity];
+			this.index = capacity > INDEX_THRESHOLD ? new ConcurrentHashMap<Object, Integer>() : null;
+		}
+
+		/**
+		 * Return the slot of the message in the range, or -1.
+		 */
+		int indexOf(Message<?> message, int from, int to) {
+			Object key = key(message);
+			if (this.index != null) {
+				Integer slot = this.index.get(key);
+				return slot != null && slot >= from && slot < to ? slot : -1;
+			}
+			for (int i = from; i < to; i++) {
+				if (key.equals(key(this.slots[i]))) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Append the messages if the range ending at {@code end} is the end of the
+		 * claimed slots and they fit.
+		 */
+		boolean tryAppend(int end, List<Message<?>> messages) {
+			int newEnd = end + messages.size();
+			if (newEnd > this.slots.length || !this.claimed.compareAndSet(end, newEnd)) {
+				return false;
+			}
+			put(end, messages);
+			return true;
+		}
+
+		private void put(int slot, List<Message<?>> messages) {
+			for (Message<?> message : messages) {
+				this.slots[slot] = message;
+				if (this.index != null) {
+					this.index.put(key(message), slot);
+				}
+				slot++;
+			}
+		}
+
+		/**
+		 * Create a log with the messages in the range, except those at the
+		 * {@code excluded} offsets, followed by the additional messages.
+		 */
+		static MessageLog copyOf(MessageLog log, int from, int to, BitSet excluded, List<Message<?>> additional) {
+			int count = to - from - (excluded != null ? excluded.cardinality() : 0) + additional.size();
+			MessageLog copy = new MessageLog(Math.max(MIN_CAPACITY, count * 2));
+			List<Message<?>> messages = new ArrayList<Message<?>>(count);
+			for (int i = from; i < to; i++) {
+				if (excluded == null || !excluded.get(i - from)) {
+					messages.add(log.slots[i]);
+				}
+			}
+			messages.addAll(additional);
+			copy.put(0, messages);
+			copy.claimed.set(count);
+			return copy;
+		}
+
+		/**
+		 * Messages are identified by their id; the rare message without one by itself.
+		 */
+		static Object key(Message<?> message) {
+			UUID id = message.getHeaders().getId();
+			return id != null ? id : message;
+		}
+
+	}
+
+}
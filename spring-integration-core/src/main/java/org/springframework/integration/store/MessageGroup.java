@@ -114,4 +114,26 @@ public interface MessageGroup {
 
 	void clear();
 
+	/**
+	 * Return true if the group contains a message with this
+	 * {@link org.springframework.integration.IntegrationMessageHeaderAccessor#SEQUENCE_NUMBER sequence number}.
+	 * @param sequenceNumber the sequence number.
+	 * @return true if present.
+	 * @since 5.0
+	 */
+	default boolean containsSequenceNumber(int sequenceNumber) {
+		return getSequenceNumberIndex().contains(sequenceNumber);
+	}
+
+	/**
+	 * Return the index of the sequence numbers of the messages in this group. The default
+	 * implementation builds it from {@link #getMessages()}; implementations maintaining
+	 * an index as messages are added should return it instead.
+	 * @return the index.
+	 * @since 5.0
+	 */
+	default SequenceNumberIndex getSequenceNumberIndex() {
+		return new SequenceNumberIndex(getMessages());
+	}
+
 }
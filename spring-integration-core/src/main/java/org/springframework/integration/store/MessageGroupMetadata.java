@@ -17,9 +17,11 @@
 package org.springframework.integration.store;
 
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.messaging.Message;
@@ -41,6 +43,14 @@ public class MessageGroupMetadata implements Serializable {
 
 	private final List<UUID> messageIds = new LinkedList<UUID>();
 
+	/*
+	 * Null when unknown, e.g. for metadata serialized before the index was added
+	 * or after a removal by message id only.
+	 */
+	private volatile SequenceNumberIndex sequenceNumbers = new SequenceNumberIndex();
+
+	private transient Set<UUID> messageIdSet;
+
 	private final long timestamp;
 
 	private volatile boolean complete;
@@ -54,6 +64,7 @@ public class MessageGroupMetadata implements Serializable {
 		this.groupId = messageGroup.getGroupId();
 		for (Message<?> message : messageGroup.getMessages()) {
 			this.messageIds.add(message.getHeaders().getId());
+			this.sequenceNumbers.add(message);
 		}
 		this.complete = messageGroup.isComplete();
 		this.timestamp = messageGroup.getTimestamp();
@@ -61,12 +72,53 @@ public class MessageGroupMetadata implements Serializable {
 		this.lastModified = messageGroup.getLastModified();
 	}
 
+	/**
+	 * Remove the message id; since the sequence number of the message is unknown, the
+	 * {@link #getSequenceNumberIndex() sequence number index} is discarded.
+	 * @param messageId the message id.
+	 * @see #remove(Message)
+	 */
 	public void remove(UUID messageId) {
-		this.messageIds.remove(messageId);
+		if (this.messageIds.remove(messageId)) {
+			this.sequenceNumbers = null;
+			if (this.messageIdSet != null) {
+				this.messageIdSet.remove(messageId);
+			}
+		}
+	}
+
+	/**
+	 * Remove the message.
+	 * @param message the message.
+	 * @since 5.0
+	 */
+	public void remove(Message<?> message) {
+		UUID messageId = message.getHeaders().getId();
+		if (this.messageIds.remove(messageId)) {
+			SequenceNumberIndex sequenceNumbers = this.sequenceNumbers;
+			if (sequenceNumbers != null) {
+				sequenceNumbers.remove(message);
+			}
+			if (this.messageIdSet != null) {
+				this.messageIdSet.remove(messageId);
+			}
+		}
 	}
 
-	boolean add(UUID messageId) {
-		return !this.messageIds.contains(messageId) && this.messageIds.add(messageId);
+	boolean add(Message<?> message) {
+		UUID messageId = message.getHeaders().getId();
+		if (this.messageIdSet == null) {
+			this.messageIdSet = new HashSet<UUID>(this.messageIds);
+		}
+		if (this.messageIdSet.add(messageId)) {
+			this.messageIds.add(messageId);
+			SequenceNumberIndex sequenceNumbers = this.sequenceNumbers;
+			if (sequenceNumbers != null) {
+				sequenceNumbers.add(message);
+			}
+			return true;
+		}
+		return false;
 	}
 
 	void setLastModified(long lastModified) {
@@ -112,6 +164,15 @@ public class MessageGroupMetadata implements Serializable {
 		return this.lastReleasedMessageSequenceNumber;
 	}
 
+	/**
+	 * Return the index of the sequence numbers of the messages in the group.
+	 * @return the index, or null if it is not available.
+	 * @since 5.0
+	 */
+	public SequenceNumberIndex getSequenceNumberIndex() {
+		return this.sequenceNumbers;
+	}
+
 	void setLastReleasedMessageSequenceNumber(int lastReleasedMessageSequenceNumber) {
 		this.lastReleasedMessageSequenceNumber = lastReleasedMessageSequenceNumber;
 	}
@@ -17,9 +17,10 @@
 package org.springframework.integration.store;
 
 import java.util.AbstractQueue;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
@@ -196,16 +197,12 @@ public class MessageGroupQueue extends AbstractQueue<Message<?>> implements Bloc
 	public int drainTo(Collection<? super Message<?>> collection, int maxElements) {
 		Assert.notNull(collection, "'collection' must not be null");
 		int originalSize = collection.size();
-		ArrayList<Message<?>> list = new ArrayList<Message<?>>();
+		List<Message<?>> list = Collections.emptyList();
 		final Lock storeLock = this.storeLock;
 		try {
 			storeLock.lockInterruptibly();
 			try {
-				Message<?> message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
-				for (int i = 0; i < maxElements && message != null; i++) {
-					list.add(message);
-					message = this.messageGroupStore.pollMessageFromGroup(this.groupId);
-				}
+				list = this.messageGroupStore.pollMessagesFromGroup(this.groupId, maxElements);
 				this.messageStoreNotFull.signal();
 			}
 			finally {
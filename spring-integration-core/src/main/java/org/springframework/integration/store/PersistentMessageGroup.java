@@ -45,6 +45,8 @@ class PersistentMessageGroup implements MessageGroup {
 
 	private volatile int size;
 
+	private volatile SequenceNumberIndex sequenceNumbers;
+
 	PersistentMessageGroup(MessageGroupStore messageGroupStore, MessageGroup original) {
 		this.messageGroupStore = messageGroupStore;
 		this.original = original;
@@ -54,6 +56,21 @@ class PersistentMessageGroup implements MessageGroup {
 		this.size = size;
 	}
 
+	/**
+	 * Set the sequence number index persisted with the group metadata, so that
+	 * {@link #containsSequenceNumber(int)} does not load the messages.
+	 * @param sequenceNumbers the index; null if not available.
+	 */
+	void setSequenceNumberIndex(SequenceNumberIndex sequenceNumbers) {
+		this.sequenceNumbers = sequenceNumbers;
+	}
+
+	@Override
+	public SequenceNumberIndex getSequenceNumberIndex() {
+		SequenceNumberIndex sequenceNumbers = this.sequenceNumbers;
+		return sequenceNumbers != null ? sequenceNumbers : MessageGroup.super.getSequenceNumberIndex();
+	}
+
 	@Override
 	public Collection<Message<?>> getMessages() {
 		return Collections.unmodifiableCollection(this.messages);
@@ -149,11 +166,13 @@ class PersistentMessageGroup implements MessageGroup {
 
 	@Override
 	public void add(Message<?> messageToAdd) {
+		this.sequenceNumbers = null;
 		this.original.add(messageToAdd);
 	}
 
 	@Override
 	public boolean remove(Message<?> messageToRemove) {
+		this.sequenceNumbers = null;
 		return this.original.remove(messageToRemove);
 	}
 
@@ -164,6 +183,7 @@ class PersistentMessageGroup implements MessageGroup {
 
 	@Override
 	public void clear() {
+		this.sequenceNumbers = null;
 		this.original.clear();
 	}
 
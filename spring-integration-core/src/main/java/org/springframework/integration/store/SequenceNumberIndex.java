@@ -0,0 +1,228 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * An index of the {@link IntegrationMessageHeaderAccessor#SEQUENCE_NUMBER sequence numbers}
+ * of the messages in a {@link MessageGroup}, so that duplicate detection and release
+ * decisions do not need to scan the group.
+ * <p>
+ * Sequence numbers up to {@code 2^20} are kept in a bit set; larger ones in a sorted set.
+ * Messages without a (positive) sequence number are not indexed, and duplicate sequence
+ * numbers are counted so that removing one of them keeps the number in the index.
+ * The index is maintained by the group (or the store) that owns it; it is thread safe.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class SequenceNumberIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAX_BIT_SET_SEQUENCE_NUMBER = 1 << 20;
+
+	private final BitSet sequenceNumbers = new BitSet();
+
+	private TreeSet<Integer> largeSequenceNumbers;
+
+	private Map<Integer, Integer> duplicates;
+
+	private int size;
+
+	public SequenceNumberIndex() {
+		super();
+	}
+
+	public SequenceNumberIndex(Collection<? extends Message<?>> messages) {
+		for (Message<?> message : messages) {
+			add(message);
+		}
+	}
+
+	/**
+	 * Return true if the index contains this sequence number.
+	 * @param sequenceNumber the sequence number.
+	 * @return true if present.
+	 */
+	public synchronized boolean contains(int sequenceNumber) {
+		if (sequenceNumber <= 0) {
+			return false;
+		}
+		if (sequenceNumber < MAX_BIT_SET_SEQUENCE_NUMBER) {
+			return this.sequenceNumbers.get(sequenceNumber);
+		}
+		return this.largeSequenceNumbers != null && this.largeSequenceNumbers.contains(sequenceNumber);
+	}
+
+	/**
+	 * Return the lowest sequence number in the index.
+	 * @return the sequence number, or 0 if the index is empty.
+	 */
+	public synchronized int getFirst() {
+		int first = this.sequenceNumbers.nextSetBit(1);
+		if (first >= 0) {
+			return first;
+		}
+		return this.largeSequenceNumbers != null && !this.largeSequenceNumbers.isEmpty()
+				? this.largeSequenceNumbers.first()
+				: 0;
+	}
+
+	/**
+	 * Return the end of the run of consecutive sequence numbers that starts with the
+	 * provided one; for example, with 3, 4, 5 and 7 in the index, the result for 3 is 5.
+	 * @param from the first sequence number of the run.
+	 * @return the last sequence number of the run, or {@code from - 1} if {@code from}
+	 * is not in the index.
+	 */
+	public synchronized int getLastConsecutive(int from) {
+		if (!contains(from)) {
+			return from - 1;
+		}
+		int last = from;
+		if (from < MAX_BIT_SET_SEQUENCE_NUMBER) {
+			last = this.sequenceNumbers.nextClearBit(from) - 1;
+			if (last < MAX_BIT_SET_SEQUENCE_NUMBER - 1) {
+				return last;
+			}
+		}
+		while (last < Integer.MAX_VALUE && contains(last + 1)) {
+			last++;
+		}
+		return last;
+	}
+
+	/**
+	 * Return the number of indexed messages, including those with duplicate sequence
+	 * numbers; if it is less than the size of the group, some of its messages have no
+	 * sequence number.
+	 * @return the number of indexed messages.
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * Add the sequence number of the message, if it has one; owners exposing the index
+	 * must not call this once it has been published.
+	 * @param message the message.
+	 */
+	public synchronized void add(Message<?> message) {
+		add(sequenceNumber(message));
+	}
+
+	synchronized void add(int sequenceNumber) {
+		if (sequenceNumber <= 0) {
+			return;
+		}
+		this.size++;
+		if (contains(sequenceNumber)) {
+			if (this.duplicates == null) {
+				this.duplicates = new HashMap<>();
+			}
+			this.duplicates.merge(sequenceNumber, 1, Integer::sum);
+		}
+		else if (sequenceNumber < MAX_BIT_SET_SEQUENCE_NUMBER) {
+			this.sequenceNumbers.set(sequenceNumber);
+		}
+		else {
+			if (this.largeSequenceNumbers == null) {
+				this.largeSequenceNumbers = new TreeSet<>();
+			}
+			this.largeSequenceNumbers.add(sequenceNumber);
+		}
+	}
+
+	synchronized void remove(Message<?> message) {
+		remove(sequenceNumber(message));
+	}
+
+	synchronized void remove(int sequenceNumber) {
+		if (sequenceNumber <= 0 || !contains(sequenceNumber)) {
+			return;
+		}
+		this.size--;
+		if (this.duplicates != null) {
+			Integer count = this.duplicates.get(sequenceNumber);
+			if (count != null) {
+				if (count == 1) {
+					this.duplicates.remove(sequenceNumber);
+				}
+				else {
+					this.duplicates.put(sequenceNumber, count - 1);
+				}
+				return;
+			}
+		}
+		if (sequenceNumber < MAX_BIT_SET_SEQUENCE_NUMBER) {
+			this.sequenceNumbers.clear(sequenceNumber);
+		}
+		else if (this.largeSequenceNumbers != null) {
+			this.largeSequenceNumbers.remove(sequenceNumber);
+		}
+	}
+
+	/**
+	 * Return a copy of this index, for owners that keep immutable snapshots.
+	 * @return the copy.
+	 */
+	public synchronized SequenceNumberIndex copy() {
+		SequenceNumberIndex copy = new SequenceNumberIndex();
+		copy.sequenceNumbers.or(this.sequenceNumbers);
+		if (this.largeSequenceNumbers != null) {
+			copy.largeSequenceNumbers = new TreeSet<>(this.largeSequenceNumbers);
+		}
+		if (this.duplicates != null) {
+			copy.duplicates = new HashMap<>(this.duplicates);
+		}
+		copy.size = this.size;
+		return copy;
+	}
+
+	synchronized void clear() {
+		this.sequenceNumbers.clear();
+		this.largeSequenceNumbers = null;
+		this.duplicates = null;
+		this.size = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SequenceNumberIndex{" +
+				"sequenceNumbers=" + this.sequenceNumbers +
+				(this.largeSequenceNumbers != null ? ", largeSequenceNumbers=" + this.largeSequenceNumbers : "") +
+				'}';
+	}
+
+	static int sequenceNumber(Message<?> message) {
+		MessageHeaders headers = message.getHeaders();
+		Object sequenceNumber = headers != null ? headers.get(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER) : null;
+		return sequenceNumber instanceof Integer ? (Integer) sequenceNumber : 0;
+	}
+
+}
@@ -44,6 +44,8 @@ public class SimpleMessageGroup implements MessageGroup {
 
 	private final Collection<Message<?>> messages;
 
+	private final SequenceNumberIndex sequenceNumbers = new SequenceNumberIndex();
+
 	private final long timestamp;
 
 	private volatile int lastReleasedMessageSequence;
@@ -112,7 +114,11 @@ public class SimpleMessageGroup implements MessageGroup {
 
 	@Override
 	public boolean remove(Message<?> message) {
-		return this.messages.remove(message);
+		if (this.messages.remove(message)) {
+			this.sequenceNumbers.remove(message);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -121,7 +127,11 @@ public class SimpleMessageGroup implements MessageGroup {
 	}
 
 	private boolean addMessage(Message<?> message) {
-		return this.messages.add(message);
+		if (this.messages.add(message)) {
+			this.sequenceNumbers.add(message);
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -173,6 +183,17 @@ public class SimpleMessageGroup implements MessageGroup {
 	@Override
 	public void clear() {
 		this.messages.clear();
+		this.sequenceNumbers.clear();
+	}
+
+	@Override
+	public boolean containsSequenceNumber(int sequenceNumber) {
+		return this.sequenceNumbers.contains(sequenceNumber);
+	}
+
+	@Override
+	public SequenceNumberIndex getSequenceNumberIndex() {
+		return this.sequenceNumbers;
 	}
 
 	@Override
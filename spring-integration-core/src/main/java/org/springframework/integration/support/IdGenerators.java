@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2015 the original author or authors.
+ * Copyright 2013-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,9 @@
 
 package org.springframework.integration.support;
 
+import java.security.SecureRandom;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.util.IdGenerator;
@@ -78,4 +80,139 @@ public class IdGenerators {
 
 	}
 
+	/**
+	 * Generates cluster-unique, time-ordered ids without a shared lock or a shared
+	 * random number generator. The ids have the layout of version 7 (time-ordered)
+	 * {@link UUID}s: the most significant 64 bits hold the current time in milliseconds
+	 * (48 bits), the version (4 bits) and a per-thread sequence (12 bits); the least
+	 * significant 64 bits hold the IETF variant (2 bits), the node id (38 bits) and a
+	 * number assigned to the generating thread when it first generates an id (24 bits).
+	 * <p>
+	 * Ids generated by one thread increase monotonically; when a thread generates more
+	 * than {@code 2^12} ids in a millisecond, or the clock goes backwards, its time runs
+	 * ahead of the clock rather than blocking. Ids compare (with {@link UUID#compareTo})
+	 * in the order of their generation time, to the millisecond.
+	 * <p>
+	 * Thread numbers are never reused: once {@code 2^24 - 1} threads have generated ids,
+	 * further threads share a single sequence, updated with a compare-and-set, so ids
+	 * remain unique (with some contention between those threads) when very many
+	 * short-lived threads are used.
+	 * <p>
+	 * The node id must be unique in the cluster; by default a random node id is chosen
+	 * for each instance, which makes a collision between the nodes of a cluster very
+	 * unlikely, rather than impossible.
+	 * @since 5.0
+	 */
+	public static class TimeOrderedIdGenerator implements IdGenerator {
+
+		private static final int SEQUENCE_BITS = 12;
+
+		private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+		private static final long VERSION = 7L << SEQUENCE_BITS;
+
+		private static final long VARIANT = 1L << 63;
+
+		private static final int THREAD_BITS = 24;
+
+		private static final int SHARED_THREAD_NUMBER = (1 << THREAD_BITS) - 1;
+
+		private static final long NODE_MASK = (1L << (62 - THREAD_BITS)) - 1;
+
+		private final AtomicInteger threadNumbers = new AtomicInteger();
+
+		private final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>() {
+
+			@Override
+			protected ThreadState initialValue() {
+				return newThreadState();
+			}
+
+		};
+
+		/**
+		 * The clock (time and sequence) of the threads that have no number of their own.
+		 */
+		private final AtomicLong sharedClock = new AtomicLong();
+
+		private final long nodeBits;
+
+		/**
+		 * Construct an instance with a random node id.
+		 */
+		public TimeOrderedIdGenerator() {
+			this(new SecureRandom().nextLong());
+		}
+
+		/**
+		 * Construct an instance with the provided node id.
+		 * @param nodeId the id of this node in the cluster; only the low 38 bits are used.
+		 */
+		public TimeOrderedIdGenerator(long nodeId) {
+			this.nodeBits = VARIANT | ((nodeId & NODE_MASK) << THREAD_BITS);
+		}
+
+		@Override
+		public UUID generateId() {
+			ThreadState state = this.threadState.get();
+			long clock;
+			if (state.leastSignificantBits == 0) {
+				long previous;
+				do {
+					previous = this.sharedClock.get();
+					clock = tick(previous);
+				}
+				while (!this.sharedClock.compareAndSet(previous, clock));
+				return uuid(clock, this.nodeBits | SHARED_THREAD_NUMBER);
+			}
+			else {
+				clock = tick(state.clock);
+				state.clock = clock;
+				return uuid(clock, state.leastSignificantBits);
+			}
+		}
+
+		private ThreadState newThreadState() {
+			int threadNumber;
+			do {
+				threadNumber = this.threadNumbers.get();
+				if (threadNumber >= SHARED_THREAD_NUMBER) {
+					return new ThreadState(0);
+				}
+			}
+			while (!this.threadNumbers.compareAndSet(threadNumber, threadNumber + 1));
+			return new ThreadState(this.nodeBits | threadNumber);
+		}
+
+		/**
+		 * Advance a clock, which holds the time in its high bits and the sequence in its
+		 * {@link #SEQUENCE_BITS} low bits, to the current time or, if it is already there
+		 * (or ahead), to its next sequence.
+		 */
+		private static long tick(long clock) {
+			return Math.max(System.currentTimeMillis() << SEQUENCE_BITS, clock + 1);
+		}
+
+		private static UUID uuid(long clock, long leastSignificantBits) {
+			return new UUID(((clock >>> SEQUENCE_BITS) << (SEQUENCE_BITS + 4)) | VERSION | (clock & SEQUENCE_MASK),
+					leastSignificantBits);
+		}
+
+		private static final class ThreadState {
+
+			/**
+			 * 0 when the thread has no number of its own.
+			 */
+			private final long leastSignificantBits;
+
+			private long clock;
+
+			ThreadState(long leastSignificantBits) {
+				this.leastSignificantBits = leastSignificantBits;
+			}
+
+		}
+
+	}
+
 }
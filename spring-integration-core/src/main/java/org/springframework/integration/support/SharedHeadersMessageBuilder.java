@@ -0,0 +1,412 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A message builder that shares the (immutable) headers of the original message and
+ * records only the changed headers; the cost of the header operations depends on the
+ * number of changed headers rather than on the number of headers of the message.
+ * {@link #build()} copies the headers once, directly into the new {@link MessageHeaders},
+ * whereas the {@link MessageBuilder} copies them into its header accessor, into a map
+ * for the message and then into the {@link MessageHeaders}. The built messages are the
+ * same immutable {@link GenericMessage}s (or {@link ErrorMessage}s), with a new id and
+ * timestamp, as produced by the {@link MessageBuilder}.
+ *
+ * @param <T> the payload type.
+ *
+ * @author agent
+ * @since 5.0
+ * @see SharedHeadersMessageBuilderFactory
+ */
+public final class SharedHeadersMessageBuilder<T> extends AbstractIntegrationMessageBuilder<T> {
+
+	private static final Object REMOVED = new Object();
+
+	private final T payload;
+
+	private final Message<T> originalMessage;
+
+	private final Map<String, Object> sharedHeaders;
+
+	private final boolean payloadModified;
+
+	private Map<String, Object> changes;
+
+	private Set<String> readOnlyHeaders = Collections.emptySet();
+
+	/**
+	 * Private constructor to be invoked from the static factory methods only.
+	 */
+	private SharedHeadersMessageBuilder(T payload, Message<T> originalMessage) {
+		Assert.notNull(payload, "payload must not be null");
+		this.payload = payload;
+		this.originalMessage = originalMessage;
+		if (originalMessage != null) {
+			this.sharedHeaders = originalMessage.getHeaders();
+			this.payloadModified = !payload.equals(originalMessage.getPayload());
+		}
+		else {
+			this.sharedHeaders = Collections.emptyMap();
+			this.payloadModified = false;
+		}
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance pre-populated with all of the
+	 * headers of the provided message, which are shared rather than copied. The payload
+	 * of the provided Message will also be used as the payload for the new message.
+	 * @param message the Message from which the payload and all headers will be used.
+	 * @param <T> The type of the payload.
+	 * @return A SharedHeadersMessageBuilder.
+	 */
+	public static <T> SharedHeadersMessageBuilder<T> fromMessage(Message<T> message) {
+		Assert.notNull(message, "message must not be null");
+		return new SharedHeadersMessageBuilder<T>(message.getPayload(), message);
+	}
+
+	/**
+	 * Create a builder for a new {@link Message} instance with the provided payload.
+	 * @param payload the payload for the new message.
+	 * @param <T> The type of the payload.
+	 * @return A SharedHeadersMessageBuilder.
+	 */
+	public static <T> SharedHeadersMessageBuilder<T> withPayload(T payload) {
+		return new SharedHeadersMessageBuilder<T>(payload, null);
+	}
+
+	/**
+	 * Specify a list of headers which should be considered as read only
+	 * and prohibited from being populated in the message.
+	 * @param readOnlyHeaders the list of headers for {@code readOnly} mode.
+	 * Defaults to {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP}.
+	 * @return this SharedHeadersMessageBuilder.
+	 */
+	public SharedHeadersMessageBuilder<T> readOnlyHeaders(String... readOnlyHeaders) {
+		Assert.noNullElements(readOnlyHeaders, "'readOnlyHeaders' must not be contain null items.");
+		if (!ObjectUtils.isEmpty(readOnlyHeaders)) {
+			this.readOnlyHeaders = new HashSet<String>(Arrays.asList(readOnlyHeaders));
+		}
+		return this;
+	}
+
+	@Override
+	public T getPayload() {
+		return this.payload;
+	}
+
+	@Override
+	public Map<String, Object> getHeaders() {
+		return new HashMap<String, Object>(new HeaderView());
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> setHeader(String headerName, Object headerValue) {
+		Assert.isTrue(!isReadOnly(headerName), "'" + headerName + "' header is read-only");
+		verifyType(headerName, headerValue);
+		Object existing = getHeader(headerName);
+		if (headerValue == null) {
+			if (existing != null) {
+				changes().put(headerName, REMOVED);
+			}
+		}
+		else if (!ObjectUtils.nullSafeEquals(headerValue, existing)) {
+			changes().put(headerName, headerValue);
+		}
+		return this;
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> setHeaderIfAbsent(String headerName, Object headerValue) {
+		if (getHeader(headerName) == null) {
+			setHeader(headerName, headerValue);
+		}
+		return this;
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> removeHeaders(String... headerPatterns) {
+		List<String> headersToRemove = new ArrayList<String>();
+		for (String pattern : headerPatterns) {
+			if (StringUtils.hasLength(pattern)) {
+				if (pattern.contains("*")) {
+					for (String headerName : new HeaderView().keySet()) {
+						if (PatternMatchUtils.simpleMatch(pattern, headerName)) {
+							headersToRemove.add(headerName);
+						}
+					}
+				}
+				else {
+					headersToRemove.add(pattern);
+				}
+			}
+		}
+		for (String headerToRemove : headersToRemove) {
+			removeHeader(headerToRemove);
+		}
+		return this;
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> removeHeader(String headerName) {
+		if (StringUtils.hasLength(headerName) && !isReadOnly(headerName)) {
+			setHeader(headerName, null);
+		}
+		return this;
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> copyHeaders(Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!isReadOnly(entry.getKey())) {
+					setHeader(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public SharedHeadersMessageBuilder<T> copyHeadersIfAbsent(Map<String, ?> headersToCopy) {
+		if (headersToCopy != null) {
+			for (Map.Entry<String, ?> entry : headersToCopy.entrySet()) {
+				if (!isReadOnly(entry.getKey())) {
+					setHeaderIfAbsent(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	protected List<List<Object>> getSequenceDetails() {
+		return (List<List<Object>>) getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS);
+	}
+
+	@Override
+	protected Object getCorrelationId() {
+		return getHeader(IntegrationMessageHeaderAccessor.CORRELATION_ID);
+	}
+
+	@Override
+	protected Object getSequenceNumber() {
+		Object sequenceNumber = getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER);
+		return sequenceNumber != null ? sequenceNumber : 0;
+	}
+
+	@Override
+	protected Object getSequenceSize() {
+		Object sequenceSize = getHeader(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE);
+		return sequenceSize != null ? sequenceSize : 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Message<T> build() {
+		if (!this.payloadModified && this.changes == null && this.originalMessage != null) {
+			return this.originalMessage;
+		}
+		if (this.payload instanceof Throwable) {
+			return (Message<T>) new ErrorMessage((Throwable) this.payload, new HeaderView());
+		}
+		return new GenericMessage<T>(this.payload, new HeaderView());
+	}
+
+	private Object getHeader(String headerName) {
+		if (MessageHeaders.ID.equals(headerName) || MessageHeaders.TIMESTAMP.equals(headerName)) {
+			return null;
+		}
+		if (this.changes != null) {
+			Object value = this.changes.get(headerName);
+			if (value != null) {
+				return value == REMOVED ? null : value;
+			}
+		}
+		return this.sharedHeaders.get(headerName);
+	}
+
+	private Map<String, Object> changes() {
+		if (this.changes == null) {
+			this.changes = new HashMap<String, Object>();
+		}
+		return this.changes;
+	}
+
+	private boolean isReadOnly(String headerName) {
+		return MessageHeaders.ID.equals(headerName) || MessageHeaders.TIMESTAMP.equals(headerName)
+				|| this.readOnlyHeaders.contains(headerName);
+	}
+
+	private static void verifyType(String headerName, Object headerValue) {
+		if (headerName != null && headerValue != null) {
+			if (MessageHeaders.ERROR_CHANNEL.equals(headerName)
+					|| MessageHeaders.REPLY_CHANNEL.equals(headerName)) {
+				Assert.isTrue(headerValue instanceof MessageChannel || headerValue instanceof String, "'"
+						+ headerName + "' header value must be a MessageChannel or String");
+			}
+			else if (IntegrationMessageHeaderAccessor.EXPIRATION_DATE.equals(headerName)) {
+				Assert.isTrue(headerValue instanceof Date || headerValue instanceof Long, "The '" + headerName
+						+ "' header value must be a Date or Long.");
+			}
+			else if (IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER.equals(headerName)
+					|| IntegrationMessageHeaderAccessor.SEQUENCE_SIZE.equals(headerName)
+					|| IntegrationMessageHeaderAccessor.PRIORITY.equals(headerName)) {
+				Assert.isTrue(headerValue instanceof Integer, "The '" + headerName
+						+ "' header value must be an Integer.");
+			}
+			else if (IntegrationMessageHeaderAccessor.ROUTING_SLIP.equals(headerName)) {
+				Assert.isTrue(headerValue instanceof Map, "The '" + headerName + "' header value must be a Map.");
+			}
+			else if (IntegrationMessageHeaderAccessor.DUPLICATE_MESSAGE.equals(headerName)) {
+				Assert.isTrue(headerValue instanceof Boolean, "The '" + headerName
+						+ "' header value must be an Boolean.");
+			}
+		}
+	}
+
+
+	/**
+	 * A read-only view of the shared headers with the changes applied, excluding the
+	 * {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP} of the original message.
+	 */
+	private final class HeaderView extends AbstractMap<String, Object> {
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new HeaderIterator();
+				}
+
+				@Override
+				public int size() {
+					Map<String, Object> shared = SharedHeadersMessageBuilder.this.sharedHeaders;
+					int size = shared.size();
+					if (shared.containsKey(MessageHeaders.ID)) {
+						size--;
+					}
+					if (shared.containsKey(MessageHeaders.TIMESTAMP)) {
+						size--;
+					}
+					Map<String, Object> changes = SharedHeadersMessageBuilder.this.changes;
+					if (changes != null) {
+						for (Map.Entry<String, Object> change : changes.entrySet()) {
+							boolean shares = shared.containsKey(change.getKey());
+							if (change.getValue() == REMOVED) {
+								if (shares) {
+									size--;
+								}
+							}
+							else if (!shares) {
+								size++;
+							}
+						}
+					}
+					return size;
+				}
+
+			};
+		}
+
+	}
+
+
+	/**
+	 * Iterates over the shared headers which are not changed, then over the changed
+	 * headers which are not removed.
+	 */
+	private final class HeaderIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private final Map<String, Object> changes = SharedHeadersMessageBuilder.this.changes;
+
+		private Iterator<Map.Entry<String, Object>> iterator =
+				SharedHeadersMessageBuilder.this.sharedHeaders.entrySet().iterator();
+
+		private boolean iteratingChanges;
+
+		private Map.Entry<String, Object> next;
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null) {
+				if (this.iterator.hasNext()) {
+					Map.Entry<String, Object> entry = this.iterator.next();
+					if (include(entry)) {
+						this.next = entry;
+					}
+				}
+				else if (!this.iteratingChanges && this.changes != null) {
+					this.iterator = this.changes.entrySet().iterator();
+					this.iteratingChanges = true;
+				}
+				else {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<String, Object> entry = this.next;
+			this.next = null;
+			return entry;
+		}
+
+		private boolean include(Map.Entry<String, Object> entry) {
+			if (this.iteratingChanges) {
+				return entry.getValue() != REMOVED;
+			}
+			String key = entry.getKey();
+			return !MessageHeaders.ID.equals(key) && !MessageHeaders.TIMESTAMP.equals(key)
+					&& (this.changes == null || !this.changes.containsKey(key));
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * A {@link MessageBuilderFactory} producing {@link SharedHeadersMessageBuilder}s, which
+ * only record the changed headers; useful for flows that modify a few headers of
+ * messages with many headers in many steps, such as chains of header enrichers.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class SharedHeadersMessageBuilderFactory implements MessageBuilderFactory {
+
+	private String[] readOnlyHeaders;
+
+	/**
+	 * Specify a list of headers which should be considered as a read only
+	 * and prohibited from the population to the message.
+	 * @param readOnlyHeaders the list of headers for {@code readOnly} mode.
+	 * Defaults to {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP}.
+	 */
+	public void setReadOnlyHeaders(String... readOnlyHeaders) {
+		this.readOnlyHeaders = readOnlyHeaders;
+	}
+
+	@Override
+	public <T> SharedHeadersMessageBuilder<T> fromMessage(Message<T> message) {
+		return SharedHeadersMessageBuilder.fromMessage(message)
+				.readOnlyHeaders(this.readOnlyHeaders);
+	}
+
+	@Override
+	public <T> SharedHeadersMessageBuilder<T> withPayload(T payload) {
+		return SharedHeadersMessageBuilder.withPayload(payload)
+				.readOnlyHeaders(this.readOnlyHeaders);
+	}
+
+}
@@ -102,6 +102,27 @@ public abstract class AbstractMessageChannelMetrics implements ConfigurableMetri
 
 	public abstract Statistics getErrorRate();
 
+	/**
+	 * Return the send duration percentiles since startup or the last {@link #reset()};
+	 * only maintained by implementations that record a histogram.
+	 * @return the percentiles (milliseconds) or null if not supported.
+	 * @since 5.0
+	 */
+	public Percentiles getSendDurationPercentiles() {
+		return null;
+	}
+
+	/**
+	 * Return the send duration percentiles since the previous invocation of this method
+	 * (or the last {@link #reset()}) and start a new interval; only maintained by
+	 * implementations that record a histogram.
+	 * @return the percentiles (milliseconds) or null if not supported.
+	 * @since 5.0
+	 */
+	public Percentiles getSendDurationIntervalPercentiles() {
+		return null;
+	}
+
 	public abstract void afterReceive();
 
 	public abstract void afterError();
@@ -88,4 +88,25 @@ public abstract class AbstractMessageHandlerMetrics implements ConfigurableMetri
 
 	public abstract Statistics getDuration();
 
+	/**
+	 * Return the handler duration percentiles since startup or the last {@link #reset()};
+	 * only maintained by implementations that record a histogram.
+	 * @return the percentiles (milliseconds) or null if not supported.
+	 * @since 5.0
+	 */
+	public Percentiles getDurationPercentiles() {
+		return null;
+	}
+
+	/**
+	 * Return the handler duration percentiles since the previous invocation of this
+	 * method (or the last {@link #reset()}) and start a new interval; only maintained by
+	 * implementations that record a histogram.
+	 * @return the percentiles (milliseconds) or null if not supported.
+	 * @since 5.0
+	 */
+	public Percentiles getDurationIntervalPercentiles() {
+		return null;
+	}
+
 }
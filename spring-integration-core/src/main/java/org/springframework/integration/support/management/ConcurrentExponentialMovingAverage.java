@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * A variant of {@link ExponentialMovingAverage} that never blocks the recording threads.
+ * Each thread maintains its own exponentially decaying sums (with the decay factor
+ * determined by the window size); the sums of all threads are merged on retrieval,
+ * so {@link #append(double)} performs no locking and no allocation.
+ * <p>
+ * The weighting is per recording thread: the statistics give more weight to the most
+ * recent {@code window} measurements of each thread rather than of the series as a whole.
+ * Minimum and maximum values are not weighted.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentExponentialMovingAverage {
+
+	private final PerThreadCells<Cell> cells = new PerThreadCells<Cell>(() -> new Cell());
+
+	private final double decay;
+
+	private final double factor;
+
+	/**
+	 * Create a moving average accumulator with decay lapse window provided.
+	 * @param window the exponential lapse window (number of measurements).
+	 */
+	public ConcurrentExponentialMovingAverage(int window) {
+		this(window, 1);
+	}
+
+	/**
+	 * Create a moving average accumulator with decay lapse window provided.
+	 * @param window the exponential lapse window (number of measurements).
+	 * @param factor a factor by which raw values are reduced during analysis; e.g. to analyze in ms and
+	 * raw values are ns, set the factor to 1000000.0.
+	 */
+	public ConcurrentExponentialMovingAverage(int window, double factor) {
+		this.decay = 1 - 1. / window;
+		this.factor = factor;
+	}
+
+	public void reset() {
+		this.cells.reset();
+	}
+
+	/**
+	 * Add a new measurement to the series.
+	 * @param value the measurement to append.
+	 */
+	public void append(double value) {
+		this.cells.get().append(value / this.factor);
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public int getCount() {
+		return (int) getCountLong();
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public long getCountLong() {
+		return this.cells.read(cells -> {
+			long count = 0;
+			for (Cell cell : cells) {
+				count += cell.count;
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * @return the mean value.
+	 */
+	public double getMean() {
+		return getStatistics().getMean();
+	}
+
+	/**
+	 * @return the approximate standard deviation.
+	 */
+	public double getStandardDeviation() {
+		return getStatistics().getStandardDeviation();
+	}
+
+	/**
+	 * @return the maximum value recorded (not weighted).
+	 */
+	public double getMax() {
+		return getStatistics().getMax();
+	}
+
+	/**
+	 * @return the minimum value recorded (not weighted).
+	 */
+	public double getMin() {
+		return getStatistics().getMin();
+	}
+
+	/**
+	 * @return summary statistics (count, mean, standard deviation etc.).
+	 */
+	public Statistics getStatistics() {
+		return this.cells.read(cells -> {
+			long count = 0;
+			double sum = 0;
+			double sumSquares = 0;
+			double weight = 0;
+			double min = Double.MAX_VALUE;
+			double max = 0;
+			for (Cell cell : cells) {
+				long cellCount = cell.count; // volatile read first; publishes the other fields
+				if (cellCount > 0) {
+					count += cellCount;
+					sum += cell.sum;
+					sumSquares += cell.sumSquares;
+					weight += cell.weight;
+					min = Math.min(min, cell.min);
+					max = Math.max(max, cell.max);
+				}
+			}
+			double mean = weight > 0 ? sum / weight : 0.;
+			double var = weight > 0 ? sumSquares / weight - mean * mean : 0.;
+			double standardDeviation = var > 0 ? Math.sqrt(var) : 0;
+			return new Statistics(count, min == Double.MAX_VALUE ? 0 : min, max, mean, standardDeviation); //NOSONAR
+		});
+	}
+
+	@Override
+	public String toString() {
+		return getStatistics().toString();
+	}
+
+	private final class Cell extends PerThreadCells.Cell<Cell> {
+
+		private double sum;
+
+		private double sumSquares;
+
+		private double weight;
+
+		private double min = Double.MAX_VALUE;
+
+		private double max;
+
+		private volatile long count;
+
+		Cell() {
+			super();
+		}
+
+		void append(double value) {
+			double decay = ConcurrentExponentialMovingAverage.this.decay;
+			this.sum = decay * this.sum + value;
+			this.sumSquares = decay * this.sumSquares + value * value;
+			this.weight = decay * this.weight + 1;
+			if (value < this.min) {
+				this.min = value;
+			}
+			if (value > this.max) {
+				this.max = value;
+			}
+			this.count = this.count + 1; // single writer
+		}
+
+		@Override
+		void clear() {
+			this.sum = 0;
+			this.sumSquares = 0;
+			this.weight = 0;
+			this.min = Double.MAX_VALUE;
+			this.max = 0;
+			this.count = 0;
+		}
+
+		@Override
+		void absorb(Cell other) {
+			this.sum += other.sum;
+			this.sumSquares += other.sumSquares;
+			this.weight += other.weight;
+			this.min = Math.min(this.min, other.min);
+			this.max = Math.max(this.max, other.max);
+			this.count = this.count + other.count;
+		}
+
+	}
+
+}
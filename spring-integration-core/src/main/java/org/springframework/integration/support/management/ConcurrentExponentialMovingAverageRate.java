@@ -0,0 +1,204 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * A variant of {@link ExponentialMovingAverageRate} that never blocks the recording
+ * threads. Each thread maintains its own event count decaying exponentially in time
+ * (<code>weight = exp((t0-t)/T)</code> where <code>T</code> is the lapse period); the
+ * counts of all threads are decayed to the current time and summed on retrieval, so
+ * {@link #increment(long)} performs no locking and no allocation.
+ * <p>
+ * Since the decay only depends on time, merging the per-thread counts gives the same
+ * estimate as a single shared counter would. Only the mean rate is calculated; the
+ * minimum, maximum and standard deviation of the {@link #getStatistics() statistics}
+ * are always zero.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentExponentialMovingAverageRate {
+
+	private final PerThreadCells<Cell> cells = new PerThreadCells<Cell>(() -> new Cell());
+
+	private final double lapse;
+
+	private final double period;
+
+	private volatile long t0 = System.nanoTime();
+
+	/**
+	 * @param period the period to base the rate measurement (in seconds).
+	 * @param lapsePeriod the exponential lapse rate for the rate average (in seconds).
+	 */
+	public ConcurrentExponentialMovingAverageRate(double period, double lapsePeriod) {
+		this.lapse = lapsePeriod > 0 ? 0.001 / lapsePeriod : 0; // convert to milliseconds
+		this.period = period * 1000; // convert to milliseconds
+	}
+
+	public void reset() {
+		this.cells.reset();
+		this.t0 = System.nanoTime();
+	}
+
+	/**
+	 * Add a new event to the series.
+	 */
+	public void increment() {
+		increment(System.nanoTime());
+	}
+
+	/**
+	 * Add a new event to the series at time t.
+	 * @param t the time of the event (System.nanoTime()).
+	 */
+	public void increment(long t) {
+		this.cells.get().increment(t);
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public int getCount() {
+		return (int) getCountLong();
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public long getCountLong() {
+		return this.cells.read(cells -> {
+			long count = 0;
+			for (Cell cell : cells) {
+				count += cell.count;
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * @return the time in milliseconds since the last measurement.
+	 */
+	public double getTimeSinceLastMeasurement() {
+		long last = this.cells.read(cells -> {
+			long latest = 0;
+			for (Cell cell : cells) {
+				if (cell.count > 0 && (latest == 0 || cell.last - latest > 0)) {
+					latest = cell.last;
+				}
+			}
+			return latest;
+		});
+		return last == 0 ? 0 : (System.nanoTime() - last) / 1000000.;
+	}
+
+	/**
+	 * @return the mean number of events per period.
+	 */
+	public double getMean() {
+		final long now = System.nanoTime();
+		double decayed = this.cells.read(cells -> {
+			double sum = 0;
+			for (Cell cell : cells) {
+				if (cell.count > 0) {
+					sum += cell.decayed * decay(now - cell.last);
+				}
+			}
+			return sum;
+		});
+		double elapsed = (now - this.t0) / 1000000.;
+		if (decayed == 0 || elapsed <= 0) {
+			return 0;
+		}
+		double perMilli;
+		if (this.lapse > 0) {
+			// correct for the events that would have been seen before we started
+			perMilli = decayed * this.lapse / (1 - Math.exp(-elapsed * this.lapse));
+		}
+		else {
+			perMilli = decayed / elapsed;
+		}
+		return perMilli * this.period;
+	}
+
+	/**
+	 * @return summary statistics (count and mean).
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(getCountLong(), 0, 0, getMean(), 0);
+	}
+
+	private double decay(long nanos) {
+		return nanos > 0 ? Math.exp(-nanos / 1000000. * this.lapse) : 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%s, timeSinceLast=%f]", getStatistics(), getTimeSinceLastMeasurement());
+	}
+
+	private final class Cell extends PerThreadCells.Cell<Cell> {
+
+		private double decayed;
+
+		private long last;
+
+		private volatile long count;
+
+		Cell() {
+			super();
+		}
+
+		void increment(long t) {
+			if (this.count > 0) {
+				this.decayed = this.decayed * decay(t - this.last) + 1;
+			}
+			else {
+				this.decayed = 1;
+			}
+			if (this.count == 0 || t - this.last > 0) {
+				this.last = t;
+			}
+			this.count = this.count + 1; // single writer
+		}
+
+		@Override
+		void clear() {
+			this.decayed = 0;
+			this.last = 0;
+			this.count = 0;
+		}
+
+		@Override
+		void absorb(Cell other) {
+			if (this.count == 0) {
+				this.decayed = other.decayed;
+				this.last = other.last;
+			}
+			else if (other.last - this.last > 0) {
+				this.decayed = this.decayed * decay(other.last - this.last) + other.decayed;
+				this.last = other.last;
+			}
+			else {
+				this.decayed += other.decayed * decay(this.last - other.last);
+			}
+			this.count = this.count + other.count;
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * A variant of {@link ExponentialMovingAverageRatio} that never blocks the recording
+ * threads. Each thread maintains its own success and total counts decaying exponentially
+ * in time (<code>weight = exp((t0-t)/T)</code> where <code>T</code> is the lapse period);
+ * the counts of all threads are decayed to the current time and merged on retrieval, so
+ * recording an outcome performs no locking and no allocation.
+ * <p>
+ * Only the mean ratio is calculated; the minimum, maximum and standard deviation of the
+ * {@link #getStatistics() statistics} are always zero.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentExponentialMovingAverageRatio {
+
+	private final PerThreadCells<Cell> cells = new PerThreadCells<Cell>(() -> new Cell());
+
+	private final double lapse;
+
+	/**
+	 * @param lapsePeriod the exponential lapse rate for the ratio average (in seconds).
+	 */
+	public ConcurrentExponentialMovingAverageRatio(double lapsePeriod) {
+		this.lapse = lapsePeriod > 0 ? 0.001 / lapsePeriod : 0; // convert to milliseconds
+	}
+
+	/**
+	 * Add a new event with successful outcome.
+	 */
+	public void success() {
+		success(System.nanoTime());
+	}
+
+	/**
+	 * Add a new event with successful outcome at time t.
+	 * @param t the System.nanoTime().
+	 */
+	public void success(long t) {
+		this.cells.get().append(1, t);
+	}
+
+	/**
+	 * Add a new event with failed outcome.
+	 */
+	public void failure() {
+		failure(System.nanoTime());
+	}
+
+	/**
+	 * Add a new event with failed outcome at time t.
+	 * @param t the System.nanoTime().
+	 */
+	public void failure(long t) {
+		this.cells.get().append(0, t);
+	}
+
+	public void reset() {
+		this.cells.reset();
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public int getCount() {
+		return (int) getCountLong();
+	}
+
+	/**
+	 * @return the number of measurements recorded.
+	 */
+	public long getCountLong() {
+		return this.cells.read(cells -> {
+			long count = 0;
+			for (Cell cell : cells) {
+				count += cell.count;
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * @return the mean success ratio; 1 if no outcomes have been recorded.
+	 */
+	public double getMean() {
+		final long now = System.nanoTime();
+		return this.cells.read(cells -> {
+			double successes = 0;
+			double total = 0;
+			for (Cell cell : cells) {
+				if (cell.count > 0) {
+					double alpha = decay(now - cell.last);
+					successes += cell.successes * alpha;
+					total += cell.total * alpha;
+				}
+			}
+			return total > 0 ? successes / total : 1;
+		});
+	}
+
+	/**
+	 * @return summary statistics (count and mean).
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(getCountLong(), 0, 0, getMean(), 0);
+	}
+
+	private double decay(long nanos) {
+		return nanos > 0 ? Math.exp(-nanos / 1000000. * this.lapse) : 1;
+	}
+
+	@Override
+	public String toString() {
+		return getStatistics().toString();
+	}
+
+	private final class Cell extends PerThreadCells.Cell<Cell> {
+
+		private double successes;
+
+		private double total;
+
+		private long last;
+
+		private volatile long count;
+
+		Cell() {
+			super();
+		}
+
+		void append(int value, long t) {
+			if (this.count > 0) {
+				double alpha = decay(t - this.last);
+				this.successes = this.successes * alpha + value;
+				this.total = this.total * alpha + 1;
+			}
+			else {
+				this.successes = value;
+				this.total = 1;
+			}
+			if (this.count == 0 || t - this.last > 0) {
+				this.last = t;
+			}
+			this.count = this.count + 1; // single writer
+		}
+
+		@Override
+		void clear() {
+			this.successes = 0;
+			this.total = 0;
+			this.last = 0;
+			this.count = 0;
+		}
+
+		@Override
+		void absorb(Cell other) {
+			if (this.count == 0) {
+				this.successes = other.successes;
+				this.total = other.total;
+				this.last = other.last;
+			}
+			else if (other.last - this.last > 0) {
+				double alpha = decay(other.last - this.last);
+				this.successes = this.successes * alpha + other.successes;
+				this.total = this.total * alpha + other.total;
+				this.last = other.last;
+			}
+			else {
+				double alpha = decay(this.last - other.last);
+				this.successes += other.successes * alpha;
+				this.total += other.total * alpha;
+			}
+			this.count = this.count + other.count;
+		}
+
+	}
+
+}
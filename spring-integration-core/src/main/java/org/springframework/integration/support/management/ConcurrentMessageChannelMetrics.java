@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MessageChannelMetrics} implementation for channels with many concurrent
+ * senders. Counts are kept in {@link LongAdder}s and the moving averages are the
+ * {@code Concurrent*} variants that record into per-thread cells, so neither counts
+ * nor full statistics serialize the sending threads; {@link #beforeSend()} does not
+ * allocate a new context for each message either.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentMessageChannelMetrics extends AbstractMessageChannelMetrics {
+
+	public static final int DEFAULT_MOVING_AVERAGE_WINDOW = 10;
+
+	private static final MetricsContext COUNTS_ONLY_CONTEXT = new MetricsContext() { };
+
+	protected final ConcurrentExponentialMovingAverage sendDuration;
+
+	protected final ConcurrentExponentialMovingAverageRate sendErrorRate;
+
+	protected final ConcurrentExponentialMovingAverageRatio sendSuccessRatio;
+
+	protected final ConcurrentExponentialMovingAverageRate sendRate;
+
+	protected final LongAdder sendCount = new LongAdder();
+
+	protected final LongAdder sendErrorCount = new LongAdder();
+
+	protected final LongAdder receiveCount = new LongAdder();
+
+	protected final LongAdder receiveErrorCount = new LongAdder();
+
+	private final ThreadLocal<StartTimeStack> startTimes = ThreadLocal.withInitial(StartTimeStack::new);
+
+	public ConcurrentMessageChannelMetrics() {
+		this(null);
+	}
+
+	/**
+	 * Construct an instance with default metrics with {@code window=10, period=1 second,
+	 * lapsePeriod=1 minute}.
+	 * @param name the name.
+	 */
+	public ConcurrentMessageChannelMetrics(String name) {
+		this(name, new ConcurrentExponentialMovingAverage(DEFAULT_MOVING_AVERAGE_WINDOW, 1000000.),
+				new ConcurrentExponentialMovingAverageRate(DefaultMessageChannelMetrics.ONE_SECOND_SECONDS,
+						DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS),
+				new ConcurrentExponentialMovingAverageRatio(DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS),
+				new ConcurrentExponentialMovingAverageRate(DefaultMessageChannelMetrics.ONE_SECOND_SECONDS,
+						DefaultMessageChannelMetrics.ONE_MINUTE_SECONDS));
+	}
+
+	/**
+	 * Construct an instance with the supplied metrics. For proper representation of metrics, the
+	 * supplied sendDuration must have a {@code factor=1000000.}.
+	 * @param name the name.
+	 * @param sendDuration a {@link ConcurrentExponentialMovingAverage} for calculating the send duration.
+	 * @param sendErrorRate a {@link ConcurrentExponentialMovingAverageRate} for calculating the send error rate.
+	 * @param sendSuccessRatio a {@link ConcurrentExponentialMovingAverageRatio} for calculating the success ratio.
+	 * @param sendRate a {@link ConcurrentExponentialMovingAverageRate} for calculating the send rate.
+	 */
+	public ConcurrentMessageChannelMetrics(String name, ConcurrentExponentialMovingAverage sendDuration,
+			ConcurrentExponentialMovingAverageRate sendErrorRate,
+			ConcurrentExponentialMovingAverageRatio sendSuccessRatio,
+			ConcurrentExponentialMovingAverageRate sendRate) {
+		super(name);
+		this.sendDuration = sendDuration;
+		this.sendErrorRate = sendErrorRate;
+		this.sendSuccessRatio = sendSuccessRatio;
+		this.sendRate = sendRate;
+	}
+
+	@Override
+	public MetricsContext beforeSend() {
+		this.sendCount.increment();
+		if (isFullStatsEnabled()) {
+			long start = System.nanoTime();
+			this.sendRate.increment(start);
+			StartTimeStack context = this.startTimes.get();
+			context.push(start);
+			return context;
+		}
+		return COUNTS_ONLY_CONTEXT;
+	}
+
+	@Override
+	public void afterSend(MetricsContext context, boolean result) {
+		long now = 0;
+		if (context instanceof StartTimeStack) {
+			long start = ((StartTimeStack) context).pop();
+			now = System.nanoTime();
+			if (result) {
+				this.sendSuccessRatio.success(now);
+				recordSendDuration(now - start);
+			}
+		}
+		if (!result) {
+			if (isFullStatsEnabled()) {
+				if (now == 0) {
+					now = System.nanoTime();
+				}
+				this.sendSuccessRatio.failure(now);
+				this.sendErrorRate.increment(now);
+			}
+			this.sendErrorCount.increment();
+		}
+	}
+
+	/**
+	 * Record the duration of a successful send.
+	 * @param nanos the duration in nanoseconds.
+	 */
+	protected void recordSendDuration(long nanos) {
+		this.sendDuration.append(nanos);
+	}
+
+	@Override
+	public void reset() {
+		this.sendDuration.reset();
+		this.sendErrorRate.reset();
+		this.sendSuccessRatio.reset();
+		this.sendRate.reset();
+		this.sendCount.reset();
+		this.sendErrorCount.reset();
+		this.receiveErrorCount.reset();
+		this.receiveCount.reset();
+	}
+
+	@Override
+	public int getSendCount() {
+		return (int) getSendCountLong();
+	}
+
+	@Override
+	public long getSendCountLong() {
+		return this.sendCount.sum();
+	}
+
+	@Override
+	public int getSendErrorCount() {
+		return (int) getSendErrorCountLong();
+	}
+
+	@Override
+	public long getSendErrorCountLong() {
+		return this.sendErrorCount.sum();
+	}
+
+	@Override
+	public double getTimeSinceLastSend() {
+		return this.sendRate.getTimeSinceLastMeasurement();
+	}
+
+	@Override
+	public double getMeanSendRate() {
+		return this.sendRate.getMean();
+	}
+
+	@Override
+	public double getMeanErrorRate() {
+		return this.sendErrorRate.getMean();
+	}
+
+	@Override
+	public double getMeanErrorRatio() {
+		return 1 - this.sendSuccessRatio.getMean();
+	}
+
+	@Override
+	public double getMeanSendDuration() {
+		return this.sendDuration.getMean();
+	}
+
+	@Override
+	public double getMinSendDuration() {
+		return this.sendDuration.getMin();
+	}
+
+	@Override
+	public double getMaxSendDuration() {
+		return this.sendDuration.getMax();
+	}
+
+	@Override
+	public double getStandardDeviationSendDuration() {
+		return this.sendDuration.getStandardDeviation();
+	}
+
+	@Override
+	public Statistics getSendDuration() {
+		return this.sendDuration.getStatistics();
+	}
+
+	@Override
+	public Statistics getSendRate() {
+		return this.sendRate.getStatistics();
+	}
+
+	@Override
+	public Statistics getErrorRate() {
+		return this.sendErrorRate.getStatistics();
+	}
+
+	@Override
+	public void afterReceive() {
+		this.receiveCount.increment();
+	}
+
+	@Override
+	public void afterError() {
+		this.receiveErrorCount.increment();
+	}
+
+	@Override
+	public int getReceiveCount() {
+		return (int) getReceiveCountLong();
+	}
+
+	@Override
+	public long getReceiveCountLong() {
+		return this.receiveCount.sum();
+	}
+
+	@Override
+	public int getReceiveErrorCount() {
+		return (int) getReceiveErrorCountLong();
+	}
+
+	@Override
+	public long getReceiveErrorCountLong() {
+		return this.receiveErrorCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MessageChannelMonitor: [name=%s, sends=%d]", this.name, this.sendCount.sum());
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MessageHandlerMetrics} implementation for handlers invoked by many threads
+ * concurrently. Counts are kept in {@link LongAdder}s and the duration is recorded in
+ * a {@link ConcurrentExponentialMovingAverage}, so neither counts nor full statistics
+ * serialize the handling threads; {@link #beforeHandle()} does not allocate a new
+ * context for each message either. {@link #reset()} also resets the active count;
+ * invocations in progress at that time are not counted when they complete.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentMessageHandlerMetrics extends AbstractMessageHandlerMetrics {
+
+	private static final int DEFAULT_MOVING_AVERAGE_WINDOW = 10;
+
+	protected final LongAdder activeCount = new LongAdder();
+
+	protected final LongAdder handleCount = new LongAdder();
+
+	protected final LongAdder errorCount = new LongAdder();
+
+	protected final ConcurrentExponentialMovingAverage duration;
+
+	private final ThreadLocal<StartTimeStack> startTimes = ThreadLocal.withInitial(StartTimeStack::new);
+
+	private volatile int generation;
+
+	public ConcurrentMessageHandlerMetrics() {
+		this(null);
+	}
+
+	/**
+	 * Construct an instance with the default moving average window (10).
+	 * @param name the name.
+	 */
+	public ConcurrentMessageHandlerMetrics(String name) {
+		this(name, new ConcurrentExponentialMovingAverage(DEFAULT_MOVING_AVERAGE_WINDOW, 1000000.));
+	}
+
+	/**
+	 * Construct an instance with the supplied {@link ConcurrentExponentialMovingAverage}
+	 * calculating the duration of processing by the message handler (and any downstream
+	 * synchronous endpoints).
+	 * @param name the name.
+	 * @param duration a {@link ConcurrentExponentialMovingAverage} for calculating the duration.
+	 */
+	public ConcurrentMessageHandlerMetrics(String name, ConcurrentExponentialMovingAverage duration) {
+		super(name);
+		this.duration = duration;
+	}
+
+	@Override
+	public MetricsContext beforeHandle() {
+		this.handleCount.increment();
+		this.activeCount.increment();
+		StartTimeStack context = this.startTimes.get();
+		context.push(isFullStatsEnabled() ? System.nanoTime() : 0, this.generation);
+		return context;
+	}
+
+	@Override
+	public void afterHandle(MetricsContext context, boolean success) {
+		if (context instanceof StartTimeStack) {
+			StartTimeStack startTimes = (StartTimeStack) context;
+			long start = startTimes.pop();
+			// invocations that started before a reset are no longer counted as active
+			if (startTimes.getPoppedGeneration() == this.generation) {
+				this.activeCount.decrement();
+			}
+			if (success && start != 0 && isFullStatsEnabled()) {
+				recordDuration(System.nanoTime() - start);
+			}
+		}
+		if (!success) {
+			this.errorCount.increment();
+		}
+	}
+
+	/**
+	 * Record the duration of a successful handler invocation.
+	 * @param nanos the duration in nanoseconds.
+	 */
+	protected void recordDuration(long nanos) {
+		this.duration.append(nanos);
+	}
+
+	@Override
+	public synchronized void reset() {
+		this.duration.reset();
+		this.errorCount.reset();
+		this.handleCount.reset();
+		this.generation = (this.generation + 1) & Integer.MAX_VALUE;
+		this.activeCount.reset();
+	}
+
+	@Override
+	public long getHandleCountLong() {
+		return this.handleCount.sum();
+	}
+
+	@Override
+	public int getHandleCount() {
+		return (int) getHandleCountLong();
+	}
+
+	@Override
+	public int getErrorCount() {
+		return (int) getErrorCountLong();
+	}
+
+	@Override
+	public long getErrorCountLong() {
+		return this.errorCount.sum();
+	}
+
+	@Override
+	public double getMeanDuration() {
+		return this.duration.getMean();
+	}
+
+	@Override
+	public double getMinDuration() {
+		return this.duration.getMin();
+	}
+
+	@Override
+	public double getMaxDuration() {
+		return this.duration.getMax();
+	}
+
+	@Override
+	public double getStandardDeviationDuration() {
+		return this.duration.getStandardDeviation();
+	}
+
+	@Override
+	public int getActiveCount() {
+		return (int) getActiveCountLong();
+	}
+
+	@Override
+	public long getActiveCountLong() {
+		return this.activeCount.sum();
+	}
+
+	@Override
+	public Statistics getDuration() {
+		return this.duration.getStatistics();
+	}
+
+}
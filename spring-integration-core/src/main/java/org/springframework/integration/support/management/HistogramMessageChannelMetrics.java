@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * A {@link ConcurrentMessageChannelMetrics} that also records successful send
+ * durations in a {@link LatencyHistogram}, exposing the p50, p90, p99 and p99.9
+ * send durations that the moving averages hide.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class HistogramMessageChannelMetrics extends ConcurrentMessageChannelMetrics {
+
+	protected final LatencyHistogram sendDurationHistogram = new LatencyHistogram();
+
+	public HistogramMessageChannelMetrics() {
+		this(null);
+	}
+
+	public HistogramMessageChannelMetrics(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void recordSendDuration(long nanos) {
+		super.recordSendDuration(nanos);
+		this.sendDurationHistogram.record(nanos);
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.sendDurationHistogram.reset();
+	}
+
+	@Override
+	public Percentiles getSendDurationPercentiles() {
+		return this.sendDurationHistogram.getPercentiles();
+	}
+
+	@Override
+	public Percentiles getSendDurationIntervalPercentiles() {
+		return this.sendDurationHistogram.getIntervalPercentiles();
+	}
+
+}
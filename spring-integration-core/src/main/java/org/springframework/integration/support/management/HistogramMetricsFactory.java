@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * Implementation that returns {@link ConcurrentMetricsFactory concurrent} metrics that
+ * also maintain duration histograms, so that latency percentiles are available from
+ * the channels and handlers.
+ *
+ * @author agent
+ * @since 5.0
+ * @see HistogramMessageChannelMetrics
+ * @see HistogramMessageHandlerMetrics
+ */
+public class HistogramMetricsFactory implements MetricsFactory {
+
+	@Override
+	public AbstractMessageChannelMetrics createChannelMetrics(String name) {
+		return new HistogramMessageChannelMetrics(name);
+	}
+
+	@Override
+	public AbstractMessageHandlerMetrics createHandlerMetrics(String name) {
+		return new HistogramMessageHandlerMetrics(name);
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-memory, log-linear histogram of durations in nanoseconds, in the style of
+ * an HDR histogram with 2 significant digits: each power of two range is split into
+ * 64 linear buckets, so the value reported for a percentile is within 1.6% of the
+ * recorded value. Values from 0 to about 18 minutes are tracked; larger values are
+ * recorded as the largest trackable value.
+ * <p>
+ * {@link #record(long)} is a single atomic increment. The bucket counts are never
+ * cleared; {@link #reset()} and interval snapshots are implemented by subtracting
+ * a baseline copy of the counts when reading, so readers never interfere with the
+ * recording threads.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	private static final int LINEAR_LIMIT = 2 << SUB_BUCKET_BITS;
+
+	private static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+
+	private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+	private static final double NANOS_PER_MILLI = 1000000.;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private long[] resetBaseline = new long[BUCKET_COUNT];
+
+	private long[] intervalBaseline = new long[BUCKET_COUNT];
+
+	/**
+	 * Record a duration.
+	 * @param nanos the duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		this.counts.incrementAndGet(indexOf(nanos));
+	}
+
+	/**
+	 * Discard all values recorded so far; also starts a new interval.
+	 */
+	public synchronized void reset() {
+		this.resetBaseline = copyCounts();
+		this.intervalBaseline = this.resetBaseline;
+	}
+
+	/**
+	 * @return the percentiles of all values recorded since creation or the last
+	 * {@link #reset()}.
+	 */
+	public synchronized Percentiles getPercentiles() {
+		return percentiles(copyCounts(), this.resetBaseline);
+	}
+
+	/**
+	 * Return the percentiles of the values recorded since the previous invocation of this
+	 * method (or the last {@link #reset()}) and start a new interval.
+	 * @return the percentiles.
+	 */
+	public synchronized Percentiles getIntervalPercentiles() {
+		long[] current = copyCounts();
+		Percentiles percentiles = percentiles(current, this.intervalBaseline);
+		this.intervalBaseline = current;
+		return percentiles;
+	}
+
+	private long[] copyCounts() {
+		long[] copy = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = this.counts.get(i);
+		}
+		return copy;
+	}
+
+	private static Percentiles percentiles(long[] current, long[] baseline) {
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		int highest = -1;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = current[i] - baseline[i];
+			if (counts[i] > 0) {
+				total += counts[i];
+				highest = i;
+			}
+		}
+		if (total == 0) {
+			return new Percentiles(0, 0, 0, 0, 0, 0);
+		}
+		return new Percentiles(total, valueAt(counts, total, 50.), valueAt(counts, total, 90.),
+				valueAt(counts, total, 99.), valueAt(counts, total, 99.9),
+				highestEquivalentValue(highest) / NANOS_PER_MILLI);
+	}
+
+	private static double valueAt(long[] counts, long total, double percentile) {
+		long target = Math.max(1, (long) Math.ceil(percentile / 100. * total));
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			if (cumulative >= target) {
+				return highestEquivalentValue(i) / NANOS_PER_MILLI;
+			}
+		}
+		return 0;
+	}
+
+	private static int indexOf(long value) {
+		long v = Math.min(Math.max(value, 0), MAX_TRACKABLE_VALUE);
+		int magnitude = 63 - Long.numberOfLeadingZeros(v);
+		int shift = Math.max(0, magnitude - SUB_BUCKET_BITS);
+		return (shift << SUB_BUCKET_BITS) + (int) (v >>> shift);
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long lowest = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
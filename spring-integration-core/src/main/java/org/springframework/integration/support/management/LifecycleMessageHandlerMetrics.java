@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -112,6 +112,16 @@ public class LifecycleMessageHandlerMetrics implements MessageHandlerMetrics, Li
 		return this.delegate.getDuration();
 	}
 
+	@Override
+	public Percentiles getDurationPercentiles() {
+		return this.delegate.getDurationPercentiles();
+	}
+
+	@Override
+	public Percentiles getDurationIntervalPercentiles() {
+		return this.delegate.getDurationIntervalPercentiles();
+	}
+
 	@Override
 	public String getManagedName() {
 		return this.delegate.getManagedName();
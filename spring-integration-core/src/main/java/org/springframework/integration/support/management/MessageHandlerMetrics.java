@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -87,6 +87,24 @@ public interface MessageHandlerMetrics extends IntegrationStatsManagement {
 	 */
 	Statistics getDuration();
 
+	/**
+	 * @return the handler duration percentiles (milliseconds) since startup or the last
+	 * reset, or null if the metrics don't maintain a histogram.
+	 * @since 5.0
+	 */
+	default Percentiles getDurationPercentiles() {
+		return null;
+	}
+
+	/**
+	 * @return the handler duration percentiles (milliseconds) since the previous call,
+	 * or null if the metrics don't maintain a histogram.
+	 * @since 5.0
+	 */
+	default Percentiles getDurationIntervalPercentiles() {
+		return null;
+	}
+
 	void setManagedName(String name);
 
 	String getManagedName();
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder for per-thread accumulator cells. Each recording thread lazily gets its
+ * own cell, which only that thread ever writes, so recording requires neither locks
+ * nor CAS loops. Readers merge all cells; cells of threads that have died are folded
+ * into a single retired cell so that thread churn does not grow the cell list.
+ * <p>
+ * A {@link #reset()} increments an epoch; cells from a previous epoch are ignored by
+ * readers and cleared by their owner on its next write.
+ *
+ * @param <C> the cell type.
+ *
+ * @author agent
+ * @since 5.0
+ */
+final class PerThreadCells<C extends PerThreadCells.Cell<C>> {
+
+	private final ThreadLocal<C> local = new ThreadLocal<C>();
+
+	private final List<C> cells = new CopyOnWriteArrayList<C>();
+
+	private final Supplier<C> cellFactory;
+
+	private volatile long epoch;
+
+	private C retired;
+
+	PerThreadCells(Supplier<C> cellFactory) {
+		this.cellFactory = cellFactory;
+	}
+
+	/**
+	 * Return the calling thread's cell, cleared if a reset occurred since its last use.
+	 * @return the cell.
+	 */
+	C get() {
+		C cell = this.local.get();
+		if (cell == null) {
+			cell = this.cellFactory.get();
+			cell.owner = new WeakReference<Thread>(Thread.currentThread());
+			cell.epoch = this.epoch;
+			this.local.set(cell);
+			this.cells.add(cell);
+		}
+		else if (cell.epoch != this.epoch) {
+			cell.clear();
+			cell.epoch = this.epoch;
+		}
+		return cell;
+	}
+
+	/**
+	 * Invoke the function with the cells of the current epoch; readers are serialized
+	 * with each other (and with {@link #reset()}), never with writers.
+	 * @param reader the function.
+	 * @param <R> the result type.
+	 * @return the function result.
+	 */
+	synchronized <R> R read(Function<List<C>, R> reader) {
+		long epoch = this.epoch;
+		List<C> current = new ArrayList<C>(this.cells.size() + 1);
+		Iterator<C> iterator = this.cells.iterator();
+		while (iterator.hasNext()) {
+			C cell = iterator.next();
+			Thread owner = cell.owner.get();
+			if (owner == null || !owner.isAlive()) {
+				if (cell.epoch == epoch) {
+					if (this.retired == null) {
+						this.retired = this.cellFactory.get();
+						this.retired.epoch = epoch;
+					}
+					this.retired.absorb(cell);
+				}
+				this.cells.remove(cell);
+			}
+			else if (cell.epoch == epoch) {
+				current.add(cell);
+			}
+		}
+		if (this.retired != null) {
+			current.add(this.retired);
+		}
+		return reader.apply(current);
+	}
+
+	synchronized void reset() {
+		this.retired = null;
+		this.epoch++;
+	}
+
+	/**
+	 * Base class for cells; subclass fields are written by the owning thread only.
+	 *
+	 * @param <C> the cell type.
+	 */
+	abstract static class Cell<C extends Cell<C>> {
+
+		WeakReference<Thread> owner;
+
+		long epoch;
+
+		/**
+		 * Clear the accumulated state; only called by the owning thread.
+		 */
+		abstract void clear();
+
+		/**
+		 * Merge the state of a cell whose owner thread has died into this one.
+		 * @param other the other cell.
+		 */
+		abstract void absorb(C other);
+
+	}
+
+}
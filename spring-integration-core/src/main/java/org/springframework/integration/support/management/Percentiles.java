@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+/**
+ * Latency percentiles calculated from a {@link LatencyHistogram}; values are in
+ * milliseconds.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class Percentiles {
+
+	private final long count;
+
+	private final double p50;
+
+	private final double p90;
+
+	private final double p99;
+
+	private final double p999;
+
+	private final double max;
+
+	public Percentiles(long count, double p50, double p90, double p99, double p999, double max) {
+		this.count = count;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+		this.max = max;
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	public double getP50() {
+		return this.p50;
+	}
+
+	public double getP90() {
+		return this.p90;
+	}
+
+	public double getP99() {
+		return this.p99;
+	}
+
+	public double getP999() {
+		return this.p999;
+	}
+
+	public double getMax() {
+		return this.max;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[N=%d, p50=%f, p90=%f, p99=%f, p99.9=%f, max=%f]",
+				this.count, this.p50, this.p90, this.p99, this.p999, this.max);
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.Arrays;
+
+/**
+ * A per-thread stack of start times used as a reusable {@link MetricsContext};
+ * a stack rather than a single value because a flow may re-enter the same
+ * component on the same thread. Each start time can be pushed with a generation so
+ * that a metrics reset can tell the invocations that started before it.
+ *
+ * @author agent
+ * @since 5.0
+ */
+final class StartTimeStack implements MetricsContext {
+
+	private long[] starts = new long[4];
+
+	private int[] generations = new int[4];
+
+	private int depth;
+
+	private int poppedGeneration;
+
+	void push(long start) {
+		push(start, 0);
+	}
+
+	void push(long start, int generation) {
+		if (this.depth == this.starts.length) {
+			this.starts = Arrays.copyOf(this.starts, this.depth * 2);
+			this.generations = Arrays.copyOf(this.generations, this.depth * 2);
+		}
+		this.starts[this.depth] = start;
+		this.generations[this.depth++] = generation;
+	}
+
+	long pop() {
+		if (this.depth == 0) {
+			this.poppedGeneration = -1;
+			return 0;
+		}
+		this.depth--;
+		this.poppedGeneration = this.generations[this.depth];
+		return this.starts[this.depth];
+	}
+
+	/**
+	 * @return the generation pushed with the start time most recently popped,
+	 * or -1 if the stack was empty.
+	 */
+	int getPoppedGeneration() {
+		return this.poppedGeneration;
+	}
+
+}
@@ -17,6 +17,7 @@
 package org.springframework.integration.support.management.graph;
 
 import org.springframework.integration.support.management.MessageChannelMetrics;
+import org.springframework.integration.support.management.Percentiles;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.messaging.MessageChannel;
 
@@ -108,6 +109,10 @@ public class MessageChannelNode extends IntegrationNode {
 			return this.channel.getErrorRate();
 		}
 
+		public Percentiles getSendDurationPercentiles() {
+			return this.channel.getSendDurationPercentiles();
+		}
+
 		public boolean isStatsEnabled() {
 			return this.channel.isStatsEnabled();
 		}
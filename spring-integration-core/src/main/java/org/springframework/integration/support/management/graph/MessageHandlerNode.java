@@ -17,6 +17,7 @@
 package org.springframework.integration.support.management.graph;
 
 import org.springframework.integration.support.management.MessageHandlerMetrics;
+import org.springframework.integration.support.management.Percentiles;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.messaging.MessageHandler;
 
@@ -90,6 +91,10 @@ public class MessageHandlerNode extends EndpointNode {
 			return this.handler.getDuration();
 		}
 
+		public Percentiles getDurationPercentiles() {
+			return this.handler.getDurationPercentiles();
+		}
+
 		public boolean isStatsEnabled() {
 			return this.handler.isStatsEnabled();
 		}
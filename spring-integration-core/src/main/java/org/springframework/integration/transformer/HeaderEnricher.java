@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,8 @@ import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.handler.MessageProcessor;
+import org.springframework.integration.support.MessageBuilderFactory;
+import org.springframework.integration.support.SharedHeadersMessageBuilderFactory;
 import org.springframework.integration.transformer.support.HeaderValueMessageProcessor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
@@ -37,6 +39,12 @@ import org.springframework.messaging.MessagingException;
  * Accepts the boolean 'overwrite' property that specifies whether values should
  * be overwritten. By default, any existing header values for a given key, will
  * <em>not</em> be replaced.
+ * <p>
+ * The headers of the message are copied to a new message; headers configured as
+ * read-only on the {@link MessageBuilderFactory} are not copied. With a
+ * {@link SharedHeadersMessageBuilderFactory}, only the changed headers are passed to a
+ * builder created from the message, so read-only headers of the message are retained,
+ * as with other transformers.
  *
  * @author Mark Fisher
  * @author David Turanski
@@ -99,7 +107,8 @@ public class HeaderEnricher extends IntegrationObjectSupport implements Transfor
 	@Override
 	public Message<?> transform(Message<?> message) {
 		try {
-			Map<String, Object> headerMap = new HashMap<String, Object>(message.getHeaders());
+			// only the changed headers; the others are read from the message
+			Map<String, Object> headerMap = new HashMap<String, Object>();
 			this.addHeadersFromMessageProcessor(message, headerMap);
 			for (Map.Entry<String, ? extends HeaderValueMessageProcessor<?>> entry : this.headersToAdd.entrySet()) {
 				String key = entry.getKey();
@@ -110,7 +119,7 @@ public class HeaderEnricher extends IntegrationObjectSupport implements Transfor
 					shouldOverwrite = this.defaultOverwrite;
 				}
 
-				boolean headerDoesNotExist = headerMap.get(key) == null;
+				boolean headerDoesNotExist = getHeader(message, headerMap, key) == null;
 
 				/**
 				 * Only evaluate value expression if necessary
@@ -122,13 +131,24 @@ public class HeaderEnricher extends IntegrationObjectSupport implements Transfor
 					}
 				}
 			}
-			return this.getMessageBuilderFactory().withPayload(message.getPayload()).copyHeaders(headerMap).build();
+			MessageBuilderFactory messageBuilderFactory = getMessageBuilderFactory();
+			if (messageBuilderFactory instanceof SharedHeadersMessageBuilderFactory && !headerMap.isEmpty()) {
+				// the builder copies the shared headers once; read-only headers of the message are retained
+				return messageBuilderFactory.fromMessage(message).copyHeaders(headerMap).build();
+			}
+			Map<String, Object> headers = new HashMap<String, Object>(message.getHeaders());
+			headers.putAll(headerMap);
+			return messageBuilderFactory.withPayload(message.getPayload()).copyHeaders(headers).build();
 		}
 		catch (Exception e) {
 			throw new MessagingException(message, "failed to transform message headers", e);
 		}
 	}
 
+	private static Object getHeader(Message<?> message, Map<String, Object> changedHeaders, String key) {
+		return changedHeaders.containsKey(key) ? changedHeaders.get(key) : message.getHeaders().get(key);
+	}
+
 	private void addHeadersFromMessageProcessor(Message<?> message, Map<String, Object> headerMap) {
 		if (this.messageProcessor != null) {
 			Object result = this.messageProcessor.processMessage(message);
@@ -137,7 +157,7 @@ public class HeaderEnricher extends IntegrationObjectSupport implements Transfor
 				for (Entry<?, ?> entry : resultMap.entrySet()) {
 					Object key = entry.getKey();
 					if (key instanceof String) {
-						if (this.defaultOverwrite || headerMap.get(key) == null) {
+						if (this.defaultOverwrite || getHeader(message, headerMap, (String) key) == null) {
 							headerMap.put((String) key, entry.getValue());
 						}
 					}
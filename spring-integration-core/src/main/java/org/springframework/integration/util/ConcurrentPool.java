@@ -0,0 +1,488 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.util.SimplePool.PoolItemCallback;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of {@link Pool} that does not take a lock when items are obtained
+ * from, or returned to, the pool. It has the same sizing, resizing and wait timeout
+ * semantics as {@link SimplePool}, with the following additions:
+ * <ul>
+ * <li>Idle items are reused most-recently-released first and a thread is offered the
+ * item it released last, if that item is still idle, before any other.</li>
+ * <li>Items can be discarded after being idle for longer than the
+ * {@link #setIdleTimeout(long) idle timeout}, or after they were created more than the
+ * {@link #setMaxLifetime(long) maximum lifetime} ago.</li>
+ * <li>{@link #evictIdleItems()} discards stale or expired idle items; it is intended to
+ * be invoked periodically by a scheduler so that items are not only discarded when they
+ * are next checked out.</li>
+ * <li>{@link #warmUp(int)} creates idle items in advance of the first request.</li>
+ * </ul>
+ * Only the wait for a permit when the pool is exhausted blocks; {@link #setPoolSize(int)}
+ * is synchronized, but it is an administrative operation.
+ *
+ * @param <T> pool element type.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+public class ConcurrentPool<T> implements Pool<T> {
+
+	protected final Log logger = LogFactory.getLog(this.getClass());
+
+	private final Semaphore permits = new Semaphore(0);
+
+	private final AtomicInteger poolSize = new AtomicInteger();
+
+	private final AtomicInteger targetPoolSize = new AtomicInteger();
+
+	private final Deque<T> available = new ConcurrentLinkedDeque<T>();
+
+	private final Set<T> allocated = ConcurrentHashMap.newKeySet();
+
+	private final Set<T> inUse = ConcurrentHashMap.newKeySet();
+
+	private final Map<T, ItemTimes> itemTimes = new ConcurrentHashMap<T, ItemTimes>();
+
+	private final ThreadLocal<WeakReference<T>> lastReleased = new ThreadLocal<WeakReference<T>>();
+
+	private final PoolItemCallback<T> callback;
+
+	private volatile long waitTimeout = Long.MAX_VALUE;
+
+	private volatile long idleTimeout;
+
+	private volatile long maxLifetime;
+
+	/**
+	 * Creates a ConcurrentPool with a specific limit.
+	 * @param poolSize The maximum number of items the pool supports; unlimited if
+	 * less than or equal to zero.
+	 * @param callback A {@link PoolItemCallback} implementation called during various
+	 * pool operations.
+	 */
+	public ConcurrentPool(int poolSize, PoolItemCallback<T> callback) {
+		Assert.notNull(callback, "'callback' cannot be null");
+		if (poolSize <= 0) {
+			this.poolSize.set(Integer.MAX_VALUE);
+			this.targetPoolSize.set(Integer.MAX_VALUE);
+			this.permits.release(Integer.MAX_VALUE);
+		}
+		else {
+			this.poolSize.set(poolSize);
+			this.targetPoolSize.set(poolSize);
+			this.permits.release(poolSize);
+		}
+		this.callback = callback;
+	}
+
+	/**
+	 * Adjusts the current pool size. When reducing the pool size, attempts to
+	 * remove the delta from the pool. If there are not enough unused items in
+	 * the pool, the actual pool size will decrease to the specified size as in-use
+	 * items are returned.
+	 * @param poolSize The desired target pool size.
+	 */
+	public synchronized void setPoolSize(int poolSize) {
+		int delta = poolSize - this.poolSize.get();
+		this.targetPoolSize.addAndGet(delta);
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug(String.format("Target pool size changed by %d, now %d", delta, this.targetPoolSize.get()));
+		}
+		if (delta > 0) {
+			this.poolSize.addAndGet(delta);
+			this.permits.release(delta);
+		}
+		else {
+			while (delta < 0) {
+				if (!this.permits.tryAcquire()) {
+					break;
+				}
+				T item = pollIdle();
+				if (item == null) {
+					this.permits.release();
+					break;
+				}
+				removeItem(item);
+				this.poolSize.decrementAndGet();
+				delta++;
+			}
+		}
+		if (delta < 0 && this.logger.isDebugEnabled()) {
+			this.logger.debug(String.format("Pool is overcommitted by %d; items will be removed when returned", -delta));
+		}
+	}
+
+	/**
+	 * Returns the current size of the pool; may be greater than the target pool size
+	 * if it was recently reduced and too many items were in use to allow the new size
+	 * to be set.
+	 */
+	@Override
+	public int getPoolSize() {
+		return this.poolSize.get();
+	}
+
+	@Override
+	public int getIdleCount() {
+		return this.available.size();
+	}
+
+	@Override
+	public int getActiveCount() {
+		return this.inUse.size();
+	}
+
+	@Override
+	public int getAllocatedCount() {
+		return this.allocated.size();
+	}
+
+	/**
+	 * Adjusts the wait timeout - the time for which getItem() will wait if no idle
+	 * entries are available.
+	 * <br>
+	 * Default: infinity.
+	 * @param waitTimeout The wait timeout in milliseconds.
+	 */
+	public void setWaitTimeout(long waitTimeout) {
+		this.waitTimeout = waitTimeout;
+	}
+
+	/**
+	 * Set the time after which an idle item is discarded instead of being reused.
+	 * <br>
+	 * Default: 0 - idle items are never discarded because of their idle time.
+	 * @param idleTimeout the idle timeout in milliseconds.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Set the time, measured from its creation, after which an item is discarded
+	 * instead of being reused; an item that is in use when it expires is discarded
+	 * when it is returned.
+	 * <br>
+	 * Default: 0 - items never expire.
+	 * @param maxLifetime the maximum lifetime in milliseconds.
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * Obtains an item from the pool; waits up to waitTime milliseconds (default infinity).
+	 * @throws MessagingException if no items become available in time.
+	 */
+	@Override
+	public T getItem() {
+		boolean permitted = false;
+		try {
+			try {
+				permitted = this.permits.tryAcquire(this.waitTimeout, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MessagingException("Interrupted awaiting a pooled resource", e);
+			}
+			if (!permitted) {
+				throw new IllegalStateException("Timed out while waiting to acquire a pool entry.");
+			}
+			return doGetItem();
+		}
+		catch (Exception e) {
+			if (permitted) {
+				this.permits.release();
+			}
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessagingException("Failed to obtain pooled item", e);
+		}
+	}
+
+	private T doGetItem() {
+		T item = pollLastReleased();
+		if (item == null) {
+			item = pollIdle();
+		}
+		while (item != null) {
+			if (isExpired(item, System.currentTimeMillis())) {
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Received an expired item " + item + ", will attempt to get a new one.");
+				}
+				removeItem(item);
+			}
+			else if (this.callback.isStale(item)) {
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Received a stale item " + item + ", will attempt to get a new one.");
+				}
+				removeItem(item);
+			}
+			else {
+				if (this.logger.isDebugEnabled()) {
+					this.logger.debug("Obtained " + item + " from pool.");
+				}
+				return item;
+			}
+			item = pollIdle();
+		}
+		item = this.callback.createForPool();
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Obtained new " + item + ".");
+		}
+		this.itemTimes.put(item, new ItemTimes(false));
+		this.allocated.add(item);
+		this.inUse.add(item);
+		return item;
+	}
+
+	/**
+	 * Returns an item to the pool.
+	 */
+	@Override
+	public void releaseItem(T item) {
+		Assert.notNull(item, "Item cannot be null");
+		Assert.isTrue(this.allocated.contains(item),
+				"You can only release items that were obtained from the pool");
+		if (!this.inUse.contains(item)) {
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Ignoring release of " + item + " back to the pool - not in use");
+			}
+		}
+		else if (shrink()) {
+			removeItem(item);
+		}
+		else if (isLifetimeExceeded(item, System.currentTimeMillis())) {
+			removeItem(item);
+			this.permits.release();
+		}
+		else {
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Releasing " + item + " back to the pool");
+			}
+			ItemTimes times = this.itemTimes.get(item);
+			if (times != null) {
+				times.released = System.currentTimeMillis();
+			}
+			if (this.inUse.remove(item)) {
+				this.available.offerFirst(item);
+				this.lastReleased.set(new WeakReference<T>(item));
+				this.permits.release();
+			}
+		}
+	}
+
+	@Override
+	public void removeAllIdleItems() {
+		T item;
+		while ((item = pollIdle()) != null) {
+			removeItem(item);
+		}
+	}
+
+	/**
+	 * Discard idle items that are stale, have been idle for longer than the idle
+	 * timeout, or have exceeded their maximum lifetime. Idle items that are obtained
+	 * by another thread while this method is running are left alone.
+	 * @return the number of items discarded.
+	 */
+	public int evictIdleItems() {
+		int evicted = 0;
+		for (T item : this.available) {
+			if ((isExpired(item, System.currentTimeMillis()) || this.callback.isStale(item)) && claim(item)) {
+				if (isExpired(item, System.currentTimeMillis()) || this.callback.isStale(item)) {
+					if (this.logger.isDebugEnabled()) {
+						this.logger.debug("Evicting idle item " + item);
+					}
+					this.available.removeFirstOccurrence(item);
+					removeItem(item);
+					evicted++;
+				}
+				else {
+					reinstate(item);
+				}
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Create idle items so that the first requests do not incur the cost of creating
+	 * them; the pool size is not exceeded. Each item is created while holding a permit,
+	 * so items are not created concurrently by {@link #getItem()} beyond the pool size
+	 * when the pool is already in use; no items are created when no permit is available.
+	 * @param count the number of items to create.
+	 * @return the number of items created.
+	 */
+	public int warmUp(int count) {
+		int created = 0;
+		while (created < count && this.permits.tryAcquire()) {
+			try {
+				if (this.allocated.size() >= this.poolSize.get()) {
+					break;
+				}
+				T item = this.callback.createForPool();
+				this.itemTimes.put(item, new ItemTimes(true));
+				this.allocated.add(item);
+				this.available.offerLast(item);
+				created++;
+			}
+			finally {
+				this.permits.release();
+			}
+		}
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Pre-allocated " + created + " items");
+		}
+		return created;
+	}
+
+	/**
+	 * Take exclusive ownership of an item; fails if the item is in use, or is being
+	 * examined by another thread, or has been removed from the pool.
+	 */
+	private boolean claim(T item) {
+		if (!this.inUse.add(item)) {
+			return false;
+		}
+		if (!this.allocated.contains(item)) {
+			this.inUse.remove(item);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Return a claimed item that is still idle; if a getItem() discarded its entry
+	 * in the deque while it was claimed here, add it back.
+	 */
+	private void reinstate(T item) {
+		this.inUse.remove(item);
+		if (!this.available.contains(item)) {
+			this.available.offerFirst(item);
+		}
+	}
+
+	private T pollLastReleased() {
+		WeakReference<T> ref = this.lastReleased.get();
+		if (ref != null) {
+			this.lastReleased.remove();
+			T item = ref.get();
+			if (item != null && claim(item)) {
+				this.available.removeFirstOccurrence(item);
+				return item;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Obtain and claim the most recently released idle item; entries for items that
+	 * are in use (left by a concurrent operation) are discarded.
+	 */
+	private T pollIdle() {
+		T item;
+		while ((item = this.available.pollFirst()) != null) {
+			if (claim(item)) {
+				return item;
+			}
+		}
+		return null;
+	}
+
+	private boolean shrink() {
+		int size;
+		while ((size = this.poolSize.get()) > this.targetPoolSize.get()) {
+			if (this.poolSize.compareAndSet(size, size - 1)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return true if an idle item has exceeded its maximum lifetime or the idle timeout.
+	 */
+	private boolean isExpired(T item, long now) {
+		ItemTimes times = this.itemTimes.get(item);
+		if (times == null) {
+			return false;
+		}
+		long maxLifetime = this.maxLifetime;
+		long idleTimeout = this.idleTimeout;
+		return (maxLifetime > 0 && now - times.created > maxLifetime)
+				|| (idleTimeout > 0 && times.released > 0 && now - times.released > idleTimeout);
+	}
+
+	/**
+	 * Return true if an item has exceeded its maximum lifetime; used for items being
+	 * returned, whose last release time says nothing about their idle time.
+	 */
+	private boolean isLifetimeExceeded(T item, long now) {
+		long maxLifetime = this.maxLifetime;
+		if (maxLifetime <= 0) {
+			return false;
+		}
+		ItemTimes times = this.itemTimes.get(item);
+		return times != null && now - times.created > maxLifetime;
+	}
+
+	private void removeItem(T item) {
+		if (this.allocated.remove(item)) {
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Removing " + item + " from the pool");
+			}
+			this.itemTimes.remove(item);
+			this.inUse.remove(item);
+			this.callback.removedFromPool(item);
+		}
+	}
+
+	private static final class ItemTimes {
+
+		private final long created = System.currentTimeMillis();
+
+		private volatile long released;
+
+		private ItemTimes(boolean idle) {
+			if (idle) {
+				this.released = this.created;
+			}
+		}
+
+	}
+
+}
@@ -22,11 +22,16 @@ import java.util.function.Function;
 /**
  * An {@link Iterator} implementation to convert each item from the target
  * {@link #iterator} to a new object applying the {@link #function} on {@link #next()}.
+ * <p>
+ * An optional {@link AutoCloseable} (such as a {@link java.util.stream.Stream}) is
+ * closed on {@link #close()}.
  *
  * @author Artem Bilan
  * @since 4.1
  */
-public final class FunctionIterator<T, V> implements Iterator<V> {
+public final class FunctionIterator<T, V> implements Iterator<V>, AutoCloseable {
+
+	private final AutoCloseable closeable;
 
 	private final Iterator<T> iterator;
 
@@ -37,6 +42,20 @@ public final class FunctionIterator<T, V> implements Iterator<V> {
 	}
 
 	public FunctionIterator(Iterator<T> newIterator, Function<? super T, ? extends V> function) {
+		this(null, newIterator, function);
+	}
+
+	/**
+	 * Construct an instance which closes the provided {@link AutoCloseable} on
+	 * {@link #close()}.
+	 * @param closeable the resource backing the iterator; may be null.
+	 * @param newIterator the iterator.
+	 * @param function the function.
+	 * @since 5.0
+	 */
+	public FunctionIterator(AutoCloseable closeable, Iterator<T> newIterator,
+			Function<? super T, ? extends V> function) {
+		this.closeable = closeable;
 		this.iterator = newIterator;
 		this.function = function;
 	}
@@ -56,5 +75,12 @@ public final class FunctionIterator<T, V> implements Iterator<V> {
 		return this.function.apply(this.iterator.next());
 	}
 
+	@Override
+	public void close() throws Exception {
+		if (this.closeable != null) {
+			this.closeable.close();
+		}
+	}
+
 }
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+/**
+ * An {@link AsyncListenableTaskExecutor} for tasks that spend most of their time blocked
+ * on I/O. When the runtime offers virtual threads, each task runs on a new virtual thread,
+ * so thousands of concurrent blocking waits don't need thousands of operating system
+ * threads; otherwise the tasks run on a pool of at most {@code poolSize} platform threads,
+ * queuing the tasks that exceed it.
+ * <p>
+ * The underlying {@link ExecutorService} is shut down by {@link #destroy()}.
+ *
+ * @author agent
+ * @since 5.0
+ * @see LightweightThreadFactory
+ */
+public class LightweightTaskExecutor implements AsyncListenableTaskExecutor, DisposableBean {
+
+	/**
+	 * The default number of platform threads if virtual threads are not available.
+	 */
+	public static final int DEFAULT_POOL_SIZE = 200;
+
+	private static final Method NEW_THREAD_PER_TASK_EXECUTOR_METHOD =
+			ClassUtils.getMethodIfAvailable(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+	private final LightweightThreadFactory threadFactory;
+
+	private final ExecutorService executorService;
+
+	/**
+	 * Construct an instance using virtual threads if available, with the
+	 * {@link #DEFAULT_POOL_SIZE} otherwise.
+	 * @param threadNamePrefix the thread name prefix.
+	 */
+	public LightweightTaskExecutor(String threadNamePrefix) {
+		this(threadNamePrefix, true, DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param threadNamePrefix the thread name prefix.
+	 * @param virtualThreads false to always use the pool of platform threads.
+	 * @param poolSize the maximum number of platform threads.
+	 */
+	public LightweightTaskExecutor(String threadNamePrefix, boolean virtualThreads, int poolSize) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be greater than 0");
+		this.threadFactory = new LightweightThreadFactory(threadNamePrefix,
+				virtualThreads && NEW_THREAD_PER_TASK_EXECUTOR_METHOD != null);
+		if (this.threadFactory.isVirtual()) {
+			this.executorService = (ExecutorService) ReflectionUtils.invokeMethod(NEW_THREAD_PER_TASK_EXECUTOR_METHOD,
+					null, this.threadFactory);
+		}
+		else {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), this.threadFactory);
+			executor.allowCoreThreadTimeOut(true);
+			this.executorService = executor;
+		}
+	}
+
+	/**
+	 * @return true if the tasks run on virtual threads.
+	 */
+	public boolean isVirtual() {
+		return this.threadFactory.isVirtual();
+	}
+
+	/**
+	 * @return the thread factory.
+	 */
+	public LightweightThreadFactory getThreadFactory() {
+		return this.threadFactory;
+	}
+
+	/**
+	 * @return the underlying executor service.
+	 */
+	public ExecutorService getExecutorService() {
+		return this.executorService;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		try {
+			this.executorService.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			throw new TaskRejectedException("Executor [" + this.executorService + "] did not accept task: " + task, e);
+		}
+	}
+
+	@Override
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		try {
+			return this.executorService.submit(task);
+		}
+		catch (RejectedExecutionException e) {
+			throw new TaskRejectedException("Executor [" + this.executorService + "] did not accept task: " + task, e);
+		}
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		try {
+			return this.executorService.submit(task);
+		}
+		catch (RejectedExecutionException e) {
+			throw new TaskRejectedException("Executor [" + this.executorService + "] did not accept task: " + task, e);
+		}
+	}
+
+	@Override
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public void destroy() {
+		this.executorService.shutdown();
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * A {@link ThreadFactory} creating virtual threads when the runtime offers them
+ * ({@code Thread.ofVirtual()}), so that tasks blocked on I/O don't hold an operating system
+ * thread; it creates platform threads, as a {@link CustomizableThreadFactory}, otherwise.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class LightweightThreadFactory extends CustomizableThreadFactory {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Method OF_VIRTUAL_METHOD = ClassUtils.getMethodIfAvailable(Thread.class, "ofVirtual");
+
+	private static final Method NAME_METHOD;
+
+	private static final Method FACTORY_METHOD;
+
+	static {
+		Method name = null;
+		Method factory = null;
+		if (OF_VIRTUAL_METHOD != null) {
+			try {
+				Class<?> builderClass = ClassUtils.forName("java.lang.Thread$Builder",
+						LightweightThreadFactory.class.getClassLoader());
+				name = builderClass.getMethod("name", String.class, long.class);
+				factory = builderClass.getMethod("factory");
+				// fails on runtimes with virtual threads as a preview feature
+				OF_VIRTUAL_METHOD.invoke(null);
+			}
+			catch (Exception e) {
+				name = null;
+				factory = null;
+			}
+		}
+		NAME_METHOD = name;
+		FACTORY_METHOD = factory;
+	}
+
+	private final transient ThreadFactory virtualThreadFactory;
+
+	/**
+	 * Construct an instance creating virtual threads if available.
+	 * @param threadNamePrefix the thread name prefix.
+	 */
+	public LightweightThreadFactory(String threadNamePrefix) {
+		this(threadNamePrefix, true);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param threadNamePrefix the thread name prefix.
+	 * @param virtualThreads false to always create platform threads.
+	 */
+	public LightweightThreadFactory(String threadNamePrefix, boolean virtualThreads) {
+		super(threadNamePrefix);
+		this.virtualThreadFactory = virtualThreads && isVirtualThreadsAvailable()
+				? createVirtualThreadFactory(getThreadNamePrefix())
+				: null;
+	}
+
+	/**
+	 * @return true if this factory creates virtual threads.
+	 */
+	public boolean isVirtual() {
+		return this.virtualThreadFactory != null;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		if (this.virtualThreadFactory != null) {
+			return this.virtualThreadFactory.newThread(runnable);
+		}
+		else {
+			return super.newThread(runnable);
+		}
+	}
+
+	/**
+	 * @return true if the runtime supports virtual threads.
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		return FACTORY_METHOD != null;
+	}
+
+	private static ThreadFactory createVirtualThreadFactory(String threadNamePrefix) {
+		Object builder = ReflectionUtils.invokeMethod(OF_VIRTUAL_METHOD, null);
+		builder = ReflectionUtils.invokeMethod(NAME_METHOD, builder, threadNamePrefix, 1L);
+		return (ThreadFactory) ReflectionUtils.invokeMethod(FACTORY_METHOD, builder);
+	}
+
+}
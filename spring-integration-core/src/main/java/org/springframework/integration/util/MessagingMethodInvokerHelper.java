@@ -17,6 +17,9 @@
 package org.springframework.integration.util;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -47,9 +50,12 @@ import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.TypeConverter;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.annotation.Payloads;
@@ -75,6 +81,12 @@ import org.springframework.util.StringUtils;
  * the method-selection will be dynamic, based on the underlying SpEL method resolution.
  * Alternatively, an annotation type may be provided so that the candidates for SpEL's
  * method resolution are determined by the presence of that annotation rather than the method name.
+ * <p>
+ * Once the handler method is selected, it is invoked through a {@link MethodHandle} with
+ * the arguments extracted directly from the message; SpEL is only evaluated for argument
+ * qualifiers which are real expressions (e.g. {@code @Payload("foo.bar")}). When an
+ * argument requires type conversion, the invocation falls back to the SpEL expression
+ * generated for the method, which applies the configured conversion service.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -116,6 +128,8 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 
 	private volatile boolean initialized;
 
+	private volatile boolean useSpelInvoker;
+
 	private String methodName;
 
 	private Method method;
@@ -150,6 +164,16 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 	}
 
 
+	/**
+	 * Set to true to always invoke the handler method by evaluating its generated SpEL
+	 * expression instead of using the direct invoker. Default false.
+	 * @param useSpelInvoker true to use the SpEL invoker.
+	 * @since 5.0
+	 */
+	public void setUseSpelInvoker(boolean useSpelInvoker) {
+		this.useSpelInvoker = useSpelInvoker;
+	}
+
 	public T process(Message<?> message) throws Exception {
 		ParametersWrapper parameters = new ParametersWrapper(message);
 		return processInternal(parameters);
@@ -313,11 +337,16 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		}
 		HandlerMethod candidate = this.findHandlerMethodForParameters(parameters);
 		Assert.notNull(candidate, "No candidate methods found for messages.");
-		Expression expression = candidate.getExpression();
 		Class<?> expectedType = this.expectedType != null ? this.expectedType : candidate.method.getReturnType();
 		try {
+			Object[] arguments = null;
+			if (!this.useSpelInvoker && candidate.canInvokeDirectly(this.targetObject)) {
+				arguments = candidate.resolveArguments(parameters, getEvaluationContext(false));
+			}
 			@SuppressWarnings("unchecked")
-			T result = (T) this.evaluateExpression(expression, parameters, expectedType);
+			T result = (T) (arguments != null
+					? invokeDirectly(candidate, arguments, expectedType)
+					: this.evaluateExpression(candidate.getExpression(), parameters, expectedType));
 			if (this.requiresReply) {
 				Assert.notNull(result,
 						"Expression evaluation result was null, but this processor requires a reply.");
@@ -628,6 +657,16 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		return null;
 	}
 
+	private Object invokeDirectly(HandlerMethod candidate, Object[] arguments, Class<?> expectedType)
+			throws Exception {
+		Object result = candidate.invoke(this.targetObject, arguments);
+		if (result != null && !org.springframework.util.ClassUtils.isAssignableValue(expectedType, result)) {
+			result = getEvaluationContext(false).getTypeConverter()
+					.convertValue(result, TypeDescriptor.forObject(result), TypeDescriptor.valueOf(expectedType));
+		}
+		return result;
+	}
+
 	private static boolean isMethodDefinedOnObjectClass(Method method) {
 		if (method == null) {
 			return false;
@@ -642,14 +681,35 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		return (method.getName().equals("clone") && method.getParameterTypes().length == 0);
 	}
 
+	/**
+	 * Extracts a single argument value for the direct invocation of a handler method.
+	 */
+	@FunctionalInterface
+	private interface ArgumentExtractor {
+
+		Object extract(MessagingMethodInvokerHelper<?>.ParametersWrapper parameters, EvaluationContext context);
+
+	}
+
 	/**
 	 * Helper class for generating and exposing metadata for a candidate handler method. The metadata includes the SpEL
-	 * expression and the expected payload type.
+	 * expression, the expected payload type and, when the method can be invoked without the SpEL expression,
+	 * a method handle with the argument extractors.
 	 */
 	private static class HandlerMethod {
 
 		private static final SpelExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
 
+		private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+		private static final ArgumentExtractor PAYLOAD_EXTRACTOR = (parameters, context) -> parameters.getPayload();
+
+		private static final ArgumentExtractor MESSAGE_EXTRACTOR = (parameters, context) -> parameters.getMessage();
+
+		private static final ArgumentExtractor HEADERS_EXTRACTOR = (parameters, context) -> parameters.getHeaders();
+
+		private static final ArgumentExtractor MESSAGES_EXTRACTOR = (parameters, context) -> parameters.getMessages();
+
 		private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER =
 				new LocalVariableTableParameterNameDiscoverer();
 
@@ -670,6 +730,12 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 
 		private final boolean canProcessMessageList;
 
+		private final Class<?>[] parameterTypes;
+
+		private final ArgumentExtractor[] argumentExtractors;
+
+		private volatile MethodHandle methodHandle;
+
 		private volatile TypeDescriptor targetParameterTypeDescriptor;
 
 		private volatile Class<?> targetParameterType = Void.class;
@@ -679,6 +745,8 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 		HandlerMethod(Method method, boolean canProcessMessageList) {
 			this.method = method;
 			this.canProcessMessageList = canProcessMessageList;
+			this.parameterTypes = method.getParameterTypes();
+			this.argumentExtractors = new ArgumentExtractor[this.parameterTypes.length];
 			this.expression = this.generateExpression(method);
 		}
 
@@ -695,6 +763,43 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			return this.messageMethod;
 		}
 
+		boolean canInvokeDirectly(Object targetObject) {
+			return this.methodHandle != null
+					&& (Modifier.isStatic(this.method.getModifiers())
+							|| this.method.getDeclaringClass().isInstance(targetObject));
+		}
+
+		/**
+		 * Extract the arguments for the direct invocation.
+		 * @param parameters the parameters.
+		 * @param context the evaluation context for the argument expressions.
+		 * @return the arguments, or null if at least one of them requires type conversion.
+		 */
+		Object[] resolveArguments(MessagingMethodInvokerHelper<?>.ParametersWrapper parameters,
+				EvaluationContext context) {
+			Object[] arguments = new Object[this.argumentExtractors.length];
+			for (int i = 0; i < arguments.length; i++) {
+				Object argument = this.argumentExtractors[i].extract(parameters, context);
+				if (!org.springframework.util.ClassUtils.isAssignableValue(this.parameterTypes[i], argument)) {
+					return null;
+				}
+				arguments[i] = argument;
+			}
+			return arguments;
+		}
+
+		Object invoke(Object targetObject, Object[] arguments) throws Exception {
+			try {
+				return (Object) this.methodHandle.invokeExact(targetObject, arguments);
+			}
+			catch (Exception e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new IllegalStateException("Cannot process message", e);
+			}
+		}
+
 		@Override
 		public String toString() {
 			return this.method.toString();
@@ -705,13 +810,17 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			Class<?>[] parameterTypes = method.getParameterTypes();
 			Annotation[][] parameterAnnotations = method.getParameterAnnotations();
 			boolean hasUnqualifiedMapParameter = false;
+			boolean directInvocation = true;
+			String[] argumentExpressions = new String[parameterTypes.length];
 			for (int i = 0; i < parameterTypes.length; i++) {
 				if (i != 0) {
 					sb.append(", ");
 				}
+				int argumentStart = sb.length();
 				MethodParameter methodParameter = new MethodParameter(method, i);
 				TypeDescriptor parameterTypeDescriptor = new TypeDescriptor(methodParameter);
 				Class<?> parameterType = parameterTypeDescriptor.getObjectType();
+				boolean passThrough = canPassWithoutConversion(parameterTypeDescriptor);
 				Annotation mappingAnnotation =
 						MessagingAnnotationUtils.findMessagePartAnnotation(parameterAnnotations[i], true);
 				if (mappingAnnotation != null) {
@@ -725,6 +834,7 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 						}
 						if (!StringUtils.hasText(qualifierExpression)) {
 							this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
+							this.argumentExtractors[i] = PAYLOAD_EXTRACTOR;
 						}
 					}
 					if (annotationType.equals(Payloads.class)) {
@@ -743,6 +853,9 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 						Assert.isTrue(Map.class.isAssignableFrom(parameterType),
 								"The @Headers annotation can only be applied to a Map-typed parameter.");
 						sb.append("headers");
+						this.argumentExtractors[i] = HEADERS_EXTRACTOR;
+						// header names are always strings
+						passThrough = isUntyped(parameterTypeDescriptor.getMapValueTypeDescriptor());
 					}
 					else if (annotationType.equals(Header.class)) {
 						sb.append(this.determineHeaderExpression(mappingAnnotation, methodParameter));
@@ -751,11 +864,13 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 				else if (parameterTypeDescriptor.isAssignableTo(messageTypeDescriptor)) {
 					this.messageMethod = true;
 					sb.append("message");
+					this.argumentExtractors[i] = MESSAGE_EXTRACTOR;
 					this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
 				}
 				else if ((parameterTypeDescriptor.isAssignableTo(messageListTypeDescriptor)
 						|| parameterTypeDescriptor.isAssignableTo(messageArrayTypeDescriptor))) {
 					sb.append("messages");
+					this.argumentExtractors[i] = MESSAGES_EXTRACTOR;
 					this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
 				}
 				else if (Collection.class.isAssignableFrom(parameterType) || parameterType.isArray()) {
@@ -764,6 +879,7 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 					}
 					else {
 						sb.append("payload");
+						this.argumentExtractors[i] = PAYLOAD_EXTRACTOR;
 					}
 					this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
 				}
@@ -804,8 +920,11 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 				}
 				else {
 					sb.append("payload");
+					this.argumentExtractors[i] = PAYLOAD_EXTRACTOR;
 					this.setExclusiveTargetParameterType(parameterTypeDescriptor, methodParameter);
 				}
+				argumentExpressions[i] = sb.substring(argumentStart);
+				directInvocation &= passThrough;
 			}
 			if (hasUnqualifiedMapParameter) {
 				if (this.targetParameterType != null && Map.class.isAssignableFrom(this.targetParameterType)) {
@@ -818,7 +937,69 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 			if (this.targetParameterTypeDescriptor == null) {
 				this.targetParameterTypeDescriptor = TypeDescriptor.valueOf(Void.class);
 			}
-			return EXPRESSION_PARSER.parseExpression(sb.toString());
+			Expression expression = EXPRESSION_PARSER.parseExpression(sb.toString());
+			if (directInvocation) {
+				this.methodHandle = createMethodHandle(method, argumentExpressions);
+			}
+			return expression;
+		}
+
+		/**
+		 * Create the method handle for the direct invocation and the extractors for the arguments
+		 * qualified with an expression; these are parsed with the SpEL compiler in {@code MIXED} mode.
+		 * The complete method expression is never compiled: a failed compiled invocation is retried
+		 * in interpreted mode, which would invoke the method twice.
+		 */
+		private MethodHandle createMethodHandle(Method method, String[] argumentExpressions) {
+			try {
+				ReflectionUtils.makeAccessible(method);
+				MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+				if (Modifier.isStatic(method.getModifiers())) {
+					methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+				}
+				methodHandle = methodHandle.asSpreader(Object[].class, this.parameterTypes.length).asType(INVOKER_TYPE);
+				SpelExpressionParser compilingParser = null;
+				for (int i = 0; i < this.argumentExtractors.length; i++) {
+					if (this.argumentExtractors[i] == null) {
+						if (compilingParser == null) {
+							compilingParser = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED,
+									method.getDeclaringClass().getClassLoader()));
+						}
+						final Expression argumentExpression = compilingParser.parseExpression(argumentExpressions[i]);
+						this.argumentExtractors[i] =
+								(parameters, context) -> argumentExpression.getValue(context, parameters);
+					}
+				}
+				return methodHandle;
+			}
+			catch (Exception e) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Cannot create a direct invoker for [" + method + "]; using SpEL.", e);
+				}
+				return null;
+			}
+		}
+
+		/**
+		 * SpEL converts collection elements and map entries to the generic parameter type, as well
+		 * as absent values to an empty {@code Optional}; such parameters use the SpEL invoker.
+		 */
+		private static boolean canPassWithoutConversion(TypeDescriptor parameterType) {
+			if (parameterType.getType().getName().equals("java.util.Optional")) {
+				return false;
+			}
+			if (parameterType.isCollection()) {
+				return isUntyped(parameterType.getElementTypeDescriptor());
+			}
+			if (parameterType.isMap()) {
+				return isUntyped(parameterType.getMapKeyTypeDescriptor())
+						&& isUntyped(parameterType.getMapValueTypeDescriptor());
+			}
+			return true;
+		}
+
+		private static boolean isUntyped(TypeDescriptor typeDescriptor) {
+			return typeDescriptor == null || Object.class.equals(typeDescriptor.getType());
 		}
 
 		private String determineHeaderExpression(Annotation headerAnnotation, MethodParameter methodParameter) {
@@ -845,11 +1026,22 @@ public class MessagingMethodInvokerHelper<T> extends AbstractExpressionEvaluator
 					+ "disabled or header name is not explicitly provided via @Header annotation.");
 			String headerRetrievalExpression = "headers['" + headerName + "']";
 			String fullHeaderExpression = headerRetrievalExpression + relativeExpression;
-			String fallbackExpression = (annotationAttributes.getBoolean("required")
-					&& !methodParameter.getParameterType().getName().equals("java.util.Optional"))
+			final boolean required = annotationAttributes.getBoolean("required")
+					&& !methodParameter.getParameterType().getName().equals("java.util.Optional");
+			String fallbackExpression = required
 					? "T(org.springframework.util.Assert).isTrue(false, 'required header not available: "
 					+ headerName + "')"
 					: "null";
+			if (relativeExpression.isEmpty()) {
+				final String name = headerName;
+				this.argumentExtractors[methodParameter.getParameterIndex()] = (parameters, context) -> {
+					Object value = parameters.getHeaders().get(name);
+					if (value == null && required) {
+						throw new IllegalArgumentException("required header not available: " + name);
+					}
+					return value;
+				};
+			}
 			return headerRetrievalExpression + " != null ? " + fullHeaderExpression + " : " + fallbackExpression;
 		}
 
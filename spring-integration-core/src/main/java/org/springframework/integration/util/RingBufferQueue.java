@@ -0,0 +1,430 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, pre-allocated {@link BlockingQueue} backed by a ring buffer. Each slot
+ * carries a sequence number, so producers and consumers claim slots with a single
+ * compare-and-set (no locks and no per-element allocation) and only touch shared
+ * state again when they have to wait.
+ * <p>The capacity is rounded up to the next power of two (and at least 2). With
+ * {@link ProducerType#SINGLE}, the producer side skips the compare-and-set; only one
+ * thread may then ever insert elements. Any number of threads may remove elements.
+ * <p>How threads wait for an element (or for free space) is governed by the
+ * {@link WaitStrategy}; the spinning strategies give the lowest hand-off latency at the
+ * expense of CPU while a thread waits.
+ * <p>Iterators are weakly consistent snapshots and do not support removal, so neither
+ * does {@link #remove(Object)}.
+ *
+ * @param <E> the element type.
+ *
+ * @author agent
+ * @since 5.0
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+	private static final int SPIN_TRIES = 100;
+
+	private static final long PARK_NANOS = 1000;
+
+	private final int capacity;
+
+	private final int mask;
+
+	private final AtomicReferenceArray<E> elements;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong head = new AtomicLong();
+
+	private final AtomicLong tail = new AtomicLong();
+
+	private final ProducerType producerType;
+
+	private final WaitStrategy waitStrategy;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition notEmpty = this.lock.newCondition();
+
+	private final Condition notFull = this.lock.newCondition();
+
+	private final AtomicInteger waitingConsumers = new AtomicInteger();
+
+	private final AtomicInteger waitingProducers = new AtomicInteger();
+
+	/**
+	 * Create a multi-producer queue with the {@link WaitStrategy#BLOCKING} strategy.
+	 * @param capacity the capacity (rounded up to a power of two, at least 2).
+	 */
+	public RingBufferQueue(int capacity) {
+		this(capacity, ProducerType.MULTI, WaitStrategy.BLOCKING);
+	}
+
+	/**
+	 * Create a queue.
+	 * @param capacity the capacity (rounded up to a power of two, at least 2).
+	 * @param producerType whether one or many threads insert elements.
+	 * @param waitStrategy how threads wait for elements or free space.
+	 */
+	public RingBufferQueue(int capacity, ProducerType producerType, WaitStrategy waitStrategy) {
+		Assert.isTrue(capacity > 0 && capacity <= 1 << 30, "'capacity' must be between 1 and 2^30");
+		Assert.notNull(producerType, "'producerType' must not be null");
+		Assert.notNull(waitStrategy, "'waitStrategy' must not be null");
+		// slot sequences cannot distinguish full from empty with a single slot
+		this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.elements = new AtomicReferenceArray<E>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			this.sequences.set(i, i);
+		}
+		this.producerType = producerType;
+		this.waitStrategy = waitStrategy;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public ProducerType getProducerType() {
+		return this.producerType;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return this.waitStrategy;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Assert.notNull(e, "'e' must not be null");
+		long position;
+		if (this.producerType == ProducerType.SINGLE) {
+			position = this.tail.get();
+			if (this.sequences.get((int) position & this.mask) != position) {
+				return false;
+			}
+			this.tail.lazySet(position + 1);
+		}
+		else {
+			while (true) {
+				position = this.tail.get();
+				long difference = this.sequences.get((int) position & this.mask) - position;
+				if (difference == 0) {
+					if (this.tail.compareAndSet(position, position + 1)) {
+						break;
+					}
+				}
+				else if (difference < 0) {
+					return false;
+				}
+			}
+		}
+		int index = (int) position & this.mask;
+		this.elements.lazySet(index, e);
+		this.sequences.set(index, position + 1);
+		if (this.waitingConsumers.get() > 0) {
+			signal(this.notEmpty);
+		}
+		return true;
+	}
+
+	@Override
+	public E poll() {
+		long position;
+		while (true) {
+			position = this.head.get();
+			long difference = this.sequences.get((int) position & this.mask) - (position + 1);
+			if (difference == 0) {
+				if (this.head.compareAndSet(position, position + 1)) {
+					break;
+				}
+			}
+			else if (difference < 0) {
+				return null;
+			}
+		}
+		int index = (int) position & this.mask;
+		E e = this.elements.get(index);
+		this.elements.lazySet(index, null);
+		this.sequences.set(index, position + this.capacity);
+		if (this.waitingProducers.get() > 0) {
+			signal(this.notFull);
+		}
+		return e;
+	}
+
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int counter = 0;
+		while (!offer(e)) {
+			if (System.nanoTime() - deadline >= 0) {
+				return false;
+			}
+			counter = idle(counter, true, deadline, false);
+		}
+		return true;
+	}
+
+	@Override
+	public void put(E e) throws InterruptedException {
+		int counter = 0;
+		while (!offer(e)) {
+			counter = idle(counter, false, 0, false);
+		}
+	}
+
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int counter = 0;
+		E e;
+		while ((e = poll()) == null) {
+			if (System.nanoTime() - deadline >= 0) {
+				return null;
+			}
+			counter = idle(counter, true, deadline, true);
+		}
+		return e;
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		int counter = 0;
+		E e;
+		while ((e = poll()) == null) {
+			counter = idle(counter, false, 0, true);
+		}
+		return e;
+	}
+
+	@Override
+	public E peek() {
+		while (true) {
+			long position = this.head.get();
+			int index = (int) position & this.mask;
+			if (this.sequences.get(index) != position + 1) {
+				return null;
+			}
+			E e = this.elements.get(index);
+			if (this.head.get() == position) {
+				return e;
+			}
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		Assert.notNull(c, "'c' must not be null");
+		Assert.isTrue(c != this, "cannot drain a queue to itself");
+		int count = 0;
+		E e;
+		while (count < maxElements && (e = poll()) != null) {
+			c.add(e);
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public int size() {
+		while (true) {
+			long head = this.head.get();
+			long tail = this.tail.get();
+			if (this.head.get() == head) {
+				return (int) Math.max(0, Math.min(tail - head, this.capacity));
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return peek() == null;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return this.capacity - size();
+	}
+
+	/**
+	 * Not supported; the ring buffer can only be consumed from its head.
+	 * @param o the object.
+	 * @return never returns normally.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		throw new UnsupportedOperationException("RingBufferQueue does not support removal of arbitrary elements");
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		List<E> snapshot = new ArrayList<E>();
+		long position = this.head.get();
+		long tail = this.tail.get();
+		while (position < tail) {
+			int index = (int) position & this.mask;
+			E e = this.elements.get(index);
+			if (this.sequences.get(index) == position + 1 && e != null) {
+				snapshot.add(e);
+			}
+			position++;
+		}
+		return Collections.unmodifiableList(snapshot).iterator();
+	}
+
+	private int idle(int counter, boolean timed, long deadline, boolean consumer) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		switch (this.waitStrategy) {
+			case BUSY_SPIN:
+				return counter;
+			case YIELDING:
+				if (counter < SPIN_TRIES) {
+					return counter + 1;
+				}
+				Thread.yield();
+				return counter;
+			case PARKING:
+				if (counter < SPIN_TRIES) {
+					return counter + 1;
+				}
+				LockSupport.parkNanos(this, PARK_NANOS);
+				return counter;
+			default:
+				await(timed, deadline, consumer);
+				return counter;
+		}
+	}
+
+	private void await(boolean timed, long deadline, boolean consumer) throws InterruptedException {
+		AtomicInteger waiting = consumer ? this.waitingConsumers : this.waitingProducers;
+		Condition condition = consumer ? this.notEmpty : this.notFull;
+		this.lock.lockInterruptibly();
+		try {
+			waiting.incrementAndGet();
+			try {
+				// re-check after registering, a signal may have been skipped before
+				if (consumer ? peek() != null : hasFreeSlot()) {
+					return;
+				}
+				if (!timed) {
+					condition.await();
+				}
+				else {
+					long nanos = deadline - System.nanoTime();
+					if (nanos > 0) {
+						condition.awaitNanos(nanos);
+					}
+				}
+			}
+			finally {
+				waiting.decrementAndGet();
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private boolean hasFreeSlot() {
+		long position = this.tail.get();
+		return this.sequences.get((int) position & this.mask) == position;
+	}
+
+	private void signal(Condition condition) {
+		this.lock.lock();
+		try {
+			condition.signalAll();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Whether one or many threads insert elements.
+	 */
+	public enum ProducerType {
+
+		/**
+		 * Only one thread ever inserts elements; slots are claimed without compare-and-set.
+		 */
+		SINGLE,
+
+		/**
+		 * Any number of threads insert elements.
+		 */
+		MULTI
+
+	}
+
+	/**
+	 * How a thread waits for an element to become available (or for free space).
+	 */
+	public enum WaitStrategy {
+
+		/**
+		 * Spin continuously; lowest latency, but occupies a CPU core while waiting, so
+		 * only use it when each waiting thread has a core of its own.
+		 */
+		BUSY_SPIN,
+
+		/**
+		 * Spin briefly, then {@link Thread#yield()} between attempts.
+		 */
+		YIELDING,
+
+		/**
+		 * Spin briefly, then park for a microsecond between attempts.
+		 */
+		PARKING,
+
+		/**
+		 * Block on a condition until signalled; the waiting side only adds cost
+		 * to the other side while a thread is actually waiting.
+		 */
+		BLOCKING
+
+	}
+
+}
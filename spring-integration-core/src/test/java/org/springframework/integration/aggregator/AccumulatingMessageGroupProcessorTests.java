@@ -0,0 +1,254 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.AbstractKeyValueMessageStore;
+import org.springframework.integration.store.MessageGroupStore;
+import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class AccumulatingMessageGroupProcessorTests {
+
+	private final SimpleMessageStore store = new SimpleMessageStore(2);
+
+	private final QueueChannel output = new QueueChannel();
+
+	private final QueueChannel discards = new QueueChannel();
+
+	private AggregatingMessageHandler aggregator;
+
+	@Before
+	public void configureAggregator() {
+		this.aggregator = createAggregator(this.store);
+	}
+
+	@Test
+	public void testOnlyAccumulatorIsStored() {
+		int parts = 10000;
+		for (int i = 1; i <= parts; i++) {
+			this.aggregator.handleMessage(createMessage(i, "foo", parts, i));
+			if (i < parts) {
+				assertEquals(1, this.store.getMessageGroup("foo").size());
+				assertNull(this.output.receive(0));
+			}
+		}
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals((long) parts * (parts + 1) / 2, result.getPayload());
+		assertEquals("bar", result.getHeaders().get("foo"));
+		assertFalse(result.getHeaders().containsKey("part"));
+		assertFalse(result.getHeaders().containsKey(AbstractAccumulatingMessageGroupProcessor.ACCUMULATED_COUNT));
+		assertFalse(result.getHeaders().containsKey(IntegrationMessageHeaderAccessor.SEQUENCE_SIZE));
+		assertEquals(0, this.store.getMessageGroup("foo").size());
+	}
+
+	@Test
+	public void testUserHeaderNotMistakenForAccumulatedCount() {
+		assertEquals("aggregator_accumulatedCount", AbstractAccumulatingMessageGroupProcessor.ACCUMULATED_COUNT);
+		for (int i = 1; i <= 3; i++) {
+			this.aggregator.handleMessage(MessageBuilder.fromMessage(createMessage(i, "foo", 3, i))
+					.setHeader("accumulatedCount", 5)
+					.build());
+		}
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals(6L, result.getPayload());
+		assertEquals(5, result.getHeaders().get("accumulatedCount"));
+	}
+
+	@Test
+	public void testPartialResultOnExpiry() {
+		this.aggregator.setSendPartialResultOnExpiry(true);
+		this.aggregator.handleMessage(createMessage(3, "foo", 3, 1));
+		this.aggregator.handleMessage(createMessage(5, "foo", 3, 2));
+		this.store.expireMessageGroups(-10000);
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals(8L, result.getPayload());
+	}
+
+	@Test
+	public void testUnfoldedMessagesAreCombined() {
+		this.store.addMessageToGroup("foo", createMessage(3, "foo", 3, 1));
+		this.aggregator.handleMessage(createMessage(5, "foo", 3, 2));
+		assertEquals(1, this.store.getMessageGroup("foo").size());
+		this.aggregator.handleMessage(createMessage(7, "foo", 3, 3));
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals(15L, result.getPayload());
+	}
+
+	@Test
+	public void testDuplicateSequenceNumberIsDiscarded() {
+		this.aggregator.handleMessage(createMessage(3, "foo", 3, 1));
+		this.aggregator.handleMessage(createMessage(5, "foo", 3, 2));
+		Message<?> duplicate = createMessage(100, "foo", 3, 1);
+		this.aggregator.handleMessage(duplicate);
+		assertSame(duplicate, this.discards.receive(0));
+		assertNull(this.output.receive(0));
+		this.aggregator.handleMessage(createMessage(7, "foo", 3, 3));
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals(15L, result.getPayload());
+		assertFalse(result.getHeaders()
+				.containsKey(AbstractAccumulatingMessageGroupProcessor.ACCUMULATED_SEQUENCE_NUMBERS));
+		assertNull(this.discards.receive(0));
+	}
+
+	@Test
+	public void testKeyValueStore() {
+		SerializingKeyValueMessageStore keyValueStore = new SerializingKeyValueMessageStore();
+		AggregatingMessageHandler aggregator = createAggregator(keyValueStore);
+		aggregator.handleMessage(createMessage(3, "foo", 3, 1));
+		aggregator.handleMessage(createMessage(5, "foo", 3, 2));
+		assertEquals(1, keyValueStore.getMessageGroup("foo").size());
+		assertEquals(2, keyValueStore.values.size()); // the group metadata and the accumulator
+		Message<?> duplicate = createMessage(100, "foo", 3, 2);
+		aggregator.handleMessage(duplicate);
+		assertSame(duplicate, this.discards.receive(0));
+		assertNull(this.output.receive(0));
+
+		// a new handler on the same store continues with the stored accumulator
+		aggregator = createAggregator(keyValueStore);
+		aggregator.handleMessage(duplicate);
+		assertSame(duplicate, this.discards.receive(0));
+		aggregator.handleMessage(createMessage(7, "foo", 3, 3));
+		Message<?> result = this.output.receive(0);
+		assertNotNull(result);
+		assertEquals(15L, result.getPayload());
+		assertEquals("bar", result.getHeaders().get("foo"));
+		assertEquals(0, keyValueStore.getMessageGroup("foo").size());
+		assertEquals(1, keyValueStore.values.size());
+	}
+
+	@Test
+	public void testProcessCompleteGroup() {
+		SimpleMessageGroup group = new SimpleMessageGroup("foo");
+		group.add(createMessage(3, "foo", 2, 1));
+		group.add(createMessage(5, "foo", 2, 2));
+		Message<?> result = (Message<?>) new SummingProcessor().processMessageGroup(group);
+		assertEquals(8L, result.getPayload());
+		assertEquals("bar", result.getHeaders().get("foo"));
+	}
+
+	private AggregatingMessageHandler createAggregator(MessageGroupStore messageStore) {
+		AggregatingMessageHandler aggregator = new AggregatingMessageHandler(new SummingProcessor(), messageStore);
+		aggregator.setOutputChannel(this.output);
+		aggregator.setDiscardChannel(this.discards);
+		aggregator.setBeanFactory(mock(BeanFactory.class));
+		aggregator.afterPropertiesSet();
+		return aggregator;
+	}
+
+	private static Message<?> createMessage(int payload, Object correlationId, int sequenceSize,
+			int sequenceNumber) {
+		return MessageBuilder.withPayload(payload)
+				.setCorrelationId(correlationId)
+				.setSequenceSize(sequenceSize)
+				.setSequenceNumber(sequenceNumber)
+				.setHeader("foo", "bar")
+				.setHeader("part", sequenceNumber)
+				.build();
+	}
+
+	private static class SummingProcessor extends AbstractAccumulatingMessageGroupProcessor<Long> {
+
+		@Override
+		public Long initialState(Message<?> message) {
+			return 0L;
+		}
+
+		@Override
+		public Long fold(Long accumulator, Message<?> message) {
+			return accumulator + (Integer) message.getPayload();
+		}
+
+		@Override
+		public Long combine(Long accumulator1, Long accumulator2) {
+			return accumulator1 + accumulator2;
+		}
+
+		@Override
+		public Object finish(Long accumulator) {
+			return accumulator;
+		}
+
+	}
+
+	/**
+	 * A key-value store that keeps its values serialized, as a persistent store does.
+	 */
+	private static class SerializingKeyValueMessageStore extends AbstractKeyValueMessageStore {
+
+		private final Map<Object, byte[]> values = new ConcurrentHashMap<Object, byte[]>();
+
+		@Override
+		protected Object doRetrieve(Object id) {
+			return SerializationUtils.deserialize(this.values.get(id));
+		}
+
+		@Override
+		protected void doStore(Object id, Object objectToStore) {
+			this.values.put(id, SerializationUtils.serialize(objectToStore));
+		}
+
+		@Override
+		protected Object doRemove(Object id) {
+			return SerializationUtils.deserialize(this.values.remove(id));
+		}
+
+		@Override
+		protected Collection<?> doListKeys(String keyPattern) {
+			List<Object> keys = new ArrayList<Object>();
+			for (Object key : this.values.keySet()) {
+				if (PatternMatchUtils.simpleMatch(keyPattern, key.toString())) {
+					keys.add(key);
+				}
+			}
+			return keys;
+		}
+
+	}
+
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -52,6 +53,21 @@ public class PriorityChannelTests {
 		assertTrue(channel.send(new GenericMessage<String>("test5")));
 	}
 
+	@Test
+	public void testReceiveBatch() {
+		PriorityChannel channel = new PriorityChannel(3);
+		channel.send(MessageBuilder.withPayload("low").setPriority(1).build());
+		channel.send(MessageBuilder.withPayload("high").setPriority(9).build());
+		channel.send(MessageBuilder.withPayload("mid").setPriority(5).build());
+		assertFalse(channel.send(new GenericMessage<String>("full"), 0));
+		List<Message<?>> messages = channel.receiveBatch(10, 0);
+		assertEquals(3, messages.size());
+		assertEquals("high", messages.get(0).getPayload());
+		assertEquals("mid", messages.get(1).getPayload());
+		assertEquals("low", messages.get(2).getPayload());
+		assertEquals(3, channel.getRemainingCapacity());
+	}
+
 	@Test
 	public void testDefaultComparatorWithTimestampFallback() throws Exception {
 		PriorityChannel channel = new PriorityChannel();
@@ -21,20 +21,28 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import org.springframework.integration.core.MessageSelector;
 import org.springframework.integration.selector.UnexpiredMessageSelector;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.messaging.support.GenericMessage;
 
 /**
@@ -249,9 +257,119 @@ public class QueueChannelTests {
 		assertTrue(channel.send(new GenericMessage<String>("roomAvailable"), 0));
 	}
 
+	@Test
+	public void testReceiveBatch() {
+		QueueChannel channel = new QueueChannel();
+		channel.setCountsEnabled(true);
+		assertTrue(channel.receiveBatch(10, 0).isEmpty());
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> messages = channel.receiveBatch(3, 0);
+		assertEquals(3, messages.size());
+		assertEquals(0, messages.get(0).getPayload());
+		assertEquals(2, messages.get(2).getPayload());
+		messages = channel.receiveBatch(10, 0);
+		assertEquals(2, messages.size());
+		assertEquals(4, messages.get(1).getPayload());
+		assertEquals(0, channel.getQueueSize());
+		assertEquals(6, channel.getReceiveCountLong());
+	}
+
+	@Test
+	public void testReceiveBatchWithInterceptor() {
+		QueueChannel channel = new QueueChannel();
+		final AtomicInteger intercepted = new AtomicInteger();
+		channel.addInterceptor(new ChannelInterceptorAdapter() {
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				if (message != null) {
+					intercepted.incrementAndGet();
+				}
+				return message;
+			}
+
+		});
+		for (int i = 0; i < 3; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		assertEquals(3, channel.receiveBatch(5, 0).size());
+		assertEquals(3, intercepted.get());
+	}
+
+	@Test
+	public void testDefaultReceiveBatch() {
+		SimpleQueueChannel channel = new SimpleQueueChannel();
+		assertTrue(channel.receiveBatch(10, 0).isEmpty());
+		for (int i = 0; i < 5; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> messages = channel.receiveBatch(3, 0);
+		assertEquals(3, messages.size());
+		assertEquals(0, messages.get(0).getPayload());
+		assertEquals(2, messages.get(2).getPayload());
+		assertEquals(2, channel.receiveBatch(10, 0).size());
+	}
+
 	@Rule
 	public final TemporaryFolder tempFolder = new TemporaryFolder();
 
+
+	private static class SimpleQueueChannel implements PollableChannel, QueueChannelOperations {
+
+		private final BlockingQueue<Message<?>> queue = new LinkedBlockingQueue<Message<?>>();
+
+		@Override
+		public boolean send(Message<?> message) {
+			return this.queue.offer(message);
+		}
+
+		@Override
+		public boolean send(Message<?> message, long timeout) {
+			return this.queue.offer(message);
+		}
+
+		@Override
+		public Message<?> receive() {
+			return receive(-1);
+		}
+
+		@Override
+		public Message<?> receive(long timeout) {
+			try {
+				return timeout < 0 ? this.queue.take() : this.queue.poll(timeout, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+
+		@Override
+		public List<Message<?>> clear() {
+			List<Message<?>> messages = new ArrayList<Message<?>>();
+			this.queue.drainTo(messages);
+			return messages;
+		}
+
+		@Override
+		public List<Message<?>> purge(MessageSelector selector) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int getQueueSize() {
+			return this.queue.size();
+		}
+
+		@Override
+		public int getRemainingCapacity() {
+			return this.queue.remainingCapacity();
+		}
+
+	}
+
 	/*TODO: No Reactor Chronicle artifact
 	@Test
 	public void testReactorPersistentQueue() throws InterruptedException, IOException {
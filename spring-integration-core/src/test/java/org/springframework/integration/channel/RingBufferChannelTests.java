@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import org.springframework.integration.util.RingBufferQueue.ProducerType;
+import org.springframework.integration.util.RingBufferQueue.WaitStrategy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class RingBufferChannelTests {
+
+	@Test
+	public void testCapacity() {
+		RingBufferChannel channel = new RingBufferChannel(3);
+		assertEquals(4, channel.getCapacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(channel.send(new GenericMessage<Integer>(i), 0));
+		}
+		assertFalse(channel.send(new GenericMessage<Integer>(4), 0));
+		assertFalse(channel.send(new GenericMessage<Integer>(4), 10));
+		assertEquals(4, channel.getQueueSize());
+		assertEquals(0, channel.getRemainingCapacity());
+		assertEquals(0, channel.receive(0).getPayload());
+		assertEquals(1, channel.getRemainingCapacity());
+		assertEquals(3, channel.clear().size());
+		assertNull(channel.receive(10));
+	}
+
+	@Test
+	public void testPurge() {
+		RingBufferChannel channel = new RingBufferChannel(8);
+		for (int i = 0; i < 6; i++) {
+			channel.send(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> purged = channel.purge(m -> (Integer) m.getPayload() % 2 == 0);
+		assertEquals(3, purged.size());
+		assertEquals(0, channel.receive(0).getPayload());
+		assertEquals(2, channel.receive(0).getPayload());
+		assertEquals(4, channel.receive(0).getPayload());
+		assertNull(channel.receive(0));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSingleProducerPurgeWithSelector() {
+		new RingBufferChannel(8, ProducerType.SINGLE, WaitStrategy.BLOCKING).purge(m -> true);
+	}
+
+	@Test
+	public void testConcurrentHandOff() throws Exception {
+		for (WaitStrategy waitStrategy : new WaitStrategy[] { WaitStrategy.YIELDING, WaitStrategy.PARKING,
+				WaitStrategy.BLOCKING }) {
+			handOff(new RingBufferChannel(16, ProducerType.MULTI, waitStrategy), 3);
+			handOff(new RingBufferChannel(16, ProducerType.SINGLE, waitStrategy), 1);
+		}
+	}
+
+	private void handOff(final RingBufferChannel channel, int producers) throws Exception {
+		final int perProducer = 10000;
+		ExecutorService exec = Executors.newCachedThreadPool();
+		for (int i = 0; i < producers; i++) {
+			exec.execute(() -> {
+				for (int j = 1; j <= perProducer; j++) {
+					channel.send(new GenericMessage<Integer>(j));
+				}
+			});
+		}
+		final AtomicLong sum = new AtomicLong();
+		for (int i = 0; i < 2; i++) {
+			exec.execute(() -> {
+				Message<?> message;
+				while ((message = channel.receive(500)) != null) {
+					sum.addAndGet((Integer) message.getPayload());
+				}
+			});
+		}
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+	}
+
+}
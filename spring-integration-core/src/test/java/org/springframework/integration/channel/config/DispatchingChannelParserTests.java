@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,7 +38,9 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.dispatcher.LeastInFlightLoadBalancingStrategy;
 import org.springframework.integration.dispatcher.LoadBalancingStrategy;
+import org.springframework.integration.dispatcher.PowerOfTwoChoicesLoadBalancingStrategy;
 import org.springframework.integration.dispatcher.RoundRobinLoadBalancingStrategy;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.integration.util.ErrorHandlingTaskExecutor;
@@ -127,6 +129,22 @@ public class DispatchingChannelParserTests {
 				new DirectFieldAccessor(executor).getPropertyValue("executor"));
 	}
 
+	@Test
+	public void leastInFlightLoadBalancerAndTaskExecutor() {
+		MessageChannel channel = channels.get("leastInFlightLoadBalancerAndTaskExecutor");
+		assertEquals(ExecutorChannel.class, channel.getClass());
+		assertEquals(LeastInFlightLoadBalancingStrategy.class,
+				getDispatcherProperty("loadBalancingStrategy", channel).getClass());
+	}
+
+	@Test
+	public void powerOfTwoChoicesLoadBalancer() {
+		MessageChannel channel = channels.get("powerOfTwoChoicesLoadBalancer");
+		assertEquals(DirectChannel.class, channel.getClass());
+		assertEquals(PowerOfTwoChoicesLoadBalancingStrategy.class,
+				getDispatcherProperty("loadBalancingStrategy", channel).getClass());
+	}
+
 	@Test
 	public void loadBalancerRef() {
 		MessageChannel channel = channels.get("lbRefChannel");
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.channel.config;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.integration.channel.RingBufferChannel;
+import org.springframework.integration.util.RingBufferQueue.ProducerType;
+import org.springframework.integration.util.RingBufferQueue.WaitStrategy;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class RingBufferChannelParserTests {
+
+	@Test
+	public void testRingBuffer() {
+		ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+				"ringBufferChannelParserTests.xml", RingBufferChannelParserTests.class);
+		RingBufferChannel channel = context.getBean("defaultChannel", RingBufferChannel.class);
+		assertEquals(1024, channel.getCapacity());
+		assertEquals(ProducerType.MULTI, channel.getProducerType());
+		assertEquals(WaitStrategy.BLOCKING, channel.getWaitStrategy());
+		channel = context.getBean("customChannel", RingBufferChannel.class);
+		assertEquals(64, channel.getCapacity());
+		assertEquals(ProducerType.SINGLE, channel.getProducerType());
+		assertEquals(WaitStrategy.BUSY_SPIN, channel.getWaitStrategy());
+		channel.send(new GenericMessage<String>("foo"));
+		assertEquals("foo", channel.receive(0).getPayload());
+		context.close();
+	}
+
+}
@@ -181,6 +181,20 @@ public class ChannelInterceptorTests {
 		assertFalse(interceptor2.wasAfterCompletionInvoked());
 	}
 
+	@Test
+	public void afterCompletionWithPreSendReturningNull() {
+		AfterCompletionTestInterceptor interceptor1 = new AfterCompletionTestInterceptor();
+		AfterCompletionTestInterceptor interceptor2 = new AfterCompletionTestInterceptor();
+		this.channel.addInterceptor(interceptor1);
+		this.channel.addInterceptor(new PreSendReturnsNullInterceptor());
+		this.channel.addInterceptor(interceptor2);
+		assertFalse(this.channel.send(MessageBuilder.withPayload("test").build()));
+		assertTrue(interceptor1.wasAfterCompletionInvoked());
+		assertFalse(interceptor2.wasAfterCompletionInvoked());
+		assertEquals(0, interceptor2.getCounter().get());
+		assertNull(this.channel.receive(0));
+	}
+
 	@Test
 	public void testPreReceiveInterceptorReturnsTrue() {
 		PreReceiveReturnsTrueInterceptor interceptor = new PreReceiveReturnsTrueInterceptor();
@@ -363,7 +377,6 @@ public class ChannelInterceptorTests {
 			this.exceptionToRaise = exception;
 		}
 
-		@SuppressWarnings("unused")
 		public AtomicInteger getCounter() {
 			return this.counter;
 		}
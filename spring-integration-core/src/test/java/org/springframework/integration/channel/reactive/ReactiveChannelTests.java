@@ -16,12 +16,21 @@
 
 package org.springframework.integration.channel.reactive;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.isOneOf;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -32,10 +41,13 @@ import org.springframework.integration.channel.ReactiveChannel;
 import org.springframework.integration.config.EnableIntegration;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import reactor.core.publisher.Flux;
+
 /**
  * @author Artem Bilan
  * @since 5.0
@@ -63,6 +75,100 @@ public class ReactiveChannelTests {
 		}
 	}
 
+	@Test
+	public void testPublisherIsRequestedSubscribersDemand() {
+		ReactiveChannel channel = new ReactiveChannel();
+		List<Object> received = new ArrayList<>();
+		AtomicReference<Subscription> subscription = new AtomicReference<>();
+		channel.subscribe(new CollectingSubscriber(received, subscription));
+		List<Integer> emitted = new ArrayList<>();
+		channel.subscribeTo(Flux.range(0, 10)
+				.map(i -> {
+					emitted.add(i);
+					return new GenericMessage<>(i);
+				}));
+		assertEquals(0, emitted.size());
+
+		subscription.get().request(2);
+		assertThat(received, contains(0, 1));
+		assertThat(emitted, contains(0, 1));
+		assertEquals(0, channel.getDemand());
+
+		subscription.get().request(3);
+		assertThat(received, contains(0, 1, 2, 3, 4));
+		assertThat(emitted, contains(0, 1, 2, 3, 4));
+		assertEquals(0, channel.getDemand());
+	}
+
+	@Test
+	public void testDropOverflowStrategy() {
+		ReactiveChannel channel = new ReactiveChannel();
+		channel.setOverflowStrategy(ReactiveChannel.OverflowStrategy.DROP);
+		List<Object> received = new ArrayList<>();
+		AtomicReference<Subscription> subscription = new AtomicReference<>();
+		channel.subscribe(new CollectingSubscriber(received, subscription));
+		subscription.get().request(1);
+		assertEquals(1, channel.getDemand());
+
+		for (int i = 0; i < 3; i++) {
+			channel.send(new GenericMessage<>(i));
+		}
+		assertThat(received, contains(0));
+		assertEquals(2, channel.getDroppedCount());
+		assertEquals(0, channel.getDemand());
+	}
+
+	@Test
+	public void testBufferIsBounded() {
+		ReactiveChannel channel = new ReactiveChannel();
+		channel.setBufferSize(2);
+		List<Object> received = new ArrayList<>();
+		AtomicReference<Subscription> subscription = new AtomicReference<>();
+		CollectingSubscriber subscriber = new CollectingSubscriber(received, subscription);
+		channel.subscribe(subscriber);
+
+		channel.send(new GenericMessage<>(0));
+		channel.send(new GenericMessage<>(1));
+		assertNull(subscriber.error);
+		channel.send(new GenericMessage<>(2));
+		assertNotNull(subscriber.error);
+		assertEquals(0, channel.getDemand());
+	}
+
+	private static class CollectingSubscriber implements Subscriber<Message<?>> {
+
+		private final List<Object> received;
+
+		private final AtomicReference<Subscription> subscription;
+
+		private volatile Throwable error;
+
+		CollectingSubscriber(List<Object> received, AtomicReference<Subscription> subscription) {
+			this.received = received;
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription.set(subscription);
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			this.received.add(message.getPayload());
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			this.error = t;
+		}
+
+		@Override
+		public void onComplete() {
+		}
+
+	}
+
 	@Configuration
 	@EnableIntegration
 	public static class TestConfiguration {
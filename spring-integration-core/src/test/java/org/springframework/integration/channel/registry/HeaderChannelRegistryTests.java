@@ -32,6 +32,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Map;
+import java.util.Set;
 
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -46,6 +47,7 @@ import org.springframework.integration.channel.DefaultHeaderChannelRegistry;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.MessagePublishingErrorHandler;
 import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.TimeBucketedHeaderChannelRegistry;
 import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
@@ -281,6 +283,60 @@ public class HeaderChannelRegistryTests {
 		assertEquals(0, map.size());
 	}
 
+	@Test
+	public void testTimeBucketedExpiry() throws Exception {
+		TimeBucketedHeaderChannelRegistry registry = new TimeBucketedHeaderChannelRegistry(100);
+		registry.setBucketInterval(20);
+		MessageChannel channel = new DirectChannel();
+		String shortLived = (String) registry.channelToChannelName(channel);
+		String longLived = (String) registry.channelToChannelName(channel, 60000);
+		assertThat(shortLived.length(), lessThan(24));
+		assertSame(channel, registry.channelNameToChannel(shortLived));
+		assertEquals(2, registry.size());
+		registry.runReaper();
+		assertEquals(2, registry.size());
+		Thread.sleep(150);
+		registry.runReaper();
+		assertEquals(1, registry.size());
+		assertNull(registry.channelNameToChannel(shortLived));
+		assertSame(channel, registry.channelNameToChannel(longLived));
+		assertEquals(2, registry.getRegistrationCount());
+		assertEquals(2, registry.getHitCount());
+		assertEquals(1, registry.getMissCount());
+		assertEquals(1, registry.getExpiredCount());
+		registry.setRemoveOnGet(true);
+		assertSame(channel, registry.channelNameToChannel(longLived));
+		assertEquals(0, registry.size());
+		registry.reset();
+		assertEquals(0, registry.getHitCount());
+	}
+
+	@Test
+	public void testTimeBucketedRemoveOnGet() {
+		TimeBucketedHeaderChannelRegistry registry = new TimeBucketedHeaderChannelRegistry();
+		registry.setRemoveOnGet(true);
+		MessageChannel channel = new DirectChannel();
+		String foo = (String) registry.channelToChannelName(channel);
+		String bar = (String) registry.channelToChannelName(channel);
+		Map<?, ?> buckets = TestUtils.getPropertyValue(registry, "buckets", Map.class);
+		assertEquals(2, bucketedCount(buckets));
+		assertSame(channel, registry.channelNameToChannel(foo));
+		assertEquals(1, registry.size());
+		assertEquals(1, bucketedCount(buckets));
+		assertNull(registry.channelNameToChannel(foo));
+		assertSame(channel, registry.channelNameToChannel(bar));
+		assertEquals(0, registry.size());
+		assertEquals(0, bucketedCount(buckets));
+	}
+
+	private int bucketedCount(Map<?, ?> buckets) {
+		int count = 0;
+		for (Object bucket : buckets.values()) {
+			count += TestUtils.getPropertyValue(bucket, "registrations", Set.class).size();
+		}
+		return count;
+	}
+
 
 	public static class Foo extends AbstractReplyProducingMessageHandler {
 
@@ -16,13 +16,26 @@
 
 package org.springframework.integration.config;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
@@ -30,8 +43,11 @@ import org.junit.Test;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.support.IdGenerators.JdkIdGenerator;
 import org.springframework.integration.support.IdGenerators.SimpleIncrementingIdGenerator;
+import org.springframework.integration.support.IdGenerators.TimeOrderedIdGenerator;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.IdGenerator;
@@ -204,6 +220,82 @@ public class IdGeneratorConfigurerTests {
 		context.close();
 	}
 
+	@Test
+	public void testTimeOrderedFromProperty() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBeanDefinition("bfpp", new RootBeanDefinition(DefaultConfiguringBeanFactoryPostProcessor.class));
+		Properties properties = new Properties();
+		properties.setProperty(IntegrationProperties.MESSAGE_ID_GENERATOR, "timeOrdered");
+		context.getBeanFactory().registerSingleton(IntegrationContextUtils.INTEGRATION_GLOBAL_PROPERTIES_BEAN_NAME,
+				properties);
+		context.refresh();
+		MessageHeaders headers = new MessageHeaders(null);
+		assertThat(TestUtils.getPropertyValue(headers, "idGenerator"), instanceOf(TimeOrderedIdGenerator.class));
+		UUID first = headers.getId();
+		UUID second = new MessageHeaders(null).getId();
+		assertTrue(second.compareTo(first) > 0);
+		assertEquals(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+
+		context.close();
+		assertNull(TestUtils.getPropertyValue(new MessageHeaders(null), "idGenerator"));
+	}
+
+	@Test
+	public void testTimeOrderedUniqueAcrossThreads() throws Exception {
+		final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(42);
+		final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService exec = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(exec.submit(() -> {
+				UUID previous = null;
+				for (int j = 0; j < 100000; j++) {
+					UUID id = idGenerator.generateId();
+					assertTrue(previous == null || id.compareTo(previous) > 0);
+					assertEquals(7, id.version());
+					assertEquals(2, id.variant());
+					ids.add(id);
+					previous = id;
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		exec.shutdownNow();
+		assertEquals(800000, ids.size());
+	}
+
+	@Test
+	public void testTimeOrderedSharedWhenThreadNumbersExhausted() throws Exception {
+		final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(42);
+		TestUtils.getPropertyValue(idGenerator, "threadNumbers", AtomicInteger.class).set((1 << 24) - 2);
+		final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+		final Set<Long> threadNumbers = ConcurrentHashMap.newKeySet();
+		ExecutorService exec = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(exec.submit(() -> {
+				UUID previous = null;
+				for (int j = 0; j < 10000; j++) {
+					UUID id = idGenerator.generateId();
+					assertTrue(previous == null || id.compareTo(previous) > 0);
+					ids.add(id);
+					threadNumbers.add(id.getLeastSignificantBits() & ((1 << 24) - 1));
+					previous = id;
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(10, TimeUnit.SECONDS);
+		}
+		exec.shutdownNow();
+		assertEquals(80000, ids.size());
+		assertEquals(2, threadNumbers.size());
+		assertTrue(threadNumbers.contains((long) (1 << 24) - 2));
+		assertTrue(threadNumbers.contains((long) (1 << 24) - 1));
+	}
+
 	public static class MyIdGenerator implements IdGenerator {
 
 		@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -100,6 +100,21 @@ public class PublishSubscribeChannelParserTests {
 		context.close();
 	}
 
+	@Test
+	public void waitForCompletion() {
+		ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
+				"publishSubscribeChannelParserTests.xml", this.getClass());
+		PublishSubscribeChannel channel = (PublishSubscribeChannel)
+				context.getBean("channelWithWaitForCompletion");
+		DirectFieldAccessor accessor = new DirectFieldAccessor(channel);
+		BroadcastingDispatcher dispatcher = (BroadcastingDispatcher)
+				accessor.getPropertyValue("dispatcher");
+		DirectFieldAccessor dispatcherAccessor = new DirectFieldAccessor(dispatcher);
+		assertTrue((Boolean) dispatcherAccessor.getPropertyValue("waitForCompletion"));
+		assertEquals(1000L, dispatcherAccessor.getPropertyValue("completionTimeout"));
+		context.close();
+	}
+
 	@Test
 	public void channelWithTaskExecutor() {
 		ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext(
@@ -17,11 +17,17 @@
 package org.springframework.integration.dispatcher;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
@@ -33,7 +39,9 @@ import org.mockito.stubbing.Answer;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.GenericMessage;
@@ -276,6 +284,120 @@ public class BroadcastingDispatcherTests {
 		}
 	}
 
+	@Test
+	public void waitForCompletionInvokesHandlersInParallel() {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		dispatcher = new BroadcastingDispatcher(executor);
+		dispatcher.setWaitForCompletion(true);
+		final CyclicBarrier barrier = new CyclicBarrier(3);
+		final AtomicInteger completed = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			dispatcher.addHandler(new MessageHandler() {
+
+				@Override
+				public void handleMessage(Message<?> message) throws MessagingException {
+					try {
+						// only passes if all three handlers run at the same time
+						barrier.await(10, TimeUnit.SECONDS);
+					}
+					catch (Exception e) {
+						throw new MessagingException(message, e);
+					}
+					completed.incrementAndGet();
+				}
+
+			});
+		}
+		assertTrue(dispatcher.dispatch(new GenericMessage<String>("foo")));
+		assertEquals(3, completed.get());
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void waitForCompletionAggregatesFailures() {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		dispatcher = new BroadcastingDispatcher(executor);
+		dispatcher.setWaitForCompletion(true);
+		Mockito.doThrow(new RuntimeException("fail1")).when(targetMock1).handleMessage(Mockito.any(Message.class));
+		Mockito.doThrow(new RuntimeException("fail3")).when(targetMock3).handleMessage(Mockito.any(Message.class));
+		dispatcher.addHandler(targetMock1);
+		dispatcher.addHandler(targetMock2);
+		dispatcher.addHandler(targetMock3);
+		Message<String> message = new GenericMessage<String>("foo");
+		try {
+			dispatcher.dispatch(message);
+			fail("Expected Exception");
+		}
+		catch (AggregateMessageDeliveryException e) {
+			assertEquals(message, e.getFailedMessage());
+			assertEquals(2, e.getAggregatedExceptions().size());
+		}
+		Mockito.verify(targetMock2).handleMessage(Mockito.eq(message));
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void waitForCompletionTimeout() {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		dispatcher = new BroadcastingDispatcher(executor);
+		dispatcher.setWaitForCompletion(true);
+		dispatcher.setCompletionTimeout(100);
+		final CountDownLatch latch = new CountDownLatch(1);
+		dispatcher.addHandler(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				try {
+					latch.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+		});
+		try {
+			dispatcher.dispatch(new GenericMessage<String>("foo"));
+			fail("Expected Exception");
+		}
+		catch (MessageDeliveryException e) {
+			assertTrue(e.getMessage().contains("Timed out"));
+		}
+		latch.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void waitForCompletionReentrantDispatchOnBoundedExecutor() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		final BroadcastingDispatcher dispatcher = new BroadcastingDispatcher(executor);
+		dispatcher.setWaitForCompletion(true);
+		final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+		dispatcher.addHandler(new MessageHandler() {
+
+			@Override
+			public void handleMessage(Message<?> message) throws MessagingException {
+				threads.add(Thread.currentThread().getName());
+				if ("foo".equals(message.getPayload())) {
+					// the only Executor thread would otherwise wait for a task queued behind it
+					assertTrue(dispatcher.dispatch(new GenericMessage<String>("bar")));
+				}
+			}
+
+		});
+		assertTrue(dispatcher.dispatch(new GenericMessage<String>("foo")));
+		assertEquals(2, threads.size());
+		assertEquals(threads.get(0), threads.get(1));
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void waitForCompletionTimeoutIsBoundedByDefault() {
+		dispatcher = new BroadcastingDispatcher(taskExecutorMock);
+		assertEquals(BroadcastingDispatcher.DEFAULT_COMPLETION_TIMEOUT,
+				TestUtils.getPropertyValue(dispatcher, "completionTimeout", Long.class).longValue());
+	}
+
 	private void defaultTaskExecutorMock() {
 		Mockito.doAnswer(new Answer<Void>() {
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dispatcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class LoadAwareLoadBalancingStrategyTests {
+
+	private final Message<?> message = new GenericMessage<>("foo");
+
+	@Test
+	public void leastInFlightBypassesBusyHandler() {
+		LeastInFlightLoadBalancingStrategy strategy = new LeastInFlightLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(strategy);
+		MessageHandler busy = mock(MessageHandler.class);
+		MessageHandler handler1 = mock(MessageHandler.class);
+		MessageHandler handler2 = mock(MessageHandler.class);
+		dispatcher.addHandler(busy);
+		dispatcher.addHandler(handler1);
+		dispatcher.addHandler(handler2);
+		long start = strategy.beforeHandle(busy);
+		assertEquals(1, strategy.getInFlight(busy));
+		for (int i = 0; i < 10; i++) {
+			dispatcher.dispatch(this.message);
+		}
+		verify(busy, never()).handleMessage(this.message);
+		verify(handler1, times(5)).handleMessage(this.message);
+		verify(handler2, times(5)).handleMessage(this.message);
+		strategy.afterHandle(busy, start, true);
+		assertEquals(0, strategy.getInFlight(busy));
+		for (int i = 0; i < 3; i++) {
+			dispatcher.dispatch(this.message);
+		}
+		verify(busy).handleMessage(this.message);
+	}
+
+	@Test
+	public void leastInFlightFailover() {
+		LeastInFlightLoadBalancingStrategy strategy = new LeastInFlightLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(strategy);
+		MessageHandler failing = mock(MessageHandler.class);
+		doThrow(new MessagingException(this.message)).when(failing).handleMessage(this.message);
+		MessageHandler handler = mock(MessageHandler.class);
+		dispatcher.addHandler(failing);
+		dispatcher.addHandler(handler);
+		dispatcher.dispatch(this.message);
+		dispatcher.dispatch(this.message);
+		verify(failing).handleMessage(this.message);
+		verify(handler, times(2)).handleMessage(this.message);
+		assertEquals(0, strategy.getInFlight(failing));
+		assertEquals(0, strategy.getInFlight(handler));
+		assertTrue(strategy.getAverageDuration(failing) > 0);
+		dispatcher.setFailover(false);
+		try {
+			dispatcher.dispatch(this.message);
+			dispatcher.dispatch(this.message);
+			fail("expected MessagingException");
+		}
+		catch (MessagingException e) {
+			assertEquals(0, strategy.getInFlight(failing));
+		}
+	}
+
+	@Test
+	public void powerOfTwoChoicesPrefersFasterHandler() {
+		PowerOfTwoChoicesLoadBalancingStrategy strategy = new PowerOfTwoChoicesLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(strategy);
+		MessageHandler slow = mock(MessageHandler.class);
+		MessageHandler fast = mock(MessageHandler.class);
+		dispatcher.addHandler(slow);
+		dispatcher.addHandler(fast);
+		strategy.afterHandle(slow, strategy.beforeHandle(slow) - TimeUnit.SECONDS.toNanos(1), true);
+		strategy.afterHandle(fast, strategy.beforeHandle(fast), true);
+		for (int i = 0; i < 100; i++) {
+			dispatcher.dispatch(this.message);
+		}
+		verify(slow, never()).handleMessage(this.message);
+		verify(fast, times(100)).handleMessage(this.message);
+	}
+
+	@Test
+	public void powerOfTwoChoicesAvoidsFastFailingHandler() {
+		PowerOfTwoChoicesLoadBalancingStrategy strategy = new PowerOfTwoChoicesLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(strategy);
+		MessageHandler failing = mock(MessageHandler.class);
+		doThrow(new MessagingException(this.message)).when(failing).handleMessage(this.message);
+		MessageHandler handler = mock(MessageHandler.class);
+		dispatcher.addHandler(failing);
+		dispatcher.addHandler(handler);
+		long slowDuration = TimeUnit.MILLISECONDS.toNanos(100);
+		strategy.afterHandle(handler, strategy.beforeHandle(handler) - slowDuration, true);
+		for (int i = 0; i < 100; i++) {
+			dispatcher.dispatch(this.message);
+		}
+		// the unmeasured handler is probed once; its failure doesn't make it look fast
+		verify(failing).handleMessage(this.message);
+		verify(handler, times(100)).handleMessage(this.message);
+		assertTrue(strategy.getAverageDuration(failing) >= 2 * slowDuration);
+		assertEquals(0, strategy.getInFlight(failing));
+	}
+
+	@Test
+	public void powerOfTwoChoicesProbesUnmeasuredHandler() {
+		PowerOfTwoChoicesLoadBalancingStrategy strategy = new PowerOfTwoChoicesLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher();
+		dispatcher.setLoadBalancingStrategy(strategy);
+		MessageHandler measured = mock(MessageHandler.class);
+		MessageHandler added = mock(MessageHandler.class);
+		dispatcher.addHandler(measured);
+		strategy.afterHandle(measured, strategy.beforeHandle(measured), true);
+		dispatcher.addHandler(added);
+		dispatcher.dispatch(this.message);
+		verify(added).handleMessage(this.message);
+	}
+
+	@Test
+	public void inFlightTrackedWithExecutor() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		LeastInFlightLoadBalancingStrategy strategy = new LeastInFlightLoadBalancingStrategy();
+		UnicastingDispatcher dispatcher = new UnicastingDispatcher(executor);
+		dispatcher.setLoadBalancingStrategy(strategy);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch handled = new CountDownLatch(100);
+		AtomicInteger slowCount = new AtomicInteger();
+		MessageHandler slow = m -> {
+			slowCount.incrementAndGet();
+			handled.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		MessageHandler fast = m -> handled.countDown();
+		dispatcher.addHandler(slow);
+		dispatcher.addHandler(fast);
+		for (int i = 0; i < 100; i++) {
+			dispatcher.dispatch(this.message);
+		}
+		assertTrue(handled.await(10, TimeUnit.SECONDS));
+		// at least one of the 4 threads is never blocked by the slow handler
+		assertTrue(slowCount.get() <= 3);
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(0, strategy.getInFlight(slow));
+		assertEquals(0, strategy.getInFlight(fast));
+	}
+
+}
@@ -16,20 +16,28 @@
 
 package org.springframework.integration.endpoint;
 
+import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.channel.ReactiveChannel;
 import org.springframework.integration.handler.ServiceActivatingHandler;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.integration.test.util.TestUtils.TestApplicationContext;
@@ -40,6 +48,8 @@ import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.ErrorMessage;
 import org.springframework.messaging.support.GenericMessage;
 
+import reactor.core.publisher.Flux;
+
 /**
  * @author Oleg Zhurakousky
  * @author Mark Fisher
@@ -153,6 +163,74 @@ public class MessageProducerSupportTests {
 		assertTrue(endpoint.isStopped());
 	}
 
+	@Test
+	public void testPublisherSubscriptionCancelledOnStop() {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		MessageProducerSupport mps = new MessageProducerSupport() { };
+		mps.setOutputChannel(new ReactiveChannel());
+		mps.setBeanFactory(TestUtils.createTestApplicationContext());
+		mps.afterPropertiesSet();
+		mps.start();
+		mps.subscribeToPublisher(Flux.<Message<?>>never()
+				.doOnCancel(() -> cancelled.set(true)));
+		assertFalse(cancelled.get());
+		mps.stop();
+		assertTrue(cancelled.get());
+	}
+
+	@Test
+	public void testPublisherMessageInFlightAtStopIsSent() {
+		AtomicReference<Subscriber<? super Message<?>>> subscriber = new AtomicReference<>();
+		QueueChannel outChannel = new QueueChannel();
+		MessageProducerSupport mps = new MessageProducerSupport() { };
+		mps.setOutputChannel(outChannel);
+		mps.setBeanFactory(TestUtils.createTestApplicationContext());
+		mps.afterPropertiesSet();
+		mps.start();
+		mps.subscribeToPublisher(s -> {
+			subscriber.set(s);
+			s.onSubscribe(new Subscription() {
+
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+
+			});
+		});
+		mps.stop();
+		// emitted concurrently with the cancellation
+		subscriber.get().onNext(new GenericMessage<>("foo"));
+		Message<?> message = outChannel.receive(0);
+		assertNotNull(message);
+		assertEquals("foo", message.getPayload());
+	}
+
+	@Test
+	public void testPublisherErrorSentToErrorChannel() {
+		QueueChannel outChannel = new QueueChannel();
+		QueueChannel errorChannel = new QueueChannel();
+		MessageProducerSupport mps = new MessageProducerSupport() { };
+		mps.setOutputChannel(outChannel);
+		mps.setErrorChannel(errorChannel);
+		mps.setBeanFactory(TestUtils.createTestApplicationContext());
+		mps.afterPropertiesSet();
+		mps.start();
+		mps.subscribeToPublisher(Flux.<Message<?>>just(new GenericMessage<>("foo"))
+				.concatWith(Flux.error(new IllegalStateException("publisher failed"))));
+		Message<?> message = outChannel.receive(0);
+		assertNotNull(message);
+		assertEquals("foo", message.getPayload());
+		Message<?> errorMessage = errorChannel.receive(0);
+		assertNotNull(errorMessage);
+		assertThat(errorMessage.getPayload(), instanceOf(IllegalStateException.class));
+		assertEquals("publisher failed", ((Throwable) errorMessage.getPayload()).getMessage());
+		mps.stop();
+	}
+
 	private static class SuccessfulErrorService {
 
 		private volatile Message<?> lastMessage;
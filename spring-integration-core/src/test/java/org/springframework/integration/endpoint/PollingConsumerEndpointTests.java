@@ -19,7 +19,10 @@ package org.springframework.integration.endpoint;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,6 +36,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.messaging.Message;
 import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.channel.QueueChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.GenericMessage;
@@ -171,6 +175,62 @@ public class PollingConsumerEndpointTests {
 		assertEquals(1, consumer.counter.get());
 	}
 
+	@Test
+	public void batchDeliveredIndividually() throws Exception {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 5; i++) {
+			channel.send(message);
+		}
+		PollingConsumer batchEndpoint = createBatchEndpoint(channel, consumer);
+		batchEndpoint.start();
+		trigger.await();
+		batchEndpoint.stop();
+		assertEquals(5, consumer.counter.get());
+		assertEquals(0, channel.getQueueSize());
+	}
+
+	@Test
+	public void batchDeliveredAsList() throws Exception {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 5; i++) {
+			channel.send(message);
+		}
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<Integer>();
+		PollingConsumer batchEndpoint = createBatchEndpoint(channel,
+				m -> batchSizes.add(((List<?>) m.getPayload()).size()));
+		batchEndpoint.setBatchAsList(true);
+		batchEndpoint.start();
+		trigger.await();
+		batchEndpoint.stop();
+		assertEquals(Arrays.asList(3, 2), batchSizes);
+	}
+
+	@Test(expected = MessageRejectedException.class)
+	public void batchFailureDoesNotDropRemainingMessages() throws Throwable {
+		QueueChannel channel = new QueueChannel();
+		channel.send(badMessage);
+		channel.send(message);
+		channel.send(message);
+		PollingConsumer batchEndpoint = createBatchEndpoint(channel, consumer);
+		batchEndpoint.start();
+		trigger.await();
+		batchEndpoint.stop();
+		assertEquals(3, consumer.counter.get());
+		errorHandler.throwLastErrorIfAvailable();
+	}
+
+	private PollingConsumer createBatchEndpoint(QueueChannel channel, MessageHandler handler) throws Exception {
+		PollingConsumer batchEndpoint = new PollingConsumer(channel, handler);
+		batchEndpoint.setErrorHandler(errorHandler);
+		batchEndpoint.setTaskScheduler(taskScheduler);
+		batchEndpoint.setTrigger(trigger);
+		batchEndpoint.setBeanFactory(mock(BeanFactory.class));
+		batchEndpoint.setReceiveTimeout(0);
+		batchEndpoint.setBatchSize(3);
+		batchEndpoint.afterPropertiesSet();
+		return batchEndpoint;
+	}
+
 
 	private static class TestConsumer implements MessageHandler {
 
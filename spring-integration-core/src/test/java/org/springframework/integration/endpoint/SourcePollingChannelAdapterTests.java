@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.endpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import org.springframework.integration.channel.ReactiveChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class SourcePollingChannelAdapterTests {
+
+	@Test
+	public void testNoPollWithoutReactiveDemand() {
+		AtomicInteger polls = new AtomicInteger();
+		SourcePollingChannelAdapter adapter = new SourcePollingChannelAdapter();
+		adapter.setSource(() -> new GenericMessage<>(polls.incrementAndGet()));
+		ReactiveChannel channel = new ReactiveChannel();
+		adapter.setOutputChannel(channel);
+
+		assertNull(adapter.receiveMessage());
+		assertEquals(0, polls.get());
+
+		AtomicReference<Subscription> subscription = new AtomicReference<>();
+		channel.subscribe(new Subscriber<Message<?>>() {
+
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription.set(s);
+			}
+
+			@Override
+			public void onNext(Message<?> message) {
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+
+		});
+		assertNull(adapter.receiveMessage());
+		assertEquals(0, polls.get());
+
+		subscription.get().request(1);
+		Message<?> message = adapter.receiveMessage();
+		assertNotNull(message);
+		assertEquals(1, message.getPayload());
+		channel.send(message);
+		assertNull(adapter.receiveMessage());
+		assertEquals(1, polls.get());
+	}
+
+}
@@ -25,8 +25,11 @@ import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -50,6 +53,7 @@ import org.springframework.integration.util.MessagingMethodInvokerHelper;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.support.GenericMessage;
 
 
@@ -550,6 +554,74 @@ public class MethodInvokingMessageProcessorTests {
 		assertEquals("FOO", targetObject.arguments.get("foo2"));
 	}
 
+	@Test
+	public void testDirectAndSpelInvokers() throws Exception {
+		class Foo {
+
+			private final List<Boolean> invokedBySpel = new ArrayList<Boolean>();
+
+			@SuppressWarnings("unused")
+			public String handle(@Payload("length()") Integer length, @Header("foo") String foo,
+					Message<?> message) {
+				this.invokedBySpel.add(invokedBySpel());
+				return "" + message.getPayload() + length + foo;
+			}
+
+		}
+
+		Foo targetObject = new Foo();
+		Message<String> message = MessageBuilder.withPayload("bar").setHeader("foo", "FOO").build();
+
+		MessagingMethodInvokerHelper<String> helper = new MessagingMethodInvokerHelper<String>(targetObject,
+				"handle", false);
+		assertEquals("bar3FOO", helper.process(message));
+
+		helper.setUseSpelInvoker(true);
+		assertEquals("bar3FOO", helper.process(message));
+
+		assertEquals(Arrays.asList(false, true), targetObject.invokedBySpel);
+	}
+
+	@Test
+	public void testDirectInvokerFallsBackToSpelForConversion() throws Exception {
+		class Foo {
+
+			private final List<Boolean> invokedBySpel = new ArrayList<Boolean>();
+
+			@SuppressWarnings("unused")
+			public Integer handle(Integer payload, @Header("number") Integer number) {
+				this.invokedBySpel.add(invokedBySpel());
+				return payload + number;
+			}
+
+		}
+
+		Foo targetObject = new Foo();
+		MessagingMethodInvokerHelper<Integer> helper = new MessagingMethodInvokerHelper<Integer>(targetObject,
+				"handle", false);
+		assertEquals(Integer.valueOf(3), helper.process(MessageBuilder.withPayload(1).setHeader("number", 2).build()));
+		assertEquals(Integer.valueOf(3),
+				helper.process(MessageBuilder.withPayload("1").setHeader("number", 2).build()));
+		assertEquals(Arrays.asList(false, true), targetObject.invokedBySpel);
+
+		try {
+			helper.process(new GenericMessage<Integer>(1));
+			fail("IllegalArgumentException expected");
+		}
+		catch (IllegalArgumentException e) {
+			assertEquals("required header not available: number", e.getMessage());
+		}
+	}
+
+	private static boolean invokedBySpel() {
+		for (StackTraceElement element : new Throwable().getStackTrace()) {
+			if (element.getClassName().startsWith("org.springframework.expression.spel.")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private static class ExceptionCauseMatcher extends TypeSafeMatcher<Exception> {
 		private Throwable cause;
 
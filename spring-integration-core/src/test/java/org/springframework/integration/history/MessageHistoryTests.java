@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import org.springframework.integration.support.DefaultMessageBuilderFactory;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.SerializationUtils;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class MessageHistoryTests {
+
+	private final DefaultMessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
+
+	@Test
+	public void testAppendKeepsHeadersAndEarlierHistories() {
+		Message<String> message = MessageBuilder.withPayload("test").setHeader("foo", "bar").build();
+		Message<String> first = MessageHistory.write(message, component("a"), this.messageBuilderFactory);
+		Message<String> second = MessageHistory.write(first, component("b"), this.messageBuilderFactory);
+		assertNotSame(first, second);
+		assertNotEquals(first.getHeaders().getId(), second.getHeaders().getId());
+		assertEquals("bar", second.getHeaders().get("foo"));
+		assertEquals("test", second.getPayload());
+		assertEquals(Arrays.asList("a"), names(first));
+		assertEquals(Arrays.asList("a", "b"), names(second));
+	}
+
+	@Test
+	public void testBranchedHistoriesAreIndependent() {
+		Message<String> message = new GenericMessage<String>("test");
+		for (int i = 0; i < 10; i++) {
+			message = MessageHistory.write(message, component("c" + i), this.messageBuilderFactory);
+		}
+		Message<String> left = MessageHistory.write(message, component("left"), this.messageBuilderFactory);
+		Message<String> right = MessageHistory.write(message, component("right"), this.messageBuilderFactory);
+		Message<String> leftNext = MessageHistory.write(left, component("leftNext"), this.messageBuilderFactory);
+		assertEquals(10, MessageHistory.read(message).size());
+		assertEquals("left", names(left).get(10));
+		assertEquals(11, MessageHistory.read(left).size());
+		assertEquals("right", names(right).get(10));
+		assertEquals(11, MessageHistory.read(right).size());
+		assertEquals("leftNext", names(leftNext).get(11));
+		assertEquals(12, MessageHistory.read(leftNext).size());
+	}
+
+	@Test
+	public void testSerialization() {
+		Message<String> message = new GenericMessage<String>("test");
+		message = MessageHistory.write(message, component("a"), this.messageBuilderFactory);
+		message = MessageHistory.write(message, component("b"), this.messageBuilderFactory);
+		MessageHistory history = MessageHistory.read(message);
+		MessageHistory deserialized = (MessageHistory) SerializationUtils.deserialize(
+				SerializationUtils.serialize(history));
+		assertEquals(history.toString(), deserialized.toString());
+		Message<String> restored = MessageBuilder.withPayload("test")
+				.setHeader(MessageHistory.HEADER_NAME, deserialized)
+				.build();
+		Message<String> next = MessageHistory.write(restored, component("c"), this.messageBuilderFactory);
+		assertEquals(Arrays.asList("a", "b", "c"), names(next));
+		assertEquals(Arrays.asList("a", "b"), names(restored));
+	}
+
+	private static List<String> names(Message<?> message) {
+		List<String> names = new ArrayList<String>();
+		for (Properties properties : MessageHistory.read(message)) {
+			names.add(properties.getProperty(MessageHistory.NAME_PROPERTY));
+		}
+		return names;
+	}
+
+	private static NamedComponent component(final String name) {
+		return new NamedComponent() {
+
+			@Override
+			public String getComponentName() {
+				return name;
+			}
+
+			@Override
+			public String getComponentType() {
+				return "channel";
+			}
+
+		};
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class TimingWheelTaskSchedulerTests {
+
+	private final TimingWheelTaskScheduler scheduler = new TimingWheelTaskScheduler(10, TimeUnit.MILLISECONDS, 8);
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void testNotRunEarly() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicLong shortDelay = new AtomicLong();
+		final AtomicLong longDelay = new AtomicLong();
+		final long start = System.currentTimeMillis();
+		this.scheduler.schedule(() -> {
+			shortDelay.set(System.currentTimeMillis() - start);
+			latch.countDown();
+		}, new Date(start + 50));
+		// several rounds of the 80 millisecond wheel
+		this.scheduler.schedule(() -> {
+			longDelay.set(System.currentTimeMillis() - start);
+			latch.countDown();
+		}, new Date(start + 300));
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertThat(shortDelay.get(), Matchers.greaterThanOrEqualTo(49L));
+		assertThat(longDelay.get(), Matchers.greaterThanOrEqualTo(299L));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		final AtomicInteger count = new AtomicInteger();
+		List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+		for (int i = 0; i < 1000; i++) {
+			futures.add(this.scheduler.schedule(count::incrementAndGet,
+					new Date(System.currentTimeMillis() + 500 + i % 100)));
+		}
+		for (int i = 0; i < futures.size(); i += 2) {
+			assertTrue(futures.get(i).cancel(false));
+		}
+		for (ScheduledFuture<?> future : futures) {
+			if (!future.isCancelled()) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		}
+		assertEquals(500, count.get());
+		assertEquals(0, this.scheduler.getScheduledTaskCount());
+	}
+
+	@Test
+	public void testRepeating() throws Exception {
+		final CountDownLatch fixedRate = new CountDownLatch(3);
+		final CountDownLatch fixedDelay = new CountDownLatch(3);
+		final AtomicInteger triggered = new AtomicInteger();
+		ScheduledFuture<?> rate = this.scheduler.scheduleAtFixedRate(fixedRate::countDown, 20);
+		ScheduledFuture<?> delay = this.scheduler.scheduleWithFixedDelay(fixedDelay::countDown, 20);
+		ScheduledFuture<?> trigger = this.scheduler.schedule(triggered::incrementAndGet,
+				context -> triggered.get() < 3 ? new Date(System.currentTimeMillis() + 20) : null);
+		assertTrue(fixedRate.await(10, TimeUnit.SECONDS));
+		assertTrue(fixedDelay.await(10, TimeUnit.SECONDS));
+		trigger.get(10, TimeUnit.SECONDS);
+		assertEquals(3, triggered.get());
+		assertTrue(rate.cancel(false));
+		assertTrue(delay.cancel(false));
+		assertTrue(rate.isDone());
+		assertFalse(trigger.isCancelled());
+	}
+
+	@Test
+	public void testTasksNotRunOnWheelThread() throws Exception {
+		final AtomicReference<String> threadName = new AtomicReference<String>();
+		this.scheduler.schedule(() -> threadName.set(Thread.currentThread().getName()), new Date())
+				.get(10, TimeUnit.SECONDS);
+		assertThat(threadName.get(), Matchers.startsWith("timing-wheel-task-"));
+	}
+
+	@Test
+	public void testCancelDoesNotInterruptWheelThread() throws Exception {
+		TimingWheelTaskScheduler sameThreadScheduler = new TimingWheelTaskScheduler(10, TimeUnit.MILLISECONDS, 8);
+		sameThreadScheduler.setTaskExecutor(Runnable::run);
+		try {
+			final CountDownLatch running = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			final AtomicBoolean interrupted = new AtomicBoolean();
+			ScheduledFuture<?> future = sameThreadScheduler.schedule(() -> {
+				running.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+			}, new Date());
+			assertTrue(running.await(10, TimeUnit.SECONDS));
+			assertTrue(future.cancel(true));
+			release.countDown();
+			sameThreadScheduler.schedule(() -> { }, new Date()).get(10, TimeUnit.SECONDS);
+			assertFalse(interrupted.get());
+		}
+		finally {
+			sameThreadScheduler.destroy();
+		}
+	}
+
+	@Test
+	public void testRejectedAfterDestroy() {
+		ScheduledFuture<?> future = this.scheduler.schedule(() -> { }, new Date(System.currentTimeMillis() + 10000));
+		this.scheduler.destroy();
+		assertTrue(future.isCancelled());
+		try {
+			this.scheduler.schedule(() -> { }, new Date());
+			fail("expected TaskRejectedException");
+		}
+		catch (TaskRejectedException e) {
+			// expected
+		}
+	}
+
+}
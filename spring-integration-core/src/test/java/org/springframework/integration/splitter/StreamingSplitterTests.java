@@ -16,36 +16,57 @@
 
 package org.springframework.integration.splitter;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.MessageRejectedException;
 import org.springframework.integration.annotation.Splitter;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
 import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.endpoint.EventDrivenConsumer;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessageHandlingException;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
 import org.springframework.messaging.support.GenericMessage;
 
+import reactor.core.publisher.Flux;
+
 /**
  * @author Alex Peters
  * @author Artem Bilan
@@ -188,6 +209,212 @@ public class StreamingSplitterTests {
 		assertThat(receivedMessageCounter.get(), is(messageQuantity));
 	}
 
+	@Test
+	public void splitStream_allMessagesSentAndStreamClosed() {
+		final AtomicBoolean closed = new AtomicBoolean();
+		Stream<String> stream = Stream.of("x", "y", "z").onClose(() -> closed.set(true));
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		splitter.handleMessage(new GenericMessage<Stream<String>>(stream));
+		List<Message<?>> receivedMessages = replyChannel.clear();
+		assertEquals(3, receivedMessages.size());
+		assertEquals("z", receivedMessages.get(2).getPayload());
+		assertEquals(Integer.valueOf(3), new IntegrationMessageHeaderAccessor(receivedMessages.get(2)).getSequenceNumber());
+		assertTrue(closed.get());
+	}
+
+	@Test
+	public void splitPublisher_allMessagesSent() {
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10)));
+		List<Message<?>> receivedMessages = replyChannel.clear();
+		assertEquals(10, receivedMessages.size());
+		assertEquals(10, receivedMessages.get(9).getPayload());
+	}
+
+	@Test
+	public void splitPublisherWithWindow_pollableChannelDrained() throws Exception {
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setWindowSize(4);
+		final QueueChannel replyChannel = new QueueChannel();
+		// rebuilding the message changes its id; the part must still be acknowledged
+		replyChannel.addInterceptor(new ChannelInterceptorAdapter() {
+
+			@Override
+			public Message<?> preSend(Message<?> message, MessageChannel channel) {
+				return MessageBuilder.fromMessage(message).setHeader("rebuilt", true).build();
+			}
+
+		});
+		splitter.setOutputChannel(replyChannel);
+		final List<Message<?>> receivedMessages = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger maxQueued = new AtomicInteger();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.execute(() -> {
+			while (receivedMessages.size() < 10) {
+				maxQueued.accumulateAndGet(replyChannel.getQueueSize(), Math::max);
+				Message<?> received = replyChannel.receive(10000);
+				if (received == null) {
+					return;
+				}
+				receivedMessages.add(received);
+			}
+		});
+		splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10)));
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(10, receivedMessages.size());
+		assertEquals(10, receivedMessages.get(9).getPayload());
+		assertThat(maxQueued.get(), lessThanOrEqualTo(4));
+		assertEquals(1, replyChannel.getChannelInterceptors().size());
+	}
+
+	@Test
+	public void splitPublisherWithWindow_batchReceivingConsumer() throws Exception {
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setWindowSize(4);
+		final QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		final List<Message<?>> receivedMessages = Collections.synchronizedList(new ArrayList<>());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.execute(() -> {
+			while (receivedMessages.size() < 10) {
+				List<Message<?>> batch = replyChannel.receiveBatch(3, 10000);
+				if (batch.isEmpty()) {
+					return;
+				}
+				receivedMessages.addAll(batch);
+			}
+		});
+		splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10)));
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(10, receivedMessages.size());
+		assertEquals(10, receivedMessages.get(9).getPayload());
+	}
+
+	@Test
+	public void splitWithWindow_partsReleasedWhenDroppedOrCleared() throws Exception {
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setWindowSize(2);
+		splitter.setSendTimeout(10000);
+		final QueueChannel replyChannel = new QueueChannel();
+		replyChannel.addInterceptor(new ChannelInterceptorAdapter() {
+
+			@Override
+			public Message<?> postReceive(Message<?> message, MessageChannel channel) {
+				return null;
+			}
+
+		});
+		splitter.setOutputChannel(replyChannel);
+		final AtomicInteger cleared = new AtomicInteger();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.execute(() -> {
+			int received = 0;
+			while (received + cleared.get() < 10) {
+				if (received < 5) {
+					if (replyChannel.getQueueSize() > 0) {
+						// dropped by the interceptor
+						replyChannel.receive(0);
+						received++;
+					}
+				}
+				else {
+					cleared.addAndGet(replyChannel.clear().size());
+				}
+				Thread.yield();
+			}
+		});
+		splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10)));
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(5, cleared.get());
+	}
+
+	@Test
+	public void splitWithWindow_stopFailsWaitingSplit() throws Exception {
+		final DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setWindowSize(2);
+		final QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> future = executor.submit(() ->
+				splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10))));
+		int n = 0;
+		while (replyChannel.getQueueSize() < 2 && n++ < 1000) {
+			Thread.sleep(10);
+		}
+		assertEquals(2, replyChannel.getQueueSize());
+		splitter.stop();
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail("Expected MessageDeliveryException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(MessageDeliveryException.class));
+			assertThat(e.getCause().getMessage(), containsString("stopped"));
+		}
+		assertEquals(2, replyChannel.getQueueSize());
+		executor.shutdown();
+	}
+
+	@Test
+	public void splitWithWindow_timesOutWhenPartsNotConsumed() {
+		DefaultMessageSplitter splitter = new DefaultMessageSplitter();
+		splitter.setWindowSize(4);
+		splitter.setSendTimeout(100);
+		QueueChannel replyChannel = new QueueChannel();
+		splitter.setOutputChannel(replyChannel);
+		try {
+			splitter.handleMessage(new GenericMessage<Flux<Integer>>(Flux.range(1, 10)));
+			fail("Expected MessageDeliveryException");
+		}
+		catch (MessageDeliveryException e) {
+			assertThat(e.getMessage(), containsString("in-flight parts"));
+		}
+		assertEquals(4, replyChannel.getQueueSize());
+		assertTrue(replyChannel.getChannelInterceptors().isEmpty());
+	}
+
+	@Test
+	public void splitWithWindow_inFlightPartsBounded() throws Exception {
+		final int messageQuantity = 50;
+		final int windowSize = 3;
+		final IteratorTestBean testBean = new IteratorTestBean(messageQuantity);
+		MethodInvokingSplitter splitter = new MethodInvokingSplitter(testBean);
+		splitter.setWindowSize(windowSize);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		ExecutorChannel replyChannel = new ExecutorChannel(executor);
+		replyChannel.setBeanFactory(mock(BeanFactory.class));
+		replyChannel.afterPropertiesSet();
+		splitter.setOutputChannel(replyChannel);
+
+		final AtomicInteger handled = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(messageQuantity);
+		replyChannel.subscribe(message -> {
+			int inFlight = testBean.counter.get() - handled.get();
+			maxInFlight.accumulateAndGet(inFlight, Math::max);
+			try {
+				Thread.sleep(5);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			handled.incrementAndGet();
+			latch.countDown();
+		});
+
+		splitter.handleMessage(message);
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertThat(maxInFlight.get(), lessThanOrEqualTo(windowSize));
+		executor.shutdownNow();
+	}
+
 	static class IteratorTestBean {
 
 		final int max;
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.integration.store.ConcurrentMessageGroupStore.ConcurrentMessageGroup;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentMessageGroupStoreTests {
+
+	@Test
+	public void testGroupsAreImmutableSnapshots() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		Message<?> message1 = new GenericMessage<String>("foo");
+		Message<?> message2 = new GenericMessage<String>("bar");
+		MessageGroup before = store.addMessageToGroup("group", message1);
+		MessageGroup after = store.addMessageToGroup("group", message2);
+		assertEquals(1, before.size());
+		assertEquals(2, after.size());
+		assertSame(message1, after.getOne());
+		assertSame(after, store.getMessageGroup("group"));
+		try {
+			after.add(new GenericMessage<String>("baz"));
+			fail("expected UnsupportedOperationException");
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+		store.addMessagesToGroup("group", message1);
+		assertEquals(2, store.messageGroupSize("group"));
+		store.completeGroup("group");
+		store.setLastReleasedSequenceNumberForGroup("group", 3);
+		MessageGroup group = store.getMessageGroup("group");
+		assertTrue(group.isComplete());
+		assertEquals(3, group.getLastReleasedMessageSequenceNumber());
+		assertFalse(after.isComplete());
+		assertSame(message1, store.pollMessageFromGroup("group"));
+		assertEquals(1, store.messageGroupSize("group"));
+		store.removeMessageGroup("group");
+		assertEquals(0, store.messageGroupSize("group"));
+		assertEquals(0, store.getMessageGroupCount());
+		assertEquals(0, store.getMessageCountForAllMessageGroups());
+	}
+
+	@Test
+	public void testSequenceNumbers() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		Message<?> message1 = MessageBuilder.withPayload("foo").setSequenceNumber(1).build();
+		Message<?> message2 = MessageBuilder.withPayload("bar").setSequenceNumber(1000).build();
+		Message<?> message3 = MessageBuilder.withPayload("baz").setSequenceNumber(1000000).build();
+		store.addMessagesToGroup("group", message1, message2, message3);
+		ConcurrentMessageGroup group = store.getMessageGroup("group");
+		assertTrue(group.containsSequenceNumber(1));
+		assertTrue(group.containsSequenceNumber(1000));
+		assertTrue(group.containsSequenceNumber(1000000));
+		assertFalse(group.containsSequenceNumber(2));
+		assertFalse(group.containsSequenceNumber(999999));
+		ConcurrentMessageGroup previous = group;
+		store.removeMessagesFromGroup("group", message2, message3);
+		group = store.getMessageGroup("group");
+		assertFalse(group.containsSequenceNumber(1000));
+		assertFalse(group.containsSequenceNumber(1000000));
+		assertTrue(group.containsSequenceNumber(1));
+		assertTrue(previous.containsSequenceNumber(1000));
+		assertTrue(previous.containsSequenceNumber(1000000));
+	}
+
+	@Test
+	public void testSequenceNumberIndex() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		for (int sequenceNumber : new int[] { 1, 2, 3, 4, 6, 70000, 70001, 70002 }) {
+			store.addMessageToGroup("group",
+					MessageBuilder.withPayload(sequenceNumber).setSequenceNumber(sequenceNumber).build());
+		}
+		ConcurrentMessageGroup group = store.getMessageGroup("group");
+		SequenceNumberIndex index = group.getSequenceNumberIndex();
+		assertSame(index, group.getSequenceNumberIndex());
+		assertEquals(8, index.size());
+		assertEquals(1, index.getFirst());
+		assertEquals(4, index.getLastConsecutive(1));
+		assertEquals(70002, index.getLastConsecutive(70000));
+		assertTrue(group.containsSequenceNumber(70001));
+		assertFalse(group.containsSequenceNumber(5));
+	}
+
+	@Test
+	public void testCapacity() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore(2);
+		store.addMessagesToGroup("group", new GenericMessage<String>("foo"), new GenericMessage<String>("bar"));
+		try {
+			store.addMessageToGroup("group", new GenericMessage<String>("baz"));
+			fail("expected MessagingException");
+		}
+		catch (MessagingException e) {
+			assertTrue(e.getMessage().contains("out of capacity (2) for group 'group'"));
+		}
+		assertEquals(2, store.messageGroupSize("group"));
+		store.clearMessageGroup("group");
+		store.addMessageToGroup("group", new GenericMessage<String>("baz"));
+		assertEquals(1, store.messageGroupSize("group"));
+	}
+
+	@Test
+	public void testCapacityExceededByNewGroup() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore(2);
+		try {
+			store.addMessagesToGroup("group", new GenericMessage<String>("foo"), new GenericMessage<String>("bar"),
+					new GenericMessage<String>("baz"));
+			fail("expected MessagingException");
+		}
+		catch (MessagingException e) {
+			assertTrue(e.getMessage().contains("out of capacity (2) for group 'group'"));
+		}
+		assertEquals(0, store.getMessageGroupCount());
+		assertFalse(store.iterator().hasNext());
+	}
+
+	@Test
+	public void testLargeGroup() {
+		ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		List<Message<?>> messages = new ArrayList<Message<?>>();
+		for (int i = 1; i <= 1000; i++) {
+			Message<?> message = MessageBuilder.withPayload(i).setSequenceNumber(i).build();
+			messages.add(message);
+			store.addMessageToGroup("group", message);
+			// duplicates are ignored
+			store.addMessageToGroup("group", messages.get(i / 2));
+		}
+		ConcurrentMessageGroup group = store.getMessageGroup("group");
+		assertEquals(1000, group.size());
+		assertEquals(messages, new ArrayList<Message<?>>(group.getMessages()));
+		for (int i = 0; i < 10; i++) {
+			assertSame(messages.get(i), store.pollMessageFromGroup("group"));
+		}
+		store.removeMessagesFromGroup("group", messages.get(500), messages.get(999));
+		ConcurrentMessageGroup after = store.getMessageGroup("group");
+		assertEquals(988, after.size());
+		assertSame(messages.get(10), after.getOne());
+		assertFalse(after.containsSequenceNumber(501));
+		assertTrue(after.containsSequenceNumber(502));
+		// a polled message may be added again, but not one still in the group
+		store.addMessagesToGroup("group", messages.get(0), messages.get(100));
+		assertEquals(989, store.messageGroupSize("group"));
+		assertEquals(1000, group.size());
+		assertEquals(989, store.getMessageCountForAllMessageGroups());
+	}
+
+	@Test
+	public void testConcurrentAddAndRemove() throws Exception {
+		final ConcurrentMessageGroupStore store = new ConcurrentMessageGroupStore();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < 10000; j++) {
+					store.addMessageToGroup("group" + (j % 10), new GenericMessage<Integer>(j));
+				}
+			}));
+			futures.add(executor.submit(() -> {
+				for (int j = 0; j < 10000; j++) {
+					if (j % 7 == 0) {
+						store.removeMessageGroup("group" + (j % 10));
+					}
+					else {
+						store.pollMessageFromGroup("group" + (j % 10));
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+		int count = 0;
+		for (MessageGroup group : store) {
+			count += group.size();
+		}
+		assertEquals(count, store.getMessageCountForAllMessageGroups());
+		assertNull(store.pollMessageFromGroup("noGroup"));
+	}
+
+}
@@ -21,7 +21,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
@@ -91,6 +93,23 @@ public class MessageGroupQueueTests {
 		assertNotNull(result);
 	}
 
+	@Test
+	public void testDrainToDoesNotLoseMessages() throws Exception {
+		SimpleMessageStore messageGroupStore = new SimpleMessageStore();
+		MessageGroupQueue queue = new MessageGroupQueue(messageGroupStore, "FOO");
+		for (int i = 0; i < 5; i++) {
+			queue.put(new GenericMessage<Integer>(i));
+		}
+		List<Message<?>> drained = new ArrayList<Message<?>>();
+		assertEquals(2, queue.drainTo(drained, 2));
+		assertEquals(3, queue.size());
+		assertEquals(3, queue.drainTo(drained));
+		assertEquals(0, queue.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i, drained.get(i).getPayload());
+		}
+	}
+
 	@Test
 	public void testConcurrentAccess() throws Exception {
 		doTestConcurrentAccess(50, 20, new HashSet<String>());
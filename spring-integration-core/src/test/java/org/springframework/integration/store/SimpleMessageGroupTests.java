@@ -18,6 +18,7 @@ package org.springframework.integration.store;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -90,6 +91,59 @@ public class SimpleMessageGroupTests {
 		assertEquals(2, grp.getMessages().size());
 	}
 
+	@Test
+	public void sequenceNumberIndexFollowsGroup() {
+		Message<?> message1 = MessageBuilder.withPayload("test").setSequenceNumber(1).build();
+		Message<?> message2 = MessageBuilder.withPayload("test").setSequenceNumber(2).build();
+		Message<?> duplicate2 = MessageBuilder.fromMessage(message2).build();
+		Message<?> message4 = MessageBuilder.withPayload("test").setSequenceNumber(4).build();
+		Message<?> large = MessageBuilder.withPayload("test").setSequenceNumber(Integer.MAX_VALUE).build();
+		Message<?> unsequenced = MessageBuilder.withPayload("test").build();
+		group.add(message4);
+		group.add(message2);
+		group.add(duplicate2);
+		group.add(message1);
+		group.add(large);
+		group.add(unsequenced);
+		SequenceNumberIndex index = group.getSequenceNumberIndex();
+		assertEquals(5, index.size());
+		assertEquals(1, index.getFirst());
+		assertEquals(2, index.getLastConsecutive(1));
+		assertEquals(4, index.getLastConsecutive(4));
+		assertEquals(2, index.getLastConsecutive(3));
+		assertTrue(group.containsSequenceNumber(Integer.MAX_VALUE));
+		assertFalse(group.containsSequenceNumber(3));
+		assertFalse(group.containsSequenceNumber(0));
+
+		group.remove(duplicate2);
+		assertTrue(group.containsSequenceNumber(2));
+		group.remove(message2);
+		assertFalse(group.containsSequenceNumber(2));
+		group.remove(message1);
+		assertEquals(4, index.getFirst());
+		group.clear();
+		assertEquals(0, index.size());
+		assertEquals(0, index.getFirst());
+	}
+
+	@Test
+	public void testSequenceAwarePerformance() throws Exception {
+		this.prepareForSequenceAwareMessageGroup();
+		List<Message<?>> messages = new ArrayList<>();
+		for (int i = 1; i <= 100000; i++) {
+			messages.add(MessageBuilder.withPayload("foo").setSequenceNumber(i).setSequenceSize(100000).build());
+		}
+		StopWatch watch = new StopWatch();
+		watch.start();
+		for (Message<?> message : messages) {
+			assertTrue(group.canAdd(message));
+			group.add(message);
+		}
+		watch.stop();
+		assertFalse(group.canAdd(messages.get(50000)));
+		assertTrue(watch.getTotalTimeMillis() < 5000);
+	}
+
 	@Test
 	// This test used to take 2 min and half to run; now ~200 milliseconds.
 	public void testPerformance_INT3846() {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.transformer.HeaderEnricher;
+import org.springframework.integration.transformer.support.StaticHeaderValueMessageProcessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class SharedHeadersMessageBuilderTests {
+
+	@Test
+	public void testUnchangedMessageIsReturned() {
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+		assertSame(message, SharedHeadersMessageBuilder.fromMessage(message).build());
+		assertSame(message, SharedHeadersMessageBuilder.fromMessage(message).setHeader("bar", "baz").build());
+	}
+
+	@Test
+	public void testChangedHeaders() {
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setHeader("foo", 1)
+				.setHeader("bar", 2)
+				.setHeader("baz", 3)
+				.build();
+		Message<String> built = SharedHeadersMessageBuilder.fromMessage(message)
+				.setHeader("foo", 4)
+				.removeHeader("bar")
+				.setHeader("qux", 5)
+				.setHeaderIfAbsent("baz", 6)
+				.build();
+		MessageHeaders headers = built.getHeaders();
+		assertEquals(5, headers.size());
+		assertThat(headers, hasEntry("foo", (Object) 4));
+		assertFalse(headers.containsKey("bar"));
+		assertThat(headers, hasEntry("baz", (Object) 3));
+		assertThat(headers, hasEntry("qux", (Object) 5));
+		assertNotNull(headers.getTimestamp());
+		assertNotEquals(message.getHeaders().getId(), headers.getId());
+		assertThat(message.getHeaders(), not(hasEntry("qux", (Object) 5)));
+	}
+
+	@Test
+	public void testRemoveHeadersWithPatterns() {
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setHeader("foo1", 1)
+				.setHeader("foo2", 2)
+				.setHeader("bar", 3)
+				.build();
+		Message<String> built = SharedHeadersMessageBuilder.fromMessage(message)
+				.setHeader("foo3", 4)
+				.removeHeaders("foo*")
+				.build();
+		assertFalse(built.getHeaders().containsKey("foo1"));
+		assertFalse(built.getHeaders().containsKey("foo2"));
+		assertFalse(built.getHeaders().containsKey("foo3"));
+		assertThat(built.getHeaders(), hasEntry("bar", (Object) 3));
+	}
+
+	@Test
+	public void testReadOnlyHeaders() {
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		SharedHeadersMessageBuilder<String> builder = SharedHeadersMessageBuilder.fromMessage(message)
+				.readOnlyHeaders("bar");
+		try {
+			builder.setHeader(MessageHeaders.ID, "id");
+			fail("IllegalArgumentException expected");
+		}
+		catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("read-only"));
+		}
+		Map<String, Object> headers = new HashMap<>();
+		headers.put("bar", "baz");
+		headers.put("qux", "baz");
+		Message<String> built = builder.copyHeaders(headers).build();
+		assertFalse(built.getHeaders().containsKey("bar"));
+		assertThat(built.getHeaders(), hasEntry("qux", (Object) "baz"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testHeaderTypeIsVerified() {
+		SharedHeadersMessageBuilder.withPayload("foo").setHeader(IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER, "1");
+	}
+
+	@Test
+	public void testSequenceDetails() {
+		Message<String> message = MessageBuilder.withPayload("foo").setCorrelationId("bar")
+				.setSequenceNumber(2)
+				.setSequenceSize(3)
+				.build();
+		Message<String> pushed = SharedHeadersMessageBuilder.fromMessage(message)
+				.pushSequenceDetails("baz", 1, 1)
+				.build();
+		assertEquals(MessageBuilder.fromMessage(message).pushSequenceDetails("baz", 1, 1).build()
+				.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS),
+				pushed.getHeaders().get(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS));
+		Message<String> popped = SharedHeadersMessageBuilder.fromMessage(pushed).popSequenceDetails().build();
+		assertEquals("bar", new IntegrationMessageHeaderAccessor(popped).getCorrelationId());
+		assertEquals(Integer.valueOf(2), new IntegrationMessageHeaderAccessor(popped).getSequenceNumber());
+		assertEquals(Integer.valueOf(3), new IntegrationMessageHeaderAccessor(popped).getSequenceSize());
+		assertFalse(popped.getHeaders().containsKey(IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS));
+	}
+
+	@Test
+	public void testErrorMessage() {
+		Message<?> message = SharedHeadersMessageBuilder.withPayload(new RuntimeException()).setHeader("foo", 1)
+				.build();
+		assertTrue(message instanceof ErrorMessage);
+		assertThat(message.getHeaders(), hasEntry("foo", (Object) 1));
+	}
+
+	@Test
+	public void testHeaderEnricherReadOnlyHeaders() {
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("foo", 1).build();
+		HeaderEnricher enricher = new HeaderEnricher(
+				Collections.singletonMap("bar", new StaticHeaderValueMessageProcessor<>(2)));
+
+		DefaultMessageBuilderFactory defaultFactory = new DefaultMessageBuilderFactory();
+		defaultFactory.setReadOnlyHeaders("foo");
+		enricher.setMessageBuilderFactory(defaultFactory);
+		Message<?> enriched = enricher.transform(message);
+		assertFalse(enriched.getHeaders().containsKey("foo"));
+		assertThat(enriched.getHeaders(), hasEntry("bar", (Object) 2));
+
+		SharedHeadersMessageBuilderFactory sharedFactory = new SharedHeadersMessageBuilderFactory();
+		sharedFactory.setReadOnlyHeaders("foo");
+		enricher.setMessageBuilderFactory(sharedFactory);
+		enriched = enricher.transform(message);
+		assertThat(enriched.getHeaders(), hasEntry("foo", (Object) 1));
+		assertThat(enriched.getHeaders(), hasEntry("bar", (Object) 2));
+	}
+
+}
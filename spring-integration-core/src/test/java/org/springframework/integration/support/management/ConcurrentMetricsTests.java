@@ -0,0 +1,208 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class ConcurrentMetricsTests {
+
+	@Test
+	public void testMovingAverageMergesThreads() throws Exception {
+		final ConcurrentExponentialMovingAverage average = new ConcurrentExponentialMovingAverage(10);
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		final CountDownLatch latch = new CountDownLatch(4);
+		for (int i = 0; i < 4; i++) {
+			final int value = i + 1;
+			exec.execute(() -> {
+				for (int j = 0; j < 1000; j++) {
+					average.append(value);
+				}
+				latch.countDown();
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Statistics statistics = average.getStatistics();
+		assertEquals(4000, statistics.getCountLong());
+		assertEquals(1, statistics.getMin(), 0.01);
+		assertEquals(4, statistics.getMax(), 0.01);
+		assertEquals(2.5, statistics.getMean(), 0.01);
+		exec.shutdownNow();
+		assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+		// cells of dead threads are retired, not lost
+		assertEquals(4000, average.getCountLong());
+		average.append(5);
+		assertEquals(4001, average.getCountLong());
+		average.reset();
+		assertEquals(0, average.getCountLong());
+		assertEquals(0, average.getMean(), 0.01);
+		average.append(1);
+		assertEquals(1, average.getCountLong());
+		assertEquals(1, average.getMin(), 0.01);
+	}
+
+	@Test
+	public void testDeadThreadCellsRetired() throws Exception {
+		final ConcurrentExponentialMovingAverage average = new ConcurrentExponentialMovingAverage(10);
+		for (int i = 0; i < 10; i++) {
+			Thread thread = new Thread(() -> average.append(2));
+			thread.start();
+			thread.join(10000);
+		}
+		assertEquals(10, average.getCountLong());
+		assertEquals(2, average.getMean(), 0.01);
+		average.append(2);
+		assertEquals(11, average.getCountLong());
+	}
+
+	@Test
+	public void testRateAndRatio() throws Exception {
+		ConcurrentExponentialMovingAverageRate rate = new ConcurrentExponentialMovingAverageRate(1, 60);
+		assertEquals(0, rate.getMean(), 0.01);
+		assertEquals(0, rate.getTimeSinceLastMeasurement(), 0.01);
+		for (int i = 0; i < 100; i++) {
+			rate.increment();
+		}
+		assertEquals(100, rate.getCountLong());
+		assertThat(rate.getMean(), greaterThan(0.));
+		Thread.sleep(20);
+		assertThat(rate.getTimeSinceLastMeasurement(), greaterThan(10.));
+
+		ConcurrentExponentialMovingAverageRatio ratio = new ConcurrentExponentialMovingAverageRatio(60);
+		assertEquals(1, ratio.getMean(), 0.01);
+		long now = System.nanoTime();
+		ratio.success(now);
+		ratio.success(now);
+		ratio.success(now);
+		ratio.failure(now);
+		assertEquals(4, ratio.getCountLong());
+		assertEquals(0.75, ratio.getMean(), 0.01);
+		ratio.reset();
+		assertEquals(0, ratio.getCountLong());
+		assertEquals(1, ratio.getMean(), 0.01);
+	}
+
+	@Test
+	public void testChannelMetrics() {
+		ConcurrentMessageChannelMetrics metrics = new ConcurrentMessageChannelMetrics("foo");
+		MetricsContext context = metrics.beforeSend();
+		metrics.afterSend(context, true);
+		assertEquals(1, metrics.getSendCountLong());
+		assertEquals(0, metrics.getSendDuration().getCountLong());
+
+		metrics.setFullStatsEnabled(true);
+		MetricsContext outer = metrics.beforeSend();
+		MetricsContext inner = metrics.beforeSend();
+		assertSame(outer, inner);
+		metrics.afterSend(inner, false);
+		metrics.afterSend(outer, true);
+		assertEquals(3, metrics.getSendCountLong());
+		assertEquals(1, metrics.getSendErrorCountLong());
+		assertEquals(1, metrics.getSendDuration().getCountLong());
+		assertEquals(0.5, metrics.getMeanErrorRatio(), 0.01);
+		assertEquals(2, metrics.getSendRate().getCountLong());
+		assertEquals(1, metrics.getErrorRate().getCountLong());
+
+		metrics.afterSend(null, false);
+		assertEquals(2, metrics.getSendErrorCountLong());
+
+		metrics.reset();
+		assertEquals(0, metrics.getSendCountLong());
+		assertEquals(0, metrics.getSendErrorCountLong());
+		assertEquals(0, metrics.getSendDuration().getCountLong());
+	}
+
+	@Test
+	public void testHandlerMetrics() {
+		ConcurrentMessageHandlerMetrics metrics = new ConcurrentMessageHandlerMetrics("foo");
+		metrics.setFullStatsEnabled(true);
+		MetricsContext context = metrics.beforeHandle();
+		assertEquals(1, metrics.getActiveCountLong());
+		metrics.afterHandle(context, true);
+		context = metrics.beforeHandle();
+		metrics.afterHandle(context, false);
+		assertEquals(0, metrics.getActiveCountLong());
+		assertEquals(2, metrics.getHandleCountLong());
+		assertEquals(1, metrics.getErrorCountLong());
+		assertEquals(1, metrics.getDuration().getCountLong());
+	}
+
+	@Test
+	public void testHandlerMetricsReset() {
+		ConcurrentMessageHandlerMetrics metrics = new ConcurrentMessageHandlerMetrics("foo");
+		MetricsContext inFlight = metrics.beforeHandle();
+		assertEquals(1, metrics.getActiveCountLong());
+		metrics.reset();
+		assertEquals(0, metrics.getActiveCountLong());
+		assertEquals(0, metrics.getHandleCountLong());
+		MetricsContext context = metrics.beforeHandle();
+		assertEquals(1, metrics.getActiveCountLong());
+		metrics.afterHandle(context, true);
+		metrics.afterHandle(inFlight, true);
+		assertEquals(0, metrics.getActiveCountLong());
+		assertEquals(1, metrics.getHandleCountLong());
+	}
+
+	@Test
+	public void testHandlerMetricsBalancedWhenHandlerThrowsError() {
+		ConcurrentMessageHandlerMetrics metrics = new ConcurrentMessageHandlerMetrics("foo");
+		metrics.setFullStatsEnabled(true);
+		AbstractMessageHandler handler = new AbstractMessageHandler() {
+
+			@Override
+			protected void handleMessageInternal(Message<?> message) throws Exception {
+				throw new AssertionError("intentional");
+			}
+
+		};
+		handler.configureMetrics(metrics);
+		handler.setCountsEnabled(true);
+		try {
+			handler.handleMessage(new GenericMessage<>("foo"));
+			fail("Expected AssertionError");
+		}
+		catch (AssertionError e) {
+			assertEquals("intentional", e.getMessage());
+		}
+		assertEquals(0, metrics.getActiveCountLong());
+		assertEquals(1, metrics.getErrorCountLong());
+		StartTimeStack startTimes = (StartTimeStack) TestUtils.getPropertyValue(metrics, "startTimes",
+				ThreadLocal.class).get();
+		assertEquals(0, TestUtils.getPropertyValue(startTimes, "depth", Integer.class).intValue());
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+		}
+		Percentiles percentiles = histogram.getPercentiles();
+		assertEquals(1000, percentiles.getCount());
+		assertEquals(500, percentiles.getP50(), 500 * 0.02);
+		assertEquals(900, percentiles.getP90(), 900 * 0.02);
+		assertEquals(990, percentiles.getP99(), 990 * 0.02);
+		assertEquals(999, percentiles.getP999(), 999 * 0.02);
+		assertEquals(1000, percentiles.getMax(), 1000 * 0.02);
+	}
+
+	@Test
+	public void testSmallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 100; i++) {
+			histogram.record(100);
+		}
+		assertEquals(100 / 1000000., histogram.getPercentiles().getP50(), 0.);
+	}
+
+	@Test
+	public void testIntervalAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(1, histogram.getIntervalPercentiles().getCount());
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+		Percentiles interval = histogram.getIntervalPercentiles();
+		assertEquals(2, interval.getCount());
+		assertEquals(100, interval.getP50(), 2);
+		assertEquals(0, histogram.getIntervalPercentiles().getCount());
+		assertEquals(3, histogram.getPercentiles().getCount());
+		histogram.reset();
+		assertEquals(0, histogram.getPercentiles().getCount());
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+		assertEquals(1, histogram.getPercentiles().getCount());
+		assertEquals(1, histogram.getIntervalPercentiles().getCount());
+	}
+
+	@Test
+	public void testOutOfRangeValuesAreClamped() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-1);
+		histogram.record(Long.MAX_VALUE);
+		Percentiles percentiles = histogram.getPercentiles();
+		assertEquals(2, percentiles.getCount());
+		assertEquals(0, percentiles.getP50(), 0.);
+	}
+
+	@Test
+	public void testChannelMetrics() {
+		AbstractMessageChannelMetrics metrics = new HistogramMessageChannelMetrics("test");
+		metrics.setFullStatsEnabled(true);
+		for (int i = 0; i < 10; i++) {
+			metrics.afterSend(metrics.beforeSend(), true);
+		}
+		Percentiles percentiles = metrics.getSendDurationPercentiles();
+		assertNotNull(percentiles);
+		assertEquals(10, percentiles.getCount());
+		metrics.reset();
+		assertEquals(0, metrics.getSendDurationPercentiles().getCount());
+		assertNull(new DefaultMessageChannelMetrics("test").getSendDurationPercentiles());
+	}
+
+}
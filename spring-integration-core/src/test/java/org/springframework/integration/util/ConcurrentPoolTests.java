@@ -0,0 +1,394 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.integration.test.util.TestUtils;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * @author agent
+ * @since 5.0
+ *
+ */
+public class ConcurrentPoolTests {
+
+	@Test
+	public void testReuseAndStale() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		String s1 = pool.getItem();
+		String s2 = pool.getItem();
+		assertNotSame(s1, s2);
+		pool.releaseItem(s1);
+		String s3 = pool.getItem();
+		assertSame(s1, s3);
+		stale.set(true);
+		pool.releaseItem(s3);
+		s3 = pool.getItem();
+		assertNotSame(s1, s3);
+		assertFalse(strings.remove(s1));
+		assertEquals(2, pool.getAllocatedCount());
+	}
+
+	@Test
+	public void testOverCommitAndResize() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		String s1 = pool.getItem();
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getActiveCount());
+		assertEquals(1, pool.getAllocatedCount());
+		pool.releaseItem(s1);
+		assertEquals(1, pool.getIdleCount());
+		assertEquals(0, pool.getActiveCount());
+		assertEquals(1, pool.getAllocatedCount());
+		s1 = pool.getItem();
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getActiveCount());
+		assertEquals(1, pool.getAllocatedCount());
+		String s2 = pool.getItem();
+		assertNotSame(s1, s2);
+		pool.setWaitTimeout(1);
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(2, pool.getActiveCount());
+		assertEquals(2, pool.getAllocatedCount());
+		try {
+			pool.getItem();
+			fail("Expected exception");
+		}
+		catch (MessagingException e) { }
+
+		// resize up
+		pool.setPoolSize(4);
+
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(2, pool.getActiveCount());
+		assertEquals(2, pool.getAllocatedCount());
+		String s3 = pool.getItem();
+		String s4 = pool.getItem();
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(4, pool.getActiveCount());
+		assertEquals(4, pool.getAllocatedCount());
+		pool.releaseItem(s4);
+		assertEquals(1, pool.getIdleCount());
+		assertEquals(3, pool.getActiveCount());
+		assertEquals(4, pool.getAllocatedCount());
+
+		// resize down
+		pool.setPoolSize(2);
+
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(3, pool.getActiveCount());
+		assertEquals(3, pool.getPoolSize());
+		assertEquals(3, pool.getAllocatedCount());
+		pool.releaseItem(s3);
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(2, pool.getActiveCount());
+		assertEquals(2, pool.getPoolSize());
+		assertEquals(2, pool.getAllocatedCount());
+		assertEquals(2, strings.size());
+		pool.releaseItem(s2);
+		pool.releaseItem(s1);
+		assertEquals(2, pool.getIdleCount());
+		assertEquals(0, pool.getActiveCount());
+		assertEquals(2, pool.getPoolSize());
+		assertEquals(2, strings.size());
+		assertEquals(2, pool.getAllocatedCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignObject() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		pool.getItem();
+		pool.releaseItem("Hello, world!");
+	}
+
+	@Test
+	public void testDoubleReturn() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		Semaphore permits = TestUtils.getPropertyValue(pool, "permits", Semaphore.class);
+		assertEquals(2, permits.availablePermits());
+		String s1 = pool.getItem();
+		assertEquals(1, permits.availablePermits());
+		pool.releaseItem(s1);
+		assertEquals(2, permits.availablePermits());
+		pool.releaseItem(s1);
+		assertEquals(2, permits.availablePermits());
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	public void testThreadAffinity() throws Exception {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		final ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		String s1 = pool.getItem();
+		final String s2 = pool.getItem();
+		pool.releaseItem(s1);
+		Thread thread = new Thread(() -> pool.releaseItem(s2));
+		thread.start();
+		thread.join(10000);
+		assertEquals(2, pool.getIdleCount());
+		// s2 was released more recently, but by another thread
+		assertSame(s1, pool.getItem());
+		final AtomicReference<String> other = new AtomicReference<String>();
+		thread = new Thread(() -> other.set(pool.getItem()));
+		thread.start();
+		thread.join(10000);
+		assertSame(s2, other.get());
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(2, pool.getAllocatedCount());
+	}
+
+	@Test
+	public void testIdleTimeoutAndEviction() throws Exception {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(2, strings, stale);
+		pool.setIdleTimeout(50);
+		String s1 = pool.getItem();
+		String s2 = pool.getItem();
+		pool.releaseItem(s1);
+		assertEquals(0, pool.evictIdleItems());
+		Thread.sleep(100);
+		assertEquals(1, pool.evictIdleItems());
+		assertEquals(0, pool.getIdleCount());
+		assertEquals(1, pool.getAllocatedCount());
+		assertFalse(strings.contains(s1));
+		pool.releaseItem(s2);
+		Thread.sleep(100);
+		String s3 = pool.getItem();
+		assertNotSame(s2, s3);
+		assertFalse(strings.contains(s2));
+		pool.releaseItem(s3);
+		stale.set(true);
+		assertEquals(1, pool.evictIdleItems());
+		assertEquals(0, pool.getAllocatedCount());
+	}
+
+	@Test
+	public void testMaxLifetime() throws Exception {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(1, strings, stale);
+		Semaphore permits = TestUtils.getPropertyValue(pool, "permits", Semaphore.class);
+		pool.setMaxLifetime(50);
+		String s1 = pool.getItem();
+		pool.releaseItem(s1);
+		assertSame(s1, pool.getItem());
+		Thread.sleep(100);
+		pool.releaseItem(s1);
+		assertEquals(0, pool.getAllocatedCount());
+		assertEquals(1, permits.availablePermits());
+		assertFalse(strings.contains(s1));
+		String s2 = pool.getItem();
+		assertNotSame(s1, s2);
+		pool.releaseItem(s2);
+		Thread.sleep(100);
+		assertNotSame(s2, pool.getItem());
+		assertFalse(strings.contains(s2));
+	}
+
+	@Test
+	public void testWarmUp() {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(3, strings, stale);
+		assertEquals(3, pool.warmUp(5));
+		assertEquals(3, pool.getIdleCount());
+		assertEquals(3, pool.getAllocatedCount());
+		assertEquals(3, strings.size());
+		pool.getItem();
+		assertEquals(3, pool.getAllocatedCount());
+		assertEquals(0, pool.warmUp(1));
+		pool.removeAllIdleItems();
+		assertEquals(1, pool.getAllocatedCount());
+		assertEquals(1, strings.size());
+	}
+
+	@Test
+	public void testIdleTimeNotAppliedOnRelease() throws Exception {
+		final Set<String> strings = new HashSet<String>();
+		final AtomicBoolean stale = new AtomicBoolean();
+		ConcurrentPool<String> pool = stringPool(1, strings, stale);
+		pool.setIdleTimeout(50);
+		pool.setMaxLifetime(60000);
+		String s1 = pool.getItem();
+		pool.releaseItem(s1);
+		assertSame(s1, pool.getItem());
+		Thread.sleep(100);
+		pool.releaseItem(s1);
+		assertEquals(1, pool.getIdleCount());
+		assertTrue(strings.contains(s1));
+		assertSame(s1, pool.getItem());
+	}
+
+	@Test
+	public void testWarmUpWhileInUse() throws Exception {
+		final CountDownLatch creating = new CountDownLatch(1);
+		final CountDownLatch proceed = new CountDownLatch(1);
+		final AtomicBoolean first = new AtomicBoolean(true);
+		final ConcurrentPool<String> pool = new ConcurrentPool<String>(1, new SimplePool.PoolItemCallback<String>() {
+
+			private volatile int i;
+
+			@Override
+			public synchronized String createForPool() {
+				if (first.getAndSet(false)) {
+					creating.countDown();
+					try {
+						proceed.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return new String("String" + this.i++);
+			}
+
+			@Override
+			public boolean isStale(String item) {
+				return false;
+			}
+
+			@Override
+			public void removedFromPool(String item) {
+			}
+
+		});
+		ExecutorService exec = Executors.newFixedThreadPool(2);
+		Future<Integer> warmUp = exec.submit(() -> pool.warmUp(1));
+		assertTrue(creating.await(10, TimeUnit.SECONDS));
+		Future<String> item = exec.submit(pool::getItem);
+		Thread.sleep(100);
+		assertFalse(item.isDone());
+		proceed.countDown();
+		assertEquals(Integer.valueOf(1), warmUp.get(10, TimeUnit.SECONDS));
+		assertEquals("String0", item.get(10, TimeUnit.SECONDS));
+		assertEquals(1, pool.getAllocatedCount());
+		exec.shutdownNow();
+	}
+
+	@Test
+	public void testConcurrentUse() throws Exception {
+		final Set<String> strings = Collections.synchronizedSet(new HashSet<String>());
+		final AtomicBoolean stale = new AtomicBoolean();
+		final ConcurrentPool<String> pool = stringPool(4, strings, stale);
+		final Set<String> checkedOut = Collections.synchronizedSet(new HashSet<String>());
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		int threads = 8;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		ExecutorService exec = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			exec.execute(() -> {
+				try {
+					for (int j = 0; j < 10000; j++) {
+						String item = pool.getItem();
+						if (!checkedOut.add(item)) {
+							failure.compareAndSet(null, new IllegalStateException(item + " handed out twice"));
+						}
+						checkedOut.remove(item);
+						pool.releaseItem(item);
+						if (j % 1000 == 0) {
+							pool.evictIdleItems();
+						}
+					}
+				}
+				catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+				finally {
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		exec.shutdownNow();
+		assertNull(failure.get());
+		assertEquals(0, pool.getActiveCount());
+		assertTrue(pool.getAllocatedCount() <= 4);
+		assertEquals(pool.getAllocatedCount(), strings.size());
+		assertEquals(4, TestUtils.getPropertyValue(pool, "permits", Semaphore.class).availablePermits());
+		pool.removeAllIdleItems();
+		assertEquals(0, pool.getAllocatedCount());
+		try {
+			pool.setWaitTimeout(1);
+			for (int i = 0; i < 5; i++) {
+				pool.getItem();
+			}
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertEquals(4, pool.getActiveCount());
+		}
+	}
+
+	private ConcurrentPool<String> stringPool(int size, final Set<String> strings,
+			final AtomicBoolean stale) {
+		return new ConcurrentPool<String>(size, new SimplePool.PoolItemCallback<String>() {
+
+			private volatile int i;
+
+			@Override
+			public synchronized String createForPool() {
+				String string = new String("String" + this.i++);
+				strings.add(string);
+				return string;
+			}
+
+			@Override
+			public boolean isStale(String item) {
+				return stale.get();
+			}
+
+			@Override
+			public void removedFromPool(String item) {
+				strings.remove(item);
+			}
+
+		});
+	}
+
+}
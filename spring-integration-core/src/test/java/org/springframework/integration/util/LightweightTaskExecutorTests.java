@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * @author agent
+ * @since 5.0
+ */
+public class LightweightTaskExecutorTests {
+
+	@Test
+	public void testVirtualThreadsWhenAvailable() throws Exception {
+		LightweightTaskExecutor executor = new LightweightTaskExecutor("light-");
+		try {
+			assertEquals(LightweightThreadFactory.isVirtualThreadsAvailable(), executor.isVirtual());
+			int tasks = executor.isVirtual() ? 10000 : 100;
+			CountDownLatch blocked = new CountDownLatch(1);
+			CountDownLatch done = new CountDownLatch(tasks);
+			AtomicReference<String> threadName = new AtomicReference<>();
+			for (int i = 0; i < tasks; i++) {
+				executor.execute(() -> {
+					threadName.set(Thread.currentThread().getName());
+					try {
+						blocked.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					done.countDown();
+				});
+			}
+			blocked.countDown();
+			assertTrue(done.await(30, TimeUnit.SECONDS));
+			assertThat(threadName.get(), startsWith("light-"));
+		}
+		finally {
+			executor.destroy();
+		}
+	}
+
+	@Test
+	public void testBoundedPlatformThreads() throws Exception {
+		LightweightTaskExecutor executor = new LightweightTaskExecutor("platform-", false, 2);
+		try {
+			assertFalse(executor.isVirtual());
+			AtomicInteger running = new AtomicInteger();
+			AtomicInteger maxRunning = new AtomicInteger();
+			CountDownLatch done = new CountDownLatch(20);
+			for (int i = 0; i < 20; i++) {
+				executor.execute(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						Thread.sleep(10);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					running.decrementAndGet();
+					done.countDown();
+				});
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+			ListenableFuture<String> future = executor.submitListenable(() -> Thread.currentThread().getName());
+			assertThat(future.get(10, TimeUnit.SECONDS), startsWith("platform-"));
+		}
+		finally {
+			executor.destroy();
+		}
+	}
+
+}
@@ -24,6 +24,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.integration.util.ConcurrentPool;
 import org.springframework.integration.util.SimplePool;
 import org.springframework.util.Assert;
 
@@ -44,7 +45,7 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 
 	private final SessionFactory<F> sessionFactory;
 
-	private final SimplePool<Session<F>> pool;
+	private final ConcurrentPool<Session<F>> pool;
 
 	private final boolean isSharedSessionCapable;
 
@@ -75,7 +76,7 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 		Assert.isTrue(!(sessionFactory instanceof DelegatingSessionFactory),
 				"'sessionFactory' cannot be a 'DelegatingSessionFactory'; cache each delegate instead");
 		this.sessionFactory = sessionFactory;
-		this.pool = new SimplePool<Session<F>>(sessionCacheSize, new SimplePool.PoolItemCallback<Session<F>>() {
+		this.pool = new ConcurrentPool<Session<F>>(sessionCacheSize, new SimplePool.PoolItemCallback<Session<F>>() {
 			@Override
 			public Session<F> createForPool() {
 				return CachingSessionFactory.this.sessionFactory.getSession();
@@ -115,6 +116,39 @@ public class CachingSessionFactory<F> implements SessionFactory<F>, DisposableBe
 		this.pool.setPoolSize(poolSize);
 	}
 
+	/**
+	 * Set the time after which an idle session is closed instead of being reused.
+	 * Default 0 (idle sessions are kept until they are found to be closed).
+	 * @param sessionIdleTimeout the idle timeout in milliseconds.
+	 * @since 5.0
+	 * @see #evictIdleSessions()
+	 */
+	public void setSessionIdleTimeout(long sessionIdleTimeout) {
+		this.pool.setIdleTimeout(sessionIdleTimeout);
+	}
+
+	/**
+	 * Set the time, from when it was opened, after which a session is closed instead
+	 * of being reused. Default 0 (no limit).
+	 * @param sessionMaxLifetime the maximum lifetime in milliseconds.
+	 * @since 5.0
+	 */
+	public void setSessionMaxLifetime(long sessionMaxLifetime) {
+		this.pool.setMaxLifetime(sessionMaxLifetime);
+	}
+
+	/**
+	 * Close idle sessions that are no longer open or have exceeded the idle timeout
+	 * or maximum lifetime. Such sessions are otherwise only closed when they are next
+	 * retrieved; this method can be invoked periodically (e.g. by a scheduled task)
+	 * to release server resources sooner.
+	 * @return the number of sessions closed.
+	 * @since 5.0
+	 */
+	public int evictIdleSessions() {
+		return this.pool.evictIdleItems();
+	}
+
 	/**
 	 * Get a session from the pool (or block if none available).
 	 */
@@ -48,7 +48,7 @@ import org.springframework.integration.file.remote.session.SessionFactory;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.util.TestUtils;
-import org.springframework.integration.util.SimplePool;
+import org.springframework.integration.util.ConcurrentPool;
 import org.springframework.messaging.Message;
 
 /**
@@ -190,7 +190,7 @@ public class FileTransferringMessageHandlerTests {
 		verify(session1, times(1)).write(Mockito.any(InputStream.class), Mockito.anyString());
 		verify(session2, times(1)).write(Mockito.any(InputStream.class), Mockito.anyString());
 		verify(session3, times(1)).write(Mockito.any(InputStream.class), Mockito.anyString());
-		SimplePool<?> pool = TestUtils.getPropertyValue(csf, "pool", SimplePool.class);
+		ConcurrentPool<?> pool = TestUtils.getPropertyValue(csf, "pool", ConcurrentPool.class);
 		assertEquals(1, pool.getAllocatedCount());
 		assertEquals(1, pool.getIdleCount());
 		assertSame(session3, TestUtils.getPropertyValue(pool, "allocated", Set.class).iterator().next());
@@ -77,6 +77,31 @@ public class CachingSessionFactoryTests {
 		assertFalse(sess1.isOpen());
 	}
 
+	@Test
+	public void testIdleTimeoutAndMaxLifetime() throws Exception {
+		TestSessionFactory factory = new TestSessionFactory();
+		CachingSessionFactory<String> cache = new CachingSessionFactory<String>(factory);
+		cache.setSessionIdleTimeout(50);
+		Session<String> sess1 = cache.getSession();
+		sess1.close();
+		assertEquals(0, cache.evictIdleSessions());
+		Thread.sleep(100);
+		assertEquals(1, cache.evictIdleSessions());
+		assertFalse(sess1.isOpen());
+		sess1 = cache.getSession();
+		assertEquals("session:2", TestUtils.getPropertyValue(sess1, "targetSession.id"));
+		cache.setSessionIdleTimeout(0);
+		cache.setSessionMaxLifetime(50);
+		Thread.sleep(100);
+		// expired while in use; closed when returned
+		sess1.close();
+		assertFalse(sess1.isOpen());
+		sess1 = cache.getSession();
+		assertEquals("session:3", TestUtils.getPropertyValue(sess1, "targetSession.id"));
+		sess1.close();
+		assertTrue(sess1.isOpen());
+	}
+
 	@Test
 	public void testDirtySession() throws Exception {
 		@SuppressWarnings("unchecked")
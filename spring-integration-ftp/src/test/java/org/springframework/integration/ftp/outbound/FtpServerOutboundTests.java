@@ -44,8 +44,8 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.net.ftp.FTPClient;
@@ -556,8 +556,8 @@ public class FtpServerOutboundTests extends FtpTestSupport {
 		Session<FTPFile> session = spy(this.ftpSessionFactory.getSession());
 		session.close();
 		@SuppressWarnings("unchecked")
-		BlockingQueue<Session<FTPFile>> cache = TestUtils.getPropertyValue(ftpSessionFactory, "pool.available",
-				BlockingQueue.class);
+		Queue<Session<FTPFile>> cache = TestUtils.getPropertyValue(ftpSessionFactory, "pool.available",
+				Queue.class);
 		assertNotNull(cache.poll());
 		cache.offer(session);
 		@SuppressWarnings("unchecked")
@@ -72,6 +72,14 @@ public abstract class IpAdapterParserUtils {
 
 	static final String USING_DIRECT_BUFFERS = "using-direct-buffers";
 
+	static final String USING_BYTE_BUFFER_DESERIALIZER = "using-byte-buffer-deserializer";
+
+	static final String WRITE_COALESCING_DELAY = "write-coalescing-delay";
+
+	static final String READ_SELECTOR_COUNT = "read-selector-count";
+
+	static final String READ_SELECTOR_ASSIGNMENT = "read-selector-assignment";
+
 	static final String SO_LINGER = "so-linger";
 
 	static final String SO_TCP_NODELAY = "so-tcp-no-delay";
@@ -35,6 +35,7 @@ import org.springframework.integration.ip.tcp.connection.DefaultTcpNetSocketFact
 import org.springframework.integration.ip.tcp.connection.DefaultTcpNioConnectionSupport;
 import org.springframework.integration.ip.tcp.connection.DefaultTcpNioSSLConnectionSupport;
 import org.springframework.integration.ip.tcp.connection.DefaultTcpSocketSupport;
+import org.springframework.integration.ip.tcp.connection.ReadSelectorAssignment;
 import org.springframework.integration.ip.tcp.connection.TcpConnectionInterceptorFactoryChain;
 import org.springframework.integration.ip.tcp.connection.TcpMessageMapper;
 import org.springframework.integration.ip.tcp.connection.TcpNetClientConnectionFactory;
@@ -104,6 +105,14 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean usingByteBufferDeserializer;
+
+	private volatile long writeCoalescingDelay = -1;
+
+	private volatile Integer readSelectorCount;
+
+	private volatile ReadSelectorAssignment readSelectorAssignment;
+
 	private volatile String beanName;
 
 	private volatile boolean applySequence;
@@ -155,6 +164,14 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 				this.setCommonAttributes(connectionFactory);
 				this.setServerAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setUsingByteBufferDeserializer(this.usingByteBufferDeserializer);
+				connectionFactory.setWriteCoalescingDelay(this.writeCoalescingDelay);
+				if (this.readSelectorCount != null) {
+					connectionFactory.setReadSelectorCount(this.readSelectorCount);
+				}
+				if (this.readSelectorAssignment != null) {
+					connectionFactory.setReadSelectorAssignment(this.readSelectorAssignment);
+				}
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			}
@@ -163,6 +180,14 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 						this.host, this.port);
 				this.setCommonAttributes(connectionFactory);
 				connectionFactory.setUsingDirectBuffers(this.usingDirectBuffers);
+				connectionFactory.setUsingByteBufferDeserializer(this.usingByteBufferDeserializer);
+				connectionFactory.setWriteCoalescingDelay(this.writeCoalescingDelay);
+				if (this.readSelectorCount != null) {
+					connectionFactory.setReadSelectorCount(this.readSelectorCount);
+				}
+				if (this.readSelectorAssignment != null) {
+					connectionFactory.setReadSelectorAssignment(this.readSelectorAssignment);
+				}
 				connectionFactory.setTcpNioConnectionSupport(this.obtainNioConnectionSupport());
 				this.connectionFactory = connectionFactory;
 			}
@@ -357,6 +382,44 @@ public class TcpConnectionFactoryFactoryBean extends AbstractFactoryBean<Abstrac
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * @param usingByteBufferDeserializer the usingByteBufferDeserializer to set.
+	 * @since 5.0
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setUsingByteBufferDeserializer(boolean)
+	 */
+	public void setUsingByteBufferDeserializer(boolean usingByteBufferDeserializer) {
+		this.usingByteBufferDeserializer = usingByteBufferDeserializer;
+	}
+
+	/**
+	 * @param writeCoalescingDelay the writeCoalescingDelay to set.
+	 * @since 5.0
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioClientConnectionFactory#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * @param readSelectorCount the number of read selectors in addition to the factory's
+	 * own selector.
+	 * @since 5.0
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setReadSelectorCount(int)
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioClientConnectionFactory#setReadSelectorCount(int)
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * @param readSelectorAssignment the readSelectorAssignment to set.
+	 * @since 5.0
+	 * @see org.springframework.integration.ip.tcp.connection.TcpNioServerConnectionFactory#setReadSelectorAssignment(ReadSelectorAssignment)
+	 */
+	public void setReadSelectorAssignment(ReadSelectorAssignment readSelectorAssignment) {
+		this.readSelectorAssignment = readSelectorAssignment;
+	}
+
 	/**
 	 * @param taskExecutor The task executor.
 	 * @see org.springframework.integration.ip.tcp.connection.AbstractConnectionFactory#setTaskExecutor(java.util.concurrent.Executor)
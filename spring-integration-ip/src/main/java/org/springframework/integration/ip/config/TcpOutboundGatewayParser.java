@@ -55,6 +55,17 @@ public class TcpOutboundGatewayParser extends AbstractConsumerEndpointParser {
 		}
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element,
 				IpAdapterParserUtils.REPLY_TIMEOUT, "sendTimeout");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "max-in-flight");
+		BeanDefinition requestCorrelationExpression =
+				IntegrationNamespaceUtils.createExpressionDefIfAttributeDefined("request-correlation-expression", element);
+		if (requestCorrelationExpression != null) {
+			builder.addPropertyValue("requestCorrelationExpression", requestCorrelationExpression);
+		}
+		BeanDefinition replyCorrelationExpression =
+				IntegrationNamespaceUtils.createExpressionDefIfAttributeDefined("reply-correlation-expression", element);
+		if (replyCorrelationExpression != null) {
+			builder.addPropertyValue("replyCorrelationExpression", replyCorrelationExpression);
+		}
 		return builder;
 	}
 
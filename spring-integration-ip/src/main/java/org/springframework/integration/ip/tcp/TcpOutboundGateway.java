@@ -16,7 +16,9 @@
 
 package org.springframework.integration.ip.tcp;
 
+import java.util.LinkedList;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
@@ -49,7 +51,12 @@ import org.springframework.util.Assert;
  * TCP outbound gateway that uses a client connection factory. If the factory is configured
  * for single-use connections, each request is sent on a new connection; if the factory does not use
  * single use connections, each request is blocked until the previous response is received
- * (or times out). Asynchronous requests/responses over the same connection are not
+ * (or times out), unless {@link #setMaxInFlight(int) maxInFlight} is greater than 1.
+ * In that case, requests are pipelined over the shared connection and replies are
+ * correlated either by the
+ * {@link #setRequestCorrelationExpression(Expression) request}/{@link #setReplyCorrelationExpression(Expression) reply}
+ * correlation expressions or, when those are not provided, by the order in which
+ * the requests were sent. Fully asynchronous requests/responses over the same connection are not
  * supported - use a pair of outbound/inbound adapters for that use case.
  * <p>
  * {@link SmartLifecycle} methods delegate to the underlying {@link AbstractConnectionFactory}
@@ -67,7 +74,15 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	private final Map<String, AsyncReply> pendingReplies = new ConcurrentHashMap<String, AsyncReply>();
 
-	private final Semaphore semaphore = new Semaphore(1, true);
+	private final Map<String, PipelinedReplies> pipelinedReplies = new ConcurrentHashMap<String, PipelinedReplies>();
+
+	private volatile Semaphore semaphore = new Semaphore(1, true);
+
+	private volatile int maxInFlight = 1;
+
+	private volatile Expression requestCorrelationExpression;
+
+	private volatile Expression replyCorrelationExpression;
 
 	private volatile Expression remoteTimeoutExpression = new LiteralExpression("10000");
 
@@ -100,6 +115,49 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		this.evaluationContext = evaluationContext;
 	}
 
+	/**
+	 * Set the maximum number of requests awaiting a reply on a shared (not single-use)
+	 * connection. With the default (1), each request waits until the previous reply is
+	 * received (or times out). With a larger value, requests are written back-to-back
+	 * and replies are correlated using the correlation expressions or, when they are not
+	 * provided, in strict FIFO order; the latter requires the server to reply in the
+	 * order the requests were received. Has no effect with single-use connections.
+	 * The {@link #setRequestTimeout(long) requestTimeout} applies when waiting for a
+	 * free slot in this window.
+	 * @param maxInFlight the maximum number of outstanding requests.
+	 * @since 5.0
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		Assert.isTrue(maxInFlight > 0, "'maxInFlight' must be greater than 0");
+		this.maxInFlight = maxInFlight;
+		this.semaphore = new Semaphore(maxInFlight, true);
+	}
+
+	/**
+	 * Set the expression evaluated against each request message to determine its
+	 * correlation key when {@link #setMaxInFlight(int) maxInFlight} is greater than 1.
+	 * Requires a {@link #setReplyCorrelationExpression(Expression) replyCorrelationExpression};
+	 * when both are null (default), replies are correlated in FIFO order.
+	 * @param requestCorrelationExpression the expression.
+	 * @since 5.0
+	 */
+	public void setRequestCorrelationExpression(Expression requestCorrelationExpression) {
+		this.requestCorrelationExpression = requestCorrelationExpression;
+	}
+
+	/**
+	 * Set the expression evaluated against each reply message (as produced by the
+	 * connection factory's {@code TcpMessageMapper}) to determine the correlation key
+	 * of the request it belongs to; for example a header populated by a custom mapper,
+	 * or a field of the payload.
+	 * @param replyCorrelationExpression the expression.
+	 * @since 5.0
+	 * @see #setRequestCorrelationExpression(Expression)
+	 */
+	public void setReplyCorrelationExpression(Expression replyCorrelationExpression) {
+		this.replyCorrelationExpression = replyCorrelationExpression;
+	}
+
 	@Override
 	protected void doInit() {
 		super.doInit();
@@ -107,12 +165,24 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		if (this.evaluationContext == null) {
 			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
 		}
+		Assert.state((this.requestCorrelationExpression == null) == (this.replyCorrelationExpression == null),
+				"'requestCorrelationExpression' and 'replyCorrelationExpression' must be provided together");
+		if (this.maxInFlight > 1 && this.isSingleUse && logger.isWarnEnabled()) {
+			logger.warn("'maxInFlight' is ignored with single-use connections");
+		}
+	}
+
+	private boolean isPipelined() {
+		return this.maxInFlight > 1 && !this.isSingleUse;
 	}
 
 	@Override
 	protected Object handleRequestMessage(Message<?> requestMessage) {
 		Assert.notNull(this.connectionFactory, this.getClass().getName() +
 				" requires a client connection factory");
+		if (isPipelined()) {
+			return handlePipelinedRequest(requestMessage);
+		}
 		boolean haveSemaphore = false;
 		TcpConnection connection = null;
 		String connectionId = null;
@@ -176,6 +246,121 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		}
 	}
 
+	private Message<?> handlePipelinedRequest(Message<?> requestMessage) {
+		boolean haveSemaphore = false;
+		TcpConnection connection = null;
+		PipelinedReplies replies = null;
+		AsyncReply reply = null;
+		Object correlationKey = null;
+		try {
+			if (!this.semaphore.tryAcquire(this.requestTimeout, TimeUnit.MILLISECONDS)) {
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for an in-flight slot");
+			}
+			haveSemaphore = true;
+			connection = this.connectionFactory.getConnection();
+			reply = new AsyncReply(this.remoteTimeoutExpression.getValue(this.evaluationContext,
+					requestMessage, Long.class));
+			replies = getPipelinedReplies(connection.getConnectionId());
+			if (this.requestCorrelationExpression != null) {
+				Object key = this.requestCorrelationExpression.getValue(this.evaluationContext, requestMessage);
+				if (key == null) {
+					throw new MessagingException(requestMessage, "The 'requestCorrelationExpression' evaluated to null");
+				}
+				if (replies.correlated.putIfAbsent(key, reply) != null) {
+					throw new MessagingException(requestMessage,
+							"A request with correlation key '" + key + "' is already in flight");
+				}
+				correlationKey = key;
+			}
+			try {
+				if (correlationKey != null) {
+					connection.send(requestMessage);
+				}
+				else {
+					sendOrdered(connection, replies, reply, requestMessage);
+				}
+			}
+			catch (Exception e) {
+				// The request may have been partially written, corrupting the stream for the
+				// other requests in flight - abandon the connection.
+				abandon(connection, replies, new MessagingException(requestMessage,
+						"Connection abandoned after a failure to send a pipelined request", e));
+				throw e;
+			}
+			Message<?> replyMessage = reply.getReply();
+			if (replyMessage == null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Remote Timeout on " + connection.getConnectionId());
+				}
+				if (correlationKey == null) {
+					// A late reply would be matched with the next request - abandon the connection.
+					abandon(connection, replies, new MessageTimeoutException(requestMessage,
+							"Connection abandoned after a timeout waiting for a pipelined response"));
+				}
+				throw new MessageTimeoutException(requestMessage, "Timed out waiting for response");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Response " + replyMessage);
+			}
+			return replyMessage;
+		}
+		catch (Exception e) {
+			logger.error("Tcp Gateway exception", e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessagingException("Failed to send or receive", e);
+		}
+		finally {
+			if (replies != null) {
+				if (correlationKey != null) {
+					replies.correlated.remove(correlationKey, reply);
+				}
+				else {
+					synchronized (replies) {
+						replies.ordered.remove(reply);
+					}
+				}
+			}
+			if (haveSemaphore) {
+				this.semaphore.release();
+			}
+		}
+	}
+
+	private void sendOrdered(TcpConnection connection, PipelinedReplies replies, AsyncReply reply,
+			Message<?> requestMessage) throws Exception {
+		// the write order must match the registration order
+		synchronized (replies) {
+			replies.ordered.add(reply);
+			try {
+				connection.send(requestMessage);
+			}
+			catch (Exception e) {
+				replies.ordered.remove(reply);
+				throw e;
+			}
+		}
+	}
+
+	private PipelinedReplies getPipelinedReplies(String connectionId) {
+		PipelinedReplies replies = this.pipelinedReplies.get(connectionId);
+		if (replies == null) {
+			replies = new PipelinedReplies();
+			PipelinedReplies existing = this.pipelinedReplies.putIfAbsent(connectionId, replies);
+			if (existing != null) {
+				replies = existing;
+			}
+		}
+		return replies;
+	}
+
+	private void abandon(TcpConnection connection, PipelinedReplies replies, MessagingException cause) {
+		this.pipelinedReplies.remove(connection.getConnectionId(), replies);
+		replies.abandonAll(new ErrorMessage(cause));
+		this.connectionFactory.forceClose(connection);
+	}
+
 	@Override
 	public boolean onMessage(Message<?> message) {
 		String connectionId = (String) message.getHeaders().get(IpHeaders.CONNECTION_ID);
@@ -187,6 +372,9 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		if (logger.isTraceEnabled()) {
 			logger.trace("onMessage: " + connectionId + "(" + message + ")");
 		}
+		if (isPipelined()) {
+			return onPipelinedMessage(connectionId, message);
+		}
 		AsyncReply reply = this.pendingReplies.get(connectionId);
 		if (reply == null) {
 			if (message instanceof ErrorMessage) {
@@ -207,6 +395,39 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 		return false;
 	}
 
+	private boolean onPipelinedMessage(String connectionId, Message<?> message) {
+		PipelinedReplies replies = this.pipelinedReplies.get(connectionId);
+		if (message instanceof ErrorMessage) {
+			// Socket errors fail all requests waiting on the connection.
+			if (replies != null) {
+				replies.failAll(message);
+			}
+			return false;
+		}
+		AsyncReply reply = null;
+		if (replies != null) {
+			if (this.replyCorrelationExpression != null) {
+				Object key = this.replyCorrelationExpression.getValue(this.evaluationContext, message);
+				if (key != null) {
+					reply = replies.correlated.get(key);
+				}
+			}
+			else {
+				synchronized (replies) {
+					reply = replies.ordered.poll();
+				}
+			}
+		}
+		if (reply == null) {
+			String errorMessage = "Cannot correlate response - no pending reply for " + connectionId;
+			logger.error(errorMessage);
+			publishNoConnectionEvent(message, connectionId, errorMessage);
+			return false;
+		}
+		reply.setReply(message);
+		return false;
+	}
+
 	private void publishNoConnectionEvent(Message<?> message, String connectionId, String errorMessage) {
 		ApplicationEventPublisher applicationEventPublisher = this.connectionFactory.getApplicationEventPublisher();
 		if (applicationEventPublisher != null) {
@@ -229,7 +450,11 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	@Override
 	public void removeDeadConnection(TcpConnection connection) {
-		// do nothing - no asynchronous multiplexing supported
+		PipelinedReplies replies = this.pipelinedReplies.remove(connection.getConnectionId());
+		if (replies != null) {
+			replies.failAll(new ErrorMessage(new MessagingException("Connection closed: " +
+					connection.getConnectionId())));
+		}
 	}
 
 	/**
@@ -325,6 +550,16 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 			return this.reply;
 		}
 
+		/**
+		 * The connection can no longer deliver the reply; fail without a second chance.
+		 * @param error the error message.
+		 */
+		public void abandon(Message<?> error) {
+			this.reply = error;
+			this.latch.countDown();
+			this.secondChanceLatch.countDown();
+		}
+
 		/**
 		 * We have a race condition when a socket is closed right after the reply is received. The close "error"
 		 * might arrive before the actual reply. Overwrite an error with a good reply, but not vice-versa.
@@ -343,4 +578,39 @@ public class TcpOutboundGateway extends AbstractReplyProducingMessageHandler
 
 	}
 
+	/**
+	 * The replies awaited on a connection when requests are pipelined.
+	 *
+	 * @since 5.0
+	 */
+	private final class PipelinedReplies {
+
+		private final Map<Object, AsyncReply> correlated = new ConcurrentHashMap<Object, AsyncReply>();
+
+		private final Queue<AsyncReply> ordered = new LinkedList<AsyncReply>(); // guarded by this
+
+		private void failAll(Message<?> error) {
+			synchronized (this) {
+				for (AsyncReply reply : this.ordered) {
+					reply.setReply(error);
+				}
+			}
+			for (AsyncReply reply : this.correlated.values()) {
+				reply.setReply(error);
+			}
+		}
+
+		private void abandonAll(Message<?> error) {
+			synchronized (this) {
+				for (AsyncReply reply : this.ordered) {
+					reply.abandon(error);
+				}
+			}
+			for (AsyncReply reply : this.correlated.values()) {
+				reply.abandon(error);
+			}
+		}
+
+	}
+
 }
@@ -47,6 +47,8 @@ import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.context.IntegrationObjectSupport;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.messaging.MessagingException;
@@ -462,7 +464,9 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 	}
 
 	/**
-	 * Creates a taskExecutor (if one was not provided).
+	 * Creates a taskExecutor (if one was not provided). When the
+	 * {@code spring.integration.taskExecutor.lightweight} property is {@code true} and the
+	 * runtime offers virtual threads, the {@code integrationTaskExecutor} bean is used.
 	 * @return The executor.
 	 */
 	protected Executor getTaskExecutor() {
@@ -471,8 +475,15 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 		}
 		synchronized (this.lifecycleMonitor) {
 			if (this.taskExecutor == null) {
-				this.privateExecutor = true;
-				this.taskExecutor = Executors.newCachedThreadPool();
+				AsyncTaskExecutor virtualThreadTaskExecutor = getBeanFactory() == null ? null
+						: IntegrationContextUtils.getVirtualThreadTaskExecutor(getBeanFactory());
+				if (virtualThreadTaskExecutor != null) {
+					this.taskExecutor = virtualThreadTaskExecutor;
+				}
+				else {
+					this.privateExecutor = true;
+					this.taskExecutor = Executors.newCachedThreadPool();
+				}
 			}
 			return this.taskExecutor;
 		}
@@ -563,12 +574,32 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 	 */
 	protected void processNioSelections(int selectionCount, final Selector selector, ServerSocketChannel server,
 			Map<SocketChannel, TcpNioConnection> connections) throws IOException {
+		this.nextCheckForClosedNioConnections = processNioSelections(selectionCount, selector, server, connections,
+				this.nextCheckForClosedNioConnections);
+	}
+
+	/**
+	 * Variant of {@link #processNioSelections(int, Selector, ServerSocketChannel, Map)}
+	 * for selector loops that track their own check for closed connections, so that
+	 * each selector periodically harvests the connections registered with it.
+	 * @param selectionCount Number of IO Events.
+	 * @param selector The selector.
+	 * @param server The server socket channel.
+	 * @param connections Map of connections.
+	 * @param nextCheckForClosedConnections the time of the next check for closed connections.
+	 * @return the time of the next check for closed connections.
+	 * @throws IOException Any IOException.
+	 * @since 5.0
+	 */
+	long processNioSelections(int selectionCount, final Selector selector, ServerSocketChannel server,
+			Map<SocketChannel, TcpNioConnection> connections, long nextCheckForClosedConnections) throws IOException {
+		long nextCheck = nextCheckForClosedConnections;
 		final long now = System.currentTimeMillis();
 		rescheduleDelayedReads(selector, now);
 		if (this.soTimeout > 0 ||
-				now >= this.nextCheckForClosedNioConnections ||
+				now >= nextCheck ||
 				selectionCount == 0) {
-			this.nextCheckForClosedNioConnections = now + this.nioHarvestInterval;
+			nextCheck = now + this.nioHarvestInterval;
 			Iterator<Entry<SocketChannel, TcpNioConnection>> it = connections.entrySet().iterator();
 			while (it.hasNext()) {
 				SocketChannel channel = it.next().getKey();
@@ -687,6 +718,21 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 				}
 			}
 		}
+		return nextCheck;
+	}
+
+	/**
+	 * Determine how long a selector loop should block in {@code select()}, taking
+	 * into account the socket timeout and any reads delayed due to insufficient threads.
+	 * @return the select timeout in milliseconds; 0 to block indefinitely.
+	 * @since 5.0
+	 */
+	long getSelectTimeout() {
+		long timeout = this.soTimeout < 0 ? 0 : this.soTimeout;
+		if (this.delayedReads.size() > 0 && (timeout == 0 || this.readDelay < timeout)) {
+			timeout = this.readDelay;
+		}
+		return timeout;
 	}
 
 	protected void delayRead(Selector selector, long now, final SelectionKey key) {
@@ -718,7 +764,14 @@ public abstract class AbstractConnectionFactory extends IntegrationObjectSupport
 					PendingIO pendingRead = this.delayedReads.take();
 					if (pendingRead.key.channel().isOpen()) {
 						pendingRead.key.interestOps(SelectionKey.OP_READ);
-						wakeSelector = true;
+						Selector keySelector = pendingRead.key.selector();
+						if (keySelector == selector) {
+							wakeSelector = true;
+						}
+						else {
+							// the key is registered with another of the factory's selectors
+							keySelector.wakeup();
+						}
 						if (logger.isDebugEnabled()) {
 							logger.debug("Rescheduling delayed read for " + ((TcpNioConnection) pendingRead.key.attachment()).getConnectionId());
 						}
@@ -19,16 +19,19 @@ package org.springframework.integration.ip.tcp.connection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
+import org.springframework.integration.util.ConcurrentPool;
 import org.springframework.integration.util.SimplePool;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.TaskScheduler;
 
 /**
  * Connection factory that caches connections from the underlying target factory. The underlying
@@ -44,7 +47,13 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 
 	private final AbstractClientConnectionFactory targetConnectionFactory;
 
-	private final SimplePool<TcpConnectionSupport> pool;
+	private final ConcurrentPool<TcpConnectionSupport> pool;
+
+	private volatile long evictionInterval;
+
+	private volatile int warmUpCount;
+
+	private volatile ScheduledFuture<?> evictionTask;
 
 	/**
 	 * Construct a caching connection factory that delegates to the provided factory, with
@@ -57,7 +66,7 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 		// override single-use to true so the target creates multiple connections
 		target.setSingleUse(true);
 		this.targetConnectionFactory = target;
-		this.pool = new SimplePool<TcpConnectionSupport>(poolSize,
+		this.pool = new ConcurrentPool<TcpConnectionSupport>(poolSize,
 				new SimplePool.PoolItemCallback<TcpConnectionSupport>() {
 
 					@Override
@@ -85,22 +94,68 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 
 	/**
 	 * @param connectionWaitTimeout the new timeout.
-	 * @see SimplePool#setWaitTimeout(long)
+	 * @see ConcurrentPool#setWaitTimeout(long)
 	 */
 	public void setConnectionWaitTimeout(int connectionWaitTimeout) {
 		this.pool.setWaitTimeout(connectionWaitTimeout);
 	}
 
+	/**
+	 * Set the time after which an idle connection is closed instead of being reused.
+	 * Default 0 (idle connections are kept until they are found to be closed).
+	 * @param connectionIdleTimeout the idle timeout in milliseconds.
+	 * @since 5.0
+	 * @see ConcurrentPool#setIdleTimeout(long)
+	 */
+	public void setConnectionIdleTimeout(long connectionIdleTimeout) {
+		this.pool.setIdleTimeout(connectionIdleTimeout);
+	}
+
+	/**
+	 * Set the time, from when it was opened, after which a connection is closed
+	 * instead of being reused. Default 0 (no limit).
+	 * @param connectionMaxLifetime the maximum lifetime in milliseconds.
+	 * @since 5.0
+	 * @see ConcurrentPool#setMaxLifetime(long)
+	 */
+	public void setConnectionMaxLifetime(long connectionMaxLifetime) {
+		this.pool.setMaxLifetime(connectionMaxLifetime);
+	}
+
+	/**
+	 * Set the interval at which idle connections are checked in the background and
+	 * closed if they are closed by the peer or have exceeded the idle timeout or maximum
+	 * lifetime. Requires a task scheduler. Default 0 (idle connections are only checked
+	 * when they are next obtained).
+	 * @param evictionInterval the interval in milliseconds.
+	 * @since 5.0
+	 * @see ConcurrentPool#evictIdleItems()
+	 */
+	public void setEvictionInterval(long evictionInterval) {
+		this.evictionInterval = evictionInterval;
+	}
+
+	/**
+	 * Set the number of connections to open when the factory is started, so the first
+	 * requests do not wait for connections to be established. Default 0.
+	 * @param warmUpCount the number of connections.
+	 * @since 5.0
+	 * @see ConcurrentPool#warmUp(int)
+	 */
+	public void setWarmUpCount(int warmUpCount) {
+		this.warmUpCount = warmUpCount;
+	}
+
 	/**
 	 * @param poolSize the new pool size.
-	 * @see SimplePool#setPoolSize(int)
+	 * @see ConcurrentPool#setPoolSize(int)
 	 */
 	public synchronized void setPoolSize(int poolSize) {
 		this.pool.setPoolSize(poolSize);
 	}
 
 	/**
-	 * @see SimplePool#getPoolSize()
+	 * @see ConcurrentPool#getPoolSize()
 	 * @return the pool size.
 	 */
 	public int getPoolSize() {
@@ -108,7 +163,7 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 	}
 
 	/**
-	 * @see SimplePool#getIdleCount()
+	 * @see ConcurrentPool#getIdleCount()
 	 * @return the idle count.
 	 */
 	public int getIdleCount() {
@@ -116,7 +171,7 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 	}
 
 	/**
-	 * @see SimplePool#getActiveCount()
+	 * @see ConcurrentPool#getActiveCount()
 	 * @return the active count.
 	 */
 	public int getActiveCount() {
@@ -124,7 +179,7 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 	}
 
 	/**
-	 * @see SimplePool#getAllocatedCount()
+	 * @see ConcurrentPool#getAllocatedCount()
 	 * @return the allocated count.
 	 */
 	public int getAllocatedCount() {
@@ -380,10 +435,37 @@ public class CachingClientConnectionFactory extends AbstractClientConnectionFact
 		setActive(true);
 		this.targetConnectionFactory.start();
 		super.start();
+		if (this.warmUpCount > 0) {
+			try {
+				this.pool.warmUp(this.warmUpCount);
+			}
+			catch (Exception e) {
+				logger.warn("Failed to open connections during warm up", e);
+			}
+		}
+		if (this.evictionInterval > 0 && this.evictionTask == null) {
+			TaskScheduler taskScheduler = getTaskScheduler();
+			if (taskScheduler != null) {
+				this.evictionTask = taskScheduler.scheduleWithFixedDelay(() -> {
+					int evicted = this.pool.evictIdleItems();
+					if (evicted > 0 && logger.isDebugEnabled()) {
+						logger.debug("Closed " + evicted + " idle connections");
+					}
+				}, this.evictionInterval);
+			}
+			else {
+				logger.warn("No task scheduler available; idle connections will not be evicted in the background");
+			}
+		}
 	}
 
 	@Override
 	public synchronized void stop() {
+		ScheduledFuture<?> evictionTask = this.evictionTask;
+		if (evictionTask != null) {
+			evictionTask.cancel(false);
+			this.evictionTask = null;
+		}
 		this.targetConnectionFactory.stop();
 		this.pool.removeAllIdleItems();
 	}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.connection;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A {@link Selector}, and the loop that runs it, that detects read readiness
+ * for a subset of the connections created by an NIO connection factory.
+ * Used when a factory is configured with more than one selector. If the loop fails,
+ * the connections of the selector are closed and the factory is notified, so that it
+ * no longer assigns connections to it.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+class NioReadSelector implements Runnable {
+
+	private static final Log logger = LogFactory.getLog(NioReadSelector.class);
+
+	private final AbstractConnectionFactory factory;
+
+	private final Consumer<NioReadSelector> failureCallback;
+
+	private final Selector selector;
+
+	private final Map<SocketChannel, TcpNioConnection> connections =
+			new ConcurrentHashMap<SocketChannel, TcpNioConnection>();
+
+	private final Queue<SocketChannel> newChannels = new ConcurrentLinkedQueue<SocketChannel>();
+
+	private final SelectorMetrics metrics = new SelectorMetrics();
+
+	private volatile boolean closed;
+
+	NioReadSelector(AbstractConnectionFactory factory, Consumer<NioReadSelector> failureCallback)
+			throws IOException {
+		this.factory = factory;
+		this.failureCallback = failureCallback;
+		this.selector = Selector.open();
+		this.metrics.setSelector(this.selector);
+	}
+
+	/**
+	 * Hand a new connection to this selector; it is registered for reading
+	 * by the selector thread.
+	 * @param channel the channel.
+	 * @param connection the connection.
+	 */
+	void register(SocketChannel channel, TcpNioConnection connection) {
+		this.connections.put(channel, connection);
+		this.newChannels.add(channel);
+		this.selector.wakeup();
+	}
+
+	Map<SocketChannel, TcpNioConnection> getConnections() {
+		return this.connections;
+	}
+
+	SelectorMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	void close() {
+		this.closed = true;
+		try {
+			this.selector.close();
+		}
+		catch (Exception e) {
+			logger.error("Error closing selector", e);
+		}
+	}
+
+	@Override
+	public void run() {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Read selector running for " + this.factory);
+		}
+		long nextCheckForClosedConnections = 0;
+		try {
+			while (this.factory.isActive()) {
+				int selectionCount = 0;
+				try {
+					selectionCount = this.selector.select(this.factory.getSelectTimeout());
+				}
+				catch (CancelledKeyException cke) {
+					if (logger.isDebugEnabled()) {
+						logger.debug("CancelledKeyException during Selector.select()");
+					}
+				}
+				long start = System.nanoTime();
+				SocketChannel newChannel;
+				while ((newChannel = this.newChannels.poll()) != null) {
+					try {
+						newChannel.register(this.selector, SelectionKey.OP_READ, this.connections.get(newChannel));
+					}
+					catch (ClosedChannelException cce) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Channel closed before registering with selector for reading");
+						}
+					}
+				}
+				nextCheckForClosedConnections = this.factory.processNioSelections(selectionCount, this.selector,
+						null, this.connections, nextCheckForClosedConnections);
+				this.metrics.record(System.nanoTime() - start);
+			}
+		}
+		catch (ClosedSelectorException cse) {
+			if (!this.closed && this.factory.isActive()) {
+				logger.error("Selector closed", cse);
+				failed();
+			}
+		}
+		catch (Exception e) {
+			logger.error("Exception in read selector thread", e);
+			failed();
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Read selector exiting for " + this.factory);
+		}
+	}
+
+	private void failed() {
+		this.failureCallback.accept(this);
+		close();
+		for (TcpNioConnection connection : this.connections.values()) {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Return the selectors without the failed one.
+	 * @param readSelectors the selectors.
+	 * @param failed the failed selector.
+	 * @return the remaining selectors, or null if there are none.
+	 */
+	static NioReadSelector[] without(NioReadSelector[] readSelectors, NioReadSelector failed) {
+		if (readSelectors == null) {
+			return null;
+		}
+		NioReadSelector[] remaining = new NioReadSelector[readSelectors.length];
+		int count = 0;
+		for (NioReadSelector readSelector : readSelectors) {
+			if (readSelector != failed) {
+				remaining[count++] = readSelector;
+			}
+		}
+		return count == 0 ? null : Arrays.copyOf(remaining, count);
+	}
+
+	/**
+	 * Determine which selector should handle a new connection.
+	 * @param loads the number of connections currently handled by each selector.
+	 * @param assignment the assignment strategy.
+	 * @param counter the round robin counter.
+	 * @return the index of the selector.
+	 */
+	static int select(int[] loads, ReadSelectorAssignment assignment, AtomicInteger counter) {
+		if (ReadSelectorAssignment.LEAST_LOADED.equals(assignment)) {
+			int index = 0;
+			for (int i = 1; i < loads.length; i++) {
+				if (loads[i] < loads[index]) {
+					index = i;
+				}
+			}
+			return index;
+		}
+		return (counter.getAndIncrement() & Integer.MAX_VALUE) % loads.length;
+	}
+
+}
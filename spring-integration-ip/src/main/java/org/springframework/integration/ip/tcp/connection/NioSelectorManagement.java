@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.connection;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Exposes metrics for the selectors used by an NIO connection factory.
+ * Each array attribute has one element per selector; element 0 is the selector
+ * run by the factory itself (the accepting selector for a server factory),
+ * followed by any additional read selectors.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+@ManagedResource
+public interface NioSelectorManagement {
+
+	/**
+	 * @return the number of selectors (and selector threads) in use.
+	 */
+	@ManagedAttribute(description = "The number of selectors in use")
+	int getSelectorCount();
+
+	/**
+	 * @return the number of keys registered with each selector.
+	 */
+	@ManagedAttribute(description = "The number of keys registered with each selector")
+	int[] getSelectorKeyCounts();
+
+	/**
+	 * @return the number of times each selector returned from a select operation.
+	 */
+	@ManagedAttribute(description = "The number of times each selector woke up")
+	long[] getSelectorWakeups();
+
+	/**
+	 * @return the mean time (milliseconds) each selector spent processing
+	 * the results of a select operation.
+	 */
+	@ManagedAttribute(description = "The mean time (ms) spent by each selector processing a selection")
+	double[] getSelectorMeanLoopTimes();
+
+	/**
+	 * @return the maximum time (milliseconds) each selector spent processing
+	 * the results of a select operation.
+	 */
+	@ManagedAttribute(description = "The maximum time (ms) spent by each selector processing a selection")
+	double[] getSelectorMaxLoopTimes();
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.connection;
+
+/**
+ * Determines which read selector handles a new connection when an NIO
+ * connection factory is configured with more than one selector.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+public enum ReadSelectorAssignment {
+
+	/**
+	 * Assign connections to each selector in turn.
+	 */
+	ROUND_ROBIN,
+
+	/**
+	 * Assign a connection to the selector currently handling the fewest connections.
+	 */
+	LEAST_LOADED
+
+}
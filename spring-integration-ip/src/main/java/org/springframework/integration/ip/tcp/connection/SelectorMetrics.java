@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.connection;
+
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.Selector;
+
+/**
+ * Captures the metrics for a single selector loop. Each instance is
+ * updated by one thread only; other threads read the values.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+final class SelectorMetrics {
+
+	private volatile Selector selector;
+
+	private volatile long wakeups;
+
+	private volatile long loopNanos;
+
+	private volatile long maxLoopNanos;
+
+	void setSelector(Selector selector) {
+		this.selector = selector;
+	}
+
+	/**
+	 * Record one pass of the select loop.
+	 * @param nanos the time taken to process the selection.
+	 */
+	void record(long nanos) {
+		this.wakeups++;
+		this.loopNanos += nanos;
+		if (nanos > this.maxLoopNanos) {
+			this.maxLoopNanos = nanos;
+		}
+	}
+
+	int getKeyCount() {
+		Selector selector = this.selector;
+		if (selector == null || !selector.isOpen()) {
+			return 0;
+		}
+		try {
+			return selector.keys().size();
+		}
+		catch (ClosedSelectorException e) {
+			return 0;
+		}
+	}
+
+	long getWakeups() {
+		return this.wakeups;
+	}
+
+	double getMeanLoopTime() {
+		long wakeups = this.wakeups;
+		return wakeups == 0 ? 0 : this.loopNanos / (wakeups * 1000000.0);
+	}
+
+	double getMaxLoopTime() {
+		return this.maxLoopNanos / 1000000.0;
+	}
+
+	static int[] keyCounts(SelectorMetrics... metrics) {
+		int[] counts = new int[metrics.length];
+		for (int i = 0; i < metrics.length; i++) {
+			counts[i] = metrics[i].getKeyCount();
+		}
+		return counts;
+	}
+
+	static long[] wakeups(SelectorMetrics... metrics) {
+		long[] wakeups = new long[metrics.length];
+		for (int i = 0; i < metrics.length; i++) {
+			wakeups[i] = metrics[i].getWakeups();
+		}
+		return wakeups;
+	}
+
+	static double[] meanLoopTimes(SelectorMetrics... metrics) {
+		double[] times = new double[metrics.length];
+		for (int i = 0; i < metrics.length; i++) {
+			times[i] = metrics[i].getMeanLoopTime();
+		}
+		return times;
+	}
+
+	static double[] maxLoopTimes(SelectorMetrics... metrics) {
+		double[] times = new double[metrics.length];
+		for (int i = 0; i < metrics.length; i++) {
+			times[i] = metrics[i].getMaxLoopTime();
+		}
+		return times;
+	}
+
+}
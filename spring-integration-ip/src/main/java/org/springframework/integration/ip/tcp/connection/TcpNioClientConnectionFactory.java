@@ -25,10 +25,12 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.util.Assert;
@@ -36,16 +38,25 @@ import org.springframework.util.Assert;
 
 /**
  * A client connection factory that creates {@link TcpNioConnection}s.
+ * <p>
+ * By default, a single selector thread detects read readiness for all connections;
+ * when {@link #setReadSelectorCount(int) readSelectorCount} is greater than zero,
+ * new connections are spread across this selector and that number of additional
+ * read selectors.
  * @author Gary Russell
  * @author Artem Bilan
  * @since 2.0
  *
  */
 public class TcpNioClientConnectionFactory extends
-		AbstractClientConnectionFactory implements SchedulingAwareRunnable {
+		AbstractClientConnectionFactory implements SchedulingAwareRunnable, NioSelectorManagement {
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean usingByteBufferDeserializer;
+
+	private volatile long writeCoalescingDelay = -1;
+
 	private volatile Selector selector;
 
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new ConcurrentHashMap<SocketChannel, TcpNioConnection>();
@@ -54,6 +65,16 @@ public class TcpNioClientConnectionFactory extends
 
 	private volatile TcpNioConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioConnectionSupport();
 
+	private final SelectorMetrics selectorMetrics = new SelectorMetrics();
+
+	private final AtomicInteger readSelectorCounter = new AtomicInteger();
+
+	private volatile int readSelectorCount;
+
+	private volatile ReadSelectorAssignment readSelectorAssignment = ReadSelectorAssignment.ROUND_ROBIN;
+
+	private volatile NioReadSelector[] readSelectors;
+
 	/**
 	 * Creates a TcpNioClientConnectionFactory for connections to the host and port.
 	 * @param host the host
@@ -87,6 +108,8 @@ public class TcpNioClientConnectionFactory extends
 		TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(
 				socketChannel, false, this.isLookupHost(), this.getApplicationEventPublisher(), this.getComponentName());
 		connection.setUsingDirectBuffers(this.usingDirectBuffers);
+		connection.setUsingByteBufferDeserializer(this.usingByteBufferDeserializer);
+		connection.setWriteCoalescingDelay(this.writeCoalescingDelay);
 		connection.setTaskExecutor(this.getTaskExecutor());
 		TcpConnectionSupport wrappedConnection = wrapConnection(connection);
 		initializeConnection(wrappedConnection, socketChannel.socket());
@@ -94,12 +117,31 @@ public class TcpNioClientConnectionFactory extends
 		if (this.getSoTimeout() > 0) {
 			connection.setLastRead(System.currentTimeMillis());
 		}
-		this.channelMap.put(socketChannel, connection);
-		this.newChannels.add(socketChannel);
-		this.selector.wakeup();
+		NioReadSelector[] readSelectors = this.readSelectors;
+		int index = readSelectors == null ? 0 : chooseSelector(readSelectors);
+		if (index == 0) {
+			this.channelMap.put(socketChannel, connection);
+			this.newChannels.add(socketChannel);
+			this.selector.wakeup();
+		}
+		else {
+			readSelectors[index - 1].register(socketChannel, connection);
+		}
 		return wrappedConnection;
 	}
 
+	/**
+	 * Choose a selector for a new connection; index 0 is this factory's own selector.
+	 */
+	private int chooseSelector(NioReadSelector[] readSelectors) {
+		int[] loads = new int[readSelectors.length + 1];
+		loads[0] = this.channelMap.size();
+		for (int i = 0; i < readSelectors.length; i++) {
+			loads[i + 1] = readSelectors[i].getConnections().size();
+		}
+		return NioReadSelector.select(loads, this.readSelectorAssignment, this.readSelectorCounter);
+	}
+
 	/**
 	 * When set to true, connections created by this factory attempt
 	 * to use direct buffers where possible.
@@ -110,6 +152,59 @@ public class TcpNioClientConnectionFactory extends
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * When set to true, and the deserializer is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer},
+	 * connections created by this factory decode messages on the thread that reads
+	 * the socket, rather than using a separate message assembler thread.
+	 * @param usingByteBufferDeserializer true to decode on the reader thread.
+	 * @since 5.0
+	 * @see TcpNioConnection#setUsingByteBufferDeserializer(boolean)
+	 */
+	public void setUsingByteBufferDeserializer(boolean usingByteBufferDeserializer) {
+		this.usingByteBufferDeserializer = usingByteBufferDeserializer;
+	}
+
+	/**
+	 * Set the maximum time (milliseconds) that connections created by this factory
+	 * delay a write so that messages sent concurrently on the same connection are
+	 * written together. Default -1 (no coalescing).
+	 * @param writeCoalescingDelay the delay.
+	 * @since 5.0
+	 * @see TcpNioConnection#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * Set the number of read selectors (each with its own thread) used, in addition
+	 * to this factory's own selector, to detect read readiness on connections created by
+	 * this factory. Default 0 (the factory's selector handles all connections). When
+	 * greater than zero, each new connection is registered with one of the selectors,
+	 * chosen according to the
+	 * {@link #setReadSelectorAssignment(ReadSelectorAssignment) readSelectorAssignment}.
+	 * The task executor must be able to run this number of additional long-lived tasks.
+	 * @param readSelectorCount the number of additional read selectors.
+	 * @since 5.0
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		Assert.isTrue(readSelectorCount >= 0, "'readSelectorCount' cannot be negative");
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * Set how new connections are assigned to selectors when
+	 * {@link #setReadSelectorCount(int) readSelectorCount} is greater than zero.
+	 * Default {@link ReadSelectorAssignment#ROUND_ROBIN}.
+	 * @param readSelectorAssignment the assignment strategy.
+	 * @since 5.0
+	 */
+	public void setReadSelectorAssignment(ReadSelectorAssignment readSelectorAssignment) {
+		Assert.notNull(readSelectorAssignment, "'readSelectorAssignment' cannot be null");
+		this.readSelectorAssignment = readSelectorAssignment;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
@@ -130,6 +225,13 @@ public class TcpNioClientConnectionFactory extends
 				logger.error("Error closing selector", e);
 			}
 		}
+		NioReadSelector[] readSelectors = this.readSelectors;
+		if (readSelectors != null) {
+			for (NioReadSelector readSelector : readSelectors) {
+				readSelector.close();
+			}
+			this.readSelectors = null;
+		}
 		super.stop();
 	}
 
@@ -150,23 +252,21 @@ public class TcpNioClientConnectionFactory extends
 			logger.debug("Read selector running for connections to " + this.getHost() + ":" + this.getPort());
 		}
 		try {
+			startReadSelectors();
 			this.selector = Selector.open();
+			this.selectorMetrics.setSelector(this.selector);
 			while (this.isActive()) {
 				SocketChannel newChannel;
-				int soTimeout = this.getSoTimeout();
 				int selectionCount = 0;
 				try {
-					long timeout = soTimeout < 0 ? 0 : soTimeout;
-					if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
-						timeout = getReadDelay();
-					}
-					selectionCount = this.selector.select(timeout);
+					selectionCount = this.selector.select(getSelectTimeout());
 				}
 				catch (CancelledKeyException cke) {
 					if (logger.isDebugEnabled()) {
 						logger.debug("CancelledKeyException during Selector.select()");
 					}
 				}
+				long start = System.nanoTime();
 				while ((newChannel = this.newChannels.poll()) != null) {
 					try {
 						newChannel.register(this.selector, SelectionKey.OP_READ, this.channelMap.get(newChannel));
@@ -178,6 +278,7 @@ public class TcpNioClientConnectionFactory extends
 					}
 				}
 				this.processNioSelections(selectionCount, this.selector, null, this.channelMap);
+				this.selectorMetrics.record(System.nanoTime() - start);
 			}
 		}
 		catch (ClosedSelectorException cse) {
@@ -194,6 +295,28 @@ public class TcpNioClientConnectionFactory extends
 		}
 	}
 
+	private void startReadSelectors() throws IOException {
+		int count = this.readSelectorCount;
+		if (count > 0) {
+			NioReadSelector[] readSelectors = new NioReadSelector[count];
+			for (int i = 0; i < count; i++) {
+				readSelectors[i] = new NioReadSelector(this, this::readSelectorFailed);
+			}
+			this.readSelectors = readSelectors;
+			for (NioReadSelector readSelector : readSelectors) {
+				getTaskExecutor().execute(readSelector);
+			}
+		}
+	}
+
+	private void readSelectorFailed(NioReadSelector readSelector) {
+		synchronized (this.lifecycleMonitor) {
+			this.readSelectors = NioReadSelector.without(this.readSelectors, readSelector);
+		}
+		logger.error("A read selector failed; its connections are closed and new connections are assigned to "
+				+ "the remaining selectors");
+	}
+
 	/**
 	 * @return the usingDirectBuffers
 	 */
@@ -202,10 +325,19 @@ public class TcpNioClientConnectionFactory extends
 	}
 
 	/**
-	 * @return the connections
+	 * @return the connections; when additional read selectors are in use, a snapshot
+	 * of the connections registered with all the selectors.
 	 */
 	protected Map<SocketChannel, TcpNioConnection> getConnections() {
-		return this.channelMap;
+		NioReadSelector[] readSelectors = this.readSelectors;
+		if (readSelectors == null) {
+			return this.channelMap;
+		}
+		Map<SocketChannel, TcpNioConnection> connections = new HashMap<SocketChannel, TcpNioConnection>(this.channelMap);
+		for (NioReadSelector readSelector : readSelectors) {
+			connections.putAll(readSelector.getConnections());
+		}
+		return connections;
 	}
 
 	/**
@@ -215,4 +347,40 @@ public class TcpNioClientConnectionFactory extends
 		return this.newChannels;
 	}
 
+	@Override
+	public int getSelectorCount() {
+		return getAllSelectorMetrics().length;
+	}
+
+	@Override
+	public int[] getSelectorKeyCounts() {
+		return SelectorMetrics.keyCounts(getAllSelectorMetrics());
+	}
+
+	@Override
+	public long[] getSelectorWakeups() {
+		return SelectorMetrics.wakeups(getAllSelectorMetrics());
+	}
+
+	@Override
+	public double[] getSelectorMeanLoopTimes() {
+		return SelectorMetrics.meanLoopTimes(getAllSelectorMetrics());
+	}
+
+	@Override
+	public double[] getSelectorMaxLoopTimes() {
+		return SelectorMetrics.maxLoopTimes(getAllSelectorMetrics());
+	}
+
+	private SelectorMetrics[] getAllSelectorMetrics() {
+		NioReadSelector[] readSelectors = this.readSelectors;
+		int count = readSelectors == null ? 0 : readSelectors.length;
+		SelectorMetrics[] metrics = new SelectorMetrics[count + 1];
+		metrics[0] = this.selectorMetrics;
+		for (int i = 0; i < count; i++) {
+			metrics[i + 1] = readSelectors[i].getMetrics();
+		}
+		return metrics;
+	}
+
 }
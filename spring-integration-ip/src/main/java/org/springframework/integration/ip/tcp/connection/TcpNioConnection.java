@@ -16,7 +16,6 @@
 
 package org.springframework.integration.ip.tcp.connection;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -26,6 +25,9 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -39,7 +41,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.SSLSession;
 
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
+import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer;
 import org.springframework.integration.ip.tcp.serializer.SoftEndOfStreamException;
 import org.springframework.integration.util.CompositeExecutor;
 import org.springframework.messaging.Message;
@@ -64,7 +69,15 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private final ChannelInputStream channelInputStream = new ChannelInputStream();
 
-	private volatile OutputStream bufferedOutputStream;
+	private volatile GatheringOutputStream gatheringOutputStream;
+
+	private volatile long writeCoalescingDelay = -1;
+
+	private final Object coalescingMonitor = new Object();
+
+	private WriteBatch currentBatch;
+
+	private GatheringOutputStream spareOutputStream;
 
 	private volatile boolean usingDirectBuffers;
 
@@ -88,6 +101,16 @@ public class TcpNioConnection extends TcpConnectionSupport {
 
 	private volatile boolean timedOut;
 
+	private volatile boolean usingByteBufferDeserializer;
+
+	private volatile ByteBufferDeserializer<?> bufferDeserializer;
+
+	private volatile ByteBuffer framingBuffer;
+
+	private int scanned;
+
+	private volatile Object framedPayload;
+
 	/**
 	 * Constructs a TcpNetConnection for the SocketChannel.
 	 * @param socketChannel The socketChannel.
@@ -140,19 +163,22 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	@Override
 	@SuppressWarnings("unchecked")
 	public void send(Message<?> message) throws Exception {
+		if (this.writeCoalescingDelay >= 0) {
+			sendCoalesced(message);
+			return;
+		}
 		synchronized (this.socketChannel) {
-			if (this.bufferedOutputStream == null) {
-				int writeBufferSize = this.socketChannel.socket().getSendBufferSize();
-				this.bufferedOutputStream = new BufferedOutputStream(this.getChannelOutputStream(),
-						writeBufferSize > 0 ? writeBufferSize : 8192);
+			if (this.gatheringOutputStream == null) {
+				this.gatheringOutputStream = new GatheringOutputStream(getWriteBufferSize(), wrapsArrays());
 			}
 			Object object = this.getMapper().fromMessage(message);
 			this.lastSend = System.currentTimeMillis();
 			try {
-				((Serializer<Object>) this.getSerializer()).serialize(object, this.bufferedOutputStream);
-				this.bufferedOutputStream.flush();
+				((Serializer<Object>) this.getSerializer()).serialize(object, this.gatheringOutputStream);
+				this.gatheringOutputStream.writeGathered();
 			}
 			catch (Exception e) {
+				this.gatheringOutputStream.discard();
 				this.publishConnectionExceptionEvent(new MessagingException(message, "Failed TCP serialization", e));
 				this.closeConnection(true);
 				throw e;
@@ -163,8 +189,129 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	/**
+	 * Serialize the message into the current batch, starting a new batch if there is
+	 * none. The sender that starts a batch waits for the coalescing delay (or until
+	 * the batch reaches the send buffer size) and then writes the whole batch;
+	 * other senders wait for that write to complete.
+	 * @param message the message.
+	 * @throws Exception Any Exception.
+	 */
+	@SuppressWarnings("unchecked")
+	private void sendCoalesced(Message<?> message) throws Exception {
+		Object object = this.getMapper().fromMessage(message);
+		WriteBatch batch;
+		boolean leader = false;
+		Exception serializationException = null;
+		synchronized (this.coalescingMonitor) {
+			batch = this.currentBatch;
+			if (batch == null) {
+				GatheringOutputStream outputStream = this.spareOutputStream;
+				this.spareOutputStream = null;
+				if (outputStream == null) {
+					outputStream = new GatheringOutputStream(getWriteBufferSize(), wrapsArrays());
+				}
+				batch = new WriteBatch(outputStream);
+				this.currentBatch = batch;
+				leader = true;
+			}
+			this.lastSend = System.currentTimeMillis();
+			batch.outputStream.mark();
+			try {
+				((Serializer<Object>) this.getSerializer()).serialize(object, batch.outputStream);
+				batch.messages++;
+			}
+			catch (Exception e) {
+				batch.outputStream.resetToMark();
+				serializationException = e;
+			}
+			if (batch.outputStream.size() >= batch.outputStream.getBufferSize()) {
+				this.coalescingMonitor.notifyAll();
+			}
+		}
+		if (leader) {
+			writeBatch(batch);
+		}
+		if (serializationException != null) {
+			this.publishConnectionExceptionEvent(
+					new MessagingException(message, "Failed TCP serialization", serializationException));
+			throw serializationException;
+		}
+		if (!leader) {
+			try {
+				batch.latch.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted waiting for write");
+			}
+		}
+		if (batch.exception != null) {
+			throw batch.exception;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(getConnectionId() + " Message sent " + message);
+		}
+	}
+
+	private void writeBatch(WriteBatch batch) {
+		synchronized (this.coalescingMonitor) {
+			long delay = this.writeCoalescingDelay;
+			long deadline = System.currentTimeMillis() + delay;
+			while (delay > 0 && batch.outputStream.size() < batch.outputStream.getBufferSize()) {
+				try {
+					this.coalescingMonitor.wait(delay);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				delay = deadline - System.currentTimeMillis();
+			}
+		}
+		synchronized (this.socketChannel) {
+			synchronized (this.coalescingMonitor) {
+				// messages sent from now on start a new batch, which is written after this one
+				this.currentBatch = null;
+			}
+			try {
+				batch.outputStream.writeGathered();
+				if (logger.isTraceEnabled()) {
+					logger.trace(getConnectionId() + " Wrote " + batch.messages + " coalesced message(s)");
+				}
+			}
+			catch (Exception e) {
+				batch.outputStream.discard();
+				batch.exception = e;
+				this.publishConnectionExceptionEvent(e);
+				this.closeConnection(true);
+			}
+			finally {
+				batch.latch.countDown();
+			}
+		}
+		synchronized (this.coalescingMonitor) {
+			this.spareOutputStream = batch.outputStream;
+		}
+	}
+
+	private boolean wrapsArrays() {
+		return getSerializer() instanceof AbstractByteArraySerializer;
+	}
+
+	private int getWriteBufferSize() throws IOException {
+		int writeBufferSize = this.socketChannel.socket().getSendBufferSize();
+		return writeBufferSize > 0 ? writeBufferSize : 8192;
+	}
+
 	@Override
 	public Object getPayload() throws Exception {
+		if (this.bufferDeserializer != null) {
+			// the payload has already been decoded from the read buffer
+			Object payload = this.framedPayload;
+			this.framedPayload = null;
+			return payload;
+		}
 		return this.getDeserializer().deserialize(this.channelInputStream);
 	}
 
@@ -245,24 +392,7 @@ public class TcpNioConnection extends TcpConnectionSupport {
 					}
 				}
 				catch (Exception e) {
-					if (logger.isTraceEnabled()) {
-						logger.error("Read exception " +
-								 this.getConnectionId(), e);
-					}
-					else if (!this.isNoReadErrorOnClose()) {
-						logger.error("Read exception " +
-									 this.getConnectionId() + " " +
-									 e.getClass().getSimpleName() +
-								     ":" + e.getCause() + ":" + e.getMessage());
-					}
-					else {
-						if (logger.isDebugEnabled()) {
-							logger.debug("Read exception " +
-										 this.getConnectionId() + " " +
-										 e.getClass().getSimpleName() +
-									     ":" + e.getCause() + ":" + e.getMessage());
-						}
-					}
+					logReadException(e);
 					this.closeConnection(true);
 					this.sendExceptionToListener(e);
 					return;
@@ -389,6 +519,21 @@ public class TcpNioConnection extends TcpConnectionSupport {
 	private void doRead() throws Exception {
 		if (this.rawBuffer == null) {
 			this.rawBuffer = allocate(this.maxMessageSize);
+			if (this.usingByteBufferDeserializer) {
+				Deserializer<?> deserializer = getDeserializer();
+				if (deserializer instanceof ByteBufferDeserializer
+						&& ((ByteBufferDeserializer<?>) deserializer).supportsByteBuffer()) {
+					this.bufferDeserializer = (ByteBufferDeserializer<?>) deserializer;
+				}
+				else if (logger.isWarnEnabled()) {
+					logger.warn(getConnectionId() + " " + deserializer.getClass().getName()
+							+ " does not support ByteBuffer deserialization; using a message assembler");
+				}
+			}
+		}
+		if (this.bufferDeserializer != null) {
+			doReadAndDecode();
+			return;
 		}
 
 		this.writingLatch = new CountDownLatch(1);
@@ -434,13 +579,158 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 	}
 
+	/**
+	 * Read from the socket and decode any complete messages on this (the reader)
+	 * thread, sending them to the listener in the order they were received; used
+	 * when the deserializer is a {@link ByteBufferDeserializer}. Incomplete data
+	 * remains in the buffer until the next read.
+	 * @throws Exception Any Exception.
+	 */
+	private void doReadAndDecode() throws Exception {
+		try {
+			int len = this.socketChannel.read(this.rawBuffer);
+			if (len < 0) {
+				boolean partial = this.rawBuffer.position() > 0
+						|| (this.framingBuffer != null && this.framingBuffer.position() > 0);
+				this.closeConnection(true);
+				if (partial) {
+					IOException e = new IOException("Socket closed during message assembly");
+					logReadException(e);
+					this.sendExceptionToListener(e);
+				}
+				return;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read " + len + " into raw buffer");
+			}
+			this.rawBuffer.flip();
+			this.sendToPipe(this.rawBuffer);
+		}
+		catch (ClosedChannelException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			this.publishConnectionExceptionEvent(e);
+			logReadException(e);
+			this.closeConnection(true);
+			this.sendExceptionToListener(e);
+		}
+	}
+
 	protected void sendToPipe(ByteBuffer rawBuffer) throws IOException {
 		Assert.notNull(rawBuffer, "rawBuffer cannot be null");
 		if (logger.isTraceEnabled()) {
 			logger.trace(this.getConnectionId() + " Sending " + rawBuffer.limit() + " to pipe");
 		}
-		this.channelInputStream.write(rawBuffer.array(), rawBuffer.limit());
-		rawBuffer.clear();
+		if (this.bufferDeserializer != null) {
+			decode(rawBuffer);
+		}
+		else {
+			this.channelInputStream.write(rawBuffer.array(), rawBuffer.limit());
+			rawBuffer.clear();
+		}
+	}
+
+	/**
+	 * Decode and send all complete messages in the data. Data read directly into the
+	 * raw buffer is decoded in place; other data (e.g. decrypted by a subclass)
+	 * is first appended to a separate framing buffer.
+	 * @param data the data, in read mode.
+	 * @throws IOException Any IOException.
+	 */
+	private void decode(ByteBuffer data) throws IOException {
+		ByteBuffer buffer = data;
+		if (data != this.rawBuffer) {
+			buffer = this.framingBuffer;
+			if (buffer == null) {
+				buffer = allocate(Math.max(this.maxMessageSize, data.remaining()));
+			}
+			else if (buffer.remaining() < data.remaining()) {
+				buffer = grow(buffer, buffer.position() + data.remaining());
+			}
+			buffer.put(data);
+			data.clear();
+			buffer.flip();
+		}
+		try {
+			while (buffer.hasRemaining()) {
+				Object payload = this.bufferDeserializer.deserialize(buffer, this.scanned);
+				if (payload == null) {
+					// resume the search after the data already examined when more arrives
+					this.scanned = buffer.remaining();
+					break;
+				}
+				this.scanned = 0;
+				this.framedPayload = payload;
+				Message<?> message;
+				try {
+					message = this.getMapper().toMessage(this);
+				}
+				catch (IOException e) {
+					throw e;
+				}
+				catch (RuntimeException e) {
+					throw e;
+				}
+				catch (Exception e) {
+					throw new IOException("Failed to map payload", e);
+				}
+				finally {
+					this.framedPayload = null;
+				}
+				sendToChannel(message);
+			}
+		}
+		finally {
+			buffer.compact();
+		}
+		if (!buffer.hasRemaining()) {
+			// full, without a complete message; the deserializer enforces the max message size
+			buffer = grow(buffer, buffer.capacity() * 2);
+		}
+		if (data == this.rawBuffer) {
+			this.rawBuffer = buffer;
+		}
+		else {
+			this.framingBuffer = buffer;
+		}
+	}
+
+	/**
+	 * Allocate a larger buffer, copying the data from the current one.
+	 * @param buffer the current buffer, in write mode.
+	 * @param capacity the new capacity.
+	 * @return the new buffer, in write mode.
+	 */
+	private ByteBuffer grow(ByteBuffer buffer, int capacity) {
+		ByteBuffer newBuffer = allocate(capacity);
+		buffer.flip();
+		newBuffer.put(buffer);
+		if (logger.isDebugEnabled()) {
+			logger.debug(getConnectionId() + " Increased read buffer size to " + capacity);
+		}
+		return newBuffer;
+	}
+
+	private void logReadException(Exception e) {
+		if (logger.isTraceEnabled()) {
+			logger.error("Read exception " +
+					 this.getConnectionId(), e);
+		}
+		else if (!this.isNoReadErrorOnClose()) {
+			logger.error("Read exception " +
+						 this.getConnectionId() + " " +
+						 e.getClass().getSimpleName() +
+					     ":" + e.getCause() + ":" + e.getMessage());
+		}
+		else {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Read exception " +
+							 this.getConnectionId() + " " +
+							 e.getClass().getSimpleName() +
+						     ":" + e.getCause() + ":" + e.getMessage());
+			}
+		}
 	}
 
 	private void checkForAssembler() {
@@ -530,6 +820,34 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		return this.usingDirectBuffers;
 	}
 
+	/**
+	 * Set the maximum time (milliseconds) to delay a write so that messages sent
+	 * concurrently on this connection can be coalesced and written to the socket
+	 * together, with gathering writes. The sender that starts a batch waits up to this delay,
+	 * or until the batch reaches the socket's send buffer size, before writing it; other
+	 * senders add their messages to the batch and wait for it to be written. With a
+	 * delay of zero, only messages sent while a previous batch is being written are
+	 * coalesced. Default -1 - messages are written as they are sent.
+	 * @param writeCoalescingDelay the delay.
+	 * @since 5.0
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * If true, and the deserializer is a {@link ByteBufferDeserializer}, messages are
+	 * decoded directly from the buffer the socket is read into, on the thread that
+	 * performs the read, instead of being assembled from a stream by a separate
+	 * assembler thread. Messages are delivered in the order they are received and
+	 * reading from the socket is suspended while they are delivered.
+	 * @param usingByteBufferDeserializer true to decode messages on the reader thread.
+	 * @since 5.0
+	 */
+	public void setUsingByteBufferDeserializer(boolean usingByteBufferDeserializer) {
+		this.usingByteBufferDeserializer = usingByteBufferDeserializer;
+	}
+
 	protected ChannelOutputStream getChannelOutputStream() {
 		return this.channelOutputStream;
 	}
@@ -557,6 +875,172 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		return this.lastSend;
 	}
 
+	/**
+	 * Collects the data written by a serializer so that it can be written to the channel
+	 * with gathering writes, without first assembling it in one contiguous array.
+	 * {@link #flush()} is a no-op and the data is only written by {@link #writeGathered()}.
+	 * <p>
+	 * Small writes are copied into a buffer of the socket's send buffer size. Larger
+	 * writes are added as their own segment: wrapped, without copying, when the
+	 * serializer is an {@link AbstractByteArraySerializer} (which writes the caller's
+	 * payload and does not modify its arrays after writing them), copied otherwise,
+	 * because an arbitrary serializer may reuse its array as soon as a write returns.
+	 * The buffer never grows, so a large message does not leave a large buffer behind.
+	 */
+	class GatheringOutputStream extends OutputStream {
+
+		private static final int WRAP_THRESHOLD = 1024;
+
+		private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+
+		private final int bufferSize;
+
+		private final boolean wrapArrays;
+
+		private byte[] buffer;
+
+		private int segmentStart;
+
+		private int position;
+
+		private int size;
+
+		private int markCount;
+
+		private byte[] markBuffer;
+
+		private int markSegmentStart;
+
+		private int markPosition;
+
+		private int markSize;
+
+		GatheringOutputStream(int bufferSize, boolean wrapArrays) {
+			this.bufferSize = bufferSize;
+			this.wrapArrays = wrapArrays;
+			this.buffer = new byte[bufferSize];
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			ensureCapacity(1);
+			this.buffer[this.position++] = (byte) b;
+			this.size++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len > this.bufferSize || (this.wrapArrays && len >= WRAP_THRESHOLD)) {
+				endSegment();
+				if (this.wrapArrays) {
+					this.buffers.add(ByteBuffer.wrap(b, off, len));
+				}
+				else {
+					this.buffers.add(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+				}
+			}
+			else {
+				ensureCapacity(len);
+				System.arraycopy(b, off, this.buffer, this.position, len);
+				this.position += len;
+			}
+			this.size += len;
+		}
+
+		int size() {
+			return this.size;
+		}
+
+		int getBufferSize() {
+			return this.bufferSize;
+		}
+
+		/**
+		 * Mark the current end of the data, so that data written after this point can be
+		 * discarded with {@link #resetToMark()}.
+		 */
+		void mark() {
+			this.markCount = this.buffers.size();
+			this.markBuffer = this.buffer;
+			this.markSegmentStart = this.segmentStart;
+			this.markPosition = this.position;
+			this.markSize = this.size;
+		}
+
+		void resetToMark() {
+			while (this.buffers.size() > this.markCount) {
+				this.buffers.remove(this.buffers.size() - 1);
+			}
+			this.buffer = this.markBuffer;
+			this.segmentStart = this.markSegmentStart;
+			this.position = this.markPosition;
+			this.size = this.markSize;
+		}
+
+		/**
+		 * Write all the data to the channel; the segments are passed together to
+		 * {@link ChannelOutputStream#doWrite(ByteBuffer[])}.
+		 * @throws IOException Any IOException.
+		 */
+		void writeGathered() throws IOException {
+			endSegment();
+			if (this.buffers.isEmpty()) {
+				return;
+			}
+			try {
+				getChannelOutputStream().doWrite(this.buffers.toArray(new ByteBuffer[this.buffers.size()]));
+			}
+			finally {
+				discard();
+			}
+		}
+
+		void discard() {
+			this.buffers.clear();
+			this.segmentStart = 0;
+			this.position = 0;
+			this.size = 0;
+			mark();
+		}
+
+		private void ensureCapacity(int length) {
+			if (this.buffer.length - this.position < length) {
+				endSegment();
+				// earlier segments still reference the current buffer
+				this.buffer = new byte[this.bufferSize];
+				this.segmentStart = 0;
+				this.position = 0;
+			}
+		}
+
+		private void endSegment() {
+			if (this.position > this.segmentStart) {
+				this.buffers.add(ByteBuffer.wrap(this.buffer, this.segmentStart, this.position - this.segmentStart));
+				this.segmentStart = this.position;
+			}
+		}
+
+	}
+
+	/**
+	 * Messages to be written together when write coalescing is enabled.
+	 */
+	private static final class WriteBatch {
+
+		private final GatheringOutputStream outputStream;
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		private volatile Exception exception;
+
+		private int messages;
+
+		WriteBatch(GatheringOutputStream outputStream) {
+			this.outputStream = outputStream;
+		}
+
+	}
+
 	/**
 	 * OutputStream to wrap a SocketChannel; implements timeout on write.
 	 *
@@ -597,11 +1081,24 @@ public class TcpNioConnection extends TcpConnectionSupport {
 		}
 
 		protected synchronized void doWrite(ByteBuffer buffer) throws IOException {
+			doWrite(new ByteBuffer[] { buffer });
+		}
+
+		/**
+		 * Write the buffers to the channel using gathering writes, waiting for the channel
+		 * to become writable (up to the socket timeout) if necessary.
+		 * @param buffers the buffers.
+		 * @throws IOException Any IOException.
+		 */
+		protected synchronized void doWrite(ByteBuffer[] buffers) throws IOException {
+			long remaining = 0;
+			for (ByteBuffer buffer : buffers) {
+				remaining += buffer.remaining();
+			}
 			if (logger.isDebugEnabled()) {
-				logger.debug(getConnectionId() + " writing " + buffer.remaining());
+				logger.debug(getConnectionId() + " writing " + remaining);
 			}
-			TcpNioConnection.this.socketChannel.write(buffer);
-			int remaining = buffer.remaining();
+			remaining -= TcpNioConnection.this.socketChannel.write(buffers);
 			if (remaining == 0) {
 				return;
 			}
@@ -616,8 +1113,7 @@ public class TcpNioConnection extends TcpConnectionSupport {
 					throw new SocketTimeoutException("Timeout on write");
 				}
 				this.selector.selectedKeys().clear();
-				TcpNioConnection.this.socketChannel.write(buffer);
-				remaining = buffer.remaining();
+				remaining -= TcpNioConnection.this.socketChannel.write(buffers);
 			}
 		}
 
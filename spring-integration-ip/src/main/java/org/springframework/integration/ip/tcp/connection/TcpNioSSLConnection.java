@@ -323,6 +323,13 @@ public class TcpNioSSLConnection extends TcpNioConnection {
 			}
 		}
 
+		@Override
+		protected synchronized void doWrite(ByteBuffer[] plainText) throws IOException {
+			for (ByteBuffer buffer : plainText) {
+				doWrite(buffer);
+			}
+		}
+
 		/**
 		 * Handles SSL handshaking; when network data is needed from the peer, suspends
 		 * until that data is received.
@@ -29,29 +29,48 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.util.Assert;
 
-/**
 /**
  * Implements a server connection factory that produces {@link TcpNioConnection}s using
  * a {@link ServerSocketChannel}. Must have a {@link TcpListener} registered.
+ * <p>
+ * By default, a single selector both accepts new connections and detects read
+ * readiness; when {@link #setReadSelectorCount(int) readSelectorCount} is greater than
+ * zero, accepted connections are handed to that number of dedicated read selectors.
  *
  * @author Gary Russell
  * @author Artem Bilan
  * @since 2.0
  *
  */
-public class TcpNioServerConnectionFactory extends AbstractServerConnectionFactory {
+public class TcpNioServerConnectionFactory extends AbstractServerConnectionFactory
+		implements NioSelectorManagement {
 
 	private volatile ServerSocketChannel serverChannel;
 
 	private volatile boolean usingDirectBuffers;
 
+	private volatile boolean usingByteBufferDeserializer;
+
+	private volatile long writeCoalescingDelay = -1;
+
 	private final Map<SocketChannel, TcpNioConnection> channelMap = new HashMap<SocketChannel, TcpNioConnection>();
 
 	private volatile Selector selector;
 
+	private final SelectorMetrics selectorMetrics = new SelectorMetrics();
+
+	private final AtomicInteger readSelectorCounter = new AtomicInteger();
+
+	private volatile int readSelectorCount;
+
+	private volatile ReadSelectorAssignment readSelectorAssignment = ReadSelectorAssignment.ROUND_ROBIN;
+
+	private volatile NioReadSelector[] readSelectors;
+
 	private volatile TcpNioConnectionSupport tcpNioConnectionSupport = new DefaultTcpNioConnectionSupport();
 
 	/**
@@ -131,10 +150,12 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				}
 			}
 			else {
+				startReadSelectors();
 				this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 				setListening(true);
 				publishServerListeningEvent(getPort());
 				this.selector = selector;
+				this.selectorMetrics.setSelector(selector);
 				doSelect(this.serverChannel, selector);
 			}
 		}
@@ -150,11 +171,33 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	private void startReadSelectors() throws IOException {
+		int count = this.readSelectorCount;
+		if (count > 0) {
+			NioReadSelector[] readSelectors = new NioReadSelector[count];
+			for (int i = 0; i < count; i++) {
+				readSelectors[i] = new NioReadSelector(this, this::readSelectorFailed);
+			}
+			this.readSelectors = readSelectors;
+			for (NioReadSelector readSelector : readSelectors) {
+				getTaskExecutor().execute(readSelector);
+			}
+		}
+	}
+
+	private void readSelectorFailed(NioReadSelector readSelector) {
+		synchronized (this.lifecycleMonitor) {
+			this.readSelectors = NioReadSelector.without(this.readSelectors, readSelector);
+		}
+		logger.error("A read selector failed; its connections are closed and new connections are assigned to "
+				+ "the remaining selectors");
+	}
+
 	/**
 	 * Listens for incoming connections and for notifications that a connected
 	 * socket is ready for reading.
 	 * Accepts incoming connections, registers the new socket with the
-	 * selector for reading.
+	 * selector for reading (or hands it to a read selector, if configured).
 	 * When a socket is ready for reading, unregisters the read interest and
 	 * schedules a call to doRead which reads all available data. When the read
 	 * is complete, the socket is again registered for read interest.
@@ -164,18 +207,16 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	 */
 	private void doSelect(ServerSocketChannel server, final Selector selector) throws IOException {
 		while (isActive()) {
-			int soTimeout = getSoTimeout();
 			int selectionCount = 0;
 			try {
-				long timeout = soTimeout < 0 ? 0 : soTimeout;
-				if (getDelayedReads().size() > 0 && (timeout == 0 || getReadDelay() < timeout)) {
-					timeout = getReadDelay();
-				}
+				long timeout = getSelectTimeout();
 				if (logger.isTraceEnabled()) {
 					logger.trace("Delayed reads:" + getDelayedReads().size() + " timeout " + timeout);
 				}
 				selectionCount = selector.select(timeout);
+				long start = System.nanoTime();
 				processNioSelections(selectionCount, selector, server, this.channelMap);
+				this.selectorMetrics.record(System.nanoTime() - start);
 			}
 			catch (CancelledKeyException cke) {
 				if (logger.isDebugEnabled()) {
@@ -220,8 +261,14 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				}
 				connection.setTaskExecutor(getTaskExecutor());
 				connection.setLastRead(now);
-				this.channelMap.put(channel, connection);
-				channel.register(selector, SelectionKey.OP_READ, connection);
+				NioReadSelector[] readSelectors = this.readSelectors;
+				if (readSelectors != null) {
+					chooseReadSelector(readSelectors).register(channel, connection);
+				}
+				else {
+					this.channelMap.put(channel, connection);
+					channel.register(selector, SelectionKey.OP_READ, connection);
+				}
 				connection.publishConnectionOpenEvent();
 			}
 			catch (Exception e) {
@@ -231,11 +278,21 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		}
 	}
 
+	private NioReadSelector chooseReadSelector(NioReadSelector[] readSelectors) {
+		int[] loads = new int[readSelectors.length];
+		for (int i = 0; i < readSelectors.length; i++) {
+			loads[i] = readSelectors[i].getConnections().size();
+		}
+		return readSelectors[NioReadSelector.select(loads, this.readSelectorAssignment, this.readSelectorCounter)];
+	}
+
 	private TcpNioConnection createTcpNioConnection(SocketChannel socketChannel) {
 		try {
 			TcpNioConnection connection = this.tcpNioConnectionSupport.createNewConnection(socketChannel, true,
 							isLookupHost(), getApplicationEventPublisher(), getComponentName());
 			connection.setUsingDirectBuffers(this.usingDirectBuffers);
+			connection.setUsingByteBufferDeserializer(this.usingByteBufferDeserializer);
+			connection.setWriteCoalescingDelay(this.writeCoalescingDelay);
 			TcpConnectionSupport wrappedConnection = wrapConnection(connection);
 			initializeConnection(wrappedConnection, socketChannel.socket());
 			return connection;
@@ -257,6 +314,13 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 				logger.error("Error closing selector", e);
 			}
 		}
+		NioReadSelector[] readSelectors = this.readSelectors;
+		if (readSelectors != null) {
+			for (NioReadSelector readSelector : readSelectors) {
+				readSelector.close();
+			}
+			this.readSelectors = null;
+		}
 		if (this.serverChannel != null) {
 			try {
 				this.serverChannel.close();
@@ -275,6 +339,59 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 		this.usingDirectBuffers = usingDirectBuffers;
 	}
 
+	/**
+	 * When set to true, and the deserializer is a
+	 * {@link org.springframework.integration.ip.tcp.serializer.ByteBufferDeserializer},
+	 * connections created by this factory decode messages on the thread that reads
+	 * the socket, rather than using a separate message assembler thread.
+	 * @param usingByteBufferDeserializer true to decode on the reader thread.
+	 * @since 5.0
+	 * @see TcpNioConnection#setUsingByteBufferDeserializer(boolean)
+	 */
+	public void setUsingByteBufferDeserializer(boolean usingByteBufferDeserializer) {
+		this.usingByteBufferDeserializer = usingByteBufferDeserializer;
+	}
+
+	/**
+	 * Set the maximum time (milliseconds) that connections created by this factory
+	 * delay a write so that messages sent concurrently on the same connection are
+	 * written together. Default -1 (no coalescing).
+	 * @param writeCoalescingDelay the delay.
+	 * @since 5.0
+	 * @see TcpNioConnection#setWriteCoalescingDelay(long)
+	 */
+	public void setWriteCoalescingDelay(long writeCoalescingDelay) {
+		this.writeCoalescingDelay = writeCoalescingDelay;
+	}
+
+	/**
+	 * Set the number of read selectors (each with its own thread) used, in addition to
+	 * the selector that accepts connections, to detect read readiness on accepted
+	 * connections. Default 0, meaning the selector that accepts
+	 * connections also handles reads. When greater than zero, the accepting selector
+	 * hands each new connection to one of the read selectors, chosen according to the
+	 * {@link #setReadSelectorAssignment(ReadSelectorAssignment) readSelectorAssignment}.
+	 * The task executor must be able to run this number of additional long-lived tasks.
+	 * @param readSelectorCount the number of read selectors.
+	 * @since 5.0
+	 */
+	public void setReadSelectorCount(int readSelectorCount) {
+		Assert.isTrue(readSelectorCount >= 0, "'readSelectorCount' cannot be negative");
+		this.readSelectorCount = readSelectorCount;
+	}
+
+	/**
+	 * Set how new connections are assigned to read selectors when
+	 * {@link #setReadSelectorCount(int) readSelectorCount} is greater than zero.
+	 * Default {@link ReadSelectorAssignment#ROUND_ROBIN}.
+	 * @param readSelectorAssignment the assignment strategy.
+	 * @since 5.0
+	 */
+	public void setReadSelectorAssignment(ReadSelectorAssignment readSelectorAssignment) {
+		Assert.notNull(readSelectorAssignment, "'readSelectorAssignment' cannot be null");
+		this.readSelectorAssignment = readSelectorAssignment;
+	}
+
 	public void setTcpNioConnectionSupport(TcpNioConnectionSupport tcpNioSupport) {
 		Assert.notNull(tcpNioSupport, "TcpNioSupport must not be null");
 		this.tcpNioConnectionSupport = tcpNioSupport;
@@ -295,10 +412,55 @@ public class TcpNioServerConnectionFactory extends AbstractServerConnectionFacto
 	}
 
 	/**
-	 * @return the connections
+	 * @return the connections; when read selectors are in use, a snapshot of
+	 * the connections registered with all the selectors.
 	 */
 	protected Map<SocketChannel, TcpNioConnection> getConnections() {
-		return this.channelMap;
+		NioReadSelector[] readSelectors = this.readSelectors;
+		if (readSelectors == null) {
+			return this.channelMap;
+		}
+		Map<SocketChannel, TcpNioConnection> connections = new HashMap<SocketChannel, TcpNioConnection>();
+		for (NioReadSelector readSelector : readSelectors) {
+			connections.putAll(readSelector.getConnections());
+		}
+		return connections;
+	}
+
+	@Override
+	public int getSelectorCount() {
+		return getAllSelectorMetrics().length;
+	}
+
+	@Override
+	public int[] getSelectorKeyCounts() {
+		return SelectorMetrics.keyCounts(getAllSelectorMetrics());
+	}
+
+	@Override
+	public long[] getSelectorWakeups() {
+		return SelectorMetrics.wakeups(getAllSelectorMetrics());
+	}
+
+	@Override
+	public double[] getSelectorMeanLoopTimes() {
+		return SelectorMetrics.meanLoopTimes(getAllSelectorMetrics());
+	}
+
+	@Override
+	public double[] getSelectorMaxLoopTimes() {
+		return SelectorMetrics.maxLoopTimes(getAllSelectorMetrics());
+	}
+
+	private SelectorMetrics[] getAllSelectorMetrics() {
+		NioReadSelector[] readSelectors = this.readSelectors;
+		int count = readSelectors == null ? 0 : readSelectors.length;
+		SelectorMetrics[] metrics = new SelectorMetrics[count + 1];
+		metrics[0] = this.selectorMetrics;
+		for (int i = 0; i < count; i++) {
+			metrics[i + 1] = readSelectors[i].getMetrics();
+		}
+		return metrics;
 	}
 
 }
@@ -17,6 +17,9 @@
 package org.springframework.integration.ip.tcp.serializer;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,6 +32,12 @@ import org.springframework.core.serializer.Serializer;
 /**
  * Base class for (de)serializers that provide a mechanism to
  * reconstruct a byte array from an arbitrary stream.
+ * Also provides support for subclasses that implement {@link ByteBufferDeserializer};
+ * see {@link #supportsByteBuffer()}.
+ * <p>
+ * Subclasses must not modify an array after writing it to the stream in
+ * {@code serialize()}; NIO connections may write large arrays to the socket after
+ * {@code serialize()} returns, without copying them.
  *
  * @author Gary Russell
  * @since 2.0
@@ -45,6 +54,8 @@ public abstract class AbstractByteArraySerializer implements
 
 	private ApplicationEventPublisher applicationEventPublisher;
 
+	private final boolean byteBufferSupported = byteBufferSupported(getClass());
+
 	/**
 	 * The maximum supported message size for this serializer.
 	 * Default 2048.
@@ -68,6 +79,24 @@ public abstract class AbstractByteArraySerializer implements
 		this.applicationEventPublisher = applicationEventPublisher;
 	}
 
+	/**
+	 * Return true if this instance implements {@link ByteBufferDeserializer} and can
+	 * decode messages from a {@link ByteBuffer}. Returns false when a subclass
+	 * customizes the stream-based decoding (any method taking an {@link InputStream},
+	 * such as {@code deserialize(InputStream)}, {@code doDeserialize()} or
+	 * {@code readHeader()}) below the class that implements
+	 * {@link ByteBufferDeserializer#deserialize(ByteBuffer)}, since the buffer would
+	 * then be decoded differently from the stream; callers use the stream instead.
+	 * Such subclasses can also override {@code deserialize(ByteBuffer)} to restore
+	 * support.
+	 * @return true if decoding from a {@link ByteBuffer} is supported.
+	 * @since 5.0
+	 * @see ByteBufferDeserializer#supportsByteBuffer()
+	 */
+	public boolean supportsByteBuffer() {
+		return this.byteBufferSupported;
+	}
+
 	protected void checkClosure(int bite) throws IOException {
 		if (bite < 0) {
 			this.logger.debug("Socket closed during message assembly");
@@ -85,4 +114,95 @@ public abstract class AbstractByteArraySerializer implements
 		}
 	}
 
+	/**
+	 * Publish a {@link TcpDeserializationExceptionEvent} containing (up to
+	 * {@link #getMaxMessageSize()} bytes of) the remaining data in the buffer;
+	 * the buffer itself is not modified.
+	 * @param cause the cause.
+	 * @param buffer the buffer.
+	 * @since 5.0
+	 */
+	protected void publishEvent(Exception cause, ByteBuffer buffer) {
+		ByteBuffer data = buffer.duplicate();
+		byte[] bytes = new byte[Math.min(data.remaining(), this.maxMessageSize)];
+		data.get(bytes);
+		publishEvent(cause, bytes, bytes.length);
+	}
+
+	/**
+	 * Return the absolute index of the first occurrence of a byte in the buffer,
+	 * searching from the given absolute index up to the buffer's limit. When the
+	 * buffer is backed by an array, the array is scanned directly.
+	 * @param buffer the buffer.
+	 * @param from the index at which to start the search.
+	 * @param target the byte to search for.
+	 * @return the index of the byte, or -1 if it is not present.
+	 * @since 5.0
+	 */
+	protected static int indexOf(ByteBuffer buffer, int from, byte target) {
+		int limit = buffer.limit();
+		if (buffer.hasArray()) {
+			byte[] array = buffer.array();
+			int offset = buffer.arrayOffset();
+			for (int i = from + offset; i < limit + offset; i++) {
+				if (array[i] == target) {
+					return i - offset;
+				}
+			}
+		}
+		else {
+			for (int i = from; i < limit; i++) {
+				if (buffer.get(i) == target) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Copy the requested number of bytes from the buffer's position into a new
+	 * byte[] and advance the position past them and any trailing framing bytes.
+	 * @param buffer the buffer.
+	 * @param length the number of bytes to copy.
+	 * @param trailing the number of framing bytes to skip after the data.
+	 * @return the data.
+	 * @since 5.0
+	 */
+	protected static byte[] extract(ByteBuffer buffer, int length, int trailing) {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		buffer.position(buffer.position() + trailing);
+		return bytes;
+	}
+
+	private static boolean byteBufferSupported(Class<?> type) {
+		if (!ByteBufferDeserializer.class.isAssignableFrom(type)) {
+			return false;
+		}
+		for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+			boolean decodesStream = false;
+			for (Method method : clazz.getDeclaredMethods()) {
+				if (method.isBridge() || method.isSynthetic()) {
+					continue;
+				}
+				Class<?>[] parameterTypes = method.getParameterTypes();
+				if (parameterTypes.length > 0 && parameterTypes[0].equals(ByteBuffer.class)
+						&& method.getName().equals("deserialize")) {
+					// stream decoding declared in this class or above is matched by the buffer decoding
+					return true;
+				}
+				for (Class<?> parameterType : parameterTypes) {
+					if (InputStream.class.isAssignableFrom(parameterType)) {
+						decodesStream = true;
+					}
+				}
+			}
+			if (decodesStream) {
+				return false;
+			}
+		}
+		return false;
+	}
+
 }
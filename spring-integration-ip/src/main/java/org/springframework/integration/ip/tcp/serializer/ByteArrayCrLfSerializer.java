@@ -19,16 +19,19 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by \r\n
  * (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream and adds \r\n.
+ * Also implements {@link ByteBufferDeserializer}.
  *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	private static final byte[] CRLF = "\r\n".getBytes();
 
@@ -81,6 +84,40 @@ public class ByteArrayCrLfSerializer extends AbstractPooledBufferByteArraySerial
 		}
 	}
 
+	/**
+	 * Extracts the next CRLF-terminated message from the buffer (CRLF not
+	 * included in the result).
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer) throws IOException {
+		return deserialize(buffer, 0);
+	}
+
+	/**
+	 * Extracts the next CRLF-terminated message from the buffer, searching for the
+	 * CRLF after the bytes already scanned.
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, int scanned) throws IOException {
+		int start = buffer.position();
+		int lf = indexOf(buffer, start + Math.max(1, scanned), (byte) '\n');
+		while (lf > 0 && lf - start < this.maxMessageSize && buffer.get(lf - 1) != '\r') {
+			lf = indexOf(buffer, lf + 1, (byte) '\n');
+		}
+		if (lf > 0 && lf - start < this.maxMessageSize) {
+			return extract(buffer, lf - start - 1, 2);
+		}
+		if (lf > 0 || buffer.remaining() >= this.maxMessageSize) {
+			IOException e = new IOException("CRLF not found before max message length: "
+					+ this.maxMessageSize);
+			publishEvent(e, buffer);
+			throw e;
+		}
+		return null;
+	}
+
 	/**
 	 * Writes the byte[] to the stream and appends \r\n.
 	 */
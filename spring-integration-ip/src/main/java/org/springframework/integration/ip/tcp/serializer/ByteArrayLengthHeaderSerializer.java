@@ -23,7 +23,6 @@ import java.nio.ByteBuffer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-
 /**
  * Reads data in an InputStream to a byte[]; data must be preceded by
  * a binary length (network byte order, not included in resulting byte[]).
@@ -37,12 +36,15 @@ import org.apache.commons.logging.LogFactory;
  * Other options are an unsigned byte, and unsigned short.
  *
  * For other header formats, override {@link #readHeader(InputStream)} and
- * {@link #writeHeader(OutputStream, int)}.
+ * {@link #writeHeader(OutputStream, int)}; such subclasses must also override
+ * {@link #deserialize(ByteBuffer)} if they are to be used as a {@link ByteBufferDeserializer};
+ * otherwise {@link #supportsByteBuffer()} returns false and the stream is used.
  *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer {
+public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 
 	/**
@@ -122,6 +124,62 @@ public class ByteArrayLengthHeaderSerializer extends AbstractByteArraySerializer
 		}
 	}
 
+	/**
+	 * Extracts the next message from the buffer once the header and the complete
+	 * data part have been received; the data part is copied straight from the buffer.
+	 * Throws an IOException if the length field exceeds the maxMessageSize.
+	 * Only the standard header formats are supported; see {@link #supportsByteBuffer()}.
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < this.headerSize) {
+			return null;
+		}
+		int start = buffer.position();
+		int messageLength;
+		try {
+			switch (this.headerSize) {
+			case HEADER_SIZE_INT:
+				messageLength = buffer.getInt(start);
+				if (messageLength < 0) {
+					throw new IllegalArgumentException("Length header:"
+							+ messageLength
+							+ " is negative");
+				}
+				break;
+			case HEADER_SIZE_UNSIGNED_BYTE:
+				messageLength = buffer.get(start) & 0xff;
+				break;
+			case HEADER_SIZE_UNSIGNED_SHORT:
+				messageLength = buffer.getShort(start) & 0xffff;
+				break;
+			default:
+				throw new IllegalArgumentException("Bad header size:" + this.headerSize);
+			}
+			if (messageLength > this.maxMessageSize) {
+				throw new IOException("Message length " + messageLength +
+						" exceeds max message length: " + this.maxMessageSize);
+			}
+		}
+		catch (IOException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			publishEvent(e, buffer);
+			throw e;
+		}
+		if (buffer.remaining() - this.headerSize < messageLength) {
+			return null;
+		}
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Message length is " + messageLength);
+		}
+		buffer.position(start + this.headerSize);
+		return extract(buffer, messageLength, 0);
+	}
+
 	/**
 	 * Writes the byte[] to the output stream, preceded by a 4 byte
 	 * length in network byte order (big endian).
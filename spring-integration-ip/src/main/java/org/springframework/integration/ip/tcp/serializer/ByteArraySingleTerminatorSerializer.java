@@ -19,16 +19,19 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Reads data in an InputStream to a byte[]; data must be terminated by a single
  * byte (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream and adds the terminator.
+ * Also implements {@link ByteBufferDeserializer}.
  *
  * @author Gary Russell
  * @since 2.2
  */
-public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	private final byte terminator;
 
@@ -81,6 +84,38 @@ public class ByteArraySingleTerminatorSerializer extends AbstractPooledBufferByt
 		}
 	}
 
+	/**
+	 * Extracts the next terminated message from the buffer (terminator not
+	 * included in the result).
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer) throws IOException {
+		return deserialize(buffer, 0);
+	}
+
+	/**
+	 * Extracts the next terminated message from the buffer, searching for the
+	 * terminator after the bytes already scanned.
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, int scanned) throws IOException {
+		int start = buffer.position();
+		int end = indexOf(buffer, start + scanned, this.terminator);
+		if (end >= 0 && end - start < this.maxMessageSize) {
+			return extract(buffer, end - start, 1);
+		}
+		if (end >= 0 || buffer.remaining() >= this.maxMessageSize) {
+			IOException e = new IOException("Terminator '0x" + Integer.toHexString(this.terminator & 0xff)
+					+ "' not found before max message length: "
+					+ this.maxMessageSize);
+			publishEvent(e, buffer);
+			throw e;
+		}
+		return null;
+	}
+
 	/**
 	 * Writes the byte[] to the stream and appends the terminator.
 	 */
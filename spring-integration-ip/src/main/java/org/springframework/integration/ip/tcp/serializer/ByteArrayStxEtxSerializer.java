@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.integration.ip.tcp.serializer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.springframework.integration.mapping.MessageMappingException;
 
@@ -26,11 +27,13 @@ import org.springframework.integration.mapping.MessageMappingException;
  * Reads data in an InputStream to a byte[]; data must be prefixed by &lt;stx&gt; and
  * terminated by &lt;etx&gt; (not included in resulting byte[]).
  * Writes a byte[] to an OutputStream prefixed by &lt;stx&gt; terminated by &lt;etx&gt;
+ * Also implements {@link ByteBufferDeserializer}.
  *
  * @author Gary Russell
  * @since 2.0
  */
-public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySerializer {
+public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySerializer
+		implements ByteBufferDeserializer<byte[]> {
 
 	public static final int STX = 0x02;
 
@@ -75,6 +78,46 @@ public class ByteArrayStxEtxSerializer extends AbstractPooledBufferByteArraySeri
 		}
 	}
 
+	/**
+	 * Extracts the next STX/ETX-delimited message from the buffer (STX and ETX
+	 * not included in the result).
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer) throws IOException {
+		return deserialize(buffer, 0);
+	}
+
+	/**
+	 * Extracts the next STX/ETX-delimited message from the buffer, searching for the
+	 * ETX after the bytes already scanned.
+	 * @since 5.0
+	 */
+	@Override
+	public byte[] deserialize(ByteBuffer buffer, int scanned) throws IOException {
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		int start = buffer.position();
+		if (buffer.get(start) != STX) {
+			MessageMappingException e = new MessageMappingException("Expected STX to begin message");
+			publishEvent(e, buffer);
+			throw e;
+		}
+		int etx = indexOf(buffer, start + Math.max(1, scanned), (byte) ETX);
+		if (etx >= 0 && etx - start - 1 < this.maxMessageSize) {
+			buffer.position(start + 1);
+			return extract(buffer, etx - start - 1, 1);
+		}
+		if (etx >= 0 || buffer.remaining() - 1 >= this.maxMessageSize) {
+			IOException e = new IOException("ETX not found before max message length: "
+					+ this.maxMessageSize);
+			publishEvent(e, buffer);
+			throw e;
+		}
+		return null;
+	}
+
 	/**
 	 * Writes the byte[] to the stream, prefixed by an ASCII STX character and
 	 * terminated with an ASCII ETX character.
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Strategy for deserializers that can extract a complete message from the
+ * {@link ByteBuffer} that data is read into, rather than pulling data from an
+ * {@link java.io.InputStream}. Used by NIO connections configured with
+ * {@code usingByteBufferDeserializer}, which then decode messages on the thread
+ * that reads the socket instead of handing the data to a separate assembler thread.
+ *
+ * @param <T> the type of object produced.
+ *
+ * @author agent
+ * @since 5.0
+ *
+ */
+public interface ByteBufferDeserializer<T> {
+
+	/**
+	 * Decode the next message from the buffer, which is in read mode and contains
+	 * the data received so far; it may contain several messages and/or a partial message.
+	 * If a complete message is available, the buffer position is advanced past it
+	 * (including any framing bytes) and the decoded object is returned. Otherwise,
+	 * the position is left unchanged and {@code null} is returned; the method will
+	 * be invoked again when more data has been received.
+	 * @param buffer the buffer.
+	 * @return the decoded object, or null if the buffer does not contain a complete message.
+	 * @throws IOException if the data cannot be decoded; for example, the message exceeds
+	 * the maximum message size.
+	 */
+	T deserialize(ByteBuffer buffer) throws IOException;
+
+	/**
+	 * Decode the next message from the buffer, as {@link #deserialize(ByteBuffer)}, when
+	 * a previous invocation returned {@code null} for the same message; the first
+	 * {@code scanned} bytes after the buffer position have already been examined, so
+	 * implementations that search for a terminator can resume from there rather than
+	 * rescan the partial message each time more data is received.
+	 * The default implementation ignores {@code scanned}.
+	 * @param buffer the buffer.
+	 * @param scanned the number of bytes after the position that have already been examined.
+	 * @return the decoded object, or null if the buffer does not contain a complete message.
+	 * @throws IOException if the data cannot be decoded.
+	 */
+	default T deserialize(ByteBuffer buffer, int scanned) throws IOException {
+		return deserialize(buffer);
+	}
+
+	/**
+	 * Return true if this instance can decode messages from a {@link ByteBuffer}.
+	 * Callers fall back to stream-based deserialization when it returns false; for
+	 * example, when a subclass customizes the stream-based decoding only.
+	 * @return true if {@link #deserialize(ByteBuffer)} is supported.
+	 */
+	default boolean supportsByteBuffer() {
+		return true;
+	}
+
+}
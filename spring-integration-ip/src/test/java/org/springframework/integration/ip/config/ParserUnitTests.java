@@ -482,6 +482,11 @@ public class ParserUnitTests {
 		assertEquals(24, dfa.getPropertyValue("order"));
 
 		assertEquals("4000", TestUtils.getPropertyValue(outAdviceGateway, "remoteTimeoutExpression.expression"));
+		assertEquals(16, TestUtils.getPropertyValue(outAdviceGateway, "maxInFlight"));
+		assertEquals("headers.id",
+				TestUtils.getPropertyValue(outAdviceGateway, "requestCorrelationExpression.expression"));
+		assertEquals("headers.foo",
+				TestUtils.getPropertyValue(outAdviceGateway, "replyCorrelationExpression.expression"));
 	}
 
 	@Test
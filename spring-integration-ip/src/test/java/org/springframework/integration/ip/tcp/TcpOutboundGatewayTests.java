@@ -16,6 +16,7 @@
 
 package org.springframework.integration.ip.tcp;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -23,19 +24,24 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -43,6 +49,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -74,6 +81,7 @@ import org.springframework.integration.test.support.LogAdjustingTestSupport;
 import org.springframework.integration.test.support.LongRunningIntegrationTest;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.support.GenericMessage;
 
@@ -287,6 +295,151 @@ public class TcpOutboundGatewayTests extends LogAdjustingTestSupport {
 		serverSocket.get().close();
 	}
 
+	@Test
+	public void testNetPipelinedFifo() throws Exception {
+		testNetPipelined(false);
+	}
+
+	@Test
+	public void testNetPipelinedCorrelated() throws Exception {
+		testNetPipelined(true);
+	}
+
+	private void testNetPipelined(final boolean correlated) throws Exception {
+		final int count = 10;
+		final ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		final AtomicBoolean done = new AtomicBoolean();
+		ExecutorService exec = Executors.newCachedThreadPool();
+		exec.execute(() -> {
+			try {
+				Socket socket = server.accept();
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+				// all requests must be on the wire before the first reply is sent
+				List<String> requests = new ArrayList<String>();
+				for (int i = 0; i < count; i++) {
+					requests.add(reader.readLine());
+				}
+				if (correlated) {
+					Collections.reverse(requests);
+				}
+				OutputStream os = socket.getOutputStream();
+				for (String request : requests) {
+					os.write((request + ":reply\r\n").getBytes());
+				}
+				os.flush();
+			}
+			catch (Exception e) {
+				if (!done.get()) {
+					e.printStackTrace();
+				}
+			}
+		});
+		AbstractClientConnectionFactory ccf = new TcpNetClientConnectionFactory("localhost", server.getLocalPort());
+		ccf.setSoTimeout(10000);
+		ccf.setSingleUse(false);
+		ccf.start();
+		final TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		gateway.setMaxInFlight(count);
+		if (correlated) {
+			SpelExpressionParser parser = new SpelExpressionParser();
+			gateway.setRequestCorrelationExpression(parser.parseExpression("payload"));
+			gateway.setReplyCorrelationExpression(parser.parseExpression("new String(payload).split(':')[0]"));
+		}
+		gateway.setRemoteTimeout(10000);
+		gateway.setBeanFactory(mock(BeanFactory.class));
+		gateway.afterPropertiesSet();
+		List<QueueChannel> replyChannels = new ArrayList<QueueChannel>();
+		for (int i = 0; i < count; i++) {
+			final QueueChannel replyChannel = new QueueChannel();
+			replyChannels.add(replyChannel);
+			final String payload = "Test" + i;
+			exec.execute(() ->
+					gateway.handleMessage(MessageBuilder.withPayload(payload).setReplyChannel(replyChannel).build()));
+		}
+		for (int i = 0; i < count; i++) {
+			Message<?> reply = replyChannels.get(i).receive(10000);
+			assertNotNull(reply);
+			assertEquals("Test" + i + ":reply", new String((byte[]) reply.getPayload()));
+		}
+		for (Object replies : TestUtils.getPropertyValue(gateway, "pipelinedReplies", Map.class).values()) {
+			assertEquals(0, TestUtils.getPropertyValue(replies, "correlated", Map.class).size());
+			assertEquals(0, TestUtils.getPropertyValue(replies, "ordered", Collection.class).size());
+		}
+		done.set(true);
+		gateway.stop();
+		server.close();
+		exec.shutdownNow();
+		assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPipelinedFifoSendFailure() throws Exception {
+		AbstractClientConnectionFactory ccf = mock(AbstractClientConnectionFactory.class);
+		TcpConnectionSupport connection = makeMockConnection();
+		when(connection.getConnectionId()).thenReturn("conn1");
+		doThrow(new IOException("send failed")).when(connection).send(Mockito.any(Message.class));
+		when(ccf.getConnection()).thenReturn(connection);
+		TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		gateway.setMaxInFlight(2);
+		gateway.setBeanFactory(mock(BeanFactory.class));
+		gateway.afterPropertiesSet();
+		try {
+			gateway.handleMessage(MessageBuilder.withPayload("foo").setReplyChannel(new QueueChannel()).build());
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getMessage(), containsString("Failed to send or receive"));
+			assertThat(e.getCause(), instanceOf(IOException.class));
+		}
+		verify(ccf).forceClose(connection);
+		assertEquals(0, TestUtils.getPropertyValue(gateway, "pipelinedReplies", Map.class).size());
+	}
+
+	@Test
+	public void testPipelinedCorrelatedSendFailure() throws Exception {
+		AbstractClientConnectionFactory ccf = mock(AbstractClientConnectionFactory.class);
+		TcpConnectionSupport connection = makeMockConnection();
+		when(connection.getConnectionId()).thenReturn("conn1");
+		final CountDownLatch firstSent = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			firstSent.countDown();
+			return null;
+		}).doThrow(new IOException("send failed")).when(connection).send(Mockito.any(Message.class));
+		when(ccf.getConnection()).thenReturn(connection);
+		final TcpOutboundGateway gateway = new TcpOutboundGateway();
+		gateway.setConnectionFactory(ccf);
+		gateway.setMaxInFlight(2);
+		gateway.setRemoteTimeout(10000);
+		SpelExpressionParser parser = new SpelExpressionParser();
+		gateway.setRequestCorrelationExpression(parser.parseExpression("payload"));
+		gateway.setReplyCorrelationExpression(parser.parseExpression("payload"));
+		gateway.setBeanFactory(mock(BeanFactory.class));
+		gateway.afterPropertiesSet();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		Future<?> outstanding = exec.submit(() ->
+				gateway.handleMessage(MessageBuilder.withPayload("foo").setReplyChannel(new QueueChannel()).build()));
+		assertTrue(firstSent.await(10, TimeUnit.SECONDS));
+		try {
+			gateway.handleMessage(MessageBuilder.withPayload("bar").setReplyChannel(new QueueChannel()).build());
+			fail("Expected exception");
+		}
+		catch (MessagingException e) {
+			assertThat(e.getCause(), instanceOf(IOException.class));
+		}
+		verify(ccf).forceClose(connection);
+		try {
+			outstanding.get(10, TimeUnit.SECONDS);
+			fail("Expected exception");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause().getMessage(), containsString("Connection abandoned after a failure to send"));
+		}
+		assertEquals(0, TestUtils.getPropertyValue(gateway, "pipelinedReplies", Map.class).size());
+		exec.shutdownNow();
+	}
+
 	@Test
 	public void testGoodNetGWTimeout() throws Exception {
 		ServerSocket serverSocket = ServerSocketFactory.getDefault().createServerSocket(0);
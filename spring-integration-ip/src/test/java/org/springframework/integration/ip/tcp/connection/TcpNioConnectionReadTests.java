@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,8 +20,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.OutputStream;
 import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
@@ -153,6 +155,43 @@ public class TcpNioConnectionReadTests {
 		done.countDown();
 	}
 
+	@Test
+	public void testReadByteBufferDeserializerInOrder() throws Exception {
+		ByteArrayCrLfSerializer serializer = new ByteArrayCrLfSerializer();
+		final List<String> responses = Collections.synchronizedList(new ArrayList<String>());
+		final Semaphore semaphore = new Semaphore(0);
+		TcpNioServerConnectionFactory scf = new TcpNioServerConnectionFactory(0);
+		scf.setSerializer(serializer);
+		scf.setDeserializer(serializer);
+		scf.setUsingDirectBuffers(true);
+		scf.setUsingByteBufferDeserializer(true);
+		scf.registerListener(message -> {
+			responses.add(new String((byte[]) message.getPayload()));
+			semaphore.release();
+			return false;
+		});
+		scf.start();
+		TestingUtilities.waitListening(scf, null);
+		int howMany = 1000;
+		StringBuilder data = new StringBuilder();
+		for (int i = 0; i < howMany; i++) {
+			data.append("message").append(i).append("\r\n");
+		}
+		byte[] bytes = data.toString().getBytes();
+		Socket socket = SocketFactory.getDefault().createSocket("localhost", scf.getPort());
+		OutputStream outputStream = socket.getOutputStream();
+		for (int i = 0; i < bytes.length; i += 997) {
+			outputStream.write(bytes, i, Math.min(997, bytes.length - i));
+			outputStream.flush();
+		}
+		assertTrue(semaphore.tryAcquire(howMany, 10000, TimeUnit.MILLISECONDS));
+		for (int i = 0; i < howMany; i++) {
+			assertEquals("message" + i, responses.get(i));
+		}
+		socket.close();
+		scf.stop();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testReadCrLf() throws Exception {
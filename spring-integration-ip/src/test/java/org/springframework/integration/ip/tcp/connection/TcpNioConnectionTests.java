@@ -49,11 +49,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor.AbortPolicy;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -75,6 +78,7 @@ import org.mockito.stubbing.Answer;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.ip.IpHeaders;
 import org.springframework.integration.ip.tcp.connection.TcpNioConnection.ChannelInputStream;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.MapJsonSerializer;
@@ -377,6 +381,43 @@ public class TcpNioConnectionTests {
 		assertTrue(messageLatch.await(10, TimeUnit.SECONDS));
 	}
 
+	@Test
+	public void testGatheringOutputStreamSegments() throws Exception {
+		SocketChannel socketChannel = mock(SocketChannel.class);
+		Socket socket = mock(Socket.class);
+		when(socketChannel.socket()).thenReturn(socket);
+		TcpNioConnection connection = new TcpNioConnection(socketChannel, false, false, null, null);
+		byte[] header = new byte[] { 0, 0, 5, 0 };
+		byte[] large = new byte[1280];
+		byte[] huge = new byte[5000];
+
+		TcpNioConnection.GatheringOutputStream wrapping = connection.new GatheringOutputStream(2048, true);
+		wrapping.write(header);
+		wrapping.write(large);
+		wrapping.write(huge);
+		List<?> buffers = TestUtils.getPropertyValue(wrapping, "buffers", List.class);
+		assertEquals(3, buffers.size());
+		assertTrue(((ByteBuffer) buffers.get(1)).array() == large);
+		assertTrue(((ByteBuffer) buffers.get(2)).array() == huge);
+		assertEquals(6284, wrapping.size());
+
+		TcpNioConnection.GatheringOutputStream copying = connection.new GatheringOutputStream(2048, false);
+		copying.write(header);
+		copying.write(large);
+		copying.write(huge);
+		buffers = TestUtils.getPropertyValue(copying, "buffers", List.class);
+		assertEquals(2, buffers.size());
+		assertEquals(1284, ((ByteBuffer) buffers.get(0)).remaining());
+		assertTrue(((ByteBuffer) buffers.get(1)).array() != huge);
+		assertEquals(5000, ((ByteBuffer) buffers.get(1)).remaining());
+		copying.write(large);
+		// a new buffer of the standard size, not one sized for the largest write
+		assertEquals(2048, TestUtils.getPropertyValue(copying, "buffer", byte[].class).length);
+		copying.discard();
+		assertEquals(0, copying.size());
+		assertEquals(2048, TestUtils.getPropertyValue(copying, "buffer", byte[].class).length);
+	}
+
 	@Test
 	public void testByteArrayRead() throws Exception {
 		SocketChannel socketChannel = mock(SocketChannel.class);
@@ -667,6 +708,142 @@ public class TcpNioConnectionTests {
 		factory.stop();
 	}
 
+	@Test
+	public void testMultipleReadSelectors() throws Exception {
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		server.setApplicationEventPublisher(nullPublisher);
+		server.setReadSelectorCount(2);
+		final Map<String, TcpConnection> serverConnections = new ConcurrentHashMap<String, TcpConnection>();
+		server.registerSender(new TcpSender() {
+
+			@Override
+			public void addNewConnection(TcpConnection connection) {
+				serverConnections.put(connection.getConnectionId(), connection);
+			}
+
+			@Override
+			public void removeDeadConnection(TcpConnection connection) {
+				serverConnections.remove(connection.getConnectionId());
+			}
+
+		});
+		final CountDownLatch serverLatch = new CountDownLatch(4);
+		server.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				try {
+					serverConnections.get(message.getHeaders().get(IpHeaders.CONNECTION_ID)).send(message);
+				}
+				catch (Exception e) {
+					logger.error("Echo failed", e);
+				}
+				serverLatch.countDown();
+			}
+			return false;
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", server.getPort());
+		client.setApplicationEventPublisher(nullPublisher);
+		client.setReadSelectorCount(1);
+		client.setReadSelectorAssignment(ReadSelectorAssignment.LEAST_LOADED);
+		client.setSingleUse(true);
+		final CountDownLatch clientLatch = new CountDownLatch(4);
+		client.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				clientLatch.countDown();
+			}
+			return false;
+		});
+		client.start();
+		List<TcpConnection> connections = new ArrayList<TcpConnection>();
+		for (int i = 0; i < 4; i++) {
+			connections.add(client.getConnection());
+		}
+		for (TcpConnection connection : connections) {
+			connection.send(MessageBuilder.withPayload("foo").build());
+		}
+		assertTrue(serverLatch.await(10, TimeUnit.SECONDS));
+		assertTrue(clientLatch.await(10, TimeUnit.SECONDS));
+
+		assertEquals(3, server.getSelectorCount());
+		assertEquals("[1, 2, 2]", Arrays.toString(server.getSelectorKeyCounts()));
+		assertEquals(4, server.getConnections().size());
+		assertEquals(2, client.getSelectorCount());
+		assertEquals("[2, 2]", Arrays.toString(client.getSelectorKeyCounts()));
+		long[] wakeups = server.getSelectorWakeups();
+		assertTrue(wakeups[1] > 0 && wakeups[2] > 0);
+		assertTrue(server.getSelectorMaxLoopTimes()[1] >= server.getSelectorMeanLoopTimes()[1]);
+
+		client.stop();
+		server.stop();
+	}
+
+	@Test
+	public void testFailedReadSelectorIsRemoved() throws Exception {
+		TcpNioServerConnectionFactory server = new TcpNioServerConnectionFactory(0);
+		server.setApplicationEventPublisher(nullPublisher);
+		server.setReadSelectorCount(1);
+		final Map<String, TcpConnection> serverConnections = new ConcurrentHashMap<String, TcpConnection>();
+		server.registerSender(new TcpSender() {
+
+			@Override
+			public void addNewConnection(TcpConnection connection) {
+				serverConnections.put(connection.getConnectionId(), connection);
+			}
+
+			@Override
+			public void removeDeadConnection(TcpConnection connection) {
+				serverConnections.remove(connection.getConnectionId());
+			}
+
+		});
+		server.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				try {
+					serverConnections.get(message.getHeaders().get(IpHeaders.CONNECTION_ID)).send(message);
+				}
+				catch (Exception e) {
+					logger.error("Echo failed", e);
+				}
+			}
+			return false;
+		});
+		server.start();
+		TestingUtilities.waitListening(server, null);
+
+		TcpNioClientConnectionFactory client = new TcpNioClientConnectionFactory("localhost", server.getPort());
+		client.setApplicationEventPublisher(nullPublisher);
+		client.setSingleUse(true);
+		final BlockingQueue<Message<?>> replies = new LinkedBlockingQueue<Message<?>>();
+		client.registerListener(message -> {
+			if (!(message instanceof ErrorMessage)) {
+				replies.add(message);
+			}
+			return false;
+		});
+		client.start();
+		client.getConnection().send(MessageBuilder.withPayload("foo").build());
+		assertNotNull(replies.poll(10, TimeUnit.SECONDS));
+		assertEquals(2, server.getSelectorCount());
+
+		NioReadSelector readSelector = TestUtils.getPropertyValue(server, "readSelectors", NioReadSelector[].class)[0];
+		TestUtils.getPropertyValue(readSelector, "selector", Selector.class).close();
+		int n = 0;
+		while (n++ < 100 && server.getSelectorCount() > 1) {
+			Thread.sleep(100);
+		}
+		assertEquals(1, server.getSelectorCount());
+
+		client.getConnection().send(MessageBuilder.withPayload("bar").build());
+		Message<?> reply = replies.poll(10, TimeUnit.SECONDS);
+		assertNotNull(reply);
+		assertEquals("bar", new String((byte[]) reply.getPayload()));
+
+		client.stop();
+		server.stop();
+	}
+
 	private CompositeExecutor compositeExecutor() {
 		ThreadPoolTaskExecutor ioExec = new ThreadPoolTaskExecutor();
 		ioExec.setCorePoolSize(2);
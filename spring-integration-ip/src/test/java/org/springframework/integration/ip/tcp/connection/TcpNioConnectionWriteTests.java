@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,23 +17,38 @@
 package org.springframework.integration.ip.tcp.connection;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ServerSocketFactory;
 
 import org.junit.Test;
 
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayLengthHeaderSerializer;
 import org.springframework.integration.ip.tcp.serializer.ByteArrayStxEtxSerializer;
+import org.springframework.integration.ip.tcp.serializer.MapJsonSerializer;
 import org.springframework.integration.support.MessageBuilder;
 
 /**
@@ -251,6 +266,126 @@ public class TcpNioConnectionWriteTests {
 		latch.countDown();
 	}
 
+	@Test
+	public void testWriteCoalesced() throws Exception {
+		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		server.setSoTimeout(10000);
+		TcpNioClientConnectionFactory ccf = new TcpNioClientConnectionFactory("localhost", server.getLocalPort());
+		ByteArrayLengthHeaderSerializer serializer = new ByteArrayLengthHeaderSerializer();
+		ccf.setSerializer(serializer);
+		ccf.setDeserializer(serializer);
+		ccf.setSoTimeout(10000);
+		ccf.setWriteCoalescingDelay(5);
+		ccf.start();
+		final TcpConnection connection = ccf.getConnection();
+		Socket socket = server.accept();
+		socket.setSoTimeout(10000);
+		int senders = 4;
+		final int perSender = 100;
+		final byte[] large = new byte[5000];
+		Arrays.fill(large, (byte) 'x');
+		ExecutorService exec = Executors.newFixedThreadPool(senders);
+		for (int i = 0; i < senders; i++) {
+			final int sender = i;
+			exec.execute(() -> {
+				try {
+					for (int j = 0; j < perSender; j++) {
+						connection.send(MessageBuilder.withPayload(j % 10 == 0 ? large : (sender + ":" + j).getBytes())
+								.build());
+					}
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+			});
+		}
+		DataInputStream is = new DataInputStream(socket.getInputStream());
+		int[] next = new int[senders];
+		for (int i = 0; i < senders * perSender; i++) {
+			byte[] payload = new byte[is.readInt()];
+			is.readFully(payload);
+			if (payload.length == large.length) {
+				assertTrue(Arrays.equals(large, payload));
+			}
+			else {
+				String[] parts = new String(payload).split(":");
+				int sender = Integer.parseInt(parts[0]);
+				while (next[sender] % 10 == 0) {
+					next[sender]++;
+				}
+				assertEquals(next[sender]++, Integer.parseInt(parts[1]));
+			}
+		}
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+		socket.close();
+		server.close();
+		ccf.stop();
+	}
+
+	@Test
+	public void testLargeDefaultSerializerRoundTrip() throws Exception {
+		List<Object> payloads = new ArrayList<Object>();
+		for (int i = 0; i < 3; i++) {
+			payloads.add(largeString(20000, (char) ('a' + i)));
+		}
+		assertEquals(payloads, roundTrip(new DefaultSerializer(), new DefaultDeserializer(), payloads));
+	}
+
+	@Test
+	public void testLargeMapJsonSerializerRoundTrip() throws Exception {
+		List<Object> payloads = new ArrayList<Object>();
+		for (int i = 0; i < 3; i++) {
+			Map<String, Object> map = new HashMap<String, Object>();
+			map.put("index", i);
+			map.put("data", largeString(20000, (char) ('a' + i)));
+			payloads.add(map);
+		}
+		MapJsonSerializer serializer = new MapJsonSerializer();
+		assertEquals(payloads, roundTrip(serializer, serializer, payloads));
+	}
+
+	/**
+	 * Send the payloads over a NIO connection and deserialize what is received from the
+	 * socket.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private List<Object> roundTrip(Serializer<?> serializer, Deserializer<?> deserializer, List<Object> payloads)
+			throws Exception {
+		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
+		server.setSoTimeout(10000);
+		TcpNioClientConnectionFactory ccf = new TcpNioClientConnectionFactory("localhost", server.getLocalPort());
+		ccf.setSerializer((Serializer) serializer);
+		ccf.setDeserializer((Deserializer) deserializer);
+		ccf.setSoTimeout(10000);
+		ccf.start();
+		TcpConnection connection = ccf.getConnection();
+		Socket socket = server.accept();
+		socket.setSoTimeout(10000);
+		for (Object payload : payloads) {
+			connection.send(MessageBuilder.withPayload(payload).build());
+		}
+		InputStream is = socket.getInputStream();
+		List<Object> received = new ArrayList<Object>();
+		for (int i = 0; i < payloads.size(); i++) {
+			Object payload = deserializer.deserialize(is);
+			assertNotNull(payload);
+			received.add(payload);
+		}
+		socket.close();
+		server.close();
+		ccf.stop();
+		return received;
+	}
+
+	private String largeString(int length, char c) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = i % 100 == 99 ? (char) ('0' + (i / 100) % 10) : c;
+		}
+		return new String(chars);
+	}
+
 	/**
 	 * @param is
 	 * @param buff
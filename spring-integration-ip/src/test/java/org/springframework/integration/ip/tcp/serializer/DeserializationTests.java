@@ -18,10 +18,12 @@ package org.springframework.integration.ip.tcp.serializer;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 
@@ -69,6 +71,153 @@ public class DeserializationTests {
 	@Rule
 	public LongRunningIntegrationTest longRunningIntegrationTest = new LongRunningIntegrationTest();
 
+	@Test
+	public void testByteBufferDeserializers() throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		buffer.put("foo\r\nba".getBytes()).flip();
+		ByteArrayCrLfSerializer crLf = new ByteArrayCrLfSerializer();
+		assertEquals("foo", new String(crLf.deserialize(buffer)));
+		assertNull(crLf.deserialize(buffer));
+		assertEquals(5, buffer.position());
+		buffer.compact().put("r\r\n".getBytes()).flip();
+		assertEquals("bar", new String(crLf.deserialize(buffer)));
+		assertEquals(0, buffer.remaining());
+
+		buffer.clear();
+		buffer.put(new byte[] { ByteArrayStxEtxSerializer.STX, 'f', 'o', 'o', ByteArrayStxEtxSerializer.ETX,
+				ByteArrayStxEtxSerializer.STX, 'b' }).flip();
+		ByteArrayStxEtxSerializer stxEtx = new ByteArrayStxEtxSerializer();
+		assertEquals("foo", new String(stxEtx.deserialize(buffer)));
+		assertNull(stxEtx.deserialize(buffer));
+		assertEquals(5, buffer.position());
+
+		buffer.clear();
+		buffer.put("foo\nbar".getBytes()).flip();
+		ByteArrayLfSerializer lf = new ByteArrayLfSerializer();
+		assertEquals("foo", new String(lf.deserialize(buffer)));
+		assertNull(lf.deserialize(buffer));
+
+		buffer.clear();
+		buffer.putInt(3).put("foo".getBytes()).putInt(3).put("b".getBytes()).flip();
+		ByteArrayLengthHeaderSerializer lengthHeader = new ByteArrayLengthHeaderSerializer();
+		assertEquals("foo", new String(lengthHeader.deserialize(buffer)));
+		assertNull(lengthHeader.deserialize(buffer));
+		assertEquals(7, buffer.position());
+
+		buffer = ByteBuffer.allocateDirect(64);
+		buffer.put("foo".getBytes()).flip();
+		crLf.setMaxMessageSize(3);
+		try {
+			crLf.deserialize(buffer);
+			fail("Expected message length exceeded exception");
+		}
+		catch (IOException e) {
+			assertThat(e.getMessage(), containsString("CRLF not found before max message length: 3"));
+		}
+	}
+
+	@Test
+	public void testByteBufferDeserializersResumeScan() throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		buffer.put("foo\r".getBytes()).flip();
+		ByteArrayCrLfSerializer crLf = new ByteArrayCrLfSerializer();
+		assertNull(crLf.deserialize(buffer));
+		int scanned = buffer.remaining();
+		buffer.compact().put("\n".getBytes()).flip();
+		assertEquals("foo", new String(crLf.deserialize(buffer, scanned)));
+		assertEquals(0, buffer.remaining());
+
+		buffer.clear();
+		buffer.put(new byte[] { ByteArrayStxEtxSerializer.STX }).flip();
+		ByteArrayStxEtxSerializer stxEtx = new ByteArrayStxEtxSerializer();
+		assertNull(stxEtx.deserialize(buffer));
+		scanned = buffer.remaining();
+		buffer.compact().put(new byte[] { 'f', 'o', 'o', ByteArrayStxEtxSerializer.ETX }).flip();
+		assertEquals("foo", new String(stxEtx.deserialize(buffer, scanned)));
+
+		buffer.clear();
+		buffer.put("foo".getBytes()).flip();
+		ByteArrayLfSerializer lf = new ByteArrayLfSerializer();
+		assertNull(lf.deserialize(buffer));
+		scanned = buffer.remaining();
+		buffer.compact().put("\n".getBytes()).flip();
+		assertEquals("foo", new String(lf.deserialize(buffer, scanned)));
+	}
+
+	@Test
+	public void testLengthHeaderSubclassSupportsByteBuffer() throws Exception {
+		assertTrue(new ByteArrayLengthHeaderSerializer().supportsByteBuffer());
+		ByteArrayLengthHeaderSerializer streamOnly = new ByteArrayLengthHeaderSerializer() {
+
+			@Override
+			protected int readHeader(InputStream inputStream) throws IOException {
+				return super.readHeader(inputStream) - 1;
+			}
+
+		};
+		assertFalse(streamOnly.supportsByteBuffer());
+		ByteArrayLengthHeaderSerializer both = new ByteArrayLengthHeaderSerializer() {
+
+			@Override
+			protected int readHeader(InputStream inputStream) throws IOException {
+				return super.readHeader(inputStream) - 1;
+			}
+
+			@Override
+			public byte[] deserialize(ByteBuffer buffer) throws IOException {
+				return null;
+			}
+
+		};
+		assertTrue(both.supportsByteBuffer());
+	}
+
+	@Test
+	public void testTerminatorSubclassesSupportByteBuffer() throws Exception {
+		assertTrue(new ByteArrayCrLfSerializer().supportsByteBuffer());
+		assertTrue(new ByteArrayLfSerializer().supportsByteBuffer());
+		assertTrue(new ByteArrayStxEtxSerializer().supportsByteBuffer());
+		assertTrue(new ByteArrayCrLfSerializer() { }.supportsByteBuffer());
+		assertFalse(new ByteArrayRawSerializer().supportsByteBuffer());
+		assertFalse(new ByteArrayCrLfSerializer() {
+
+			@Override
+			public int fillToCrLf(InputStream inputStream, byte[] buffer) throws IOException {
+				return super.fillToCrLf(inputStream, buffer);
+			}
+
+		}.supportsByteBuffer());
+		assertFalse(new ByteArrayLfSerializer() {
+
+			@Override
+			protected byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+				return super.doDeserialize(inputStream, buffer);
+			}
+
+		}.supportsByteBuffer());
+		assertFalse(new ByteArrayStxEtxSerializer() {
+
+			@Override
+			public byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+				return super.doDeserialize(inputStream, buffer);
+			}
+
+		}.supportsByteBuffer());
+		assertTrue(new ByteArrayStxEtxSerializer() {
+
+			@Override
+			public byte[] doDeserialize(InputStream inputStream, byte[] buffer) throws IOException {
+				return super.doDeserialize(inputStream, buffer);
+			}
+
+			@Override
+			public byte[] deserialize(ByteBuffer buffer) throws IOException {
+				return super.deserialize(buffer);
+			}
+
+		}.supportsByteBuffer());
+	}
+
 	@Test
 	public void testReadLength() throws Exception {
 		ServerSocket server = ServerSocketFactory.getDefault().createServerSocket(0);
@@ -17,8 +17,11 @@
 package org.springframework.integration.jdbc.store;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,11 +62,17 @@ import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.integration.transaction.TransactionSynchronizationFactory;
 import org.springframework.integration.util.UUIDConverter;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapperResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
@@ -122,6 +131,11 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 	 */
 	public static final String DEFAULT_REGION = "DEFAULT";
 
+	/**
+	 * The default maximum number of rows claimed by a single batch poll statement.
+	 */
+	public static final int DEFAULT_BATCH_POLL_SIZE = 100;
+
 	private ChannelMessageStoreQueryProvider channelMessageStoreQueryProvider;
 
 	/**
@@ -159,6 +173,10 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 
 	private boolean priorityEnabled;
 
+	private volatile int batchPollSize = DEFAULT_BATCH_POLL_SIZE;
+
+	private volatile Boolean batchDeleteCountsReported;
+
 	private BeanFactory beanFactory;
 
 	/**
@@ -354,6 +372,19 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return this.priorityEnabled;
 	}
 
+	/**
+	 * Set the maximum number of rows claimed by a single statement when polling
+	 * a batch of messages with {@link #pollMessagesFromGroup(Object, int)}.
+	 * Larger requests are served with several statements.
+	 * Defaults to {@value #DEFAULT_BATCH_POLL_SIZE}.
+	 * @param batchPollSize the batch size.
+	 * @since 5.0
+	 */
+	public void setBatchPollSize(int batchPollSize) {
+		Assert.isTrue(batchPollSize > 0, "'batchPollSize' must be greater than 0");
+		this.batchPollSize = batchPollSize;
+	}
+
 	/**
 	 * Specify the {@link MessageGroupFactory} to create {@link MessageGroup} object where
 	 * it is necessary.
@@ -554,6 +585,48 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return polledMessage;
 	}
 
+	/**
+	 * Polls the database for up to {@code maxMessages} messages persisted for the given
+	 * group id, claiming each batch of rows with a single select and removing them
+	 * with a single batched delete.
+	 * <p>The rows are selected with the
+	 * {@link ChannelMessageStoreQueryProvider#getPollBatchFromGroupQuery()} (or its priority
+	 * variant); on databases supporting it, that query skips rows locked by concurrent
+	 * pollers ({@code FOR UPDATE SKIP LOCKED}). Otherwise only the rows actually deleted by
+	 * this poller are returned, so a message is never delivered to two concurrent pollers.
+	 * If the JDBC driver does not report the row count of each statement in a batch
+	 * ({@link Statement#SUCCESS_NO_INFO}), the rows are deleted one at a time instead.
+	 * <p>Falls back to polling one message at a time if the query provider doesn't
+	 * support batch polling or {@link #setUsingIdCache(boolean) usingIdCache} is
+	 * {@code true}.
+	 * @since 5.0
+	 */
+	@Override
+	public List<Message<?>> pollMessagesFromGroup(Object groupId, int maxMessages) {
+		String pollQuery = this.priorityEnabled
+				? this.channelMessageStoreQueryProvider.getPriorityPollBatchFromGroupQuery()
+				: this.channelMessageStoreQueryProvider.getPollBatchFromGroupQuery();
+
+		if (pollQuery == null || this.usingIdCache || maxMessages <= 1) {
+			return PriorityCapableChannelMessageStore.super.pollMessagesFromGroup(groupId, maxMessages);
+		}
+
+		final String key = getKey(groupId);
+		List<Message<?>> polledMessages = new ArrayList<Message<?>>();
+		while (polledMessages.size() < maxMessages) {
+			int batchSize = Math.min(maxMessages - polledMessages.size(), this.batchPollSize);
+			List<Message<?>> messages = doPollForMessages(getQuery(pollQuery), key, batchSize);
+			if (messages.isEmpty()) {
+				break;
+			}
+			polledMessages.addAll(doRemoveMessagesFromGroup(key, messages));
+			if (messages.size() < batchSize) {
+				break;
+			}
+		}
+		return polledMessages;
+	}
+
 	/**
 	 * This method executes a call to the DB to get the oldest Message in the
 	 * MessageGroup which in the context of the {@link JdbcChannelMessageStore}
@@ -625,6 +698,123 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		return null;
 	}
 
+	private List<Message<?>> doPollForMessages(String query, String groupIdKey, final int maxMessages) {
+		MapSqlParameterSource parameters = new MapSqlParameterSource();
+		parameters.addValue("region", this.region);
+		parameters.addValue("group_key", groupIdKey);
+		parameters.addValue("max_messages", maxMessages);
+
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(query);
+		String sql = NamedParameterUtils.substituteNamedParameters(parsedSql, parameters);
+		final Object[] args = NamedParameterUtils.buildValueArray(parsedSql, parameters, null);
+
+		return this.jdbcTemplate.execute(sql, new PreparedStatementCallback<List<Message<?>>>() {
+
+			@Override
+			public List<Message<?>> doInPreparedStatement(PreparedStatement ps) throws SQLException {
+				// Override the single row settings of the template for this statement
+				ps.setMaxRows(maxMessages);
+				ps.setFetchSize(maxMessages);
+				new ArgumentPreparedStatementSetter(args).setValues(ps);
+				ResultSet resultSet = ps.executeQuery();
+				try {
+					return new RowMapperResultSetExtractor<Message<?>>(JdbcChannelMessageStore.this.messageRowMapper,
+							maxMessages).extractData(resultSet);
+				}
+				finally {
+					JdbcUtils.closeResultSet(resultSet);
+				}
+			}
+
+		});
+	}
+
+	private List<Message<?>> doRemoveMessagesFromGroup(String groupIdKey, List<Message<?>> messagesToRemove) {
+		String deleteQuery = getQuery(this.channelMessageStoreQueryProvider.getDeleteMessageQuery());
+		List<Message<?>> removed = new ArrayList<Message<?>>(messagesToRemove.size());
+		if (messagesToRemove.size() == 1 || !isBatchDeleteCountsReported(deleteQuery, groupIdKey)) {
+			for (Message<?> message : messagesToRemove) {
+				int updated = this.jdbcTemplate.update(deleteQuery,
+						new Object[]{getKey(message.getHeaders().getId()), groupIdKey, this.region},
+						new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR});
+				claimed(message, updated > 0, removed);
+			}
+			return removed;
+		}
+
+		List<Object[]> batchArgs = new ArrayList<Object[]>(messagesToRemove.size());
+		for (Message<?> message : messagesToRemove) {
+			batchArgs.add(new Object[]{getKey(message.getHeaders().getId()), groupIdKey, this.region});
+		}
+
+		int[] updated = this.jdbcTemplate.batchUpdate(deleteQuery, batchArgs,
+				new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR});
+
+		for (int i = 0; i < updated.length; i++) {
+			if (updated[i] == Statement.SUCCESS_NO_INFO) {
+				/*
+				 * The driver reported counts when probed, but not now; the row is gone and
+				 * cannot be restored, so deliver it rather than lose it, and delete rows one
+				 * at a time from now on.
+				 */
+				if (Boolean.TRUE.equals(this.batchDeleteCountsReported)) {
+					this.batchDeleteCountsReported = false;
+					logger.warn("The JDBC driver did not report the number of deleted rows for a batch; "
+							+ "a message polled concurrently may be delivered twice. "
+							+ "Messages are deleted one at a time from now on.");
+				}
+				removed.add(messagesToRemove.get(i));
+			}
+			else {
+				claimed(messagesToRemove.get(i), updated[i] > 0, removed);
+			}
+		}
+		return removed;
+	}
+
+	private void claimed(Message<?> message, boolean deleted, List<Message<?>> removed) {
+		UUID id = message.getHeaders().getId();
+		if (deleted) {
+			removed.add(message);
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Message with id '%s' was deleted.", id));
+			}
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Message with id '%s' was not deleted; it has been claimed by another poller.",
+					id));
+		}
+	}
+
+	/**
+	 * Determine, once, whether the driver reports the row count of each statement in a
+	 * batch, by deleting two rows that do not exist; if it only reports
+	 * {@link Statement#SUCCESS_NO_INFO}, a batch cannot tell which rows this poller
+	 * claimed.
+	 */
+	private boolean isBatchDeleteCountsReported(String deleteQuery, String groupIdKey) {
+		Boolean reported = this.batchDeleteCountsReported;
+		if (reported == null) {
+			List<Object[]> batchArgs = new ArrayList<Object[]>(2);
+			batchArgs.add(new Object[]{getKey(UUID.randomUUID()), groupIdKey, this.region});
+			batchArgs.add(new Object[]{getKey(UUID.randomUUID()), groupIdKey, this.region});
+			int[] updated = this.jdbcTemplate.batchUpdate(deleteQuery, batchArgs,
+					new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR});
+			reported = true;
+			for (int count : updated) {
+				if (count == Statement.SUCCESS_NO_INFO) {
+					reported = false;
+				}
+			}
+			if (!reported && logger.isInfoEnabled()) {
+				logger.info("The JDBC driver does not report the number of deleted rows for a batch; "
+						+ "polled messages are deleted one at a time.");
+			}
+			this.batchDeleteCountsReported = reported;
+		}
+		return reported;
+	}
+
 	private boolean doRemoveMessageFromGroup(Object groupId, Message<?> messageToRemove) {
 		final UUID id = messageToRemove.getHeaders().getId();
 
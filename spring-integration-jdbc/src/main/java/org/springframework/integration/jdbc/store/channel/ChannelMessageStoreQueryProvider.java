@@ -67,6 +67,32 @@ public interface ChannelMessageStoreQueryProvider {
 	 */
 	String getPriorityPollFromGroupQuery();
 
+	/**
+	 * Get the query used to retrieve a batch of the oldest messages for a channel.
+	 * The number of rows is bound with the {@code :max_messages} parameter
+	 * (or limited by the statement's {@code maxRows}), and rows locked by
+	 * concurrent pollers should be skipped where the database supports it.
+	 * Return {@code null} if batch polling isn't supported; the
+	 * {@link JdbcChannelMessageStore} then polls one message at a time.
+	 *
+	 * @return Sql Query
+	 * @since 5.0
+	 */
+	default String getPollBatchFromGroupQuery() {
+		return null;
+	}
+
+	/**
+	 * Get the query used to retrieve a batch of the oldest messages by priority for a channel.
+	 * The same contract as {@link #getPollBatchFromGroupQuery()}.
+	 *
+	 * @return Sql Query
+	 * @since 5.0
+	 */
+	default String getPriorityPollBatchFromGroupQuery() {
+		return null;
+	}
+
 	/**
 	 * Query that retrieves a message for the provided message id, channel and
 	 * region.
@@ -17,6 +17,10 @@
 package org.springframework.integration.jdbc.store.channel;
 
 /**
+ * MySQL-specific queries for the JdbcChannelMessageStore.
+ * The batch poll queries use {@code FOR UPDATE SKIP LOCKED},
+ * which requires MySQL 8.0 or later.
+ *
  * @author Gunnar Hillert
  * @author Artem Bilan
  * @since 2.2
@@ -52,4 +56,18 @@ public class MySqlChannelMessageStoreQueryProvider extends AbstractChannelMessag
 				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE LIMIT 1";
 	}
 
+	@Override
+	public String getPollBatchFromGroupQuery() {
+		return "SELECT %PREFIX%CHANNEL_MESSAGE.MESSAGE_ID, %PREFIX%CHANNEL_MESSAGE.MESSAGE_BYTES from %PREFIX%CHANNEL_MESSAGE " +
+				"where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region " +
+				"order by CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_messages FOR UPDATE SKIP LOCKED";
+	}
+
+	@Override
+	public String getPriorityPollBatchFromGroupQuery() {
+		return "SELECT %PREFIX%CHANNEL_MESSAGE.MESSAGE_ID, %PREFIX%CHANNEL_MESSAGE.MESSAGE_BYTES from %PREFIX%CHANNEL_MESSAGE " +
+				"where %PREFIX%CHANNEL_MESSAGE.GROUP_KEY = :group_key and %PREFIX%CHANNEL_MESSAGE.REGION = :region " +
+				"order by MESSAGE_PRIORITY DESC, CREATED_DATE, MESSAGE_SEQUENCE LIMIT :max_messages FOR UPDATE SKIP LOCKED";
+	}
+
 }
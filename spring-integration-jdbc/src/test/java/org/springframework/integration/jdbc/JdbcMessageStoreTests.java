@@ -17,12 +17,14 @@
 package org.springframework.integration.jdbc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 import static org.springframework.integration.test.matcher.PayloadAndHeaderMatcher.sameExceptIgnorableHeaders;
 
 import java.io.BufferedReader;
@@ -46,11 +48,15 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.aggregator.AbstractAccumulatingMessageGroupProcessor;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupStore;
@@ -565,4 +571,61 @@ public class JdbcMessageStoreTests {
 		assertTrue(messageGroup.isComplete());
 	}
 
+	@Test
+	public void testAccumulatingAggregator() throws Exception {
+		QueueChannel output = new QueueChannel();
+		QueueChannel discards = new QueueChannel();
+		AggregatingMessageHandler aggregator = new AggregatingMessageHandler(new SummingProcessor(), messageStore);
+		aggregator.setOutputChannel(output);
+		aggregator.setDiscardChannel(discards);
+		aggregator.setBeanFactory(mock(BeanFactory.class));
+		aggregator.afterPropertiesSet();
+		aggregator.handleMessage(createAccumulatedPart(3, 1));
+		aggregator.handleMessage(createAccumulatedPart(5, 2));
+		assertEquals(1, messageStore.getMessageGroup("group").size());
+		Message<?> duplicate = createAccumulatedPart(100, 2);
+		aggregator.handleMessage(duplicate);
+		assertSame(duplicate, discards.receive(0));
+		assertNull(output.receive(0));
+		aggregator.handleMessage(createAccumulatedPart(7, 3));
+		Message<?> result = output.receive(0);
+		assertNotNull(result);
+		assertEquals(15L, result.getPayload());
+		assertFalse(result.getHeaders()
+				.containsKey(AbstractAccumulatingMessageGroupProcessor.ACCUMULATED_SEQUENCE_NUMBERS));
+		assertEquals(0, messageStore.getMessageGroup("group").size());
+	}
+
+	private static Message<?> createAccumulatedPart(int payload, int sequenceNumber) {
+		return MessageBuilder.withPayload(payload)
+				.setCorrelationId("group")
+				.setSequenceSize(3)
+				.setSequenceNumber(sequenceNumber)
+				.build();
+	}
+
+	private static class SummingProcessor extends AbstractAccumulatingMessageGroupProcessor<Long> {
+
+		@Override
+		public Long initialState(Message<?> message) {
+			return 0L;
+		}
+
+		@Override
+		public Long fold(Long accumulator, Message<?> message) {
+			return accumulator + (Integer) message.getPayload();
+		}
+
+		@Override
+		public Long combine(Long accumulator1, Long accumulator2) {
+			return accumulator1 + accumulator2;
+		}
+
+		@Override
+		public Object finish(Long accumulator) {
+			return accumulator;
+		}
+
+	}
+
 }
@@ -20,6 +20,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.sql.DataSource;
 
 import org.junit.Before;
@@ -29,6 +34,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.integration.jdbc.store.JdbcChannelMessageStore;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.messaging.Message;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -103,4 +109,58 @@ public abstract class AbstractJdbcChannelMessageStoreTests {
 		assertNotNull(messageFromDb.getHeaders().get(JdbcChannelMessageStore.CREATED_DATE_KEY));
 	}
 
+	@Test
+	public void testPollBatch() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			messageStore.addMessageToGroup(TEST_MESSAGE_GROUP, MessageBuilder.withPayload("foo" + i).build());
+		}
+		messageStore.setBatchPollSize(2);
+
+		List<Message<?>> messages = messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 3);
+		assertEquals(3, messages.size());
+		for (int i = 0; i < 3; i++) {
+			assertEquals("foo" + i, messages.get(i).getPayload());
+		}
+		assertEquals(2, messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+
+		messages = messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 10);
+		assertEquals(2, messages.size());
+		assertEquals("foo3", messages.get(0).getPayload());
+		assertEquals("foo4", messages.get(1).getPayload());
+		assertEquals(0, messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+		assertEquals(0, messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 10).size());
+	}
+
+	@Test
+	public void testPollBatchWhenDriverReportsNoRowCounts() throws Exception {
+		final AtomicInteger batches = new AtomicInteger();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs, int[] argTypes) {
+				batches.incrementAndGet();
+				int[] updated = super.batchUpdate(sql, batchArgs, argTypes);
+				Arrays.fill(updated, Statement.SUCCESS_NO_INFO);
+				return updated;
+			}
+
+		};
+		jdbcTemplate.setFetchSize(1);
+		jdbcTemplate.setMaxRows(1);
+		messageStore.setJdbcTemplate(jdbcTemplate);
+		for (int i = 0; i < 5; i++) {
+			messageStore.addMessageToGroup(TEST_MESSAGE_GROUP, MessageBuilder.withPayload("foo" + i).build());
+		}
+		messageStore.setBatchPollSize(2);
+
+		List<Message<?>> messages = messageStore.pollMessagesFromGroup(TEST_MESSAGE_GROUP, 5);
+		assertEquals(5, messages.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals("foo" + i, messages.get(i).getPayload());
+		}
+		assertEquals(0, messageStore.messageGroupSize(TEST_MESSAGE_GROUP));
+		// only the probe is batched; the rows are deleted one at a time
+		assertEquals(1, batches.get());
+	}
+
 }
@@ -53,6 +53,7 @@ import org.springframework.integration.gateway.MessagingGatewaySupport;
 import org.springframework.integration.handler.AbstractMessageProducingHandler;
 import org.springframework.integration.history.MessageHistoryConfigurer;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.integration.support.management.IntegrationManagement;
 import org.springframework.integration.support.management.IntegrationManagementConfigurer;
 import org.springframework.integration.support.management.LifecycleMessageHandlerMetrics;
 import org.springframework.integration.support.management.LifecycleMessageSourceManagement;
@@ -64,6 +65,7 @@ import org.springframework.integration.support.management.MappingMessageRouterMa
 import org.springframework.integration.support.management.MessageChannelMetrics;
 import org.springframework.integration.support.management.MessageHandlerMetrics;
 import org.springframework.integration.support.management.MessageSourceMetrics;
+import org.springframework.integration.support.management.Percentiles;
 import org.springframework.integration.support.management.PollableChannelManagement;
 import org.springframework.integration.support.management.RouterMetrics;
 import org.springframework.integration.support.management.Statistics;
@@ -285,6 +287,15 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 							IntegrationContextUtils.INTEGRATION_MESSAGE_HISTORY_CONFIGURER_BEAN_NAME);
 				}
 			}
+			if (this.applicationContext
+					.containsBean(IntegrationContextUtils.INTEGRATION_HEADER_CHANNEL_REGISTRY_BEAN_NAME)) {
+				Object headerChannelRegistry = this.applicationContext
+						.getBean(IntegrationContextUtils.INTEGRATION_HEADER_CHANNEL_REGISTRY_BEAN_NAME);
+				if (headerChannelRegistry instanceof IntegrationManagement) {
+					registerBeanInstance(headerChannelRegistry,
+							IntegrationContextUtils.INTEGRATION_HEADER_CHANNEL_REGISTRY_BEAN_NAME);
+				}
+			}
 			if (!this.applicationContext.containsBean(IntegrationManagementConfigurer.MANAGEMENT_CONFIGURER_NAME)) {
 				IntegrationManagementConfigurer config = new IntegrationManagementConfigurer();
 				config.setDefaultCountsEnabled(true);
@@ -578,6 +589,24 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 		return null;
 	}
 
+	@ManagedOperation
+	public Percentiles getHandlerDurationPercentiles(String name) {
+		if (this.handlersByName.containsKey(name)) {
+			return this.handlersByName.get(name).getDurationPercentiles();
+		}
+		logger.debug("No handler found for (" + name + ")");
+		return null;
+	}
+
+	@ManagedOperation
+	public Percentiles getHandlerDurationIntervalPercentiles(String name) {
+		if (this.handlersByName.containsKey(name)) {
+			return this.handlersByName.get(name).getDurationIntervalPercentiles();
+		}
+		logger.debug("No handler found for (" + name + ")");
+		return null;
+	}
+
 	public MessageSourceMetrics getSourceMetrics(String name) {
 		if (this.sourcesByName.containsKey(name)) {
 			return this.sourcesByName.get(name);
@@ -661,6 +690,24 @@ public class IntegrationMBeanExporter extends MBeanExporter implements Applicati
 		return null;
 	}
 
+	@ManagedOperation
+	public Percentiles getChannelSendDurationPercentiles(String name) {
+		if (this.channelsByName.containsKey(name)) {
+			return this.channelsByName.get(name).getSendDurationPercentiles();
+		}
+		logger.debug("No channel found for (" + name + ")");
+		return null;
+	}
+
+	@ManagedOperation
+	public Percentiles getChannelSendDurationIntervalPercentiles(String name) {
+		if (this.channelsByName.containsKey(name)) {
+			return this.channelsByName.get(name).getSendDurationIntervalPercentiles();
+		}
+		logger.debug("No channel found for (" + name + ")");
+		return null;
+	}
+
 	private void registerChannels() {
 		for (MessageChannelMetrics monitor : this.channels) {
 			String name = ((NamedComponent) monitor).getComponentName();
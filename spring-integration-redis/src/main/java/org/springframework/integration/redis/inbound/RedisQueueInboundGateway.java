@@ -29,6 +29,7 @@ import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.gateway.MessagingGatewaySupport;
 import org.springframework.integration.redis.event.RedisExceptionEvent;
 import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
@@ -144,6 +145,9 @@ public class RedisQueueInboundGateway extends MessagingGatewaySupport implements
 		if (!this.extractPayload) {
 			Assert.notNull(this.serializer, "'serializer' has to be provided where 'extractPayload == false'.");
 		}
+		if (this.taskExecutor == null && getBeanFactory() != null) {
+			this.taskExecutor = IntegrationContextUtils.getVirtualThreadTaskExecutor(getBeanFactory());
+		}
 		if (this.taskExecutor == null) {
 			String beanName = this.getComponentName();
 			this.taskExecutor = new SimpleAsyncTaskExecutor((beanName == null ? "" : beanName + "-")
@@ -29,6 +29,7 @@ import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.integration.context.IntegrationContextUtils;
 import org.springframework.integration.endpoint.MessageProducerSupport;
 import org.springframework.integration.redis.event.RedisExceptionEvent;
 import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
@@ -165,6 +166,9 @@ public class RedisQueueMessageDrivenEndpoint extends MessageProducerSupport impl
 		if (this.expectMessage) {
 			Assert.notNull(this.serializer, "'serializer' has to be provided where 'expectMessage == true'.");
 		}
+		if (this.taskExecutor == null && getBeanFactory() != null) {
+			this.taskExecutor = IntegrationContextUtils.getVirtualThreadTaskExecutor(getBeanFactory());
+		}
 		if (this.taskExecutor == null) {
 			String beanName = this.getComponentName();
 			this.taskExecutor = new SimpleAsyncTaskExecutor((beanName == null ? "" : beanName + "-")